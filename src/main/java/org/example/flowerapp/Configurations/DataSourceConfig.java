@@ -0,0 +1,107 @@
+package org.example.flowerapp.Configurations;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.boot.jdbc.autoconfigure.DataSourceProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+
+/**
+ * Connection pools, one per workload, all reporting hikaricp.* metrics tagged with their pool name:
+ * <ul>
+ *   <li>api: request traffic, configured under spring.datasource.hikari.*</li>
+ *   <li>jobs: scheduled jobs (see {@link JobWorkload}), same database, tuned under
+ *       jobs.datasource.hikari.*; off with jobs.datasource.enabled=false</li>
+ *   <li>replica: optional read replica for read-only work from either of the above, enabled by
+ *       replica.datasource.url</li>
+ * </ul>
+ * The application-wide DataSource picks among them per connection.
+ */
+@Configuration
+public class DataSourceConfig {
+
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource apiDataSource(DataSourceProperties properties) {
+        HikariDataSource api = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        api.setPoolName("api");
+        return api;
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "jobs.datasource.enabled", havingValue = "true", matchIfMissing = true)
+    @ConfigurationProperties("jobs.datasource.hikari")
+    public HikariDataSource jobsDataSource(DataSourceProperties properties) {
+        HikariDataSource jobs = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        jobs.setPoolName("jobs");
+        return jobs;
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "replica.datasource.url")
+    @ConfigurationProperties("replica.datasource.hikari")
+    public HikariDataSource replicaDataSource(
+            @Value("${replica.datasource.url}") String url,
+            @Value("${replica.datasource.username:${spring.datasource.username:}}") String username,
+            @Value("${replica.datasource.password:${spring.datasource.password:}}") String password) {
+        HikariDataSource replica = DataSourceBuilder.create()
+                .type(HikariDataSource.class)
+                .url(url)
+                .username(username)
+                .password(password)
+                .build();
+        replica.setPoolName("replica");
+        replica.setReadOnly(true);
+        return replica;
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "replica.datasource.url")
+    public ReplicaHealth replicaHealth(
+            @Qualifier("replicaDataSource") DataSource replicaDataSource,
+            @Value("${replica.lag-query:}") String lagQuery,
+            @Value("${replica.max-lag-seconds:10}") double maxLagSeconds) {
+        return new ReplicaHealth(replicaDataSource,
+                lagQuery.isBlank() ? ReplicaHealth.POSTGRES_LAG_QUERY : lagQuery, maxLagSeconds);
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(@Qualifier("apiDataSource") DataSource apiDataSource,
+                                 @Qualifier("jobsDataSource") ObjectProvider<DataSource> jobsDataSource,
+                                 @Qualifier("replicaDataSource") ObjectProvider<DataSource> replicaDataSource,
+                                 ObjectProvider<ReplicaHealth> replicaHealth) {
+        return route(apiDataSource, jobsDataSource.getIfAvailable(), replicaDataSource.getIfAvailable(),
+                replicaHealth.getIfAvailable());
+    }
+
+    /**
+     * Picks the workload's pool first, then lets each pool hand read-only work to the replica,
+     * so jobs' read-only scans are served from it as well as API reads.
+     */
+    static DataSource route(DataSource apiDataSource, DataSource jobsDataSource,
+                            DataSource replicaDataSource, ReplicaHealth replicaHealth) {
+        DataSource api = apiDataSource;
+        DataSource jobs = jobsDataSource;
+        if (replicaDataSource != null) {
+            api = new ReplicaRoutingDataSource(apiDataSource, replicaDataSource, replicaHealth);
+            if (jobs != null) {
+                jobs = new ReplicaRoutingDataSource(jobsDataSource, replicaDataSource, replicaHealth);
+            }
+        }
+
+        DataSource routed = jobs != null ? new WorkloadRoutingDataSource(api, jobs) : api;
+
+        // Routing is decided when the first statement runs, once transaction attributes are known
+        return routed == apiDataSource ? apiDataSource : new LazyConnectionDataSourceProxy(routed);
+    }
+}
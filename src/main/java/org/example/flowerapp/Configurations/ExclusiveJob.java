@@ -0,0 +1,21 @@
+package org.example.flowerapp.Configurations;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks a {@code @Scheduled} method that must run on one node of the cluster at a time.
+ * While jobs.lock.enabled is set each run first takes the job's lease from {@link JobLocks};
+ * nodes that find it held skip the run.
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface ExclusiveJob {
+
+    /** Name of the lease, shared by every node running this job. */
+    String value();
+}
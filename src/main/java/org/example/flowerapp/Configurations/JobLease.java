@@ -0,0 +1,97 @@
+package org.example.flowerapp.Configurations;
+
+import org.example.flowerapp.Exceptions.DatabaseOperationExceptions.JobLockLostException;
+import org.example.flowerapp.Repository.JobLockRepository;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.ScheduledFuture;
+
+/**
+ * This node's hold on a cluster-wide job, handed out by {@link JobLocks} for one run.
+ * The fencing token grows with every takeover, so a stale holder is caught by
+ * {@link #ensureHeld()} instead of overwriting the work of the node that replaced it.
+ */
+public final class JobLease {
+
+    private final String jobName;
+    private final long fencingToken;
+    private final LocalDateTime previousRunAt;
+    private final long acquiredNanos;
+    private final JobLockRepository jobLockRepository;
+
+    private volatile boolean lost;
+    private ScheduledFuture<?> heartbeat;
+
+    JobLease(String jobName, JobLockRepository.Grant grant, JobLockRepository jobLockRepository) {
+        this.jobName = jobName;
+        this.fencingToken = grant.fencingToken();
+        this.previousRunAt = grant.previousRunAt();
+        this.acquiredNanos = System.nanoTime();
+        this.jobLockRepository = jobLockRepository;
+    }
+
+    public String getJobName() {
+        return jobName;
+    }
+
+    public long getFencingToken() {
+        return fencingToken;
+    }
+
+    /** When the job last started on any node, or null if this is its first run. */
+    public LocalDateTime getPreviousRunAt() {
+        return previousRunAt;
+    }
+
+    public boolean isLost() {
+        return lost;
+    }
+
+    /**
+     * Call inside the transaction that is about to write: it fails once the lease is gone and
+     * otherwise keeps it from being taken over until that transaction ends. Later calls in the
+     * same transaction are free, as the lease cannot change hands while it runs.
+     */
+    public void ensureHeld() {
+        if (lost) {
+            throw new JobLockLostException(jobName, fencingToken);
+        }
+        boolean inTransaction = TransactionSynchronizationManager.isSynchronizationActive();
+        if (inTransaction && TransactionSynchronizationManager.hasResource(this)) {
+            return;
+        }
+        if (!jobLockRepository.isHeld(jobName, fencingToken)) {
+            lost = true;
+            throw new JobLockLostException(jobName, fencingToken);
+        }
+        if (inTransaction) {
+            TransactionSynchronizationManager.bindResource(this, Boolean.TRUE);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(JobLease.this);
+                }
+            });
+        }
+    }
+
+    void markLost() {
+        lost = true;
+    }
+
+    long acquiredNanos() {
+        return acquiredNanos;
+    }
+
+    void heartbeat(ScheduledFuture<?> heartbeat) {
+        this.heartbeat = heartbeat;
+    }
+
+    void stopHeartbeat() {
+        if (heartbeat != null) {
+            heartbeat.cancel(false);
+        }
+    }
+}
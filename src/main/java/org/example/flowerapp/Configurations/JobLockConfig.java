@@ -0,0 +1,61 @@
+package org.example.flowerapp.Configurations;
+
+import org.aopalliance.intercept.MethodInterceptor;
+import org.springframework.aop.Advisor;
+import org.springframework.aop.support.AopUtils;
+import org.springframework.aop.support.DefaultPointcutAdvisor;
+import org.springframework.aop.support.annotation.AnnotationMatchingPointcut;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Role;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+
+import java.lang.reflect.Method;
+import java.util.Optional;
+import java.util.function.Supplier;
+
+/**
+ * Wraps every {@link ExclusiveJob} method in its {@link JobLocks} lease. The advisor runs
+ * outside the transaction advisor, so a transactional job commits before its lease is given
+ * back and never holds a connection while it waits on the lock table.
+ */
+@Configuration
+public class JobLockConfig {
+
+    @Bean
+    @Role(BeanDefinition.ROLE_INFRASTRUCTURE)
+    public static Advisor exclusiveJobAdvisor(ObjectProvider<JobLocks> jobLocks) {
+        DefaultPointcutAdvisor advisor = new DefaultPointcutAdvisor(
+                AnnotationMatchingPointcut.forMethodAnnotation(ExclusiveJob.class),
+                exclusiveJobInterceptor(jobLocks::getObject));
+        advisor.setOrder(Ordered.HIGHEST_PRECEDENCE);
+        return advisor;
+    }
+
+    static MethodInterceptor exclusiveJobInterceptor(Supplier<JobLocks> jobLocks) {
+        return invocation -> {
+            JobLocks locks = jobLocks.get();
+            Method method = invocation.getThis() != null
+                    ? AopUtils.getMostSpecificMethod(invocation.getMethod(), invocation.getThis().getClass())
+                    : invocation.getMethod();
+            ExclusiveJob job = AnnotatedElementUtils.findMergedAnnotation(method, ExclusiveJob.class);
+            if (!locks.isEnabled() || job == null) {
+                return invocation.proceed();
+            }
+
+            Optional<JobLease> lease = locks.tryAcquire(job.value());
+            if (lease.isEmpty()) {
+                // Scheduled methods return nothing; another node is running this one
+                return null;
+            }
+            try {
+                return invocation.proceed();
+            } finally {
+                locks.release(lease.get());
+            }
+        };
+    }
+}
@@ -0,0 +1,167 @@
+package org.example.flowerapp.Configurations;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.example.flowerapp.Repository.JobLockRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.CannotAcquireLockException;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.time.Duration;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Leases for the {@link ExclusiveJob} methods, kept in the job_lock table so that with several
+ * instances behind the load balancer each job run happens on one of them. A lease runs for
+ * jobs.lock.lease-ms and is renewed every third of that while the job runs; a node that dies
+ * mid-run lets it expire and the next firing anywhere takes it over with a higher fencing token.
+ * Released leases stay taken until jobs.lock.min-hold-ms after they started so that nodes whose
+ * clocks fire the same cron a few seconds late find it still held.
+ *
+ * <p>jobs.lock.held{job} is 1 on the node running the job, jobs.lock.held.duration{job} times
+ * each hold and jobs.lock.skipped{job} counts firings that found another node running it.
+ */
+@Component
+@Slf4j
+public class JobLocks {
+
+    private static final ThreadLocal<JobLease> CURRENT = new ThreadLocal<>();
+
+    private final JobLockRepository jobLockRepository;
+    private final TransactionTemplate lockTransaction;
+    private final MeterRegistry meterRegistry;
+    private final String owner;
+    private final Map<String, AtomicInteger> held = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService heartbeats =
+            Executors.newSingleThreadScheduledExecutor(daemonThreads());
+
+    @Value("${jobs.lock.enabled:false}")
+    private boolean enabled;
+
+    @Value("${jobs.lock.lease-ms:300000}")
+    private long leaseMillis;
+
+    @Value("${jobs.lock.min-hold-ms:60000}")
+    private long minHoldMillis;
+
+    public JobLocks(JobLockRepository jobLockRepository,
+                    PlatformTransactionManager transactionManager,
+                    MeterRegistry meterRegistry) {
+        this.jobLockRepository = jobLockRepository;
+        // Lease changes commit on their own, whatever transaction the job is in
+        this.lockTransaction = new TransactionTemplate(transactionManager);
+        this.lockTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.meterRegistry = meterRegistry;
+        this.owner = hostName() + ":" + ProcessHandle.current().pid();
+    }
+
+    /** The lease of the job running on this thread, if it runs under one. */
+    public static Optional<JobLease> current() {
+        return Optional.ofNullable(CURRENT.get());
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /** This instance's name in the lock and work queue tables: host and process id. */
+    public String getOwner() {
+        return owner;
+    }
+
+    /**
+     * Takes the job's lease for this thread, or returns empty when another node holds it.
+     * Every lease taken must be given back with {@link #release}.
+     */
+    public Optional<JobLease> tryAcquire(String jobName) {
+        Optional<JobLockRepository.Grant> grant = lockTransaction.execute(status ->
+                jobLockRepository.tryAcquire(jobName, owner, Duration.ofMillis(leaseMillis)));
+        if (grant == null || grant.isEmpty()) {
+            meterRegistry.counter("jobs.lock.skipped", "job", jobName).increment();
+            log.debug("Skipping job {}: another node holds its lock", jobName);
+            return Optional.empty();
+        }
+
+        JobLease lease = new JobLease(jobName, grant.get(), jobLockRepository);
+        long renewEvery = Math.max(1, leaseMillis / 3);
+        lease.heartbeat(heartbeats.scheduleAtFixedRate(
+                JobWorkload.wrap(() -> renew(lease)), renewEvery, renewEvery, TimeUnit.MILLISECONDS));
+        CURRENT.set(lease);
+        heldGauge(jobName).set(1);
+        log.debug("Job {} locked by {} with token {}", jobName, owner, lease.getFencingToken());
+        return Optional.of(lease);
+    }
+
+    public void release(JobLease lease) {
+        lease.stopHeartbeat();
+        CURRENT.remove();
+        heldGauge(lease.getJobName()).set(0);
+        meterRegistry.timer("jobs.lock.held.duration", "job", lease.getJobName())
+                .record(Duration.ofNanos(System.nanoTime() - lease.acquiredNanos()));
+        try {
+            lockTransaction.executeWithoutResult(status -> jobLockRepository.release(
+                    lease.getJobName(), owner, lease.getFencingToken(), Duration.ofMillis(minHoldMillis)));
+        } catch (Exception e) {
+            // The lease simply runs out
+            log.warn("Failed to release lock for job {}: {}", lease.getJobName(), e.getMessage());
+        }
+    }
+
+    private void renew(JobLease lease) {
+        try {
+            Boolean extended = lockTransaction.execute(status -> jobLockRepository.extend(
+                    lease.getJobName(), owner, lease.getFencingToken(), Duration.ofMillis(leaseMillis)));
+            if (!Boolean.TRUE.equals(extended)) {
+                lease.markLost();
+                lease.stopHeartbeat();
+                log.error("Lock for job {} (token {}) was taken over while the job was running",
+                        lease.getJobName(), lease.getFencingToken());
+            }
+        } catch (CannotAcquireLockException e) {
+            // The job's write transaction holds the row (JobLease.ensureHeld), so the lease
+            // cannot be taken over before it ends; renewed on a later beat
+            log.debug("Lock for job {} is held by its write transaction", lease.getJobName());
+        } catch (Exception e) {
+            // Tried again on the next beat; ensureHeld() checks the table itself
+            log.warn("Failed to renew lock for job {}: {}", lease.getJobName(), e.getMessage());
+        }
+    }
+
+    private AtomicInteger heldGauge(String jobName) {
+        return held.computeIfAbsent(jobName, name ->
+                meterRegistry.gauge("jobs.lock.held", Tags.of("job", name), new AtomicInteger()));
+    }
+
+    @PreDestroy
+    void shutdown() {
+        heartbeats.shutdownNow();
+    }
+
+    private static CustomizableThreadFactory daemonThreads() {
+        CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("job-lock-");
+        threadFactory.setDaemon(true);
+        return threadFactory;
+    }
+
+    private static String hostName() {
+        try {
+            return InetAddress.getLocalHost().getHostName();
+        } catch (UnknownHostException e) {
+            return "unknown";
+        }
+    }
+}
@@ -0,0 +1,34 @@
+package org.example.flowerapp.Configurations;
+
+/**
+ * Marks the current thread as running a background job, so that its database work is
+ * served by the jobs connection pool instead of competing with API requests.
+ * {@link SchedulingConfig} applies it to every {@code @Scheduled} method.
+ */
+public final class JobWorkload {
+
+    private static final ThreadLocal<Boolean> ACTIVE = new ThreadLocal<>();
+
+    private JobWorkload() {
+    }
+
+    public static boolean isActive() {
+        return Boolean.TRUE.equals(ACTIVE.get());
+    }
+
+    public static Runnable wrap(Runnable task) {
+        return () -> {
+            Boolean previous = ACTIVE.get();
+            ACTIVE.set(Boolean.TRUE);
+            try {
+                task.run();
+            } finally {
+                if (previous == null) {
+                    ACTIVE.remove();
+                } else {
+                    ACTIVE.set(previous);
+                }
+            }
+        };
+    }
+}
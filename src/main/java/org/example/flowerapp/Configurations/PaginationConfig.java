@@ -0,0 +1,36 @@
+package org.example.flowerapp.Configurations;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+@Component
+public class PaginationConfig {
+
+    @Value("${pagination.default-page-size:50}")
+    private int defaultPageSize;
+
+    @Value("${pagination.max-page-size:200}")
+    private int maxPageSize;
+
+    /**
+     * Page size for a listing requested with neither cursor nor limit: the whole listing in one
+     * response, as before the list endpoints were paginated, so clients that never read
+     * X-Next-Cursor do not lose rows. Leaves room for the extra row asked for by the services.
+     */
+    public static final int UNPAGED = Integer.MAX_VALUE - 1;
+
+    /**
+     * Resolves the page size requested by a client. A client that sends a cursor or a limit
+     * pages: a missing or non-positive limit falls back to the default, and the size never
+     * exceeds the configured cap. A client that sends neither gets {@link #UNPAGED}.
+     */
+    public int resolveLimit(String cursor, Integer requested) {
+        if (requested == null && (cursor == null || cursor.isBlank())) {
+            return UNPAGED;
+        }
+        if (requested == null || requested <= 0) {
+            return Math.min(defaultPageSize, maxPageSize);
+        }
+        return Math.min(requested, maxPageSize);
+    }
+}
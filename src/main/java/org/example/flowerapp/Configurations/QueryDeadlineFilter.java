@@ -0,0 +1,97 @@
+package org.example.flowerapp.Configurations;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.example.flowerapp.Repository.QueryBudget;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Gives every request a database time budget: the caller's own X-Request-Deadline-Ms
+ * (milliseconds it is still willing to wait) or query.request-deadline-ms, capped at
+ * query.max-request-deadline-ms. Statements are timed out against it by GovernedJdbcTemplate.
+ * A watchdog cancels the in-flight statements of requests whose deadline has passed. This stops
+ * rows still being fetched through a cursor after the query itself returned, which the JDBC
+ * statement timeout does not cover, and trims the timeout's rounding up to whole seconds.
+ * <p>
+ * Client disconnects are not detected: a request thread blocked in a statement gets no signal
+ * from Tomcat that the socket closed, and responses are only written once the request's queries
+ * have finished, so a failed write comes too late to cancel anything. A caller that gives up
+ * early should send a shorter X-Request-Deadline-Ms instead.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 10)
+@Slf4j
+public class QueryDeadlineFilter extends OncePerRequestFilter {
+
+    public static final String DEADLINE_HEADER = "X-Request-Deadline-Ms";
+
+    private final Set<QueryBudget> inFlight = ConcurrentHashMap.newKeySet();
+    private final MeterRegistry meterRegistry;
+
+    @Value("${query.request-deadline-ms:10000}")
+    private long defaultDeadlineMs;
+
+    @Value("${query.max-request-deadline-ms:30000}")
+    private long maxDeadlineMs;
+
+    public QueryDeadlineFilter(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request,
+                                    HttpServletResponse response,
+                                    FilterChain filterChain)
+            throws ServletException, IOException {
+
+        QueryBudget budget = QueryBudget.open(resolveDeadline(request.getHeader(DEADLINE_HEADER)));
+        inFlight.add(budget);
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            inFlight.remove(budget);
+            budget.close();
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${query.watchdog-interval-ms:500}")
+    public void cancelExpired() {
+        for (QueryBudget budget : inFlight) {
+            if (budget.remainingMillis() < 0 && !budget.isCancelled()) {
+                cancel(budget, "deadline passed");
+            }
+        }
+    }
+
+    private long resolveDeadline(String header) {
+        if (header != null) {
+            try {
+                return Math.min(Math.max(1, Long.parseLong(header.trim())), maxDeadlineMs);
+            } catch (NumberFormatException e) {
+                log.debug("Ignoring malformed {} header: {}", DEADLINE_HEADER, header);
+            }
+        }
+        return defaultDeadlineMs;
+    }
+
+    private void cancel(QueryBudget budget, String reason) {
+        int cancelled = budget.cancel();
+        if (cancelled > 0) {
+            meterRegistry.counter("db.query.cancellations", "reason", reason.replace(' ', '_')).increment(cancelled);
+            log.warn("Cancelled {} in-flight statement(s): {}", cancelled, reason);
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package org.example.flowerapp.Configurations;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import javax.sql.DataSource;
+
+/**
+ * Tracks whether the read replica may serve reads: it must answer the lag query and be
+ * no more than max-lag-seconds behind the primary. Checked on a fixed delay; a failed
+ * connection attempt from {@link ReplicaRoutingDataSource} also takes it out until the
+ * next successful check.
+ */
+@Slf4j
+public class ReplicaHealth {
+
+    // Zero when the replica has replayed everything it received, so an idle primary does not look like lag
+    public static final String POSTGRES_LAG_QUERY = """
+            SELECT CASE
+                WHEN NOT pg_is_in_recovery() OR pg_last_wal_receive_lsn() = pg_last_wal_replay_lsn() THEN 0
+                ELSE COALESCE(EXTRACT(EPOCH FROM now() - pg_last_xact_replay_timestamp()), 0)
+            END
+            """;
+
+    private final JdbcTemplate replica;
+    private final String lagQuery;
+    private final double maxLagSeconds;
+
+    private volatile boolean usable;
+
+    public ReplicaHealth(DataSource replica, String lagQuery, double maxLagSeconds) {
+        this.replica = new JdbcTemplate(replica);
+        this.lagQuery = lagQuery;
+        this.maxLagSeconds = maxLagSeconds;
+    }
+
+    public boolean isUsable() {
+        return usable;
+    }
+
+    @Scheduled(initialDelay = 0, fixedDelayString = "${replica.health-check-interval-ms:5000}")
+    public void refresh() {
+        try {
+            Double lag = replica.queryForObject(lagQuery, Double.class);
+            if (lag != null && lag <= maxLagSeconds) {
+                update(true, "lag " + lag + "s");
+            } else {
+                update(false, "lag " + lag + "s exceeds " + maxLagSeconds + "s");
+            }
+        } catch (Exception e) {
+            update(false, e.getMessage());
+        }
+    }
+
+    public void markUnavailable(Exception cause) {
+        update(false, cause.getMessage());
+    }
+
+    private void update(boolean nowUsable, String reason) {
+        if (usable != nowUsable) {
+            if (nowUsable) {
+                log.info("Read replica available ({}), routing read-only work to it", reason);
+            } else {
+                log.warn("Read replica unavailable ({}), routing reads to the primary", reason);
+            }
+        }
+        usable = nowUsable;
+    }
+}
@@ -0,0 +1,45 @@
+package org.example.flowerapp.Configurations;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnThreading;
+import org.springframework.boot.thread.Threading;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.SimpleAsyncTaskScheduler;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
+
+/**
+ * Runs the @Scheduled jobs on their own threads and marks every run with
+ * {@link JobWorkload}, which pins the job's database work to the jobs connection pool.
+ *
+ * <p>With spring.threads.virtual.enabled=true on Java 21+ every job run gets a fresh virtual
+ * thread instead of waiting for one of jobs.scheduler.pool-size platform threads; Spring Boot
+ * switches Tomcat's request executor to virtual threads under the same property. The jobs
+ * connection pool still bounds how much database work the jobs do at once.
+ */
+@Configuration
+public class SchedulingConfig {
+
+    @Bean
+    @ConditionalOnThreading(Threading.PLATFORM)
+    public ThreadPoolTaskScheduler taskScheduler(@Value("${jobs.scheduler.pool-size:4}") int poolSize) {
+        ThreadPoolTaskScheduler scheduler = new ThreadPoolTaskScheduler();
+        scheduler.setPoolSize(poolSize);
+        scheduler.setThreadNamePrefix("job-");
+        scheduler.setTaskDecorator(JobWorkload::wrap);
+        return scheduler;
+    }
+
+    // Fixed-delay tasks (replica health, query watchdog) stay on the scheduler thread; they are short
+    @Bean(name = "taskScheduler")
+    @ConditionalOnThreading(Threading.VIRTUAL)
+    public SimpleAsyncTaskScheduler virtualTaskScheduler(
+            @Value("${jobs.scheduler.termination-timeout-ms:30000}") long terminationTimeoutMs) {
+        SimpleAsyncTaskScheduler scheduler = new SimpleAsyncTaskScheduler();
+        scheduler.setVirtualThreads(true);
+        scheduler.setThreadNamePrefix("job-");
+        scheduler.setTaskDecorator(JobWorkload::wrap);
+        scheduler.setTaskTerminationTimeout(terminationTimeoutMs);
+        return scheduler;
+    }
+}
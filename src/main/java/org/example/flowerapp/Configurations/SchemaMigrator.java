@@ -0,0 +1,147 @@
+package org.example.flowerapp.Configurations;
+
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.support.PathMatchingResourcePatternResolver;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Applies the versioned scripts under db/migration on startup. Each script runs in its own
+ * transaction together with its schema_migrations row, under a Postgres advisory lock so
+ * that several instances starting at once apply it exactly once.
+ */
+@Component
+@Slf4j
+public class SchemaMigrator {
+
+    private static final String LOCATION = "classpath:db/migration/V*__*.sql";
+    private static final Pattern FILE_NAME = Pattern.compile("V(\\d+)__(.+)\\.sql");
+    private static final long ADVISORY_LOCK_KEY = 0x466c6f776572L; // "Flower"
+
+    private final JdbcTemplate jdbc;
+
+    @Value("${schema.migrations.enabled:true}")
+    private boolean enabled;
+
+    public SchemaMigrator(JdbcTemplate jdbc) {
+        this.jdbc = jdbc;
+    }
+
+    @PostConstruct
+    public void migrate() {
+        if (!enabled) {
+            log.info("Schema migrations disabled");
+            return;
+        }
+
+        jdbc.execute("""
+                CREATE TABLE IF NOT EXISTS schema_migrations (
+                    version      INTEGER PRIMARY KEY,
+                    description  VARCHAR(255) NOT NULL,
+                    installed_at TIMESTAMP NOT NULL DEFAULT now()
+                )
+                """);
+
+        int applied = 0;
+        for (Migration migration : findMigrations()) {
+            if (apply(migration)) {
+                applied++;
+            }
+        }
+        log.info("Schema is up to date ({} migration(s) applied)", applied);
+    }
+
+    private boolean apply(Migration migration) {
+        return jdbc.execute((ConnectionCallback<Boolean>) connection -> {
+            boolean autoCommit = connection.getAutoCommit();
+            connection.setAutoCommit(false);
+            try {
+                try (PreparedStatement lock = connection.prepareStatement("SELECT pg_advisory_xact_lock(?)")) {
+                    lock.setLong(1, ADVISORY_LOCK_KEY);
+                    lock.execute();
+                }
+
+                if (isApplied(connection, migration.version())) {
+                    connection.rollback();
+                    return false;
+                }
+
+                log.info("Applying schema migration V{} ({})", migration.version(), migration.description());
+                try (Statement statement = connection.createStatement()) {
+                    statement.execute(migration.script());
+                }
+                try (PreparedStatement record = connection.prepareStatement(
+                        "INSERT INTO schema_migrations (version, description) VALUES (?, ?)")) {
+                    record.setInt(1, migration.version());
+                    record.setString(2, migration.description());
+                    record.executeUpdate();
+                }
+
+                connection.commit();
+                return true;
+            } catch (SQLException | RuntimeException e) {
+                connection.rollback();
+                throw e;
+            } finally {
+                connection.setAutoCommit(autoCommit);
+            }
+        });
+    }
+
+    private boolean isApplied(Connection connection, int version) throws SQLException {
+        try (PreparedStatement ps = connection.prepareStatement(
+                "SELECT 1 FROM schema_migrations WHERE version = ?")) {
+            ps.setInt(1, version);
+            try (ResultSet rs = ps.executeQuery()) {
+                return rs.next();
+            }
+        }
+    }
+
+    private List<Migration> findMigrations() {
+        try {
+            Resource[] resources = new PathMatchingResourcePatternResolver().getResources(LOCATION);
+            return Arrays.stream(resources)
+                    .map(SchemaMigrator::toMigration)
+                    .sorted(Comparator.comparingInt(Migration::version))
+                    .toList();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not read schema migrations", e);
+        }
+    }
+
+    private static Migration toMigration(Resource resource) {
+        Matcher matcher = FILE_NAME.matcher(resource.getFilename() != null ? resource.getFilename() : "");
+        if (!matcher.matches()) {
+            throw new IllegalStateException("Unexpected migration file name: " + resource.getFilename());
+        }
+
+        try {
+            String script = resource.getContentAsString(StandardCharsets.UTF_8);
+            return new Migration(Integer.parseInt(matcher.group(1)), matcher.group(2).replace('_', ' '), script);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not read " + resource.getFilename(), e);
+        }
+    }
+
+    private record Migration(int version, String description, String script) {
+    }
+}
@@ -0,0 +1,36 @@
+package org.example.flowerapp.Configurations;
+
+import org.springframework.jdbc.datasource.AbstractDataSource;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+
+/**
+ * Serves connections from the jobs pool on threads marked by {@link JobWorkload} and from
+ * the API datasource everywhere else.
+ */
+public class WorkloadRoutingDataSource extends AbstractDataSource {
+
+    private final DataSource api;
+    private final DataSource jobs;
+
+    public WorkloadRoutingDataSource(DataSource api, DataSource jobs) {
+        this.api = api;
+        this.jobs = jobs;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return target().getConnection();
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return target().getConnection(username, password);
+    }
+
+    private DataSource target() {
+        return JobWorkload.isActive() ? jobs : api;
+    }
+}
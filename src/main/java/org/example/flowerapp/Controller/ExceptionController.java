@@ -2,14 +2,17 @@ package org.example.flowerapp.Controller;
 
 import org.example.flowerapp.Exceptions.BusinessLogicExceptions.DuplicateFlowerException;
 import org.example.flowerapp.Exceptions.BusinessLogicExceptions.FlowerHasDependenciesException;
+import org.example.flowerapp.Exceptions.BusinessLogicExceptions.VersionConflictException;
 import org.example.flowerapp.Exceptions.DatabaseOperationExceptions.DatabaseOperationException;
 import org.example.flowerapp.Exceptions.EntityNotFoundExceptions.FlowerNotFoundException;
 import org.example.flowerapp.Exceptions.EntityNotFoundExceptions.GrowthNotFoundException;
 import org.example.flowerapp.Exceptions.EntityNotFoundExceptions.MaintenanceNotFoundException;
+import org.example.flowerapp.Exceptions.ValidationExceptions.InvalidCursorException;
 import org.example.flowerapp.Exceptions.ValidationExceptions.InvalidFlowerDataException;
 import org.example.flowerapp.Exceptions.ValidationExceptions.InvalidGrowthDataException;
 import org.example.flowerapp.Exceptions.ValidationExceptions.InvalidMaintenanceDataException;
 import org.example.flowerapp.Models.ErrorResponse;
+import org.springframework.dao.QueryTimeoutException;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.ExceptionHandler;
@@ -32,7 +35,8 @@ public class ExceptionController {
     @ExceptionHandler({
             InvalidFlowerDataException.class,
             InvalidMaintenanceDataException.class,
-            InvalidGrowthDataException.class
+            InvalidGrowthDataException.class,
+            InvalidCursorException.class
     })
     public ResponseEntity<ErrorResponse> handleValidationException(RuntimeException e) {
         return buildErrorResponse(e.getMessage(), HttpStatus.BAD_REQUEST);
@@ -40,12 +44,20 @@ public class ExceptionController {
 
     @ExceptionHandler({
             DuplicateFlowerException.class,
-            FlowerHasDependenciesException.class
+            FlowerHasDependenciesException.class,
+            VersionConflictException.class
     })
     public ResponseEntity<ErrorResponse> handleConflictException(RuntimeException e) {
         return buildErrorResponse(e.getMessage(), HttpStatus.CONFLICT);
     }
 
+    // A statement ran out of its time budget; the caller may retry once the database is less busy
+    @ExceptionHandler(QueryTimeoutException.class)
+    public ResponseEntity<ErrorResponse> handleQueryTimeoutException(QueryTimeoutException e) {
+        return buildErrorResponse("The request took too long to complete, please try again",
+                HttpStatus.SERVICE_UNAVAILABLE);
+    }
+
     @ExceptionHandler(DatabaseOperationException.class)
     public ResponseEntity<ErrorResponse> handleDatabaseException(DatabaseOperationException e) {
         return buildErrorResponse(e.getMessage(), HttpStatus.INTERNAL_SERVER_ERROR);
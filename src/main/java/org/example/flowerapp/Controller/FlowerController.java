@@ -2,8 +2,11 @@ package org.example.flowerapp.Controller;
 
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.example.flowerapp.DTO.FlowerPatchDTO;
 import org.example.flowerapp.DTO.FlowerRequestDTO;
 import org.example.flowerapp.DTO.FlowerResponseDTO;
+import org.example.flowerapp.Configurations.PaginationConfig;
+import org.example.flowerapp.Models.PageCursor;
 import org.example.flowerapp.Services.FlowerService;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
@@ -18,6 +21,7 @@ import java.util.List;
 public class FlowerController {
 
     private final FlowerService flowerService;
+    private final PaginationConfig paginationConfig;
 
     @PostMapping
     public ResponseEntity<FlowerResponseDTO> createFlower(
@@ -29,10 +33,13 @@ public class FlowerController {
     }
 
     @GetMapping
-    public ResponseEntity<List<FlowerResponseDTO>> getAllFlowers(Authentication authentication) {
+    public ResponseEntity<List<FlowerResponseDTO>> getAllFlowers(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit,
+            Authentication authentication) {
         String userId = (String) authentication.getPrincipal();
-        List<FlowerResponseDTO> flowers = flowerService.getAllFlowers(userId);
-        return ResponseEntity.ok(flowers);
+        return PageResponses.ok(flowerService.getAllFlowers(
+                userId, PageCursor.decode(cursor), paginationConfig.resolveLimit(cursor, limit)));
     }
 
     @GetMapping("/number_of_flowers")
@@ -53,19 +60,23 @@ public class FlowerController {
     @GetMapping("/species/{species}")
     public ResponseEntity<List<FlowerResponseDTO>> getFlowersBySpecies(
             @PathVariable String species,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit,
             Authentication authentication) {
         String userId = (String) authentication.getPrincipal();
-        List<FlowerResponseDTO> flowers = flowerService.getAllFlowersBySpecies(species, userId);
-        return ResponseEntity.ok(flowers);
+        return PageResponses.ok(flowerService.getAllFlowersBySpecies(
+                species, userId, PageCursor.decode(cursor), paginationConfig.resolveLimit(cursor, limit)));
     }
 
     @GetMapping("/color/{color}")
     public ResponseEntity<List<FlowerResponseDTO>> getFlowersByColor(
             @PathVariable String color,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit,
             Authentication authentication) {
         String userId = (String) authentication.getPrincipal();
-        List<FlowerResponseDTO> flowers = flowerService.getAllFlowerByColor(color, userId);
-        return ResponseEntity.ok(flowers);
+        return PageResponses.ok(flowerService.getAllFlowerByColor(
+                color, userId, PageCursor.decode(cursor), paginationConfig.resolveLimit(cursor, limit)));
     }
 
     @PutMapping("/{flower_id}")
@@ -78,6 +89,17 @@ public class FlowerController {
         return ResponseEntity.ok(updated);
     }
 
+    // Sparse update: only the non-null fields in the body are written
+    @PatchMapping("/{flower_id}")
+    public ResponseEntity<FlowerResponseDTO> patchFlower(
+            @Valid @RequestBody FlowerPatchDTO dto,
+            @PathVariable("flower_id") long flowerId,
+            Authentication authentication) {
+        String userId = (String) authentication.getPrincipal();
+        FlowerResponseDTO updated = flowerService.patchFlower(dto, flowerId, userId);
+        return ResponseEntity.ok(updated);
+    }
+
     @DeleteMapping("/{flower_id}")
     public ResponseEntity<Void> deleteFlower(
             @PathVariable("flower_id") long flowerId,
@@ -2,9 +2,15 @@ package org.example.flowerapp.Controller;
 
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.example.flowerapp.DTO.GrowthForecastDTO;
 import org.example.flowerapp.DTO.GrowthRequestDTO;
 import org.example.flowerapp.DTO.GrowthResponseDTO;
+import org.example.flowerapp.DTO.GrowthSeriesPointDTO;
+import org.example.flowerapp.Exceptions.ValidationExceptions.InvalidGrowthDataException;
 import org.example.flowerapp.Models.Enums.GrowthStage;
+import org.example.flowerapp.Configurations.PaginationConfig;
+import org.example.flowerapp.Models.PageCursor;
+import org.example.flowerapp.Services.GrowthForecastService;
 import org.example.flowerapp.Services.GrowthService;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
@@ -17,7 +23,12 @@ import java.util.List;
 @RequestMapping("/growth")
 @RequiredArgsConstructor
 public class GrowthController {
+    private static final String RAW = "raw";
+    private static final String WEEKLY = "weekly";
+
     private final GrowthService growthService;
+    private final GrowthForecastService growthForecastService;
+    private final PaginationConfig paginationConfig;
 
     @PostMapping
     public ResponseEntity<GrowthResponseDTO> createNewGrowthDetail(
@@ -28,12 +39,21 @@ public class GrowthController {
         return ResponseEntity.status(HttpStatus.CREATED).body(created);
     }
 
+    // resolution=weekly returns per-week rollups (GrowthRollupResponseDTO) instead of raw records
     @GetMapping
-    public ResponseEntity<List<GrowthResponseDTO>> getAllGrowthDetails(
+    public ResponseEntity<? extends List<?>> getAllGrowthDetails(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit,
+            @RequestParam(defaultValue = RAW) String resolution,
             Authentication authentication) {
         String userId = (String) authentication.getPrincipal();
-        List<GrowthResponseDTO> growthList = growthService.getAllGrowthDetails(userId);
-        return ResponseEntity.ok(growthList);
+        PageCursor after = PageCursor.decode(cursor);
+        int pageSize = paginationConfig.resolveLimit(cursor, limit);
+
+        if (isWeekly(resolution)) {
+            return PageResponses.ok(growthService.getAllWeeklyGrowth(userId, after, pageSize));
+        }
+        return PageResponses.ok(growthService.getAllGrowthDetails(userId, after, pageSize));
     }
 
     @GetMapping("/{growth_id}")
@@ -46,30 +66,68 @@ public class GrowthController {
     }
 
     @GetMapping("/flower/{flower_id}")
-    public ResponseEntity<List<GrowthResponseDTO>> getGrowthByFlowerId(
+    public ResponseEntity<? extends List<?>> getGrowthByFlowerId(
             @PathVariable("flower_id") long flowerId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit,
+            @RequestParam(defaultValue = RAW) String resolution,
             Authentication authentication) {
         String userId = (String) authentication.getPrincipal();
-        List<GrowthResponseDTO> growth = growthService.getGrowthByFlowerId(flowerId, userId);
-        return ResponseEntity.ok(growth);
+        PageCursor after = PageCursor.decode(cursor);
+        int pageSize = paginationConfig.resolveLimit(cursor, limit);
+
+        if (isWeekly(resolution)) {
+            return PageResponses.ok(growthService.getWeeklyGrowthByFlowerId(flowerId, userId, after, pageSize));
+        }
+        return PageResponses.ok(growthService.getGrowthByFlowerId(flowerId, userId, after, pageSize));
+    }
+
+    @GetMapping("/flower/{flower_id}/series")
+    public ResponseEntity<List<GrowthSeriesPointDTO>> getGrowthSeries(
+            @PathVariable("flower_id") long flowerId,
+            @RequestParam(defaultValue = "200") int points,
+            Authentication authentication) {
+        String userId = (String) authentication.getPrincipal();
+        return ResponseEntity.ok(growthService.getGrowthSeries(flowerId, userId, points));
+    }
+
+    @GetMapping("/flower/{flower_id}/forecast")
+    public ResponseEntity<GrowthForecastDTO> getGrowthForecast(
+            @PathVariable("flower_id") long flowerId,
+            @RequestParam(defaultValue = "12") int weeks,
+            Authentication authentication) {
+        String userId = (String) authentication.getPrincipal();
+        return ResponseEntity.ok(growthForecastService.getForecast(flowerId, userId, weeks));
+    }
+
+    @GetMapping("/forecast")
+    public ResponseEntity<List<GrowthForecastDTO>> getGardenGrowthForecast(
+            @RequestParam(defaultValue = "12") int weeks,
+            Authentication authentication) {
+        String userId = (String) authentication.getPrincipal();
+        return ResponseEntity.ok(growthForecastService.getGardenForecast(userId, weeks));
     }
 
     @GetMapping("/stage/{growth_stage}")
     public ResponseEntity<List<GrowthResponseDTO>> getGrowthByStage(
             @PathVariable("growth_stage") GrowthStage stage,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit,
             Authentication authentication) {
         String userId = (String) authentication.getPrincipal();
-        List<GrowthResponseDTO> growth = growthService.getGrowthByStage(stage, userId);
-        return ResponseEntity.ok(growth);
+        return PageResponses.ok(growthService.getGrowthByStage(
+                stage, userId, PageCursor.decode(cursor), paginationConfig.resolveLimit(cursor, limit)));
     }
 
     @GetMapping("/color-changes")
     public ResponseEntity<List<GrowthResponseDTO>> getGrowthByColorChanges(
             @RequestParam boolean colorChanges,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit,
             Authentication authentication) {
         String userId = (String) authentication.getPrincipal();
-        List<GrowthResponseDTO> growth = growthService.getGrowthByColorChanges(colorChanges, userId);
-        return ResponseEntity.ok(growth);
+        return PageResponses.ok(growthService.getGrowthByColorChanges(
+                colorChanges, userId, PageCursor.decode(cursor), paginationConfig.resolveLimit(cursor, limit)));
     }
 
     @PutMapping("/{growth_id}")
@@ -90,4 +148,14 @@ public class GrowthController {
         growthService.deleteGrowth(growthId, userId);
         return ResponseEntity.noContent().build();
     }
-}
\ No newline at end of file
+
+    private static boolean isWeekly(String resolution) {
+        if (WEEKLY.equalsIgnoreCase(resolution)) {
+            return true;
+        }
+        if (RAW.equalsIgnoreCase(resolution)) {
+            return false;
+        }
+        throw new InvalidGrowthDataException("Unknown resolution '" + resolution + "', expected raw or weekly");
+    }
+}
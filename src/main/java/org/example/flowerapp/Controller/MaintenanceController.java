@@ -2,9 +2,13 @@ package org.example.flowerapp.Controller;
 
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.example.flowerapp.DTO.MaintenanceCompleteRequestDTO;
+import org.example.flowerapp.DTO.MaintenancePatchDTO;
 import org.example.flowerapp.DTO.MaintenanceRequestDTO;
 import org.example.flowerapp.DTO.MaintenanceResponseDTO;
 import org.example.flowerapp.Models.Enums.MaintenanceType;
+import org.example.flowerapp.Configurations.PaginationConfig;
+import org.example.flowerapp.Models.PageCursor;
 import org.example.flowerapp.Services.FlowerMaintenanceScheduler;
 import org.example.flowerapp.Services.MaintenanceService;
 import org.springframework.http.HttpStatus;
@@ -20,6 +24,7 @@ import java.util.List;
 @RequiredArgsConstructor
 public class MaintenanceController {
     private final MaintenanceService maintenanceService;
+    private final PaginationConfig paginationConfig;
 
     @PostMapping
     public ResponseEntity<MaintenanceResponseDTO> createNewMaintenance(
@@ -32,46 +37,59 @@ public class MaintenanceController {
 
     @GetMapping
     public ResponseEntity<List<MaintenanceResponseDTO>> getAllMaintenance(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit,
+            @RequestParam(defaultValue = "false") boolean includeHistory,
             Authentication authentication) {
         String userId = (String) authentication.getPrincipal();
-        List<MaintenanceResponseDTO> maintenances = maintenanceService.getAllMaintenance(userId);
-        return ResponseEntity.ok(maintenances);
+        return PageResponses.ok(maintenanceService.getAllMaintenance(
+                userId, PageCursor.decode(cursor), paginationConfig.resolveLimit(cursor, limit), includeHistory));
     }
 
     @GetMapping("/task/{task_id}")
     public ResponseEntity<MaintenanceResponseDTO> getMaintenanceById(
             @PathVariable("task_id") long taskId,
+            @RequestParam(defaultValue = "false") boolean includeHistory,
             Authentication authentication) {
         String userId = (String) authentication.getPrincipal();
-        MaintenanceResponseDTO maintenance = maintenanceService.getMaintenanceById(taskId, userId);
+        MaintenanceResponseDTO maintenance = maintenanceService.getMaintenanceById(taskId, userId, includeHistory);
         return ResponseEntity.ok(maintenance);
     }
 
     @GetMapping("/flower/{flower_id}")
     public ResponseEntity<List<MaintenanceResponseDTO>> getMaintenanceByFlowerId(
             @PathVariable("flower_id") long flowerId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit,
+            @RequestParam(defaultValue = "false") boolean includeHistory,
             Authentication authentication) {
         String userId = (String) authentication.getPrincipal();
-        List<MaintenanceResponseDTO> maintenances = maintenanceService.getMaintenanceByFlowerId(flowerId, userId);
-        return ResponseEntity.ok(maintenances);
+        return PageResponses.ok(maintenanceService.getMaintenanceByFlowerId(
+                flowerId, userId, PageCursor.decode(cursor), paginationConfig.resolveLimit(cursor, limit), includeHistory));
     }
 
     @GetMapping("/type/{maintenance_type}")
     public ResponseEntity<List<MaintenanceResponseDTO>> getMaintenanceByType(
             @PathVariable("maintenance_type") MaintenanceType maintenanceType,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit,
+            @RequestParam(defaultValue = "false") boolean includeHistory,
             Authentication authentication) {
         String userId = (String) authentication.getPrincipal();
-        List<MaintenanceResponseDTO> maintenances = maintenanceService.getMaintenanceByType(maintenanceType, userId);
-        return ResponseEntity.ok(maintenances);
+        return PageResponses.ok(maintenanceService.getMaintenanceByType(
+                maintenanceType, userId, PageCursor.decode(cursor), paginationConfig.resolveLimit(cursor, limit), includeHistory));
     }
 
     @GetMapping("/date")
     public ResponseEntity<List<MaintenanceResponseDTO>> getMaintenanceByDate(
             @RequestParam LocalDateTime maintenanceDate,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit,
+            @RequestParam(defaultValue = "false") boolean includeHistory,
             Authentication authentication) {
         String userId = (String) authentication.getPrincipal();
-        List<MaintenanceResponseDTO> maintenances = maintenanceService.getMaintenanceByDate(maintenanceDate, userId);
-        return ResponseEntity.ok(maintenances);
+        return PageResponses.ok(maintenanceService.getMaintenanceByDate(
+                maintenanceDate, userId, PageCursor.decode(cursor), paginationConfig.resolveLimit(cursor, limit), includeHistory));
     }
 
     @PutMapping("/{maintenance_id}")
@@ -84,6 +102,34 @@ public class MaintenanceController {
         return ResponseEntity.ok(updated);
     }
 
+    // Sparse update: only the non-null fields in the body are written, e.g. {"completed": true}
+    @PatchMapping("/{maintenance_id}")
+    public ResponseEntity<MaintenanceResponseDTO> patchMaintenance(
+            @Valid @RequestBody MaintenancePatchDTO dto,
+            @PathVariable("maintenance_id") long maintenanceId,
+            Authentication authentication) {
+        String userId = (String) authentication.getPrincipal();
+        MaintenanceResponseDTO updated = maintenanceService.patchMaintenance(dto, maintenanceId, userId);
+        return ResponseEntity.ok(updated);
+    }
+
+    // Completes the task and moves the flower's matching last watered/fertilized/pruned date forward
+    @PostMapping("/{maintenance_id}/complete")
+    public ResponseEntity<MaintenanceResponseDTO> completeMaintenance(
+            @PathVariable("maintenance_id") long maintenanceId,
+            Authentication authentication) {
+        String userId = (String) authentication.getPrincipal();
+        return ResponseEntity.ok(maintenanceService.completeMaintenance(maintenanceId, userId));
+    }
+
+    @PostMapping("/complete")
+    public ResponseEntity<List<MaintenanceResponseDTO>> completeMaintenanceTasks(
+            @Valid @RequestBody MaintenanceCompleteRequestDTO dto,
+            Authentication authentication) {
+        String userId = (String) authentication.getPrincipal();
+        return ResponseEntity.ok(maintenanceService.completeMaintenance(dto.taskIds(), userId));
+    }
+
     @DeleteMapping("/{maintenance_id}")
     public ResponseEntity<Void> deleteMaintenance(
             @PathVariable("maintenance_id") long maintenanceId,
@@ -0,0 +1,27 @@
+package org.example.flowerapp.Controller;
+
+import org.example.flowerapp.Models.KeysetPage;
+import org.springframework.http.ResponseEntity;
+
+import java.util.List;
+
+/**
+ * Builds list responses for keyset pages. The body stays a plain JSON array and a request
+ * without cursor or limit still gets the whole listing, so existing clients keep working;
+ * the cursor for the next page travels in the X-Next-Cursor header.
+ */
+final class PageResponses {
+
+    static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+
+    private PageResponses() {
+    }
+
+    static <T> ResponseEntity<List<T>> ok(KeysetPage<T> page) {
+        ResponseEntity.BodyBuilder builder = ResponseEntity.ok();
+        if (page.nextCursor() != null) {
+            builder.header(NEXT_CURSOR_HEADER, page.nextCursor());
+        }
+        return builder.body(page.items());
+    }
+}
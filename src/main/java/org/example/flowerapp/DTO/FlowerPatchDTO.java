@@ -0,0 +1,35 @@
+package org.example.flowerapp.DTO;
+
+import jakarta.validation.constraints.Pattern;
+import jakarta.validation.constraints.Positive;
+import org.example.flowerapp.Models.Enums.FlowerColor;
+
+import java.time.LocalDateTime;
+
+// PATCH body: only non-null fields are written, e.g. {"lastWateredDate": "..."}; an explicit null is ignored
+public record FlowerPatchDTO(
+        @Pattern(regexp = ".*\\S.*", message = "Flower name cannot be blank")
+        String flowerName,
+
+        @Pattern(regexp = ".*\\S.*", message = "Species cannot be blank")
+        String species,
+
+        FlowerColor color,
+        LocalDateTime plantingDate,
+        Integer gridPosition,
+        Integer waterFrequencyDays,
+        Integer fertilizeFrequencyDays,
+        Integer pruneFrequencyDays,
+        LocalDateTime lastWateredDate,
+        LocalDateTime lastFertilizedDate,
+        LocalDateTime lastPrunedDate,
+        Boolean autoScheduling,
+
+        @Positive(message = "Max height must be greater than 0")
+        Double maxHeight,
+
+        @Positive(message = "Growth rate must be greater than 0")
+        Double growthRate,
+
+        Long version) {     // Optional: version last read, a stale one is rejected with 409
+}
@@ -32,5 +32,7 @@ public record FlowerRequestDTO (
         Double maxHeight,
 
         @Positive(message = "Growth rate must be greater than 0")
-        Double growthRate) {
+        Double growthRate,
+
+        Long version) {     // Optional: version last read, a stale one is rejected with 409
 }
\ No newline at end of file
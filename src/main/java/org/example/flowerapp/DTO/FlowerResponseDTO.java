@@ -19,5 +19,6 @@ public record FlowerResponseDTO (
         LocalDateTime lastPrunedDate,
         boolean autoScheduling,
         Double maxHeight,
-        Double growthRate) {
+        Double growthRate,
+        long version) {
 }
\ No newline at end of file
@@ -0,0 +1,15 @@
+package org.example.flowerapp.DTO;
+
+import org.example.flowerapp.Models.Enums.GrowthStage;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public record GrowthForecastDTO(
+        Long flower_id,
+        LocalDateTime from,
+        double height,
+        GrowthStage stage,
+        List<GrowthForecastPointDTO> points,
+        List<GrowthStageChangeDTO> stageChanges
+) {}
@@ -24,5 +24,7 @@ public record GrowthRequestDTO(
         LocalDateTime recordedAt,  // Optional: allow manual timestamp
 
         @PositiveOrZero(message = "Growth since last must be zero or positive!")
-        Double growthSinceLast     // Optional: for manual entry
+        Double growthSinceLast,    // Optional: for manual entry
+
+        Long version               // Optional: version last read, a stale one is rejected with 409
 ) {}
\ No newline at end of file
@@ -12,5 +12,6 @@ public record GrowthResponseDTO(
         boolean colorChanges,
         String notes,
         LocalDateTime recordedAt,
-        Double growthSinceLast
+        Double growthSinceLast,
+        long version
 ) {}
\ No newline at end of file
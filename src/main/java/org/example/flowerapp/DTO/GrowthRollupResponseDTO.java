@@ -0,0 +1,18 @@
+package org.example.flowerapp.DTO;
+
+import org.example.flowerapp.Models.Enums.GrowthStage;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+public record GrowthRollupResponseDTO(
+        Long flower_id,
+        LocalDate weekStart,
+        double minHeight,
+        double maxHeight,
+        double lastHeight,
+        GrowthStage stage,
+        LocalDateTime lastRecordedAt,
+        boolean colorChanges,
+        int samples
+) {}
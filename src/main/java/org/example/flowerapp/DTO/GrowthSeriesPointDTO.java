@@ -0,0 +1,11 @@
+package org.example.flowerapp.DTO;
+
+import org.example.flowerapp.Models.Enums.GrowthStage;
+
+import java.time.LocalDateTime;
+
+public record GrowthSeriesPointDTO(
+        LocalDateTime recordedAt,
+        double height,
+        GrowthStage stage
+) {}
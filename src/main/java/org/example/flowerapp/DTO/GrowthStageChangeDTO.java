@@ -0,0 +1,10 @@
+package org.example.flowerapp.DTO;
+
+import org.example.flowerapp.Models.Enums.GrowthStage;
+
+import java.time.LocalDateTime;
+
+public record GrowthStageChangeDTO(
+        GrowthStage stage,
+        LocalDateTime reachedAt
+) {}
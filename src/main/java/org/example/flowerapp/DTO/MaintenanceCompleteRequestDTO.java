@@ -0,0 +1,13 @@
+package org.example.flowerapp.DTO;
+
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+
+import java.util.List;
+
+public record MaintenanceCompleteRequestDTO(
+        @NotEmpty(message = "At least one task ID is required!")
+        @Size(max = 500, message = "At most 500 tasks can be completed at once")
+        List<Long> taskIds
+) {
+}
@@ -0,0 +1,18 @@
+package org.example.flowerapp.DTO;
+
+import org.example.flowerapp.Models.Enums.MaintenanceType;
+
+import java.time.LocalDateTime;
+
+// PATCH body: only non-null fields are written, e.g. {"completed": true}; an explicit null is ignored
+public record MaintenancePatchDTO(
+        MaintenanceType maintenanceType,
+        LocalDateTime maintenanceDate,
+        LocalDateTime dueDate,
+        String notes,
+        String performedBy,
+        Boolean completed,
+        LocalDateTime completedAt,  // Defaults to now when completed is set to true
+        Long version                // Optional: version last read, a stale one is rejected with 409
+) {
+}
@@ -17,7 +17,8 @@ public record MaintenanceRequestDTO (
 
          LocalDateTime maintenanceDate,
          String notes,
-         String performedBy
+         String performedBy,
+         Long version   // Optional: version last read, a stale one is rejected with 409
 ) {
 
 }
\ No newline at end of file
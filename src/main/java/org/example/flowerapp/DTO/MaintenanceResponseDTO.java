@@ -11,7 +11,10 @@ public record MaintenanceResponseDTO (
          LocalDateTime maintenanceDate,
          String notes,
          String performedBy,
-         LocalDateTime createdAt
+         LocalDateTime createdAt,
+         boolean completed,
+         LocalDateTime completedAt,
+         long version
 ){
 
 }
\ No newline at end of file
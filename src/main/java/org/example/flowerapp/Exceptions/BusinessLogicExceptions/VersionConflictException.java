@@ -0,0 +1,25 @@
+package org.example.flowerapp.Exceptions.BusinessLogicExceptions;
+
+import java.util.List;
+
+/**
+ * An UPDATE matched no row at the version the writer read: someone else changed the row
+ * in the meantime. Carries the ids of the stale rows so batch writers can retry just those.
+ */
+public class VersionConflictException extends RuntimeException {
+    private final List<Long> ids;
+
+    public VersionConflictException(String entity, List<Long> ids) {
+        super(entity + " " + (ids.size() == 1 ? ids.get(0) : ids)
+                + " was changed by someone else, reload it and try again");
+        this.ids = List.copyOf(ids);
+    }
+
+    public VersionConflictException(String entity, long id) {
+        this(entity, List.of(id));
+    }
+
+    public List<Long> getIds() {
+        return ids;
+    }
+}
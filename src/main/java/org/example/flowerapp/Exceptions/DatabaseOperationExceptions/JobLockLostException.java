@@ -0,0 +1,11 @@
+package org.example.flowerapp.Exceptions.DatabaseOperationExceptions;
+
+/**
+ * A cluster-wide job's lease ran out or was taken over by another node while the job was
+ * still running. The job stops before its next write instead of racing the new holder.
+ */
+public class JobLockLostException extends RuntimeException {
+    public JobLockLostException(String jobName, long fencingToken) {
+        super("Lock for job " + jobName + " (token " + fencingToken + ") is no longer held by this node");
+    }
+}
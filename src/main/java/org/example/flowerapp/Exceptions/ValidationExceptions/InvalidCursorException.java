@@ -0,0 +1,7 @@
+package org.example.flowerapp.Exceptions.ValidationExceptions;
+
+public class InvalidCursorException extends RuntimeException{
+    public InvalidCursorException(String message) {
+        super(message);
+    }
+}
@@ -4,6 +4,7 @@ import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.ColumnDefault;
 import org.example.flowerapp.Models.Enums.FlowerColor;
 
 import java.time.LocalDateTime;
@@ -66,6 +67,12 @@ public class Flower {
 
     @Column(name="user_id")
     private String userId;
+
+    // Bumped by every repository UPDATE; writers only match the version they read
+    @Version
+    @ColumnDefault("0")
+    @Column(name="version", nullable=false)
+    private long version;
     // One-to-Many relationship with Growth
     @OneToMany(mappedBy = "flower", cascade = CascadeType.ALL, fetch = FetchType.LAZY)
     private List<Growth> growthRecords;
@@ -4,6 +4,7 @@ import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.ColumnDefault;
 import org.example.flowerapp.Models.Enums.GrowthStage;
 
 import java.time.LocalDateTime;
@@ -44,6 +45,13 @@ public class Growth {
 
     @Column(name="user_id")
     private String userId;
+
+    // Bumped by every repository UPDATE; writers only match the version they read
+    @Version
+    @ColumnDefault("0")
+    @Column(name="version", nullable=false)
+    private long version;
+
     @PrePersist
     protected void onCreate() {
         if (recordedAt == null) {
@@ -0,0 +1,22 @@
+package org.example.flowerapp.Models;
+
+import org.example.flowerapp.Models.Enums.GrowthStage;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * One row of growth_weekly_rollup: a flower's growth records for the week starting on
+ * {@code weekStart} (a Monday), reduced to the values the growth charts plot.
+ */
+public record GrowthWeeklyRollup(
+        long flowerId,
+        LocalDate weekStart,
+        double minHeight,
+        double maxHeight,
+        double lastHeight,
+        GrowthStage lastStage,
+        LocalDateTime lastRecordedAt,
+        boolean colorChanged,
+        int sampleCount
+) {}
@@ -4,6 +4,7 @@ import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.ColumnDefault;
 import org.example.flowerapp.Models.Enums.MaintenanceType;
 
 import java.time.LocalDateTime;
@@ -54,4 +55,10 @@ public class Maintenance {
 
     @Column(name="user_id")
     private String userId;
+
+    // Bumped by every repository UPDATE; writers only match the version they read
+    @Version
+    @ColumnDefault("0")
+    @Column(name="version", nullable=false)
+    private long version;
 }
\ No newline at end of file
@@ -0,0 +1,55 @@
+package org.example.flowerapp.Models;
+
+import org.example.flowerapp.Exceptions.ValidationExceptions.InvalidCursorException;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+import java.util.Base64;
+
+/**
+ * Position of the last row of a keyset page: the sort key (null for id-only orderings)
+ * and the row id used as tie-breaker. Clients only ever see the encoded, opaque form.
+ */
+public record PageCursor(LocalDateTime sortKey, long id) {
+
+    public static PageCursor ofId(long id) {
+        return new PageCursor(null, id);
+    }
+
+    public String encode() {
+        String raw = sortKey != null
+                ? ChronoUnit.MICROS.between(LocalDateTime.ofEpochSecond(0, 0, ZoneOffset.UTC), sortKey) + ":" + id
+                : ":" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Decodes a cursor token, returning null for a missing token (first page).
+     */
+    public static PageCursor decode(String token) {
+        if (token == null || token.isBlank()) {
+            return null;
+        }
+
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            int separator = raw.indexOf(':');
+            if (separator < 0) {
+                throw new InvalidCursorException("Malformed page cursor");
+            }
+
+            long id = Long.parseLong(raw.substring(separator + 1));
+            if (separator == 0) {
+                return ofId(id);
+            }
+
+            long micros = Long.parseLong(raw.substring(0, separator));
+            LocalDateTime sortKey = LocalDateTime.ofEpochSecond(0, 0, ZoneOffset.UTC).plus(micros, ChronoUnit.MICROS);
+            return new PageCursor(sortKey, id);
+        } catch (IllegalArgumentException e) {
+            throw new InvalidCursorException("Malformed page cursor");
+        }
+    }
+}
@@ -0,0 +1,88 @@
+package org.example.flowerapp.Repository;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Shared plumbing for the repositories' saveAll methods. Inserts are sent as one multi-row
+ * INSERT ... RETURNING per chunk, updates as JDBC batches, so a bulk write costs one round
+ * trip per chunk instead of one per row. Chunk size comes from repository.batch-size.
+ */
+@Component
+public class BatchStatements {
+    private final JdbcTemplate jdbc;
+    private final int batchSize;
+
+    public BatchStatements(JdbcTemplate jdbc, @Value("${repository.batch-size:50}") int batchSize) {
+        this.jdbc = jdbc;
+        this.batchSize = Math.max(1, batchSize);
+    }
+
+    public int batchSize() {
+        return batchSize;
+    }
+
+    /**
+     * Inserts the rows and returns the generated ids in input order.
+     *
+     * @param insertPrefix    e.g. {@code INSERT INTO t (a, b)}
+     * @param rowPlaceholders placeholder tuple for one row, e.g. {@code (?, ?::uuid)}
+     */
+    public List<Long> insertReturningIds(String insertPrefix, String rowPlaceholders, String idColumn,
+                                         List<Object[]> rows) {
+        List<Long> ids = new ArrayList<>(rows.size());
+
+        for (int from = 0; from < rows.size(); from += batchSize) {
+            List<Object[]> chunk = rows.subList(from, Math.min(from + batchSize, rows.size()));
+            String sql = insertPrefix
+                    + " VALUES " + String.join(", ", Collections.nCopies(chunk.size(), rowPlaceholders))
+                    + " RETURNING " + idColumn;
+            Object[] args = chunk.stream().flatMap(Arrays::stream).toArray();
+
+            ids.addAll(jdbc.queryForList(sql, Long.class, args));
+        }
+        return ids;
+    }
+
+    /**
+     * Inserts the rows and maps what each chunk's statement returns. Unlike
+     * {@link #insertReturningIds} the suffix may skip rows (e.g. {@code ON CONFLICT DO NOTHING
+     * RETURNING ...}), so results are not tied to input positions.
+     *
+     * @param returningSuffix e.g. {@code ON CONFLICT DO NOTHING RETURNING id, a}
+     */
+    public <T> List<T> insertReturning(String insertPrefix, String rowPlaceholders, String returningSuffix,
+                                       RowMapper<T> rowMapper, List<Object[]> rows) {
+        List<T> results = new ArrayList<>(rows.size());
+
+        for (int from = 0; from < rows.size(); from += batchSize) {
+            List<Object[]> chunk = rows.subList(from, Math.min(from + batchSize, rows.size()));
+            String sql = insertPrefix
+                    + " VALUES " + String.join(", ", Collections.nCopies(chunk.size(), rowPlaceholders))
+                    + " " + returningSuffix;
+            Object[] args = chunk.stream().flatMap(Arrays::stream).toArray();
+
+            results.addAll(jdbc.query(sql, rowMapper, args));
+        }
+        return results;
+    }
+
+    /**
+     * Runs the update once per row and returns the affected row count of each, in input order.
+     */
+    public int[] update(String sql, List<Object[]> rows) {
+        int[] counts = new int[rows.size()];
+        for (int from = 0; from < rows.size(); from += batchSize) {
+            int[] chunk = jdbc.batchUpdate(sql, rows.subList(from, Math.min(from + batchSize, rows.size())));
+            System.arraycopy(chunk, 0, counts, from, chunk.length);
+        }
+        return counts;
+    }
+}
@@ -0,0 +1,85 @@
+package org.example.flowerapp.Repository;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.ArgumentPreparedStatementSetter;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Component;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.function.Consumer;
+
+/**
+ * Runs queries through a server-side cursor so scheduled jobs can walk whole tables
+ * without loading them into memory. The Postgres driver only honours the fetch size
+ * when autocommit is off, so outside a Spring transaction the cursor gets its own
+ * read-only transaction on a dedicated connection.
+ */
+@Component
+public class CursorQueries {
+    private final GovernedJdbcTemplate jdbc;
+    private final int fetchSize;
+
+    public CursorQueries(GovernedJdbcTemplate jdbc, @Value("${jobs.cursor.fetch-size:500}") int fetchSize) {
+        this.jdbc = jdbc;
+        this.fetchSize = fetchSize;
+    }
+
+    public <T> void forEach(String sql, RowMapper<T> rowMapper, Consumer<? super T> action, Object... args) {
+        int[] rowNum = {0};
+        forEachRow(sql, rs -> action.accept(rowMapper.mapRow(rs, rowNum[0]++)), args);
+    }
+
+    /**
+     * Hands each row straight to the handler without mapping it to an object first.
+     */
+    public void forEachRow(String sql, RowCallbackHandler handler, Object... args) {
+        jdbc.execute((ConnectionCallback<Void>) connection -> {
+            boolean ownTransaction = connection.getAutoCommit();
+            boolean wasReadOnly = connection.isReadOnly();
+
+            if (ownTransaction) {
+                connection.setAutoCommit(false);
+                connection.setReadOnly(true);
+            }
+
+            try {
+                stream(connection, sql, handler, args);
+                if (ownTransaction) {
+                    connection.commit();
+                }
+            } catch (SQLException | RuntimeException e) {
+                if (ownTransaction) {
+                    connection.rollback();
+                }
+                throw e;
+            } finally {
+                if (ownTransaction) {
+                    connection.setReadOnly(wasReadOnly);
+                    connection.setAutoCommit(true);
+                }
+            }
+            return null;
+        });
+    }
+
+    private void stream(Connection connection, String sql, RowCallbackHandler handler,
+                        Object[] args) throws SQLException {
+        try (PreparedStatement ps = connection.prepareStatement(
+                sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY)) {
+            ps.setFetchSize(fetchSize);
+            jdbc.govern(ps);
+            new ArgumentPreparedStatementSetter(args).setValues(ps);
+
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    handler.processRow(rs);
+                }
+            }
+        }
+    }
+}
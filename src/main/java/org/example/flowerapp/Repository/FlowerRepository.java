@@ -1,29 +1,37 @@
 package org.example.flowerapp.Repository;
 
+import org.example.flowerapp.Exceptions.BusinessLogicExceptions.DuplicateFlowerException;
+import org.example.flowerapp.Exceptions.BusinessLogicExceptions.VersionConflictException;
 import org.example.flowerapp.Exceptions.EntityNotFoundExceptions.FlowerNotFoundException;
 import org.example.flowerapp.Models.Enums.FlowerColor;
 import org.example.flowerapp.Models.Flower;
+import org.example.flowerapp.Models.PageCursor;
+import org.springframework.dao.DuplicateKeyException;
 import org.springframework.dao.EmptyResultDataAccessException;
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.jdbc.core.RowMapper;
-import org.springframework.jdbc.support.GeneratedKeyHolder;
-import org.springframework.jdbc.support.KeyHolder;
 import org.springframework.stereotype.Repository;
 
-import java.sql.PreparedStatement;
-import java.sql.Statement;
 import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.EnumMap;
 import java.util.List;
-import java.util.Objects;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.function.Consumer;
 
 @Repository
 public class FlowerRepository {
     private final JdbcTemplate jdbc;
+    private final CursorQueries cursorQueries;
+    private final BatchStatements batchStatements;
 
-    public FlowerRepository(JdbcTemplate jdbcTemplate) {
+    public FlowerRepository(JdbcTemplate jdbcTemplate, CursorQueries cursorQueries, BatchStatements batchStatements) {
         this.jdbc = jdbcTemplate;
+        this.cursorQueries = cursorQueries;
+        this.batchStatements = batchStatements;
     }
 
     public Flower save(Flower flower) {
@@ -35,6 +43,49 @@ public class FlowerRepository {
         }
     }
 
+    // Inserts new flowers and updates existing ones in chunks; generated ids are set on the inputs
+    public List<Flower> saveAll(Collection<Flower> flowers) {
+        List<Flower> toInsert = new ArrayList<>();
+        List<Flower> toUpdate = new ArrayList<>();
+        for (Flower flower : flowers) {
+            (flower.getFlower_id() == 0 ? toInsert : toUpdate).add(flower);
+        }
+
+        if (!toInsert.isEmpty()) {
+            List<Long> ids = batchStatements.insertReturningIds("""
+                    INSERT INTO flowerdetails
+                    (flower_name, species, color, planting_date, grid_position,
+                     water_frequency_days, fertilize_frequency_days, prune_frequency_days,
+                     last_watered, last_fertilized, last_pruned_date, max_height,
+                     growth_rate, auto_scheduling, user_id)""",
+                    "(?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)",
+                    "flower_id",
+                    toInsert.stream().map(this::insertArgs).toList());
+            for (int i = 0; i < toInsert.size(); i++) {
+                toInsert.get(i).setFlower_id(ids.get(i));
+            }
+        }
+
+        if (!toUpdate.isEmpty()) {
+            int[] counts = batchStatements.update(UPDATE_SQL,
+                    toUpdate.stream().map(f -> updateArgs(f, f.isAutoScheduling(), f.getVersion())).toList());
+            List<Long> stale = new ArrayList<>();
+            for (int i = 0; i < counts.length; i++) {
+                Flower flower = toUpdate.get(i);
+                if (counts[i] == 0) {
+                    stale.add(flower.getFlower_id());
+                } else {
+                    flower.setVersion(flower.getVersion() + 1);
+                }
+            }
+            // The rest of the batch is written; callers re-read and retry the stale rows
+            if (!stale.isEmpty()) {
+                throw new VersionConflictException("Flower", stale);
+            }
+        }
+        return new ArrayList<>(flowers);
+    }
+
     public Flower findByFlowerIdAndUserId(long flowerId, String userId) {
         if (userId == null) {
             throw new IllegalArgumentException("userId cannot be null when finding flower " + flowerId);
@@ -92,6 +143,18 @@ public class FlowerRepository {
         return jdbc.query(sql, flowerRowMapper(), color, UUID.fromString(userId));
     }
 
+    public List<Flower> findAllFlowerByUserId(String userId, PageCursor after, int limit) {
+        return findPage("user_id = ?", List.of(UUID.fromString(userId)), after, limit);
+    }
+
+    public List<Flower> findBySpeciesAndUserId(String species, String userId, PageCursor after, int limit) {
+        return findPage("species = ? AND user_id = ?", List.of(species, UUID.fromString(userId)), after, limit);
+    }
+
+    public List<Flower> findByColorAndUserId(String color, String userId, PageCursor after, int limit) {
+        return findPage("color = ? AND user_id = ?", List.of(color, UUID.fromString(userId)), after, limit);
+    }
+
     public List<Flower> findByAutoSchedulingTrueAndUserId(String userId) {
         String sql = "SELECT * FROM flowerdetails WHERE auto_scheduling = true AND user_id = ?";
         return jdbc.query(sql, flowerRowMapper(), UUID.fromString(userId));
@@ -117,6 +180,12 @@ public class FlowerRepository {
         return jdbc.query(sql, flowerRowMapper());
     }
 
+    // Streams every flower through a server-side cursor (used by scheduled jobs)
+    public void forEachFlower(Consumer<? super Flower> action) {
+        String sql = "SELECT * FROM flowerdetails ORDER BY flower_id";
+        cursorQueries.forEach(sql, flowerRowMapper(), action);
+    }
+
     public Optional<Flower> findByFlowerIdAndUserId(Long flowerId, String userId) {
         String sql = "SELECT * FROM flowerdetails WHERE flower_id = ? AND user_id = ?";
 
@@ -133,6 +202,7 @@ public class FlowerRepository {
         }
     }
 
+    // One round trip: the unique (user_id, flower_name) index rejects duplicate names
     private Flower insert(Flower flower) {
         String sql = """
         INSERT INTO flowerdetails 
@@ -141,58 +211,80 @@ public class FlowerRepository {
          last_watered, last_fertilized, last_pruned_date, max_height, 
          growth_rate, auto_scheduling, user_id) 
         VALUES(?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)
+        RETURNING *
+        """;
+
+        try {
+            return jdbc.queryForObject(sql, flowerRowMapper(), insertArgs(flower));
+        } catch (DuplicateKeyException e) {
+            throw new DuplicateFlowerException("Flower name already exists!");
+        }
+    }
+
+    // One keyset page of all flowers, for jobs that walk the table in chunks with a transaction each
+    public List<Flower> findPage(long afterFlowerId, int limit) {
+        String sql = "SELECT * FROM flowerdetails WHERE flower_id > ? ORDER BY flower_id LIMIT ?";
+        return jdbc.query(sql, flowerRowMapper(), afterFlowerId, limit);
+    }
+
+    // The flowers among the given ids, in flower_id order; unknown ids are skipped
+    public List<Flower> findAllByIds(Collection<Long> flowerIds) {
+        String sql = "SELECT * FROM flowerdetails WHERE flower_id = ANY(?) ORDER BY flower_id";
+        return jdbc.query(sql, flowerRowMapper(), (Object) flowerIds.toArray(new Long[0]));
+    }
+
+    // One keyset page of the flowers in a shard (flower_id modulo shards), for jobs that split the table across threads
+    public List<Flower> findShardPage(int shard, int shards, long afterFlowerId, int limit) {
+        String sql = "SELECT * FROM flowerdetails WHERE mod(flower_id, ?) = ? AND flower_id > ? ORDER BY flower_id LIMIT ?";
+        return jdbc.query(sql, flowerRowMapper(), shards, shard, afterFlowerId, limit);
+    }
+
+    // Streams the flowers whose health check time has passed, as a range scan of ix_flowerdetails_next_health_check
+    public void forEachFlowerDueForHealthCheck(LocalDateTime dueBy, Consumer<? super Flower> action) {
+        String sql = "SELECT * FROM flowerdetails WHERE next_health_check_at <= ? ORDER BY next_health_check_at";
+        cursorQueries.forEach(sql, flowerRowMapper(), action, Timestamp.valueOf(dueBy));
+    }
+
+    // One keyset page of a shard's flowers whose health check time has passed
+    public List<Flower> findShardPageDueForHealthCheck(int shard, int shards, LocalDateTime dueBy,
+                                                       long afterFlowerId, int limit) {
+        String sql = """
+        SELECT * FROM flowerdetails
+        WHERE next_health_check_at <= ? AND mod(flower_id, ?) = ? AND flower_id > ?
+        ORDER BY flower_id
+        LIMIT ?
+        """;
+        return jdbc.query(sql, flowerRowMapper(), Timestamp.valueOf(dueBy), shards, shard, afterFlowerId, limit);
+    }
+
+    // The flowers in [firstFlowerId, lastFlowerId] whose health check time has passed, for one work queue chunk
+    public List<Flower> findDueForHealthCheckBetween(LocalDateTime dueBy, long firstFlowerId, long lastFlowerId) {
+        String sql = """
+        SELECT * FROM flowerdetails
+        WHERE next_health_check_at <= ? AND flower_id BETWEEN ? AND ?
+        ORDER BY flower_id
+        """;
+        return jdbc.query(sql, flowerRowMapper(), Timestamp.valueOf(dueBy), firstFlowerId, lastFlowerId);
+    }
+
+    // Locks the flower's row until the caller's transaction ends (two nodes checking it take turns); false if it is gone
+    public boolean lockForHealthCheck(long flowerId) {
+        String sql = "SELECT flower_id FROM flowerdetails WHERE flower_id = ? FOR NO KEY UPDATE";
+        return !jdbc.queryForList(sql, Long.class, flowerId).isEmpty();
+    }
+
+    /**
+     * Moves the health check of checked flowers on to their oldest open task's next threshold
+     * after {@code checkedAt}, or clears it when none is left. Not a user-visible change, so
+     * version stays as it is.
+     */
+    public void advanceHealthChecks(Collection<Long> flowerIds, LocalDateTime checkedAt) {
+        String sql = """
+        UPDATE flowerdetails
+        SET next_health_check_at = health_check_due_at(flower_id, ?)
+        WHERE flower_id = ANY(?)
         """;
-        KeyHolder keyHolder = new GeneratedKeyHolder();
-
-        jdbc.update(connection -> {
-            PreparedStatement ps = connection.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS);
-            ps.setString(1, flower.getFlowerName());
-            ps.setString(2, flower.getSpecies());
-            ps.setString(3, flower.getColor() != null ? flower.getColor().getColorName() : null);
-            ps.setTimestamp(4, flower.getPlantingDate() != null ? Timestamp.valueOf(flower.getPlantingDate()) : null);
-            ps.setObject(5, flower.getGridPosition(), java.sql.Types.INTEGER);
-
-            // Maintenance frequency fields
-            ps.setObject(6, flower.getWaterFrequencyDays(), java.sql.Types.INTEGER);
-            ps.setObject(7, flower.getFertilizeFrequencyDays(), java.sql.Types.INTEGER);
-            ps.setObject(8, flower.getPruneFrequencyDays(), java.sql.Types.INTEGER);
-            ps.setTimestamp(9, flower.getLastWateredDate() != null ? Timestamp.valueOf(flower.getLastWateredDate()) : null);
-            ps.setTimestamp(10, flower.getLastFertilizedDate() != null ? Timestamp.valueOf(flower.getLastFertilizedDate()) : null);
-            ps.setTimestamp(11, flower.getLastPrunedDate() != null ? Timestamp.valueOf(flower.getLastPrunedDate()) : null);
-
-            // Growth fields
-            ps.setObject(12, flower.getMaxHeight(), java.sql.Types.DOUBLE);
-            ps.setObject(13, flower.getGrowthRate(), java.sql.Types.DOUBLE);
-            ps.setBoolean(14, flower.isAutoScheduling());
-
-            // User ID
-            ps.setObject(15, UUID.fromString(flower.getUserId()), java.sql.Types.OTHER);
-
-            return ps;
-        }, keyHolder);
-
-        Long generatedId = (Long) Objects.requireNonNull(keyHolder.getKeys()).get("flower_id");
-
-        // Use no-arg constructor + setters
-        Flower savedFlower = new Flower();
-        savedFlower.setFlower_id(generatedId);
-        savedFlower.setFlowerName(flower.getFlowerName());
-        savedFlower.setSpecies(flower.getSpecies());
-        savedFlower.setColor(flower.getColor());
-        savedFlower.setPlantingDate(flower.getPlantingDate());
-        savedFlower.setGridPosition(flower.getGridPosition());
-        savedFlower.setWaterFrequencyDays(flower.getWaterFrequencyDays());
-        savedFlower.setFertilizeFrequencyDays(flower.getFertilizeFrequencyDays());
-        savedFlower.setPruneFrequencyDays(flower.getPruneFrequencyDays());
-        savedFlower.setLastWateredDate(flower.getLastWateredDate());
-        savedFlower.setLastFertilizedDate(flower.getLastFertilizedDate());
-        savedFlower.setLastPrunedDate(flower.getLastPrunedDate());
-        savedFlower.setMaxHeight(flower.getMaxHeight());
-        savedFlower.setGrowthRate(flower.getGrowthRate());
-        savedFlower.setAutoScheduling(flower.isAutoScheduling());
-        savedFlower.setUserId(flower.getUserId());
-
-        return savedFlower;
+        jdbc.update(sql, Timestamp.valueOf(checkedAt), flowerIds.toArray(new Long[0]));
     }
 
     public List<Flower> findByAutoSchedulingTrue() {
@@ -200,17 +292,113 @@ public class FlowerRepository {
         return jdbc.query(sql, flowerRowMapper());
     }
 
-    private void update(Flower flower) {
-        String sql = """
+    public void forEachAutoSchedulingFlower(Consumer<? super Flower> action) {
+        String sql = "SELECT * FROM flowerdetails WHERE auto_scheduling = true ORDER BY flower_id";
+        cursorQueries.forEach(sql, flowerRowMapper(), action);
+    }
+
+    // The auto-scheduling flowers in [firstFlowerId, lastFlowerId], for one work queue chunk
+    public List<Flower> findAutoSchedulingBetween(long firstFlowerId, long lastFlowerId) {
+        String sql = "SELECT * FROM flowerdetails WHERE auto_scheduling = true AND flower_id BETWEEN ? AND ? ORDER BY flower_id";
+        return jdbc.query(sql, flowerRowMapper(), firstFlowerId, lastFlowerId);
+    }
+
+    /**
+     * Columns a PATCH may set. Values are domain types (LocalDateTime, FlowerColor, ...); a
+     * column mapped to null is cleared. FlowerService never does that, since a null field in
+     * the request body means "leave as is".
+     */
+    public enum PatchColumn {
+        FLOWER_NAME("flower_name"),
+        SPECIES("species"),
+        COLOR("color"),
+        PLANTING_DATE("planting_date"),
+        GRID_POSITION("grid_position"),
+        WATER_FREQUENCY_DAYS("water_frequency_days"),
+        FERTILIZE_FREQUENCY_DAYS("fertilize_frequency_days"),
+        PRUNE_FREQUENCY_DAYS("prune_frequency_days"),
+        LAST_WATERED("last_watered"),
+        LAST_FERTILIZED("last_fertilized"),
+        LAST_PRUNED_DATE("last_pruned_date"),
+        MAX_HEIGHT("max_height"),
+        GROWTH_RATE("growth_rate"),
+        AUTO_SCHEDULING("auto_scheduling");
+
+        private final String column;
+
+        PatchColumn(String column) {
+            this.column = column;
+        }
+    }
+
+    private static final PatchStatements<PatchColumn> PATCH = new PatchStatements<>(
+            "flowerdetails", c -> c.column, "flower_id = ? AND user_id = ?");
+
+    /**
+     * Writes only the given columns in one UPDATE ... RETURNING and returns the stored row.
+     * A null expectedVersion skips the version check.
+     */
+    public Flower patchFlower(long flowerId, String userId, EnumMap<PatchColumn, Object> changes,
+                              Long expectedVersion) {
+        if (changes.isEmpty()) {
+            Flower current = findByFlowerIdAndUserId(flowerId, userId);
+            if (expectedVersion != null && current.getVersion() != expectedVersion) {
+                throw new VersionConflictException("Flower", flowerId);
+            }
+            return current;
+        }
+
+        EnumMap<PatchColumn, Object> values = new EnumMap<>(changes);
+        values.computeIfPresent(PatchColumn.COLOR, (column, color) -> ((FlowerColor) color).getColorName());
+
+        try {
+            List<Flower> updated = jdbc.query(PATCH.sql(values), flowerRowMapper(),
+                    PATCH.args(values, expectedVersion, flowerId, UUID.fromString(userId)));
+            if (updated.isEmpty()) {
+                throw staleOrMissing(flowerId, userId);
+            }
+            return updated.get(0);
+        } catch (DuplicateKeyException e) {
+            throw new DuplicateFlowerException("Flower name already exists!");
+        }
+    }
+
+    private static final String UPDATE_SQL = """
         UPDATE flowerdetails 
         SET flower_name = ?, species = ?, color = ?, planting_date = ?, grid_position = ?,
             water_frequency_days = ?, fertilize_frequency_days = ?, prune_frequency_days = ?,
             last_watered = ?, last_fertilized = ?, last_pruned_date = ?, 
-            max_height = ?, growth_rate = ?, auto_scheduling = ?
-        WHERE flower_id = ? AND user_id = ?
+            max_height = ?, growth_rate = ?, auto_scheduling = COALESCE(?, auto_scheduling),
+            version = version + 1
+        WHERE flower_id = ? AND user_id = ? AND version = COALESCE(?, version)
         """;
 
-        jdbc.update(sql,
+    private void update(Flower flower) {
+        if (jdbc.update(UPDATE_SQL, updateArgs(flower, flower.isAutoScheduling(), flower.getVersion())) == 0) {
+            throw staleOrMissing(flower.getFlower_id(), flower.getUserId());
+        }
+        flower.setVersion(flower.getVersion() + 1);
+    }
+
+    /**
+     * Updates a flower in one round trip and returns the stored row.
+     * A null autoScheduling keeps the current value; a null expectedVersion skips the version check.
+     */
+    public Flower updateFlower(Flower flower, Boolean autoScheduling, Long expectedVersion) {
+        try {
+            List<Flower> updated = jdbc.query(UPDATE_SQL + " RETURNING *", flowerRowMapper(),
+                    updateArgs(flower, autoScheduling, expectedVersion));
+            if (updated.isEmpty()) {
+                throw staleOrMissing(flower.getFlower_id(), flower.getUserId());
+            }
+            return updated.get(0);
+        } catch (DuplicateKeyException e) {
+            throw new DuplicateFlowerException("Flower name already exists!");
+        }
+    }
+
+    private Object[] insertArgs(Flower flower) {
+        return new Object[]{
                 flower.getFlowerName(),
                 flower.getSpecies(),
                 flower.getColor() != null ? flower.getColor().getColorName() : null,
@@ -225,9 +413,52 @@ public class FlowerRepository {
                 flower.getMaxHeight(),
                 flower.getGrowthRate(),
                 flower.isAutoScheduling(),
-                flower.getFlower_id(),
                 UUID.fromString(flower.getUserId())
-        );
+        };
+    }
+
+    // No row matched: either the flower is gone or another writer moved its version on
+    private RuntimeException staleOrMissing(long flowerId, String userId) {
+        return existsByIdAndUserId(flowerId, userId)
+                ? new VersionConflictException("Flower", flowerId)
+                : new FlowerNotFoundException(flowerId);
+    }
+
+    private Object[] updateArgs(Flower flower, Boolean autoScheduling, Long expectedVersion) {
+        return new Object[]{
+                flower.getFlowerName(),
+                flower.getSpecies(),
+                flower.getColor() != null ? flower.getColor().getColorName() : null,
+                flower.getPlantingDate() != null ? Timestamp.valueOf(flower.getPlantingDate()) : null,
+                flower.getGridPosition(),
+                flower.getWaterFrequencyDays(),
+                flower.getFertilizeFrequencyDays(),
+                flower.getPruneFrequencyDays(),
+                flower.getLastWateredDate() != null ? Timestamp.valueOf(flower.getLastWateredDate()) : null,
+                flower.getLastFertilizedDate() != null ? Timestamp.valueOf(flower.getLastFertilizedDate()) : null,
+                flower.getLastPrunedDate() != null ? Timestamp.valueOf(flower.getLastPrunedDate()) : null,
+                flower.getMaxHeight(),
+                flower.getGrowthRate(),
+                autoScheduling,
+                flower.getFlower_id(),
+                UUID.fromString(flower.getUserId()),
+                expectedVersion
+        };
+    }
+
+    // Keyset page ordered by flower_id; the cursor carries the last flower_id seen
+    private List<Flower> findPage(String predicate, List<Object> args, PageCursor after, int limit) {
+        StringBuilder sql = new StringBuilder("SELECT * FROM flowerdetails WHERE ").append(predicate);
+        List<Object> params = new ArrayList<>(args);
+
+        if (after != null) {
+            sql.append(" AND flower_id > ?");
+            params.add(after.id());
+        }
+        sql.append(" ORDER BY flower_id LIMIT ?");
+        params.add(limit);
+
+        return jdbc.query(sql.toString(), flowerRowMapper(), params.toArray());
     }
 
     private RowMapper<Flower> flowerRowMapper() {
@@ -271,6 +502,7 @@ public class FlowerRepository {
             flower.setGrowthRate(growthRate);
 
             flower.setAutoScheduling(rs.getBoolean("auto_scheduling"));
+            flower.setVersion(rs.getLong("version"));
 
             // Map user_id - Handle both UUID (PostgreSQL) and String (H2)
             Object userIdObj = rs.getObject("user_id");
@@ -0,0 +1,158 @@
+package org.example.flowerapp.Repository;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.example.flowerapp.Configurations.JobWorkload;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.PreparedStatementCreator;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.support.KeyHolder;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.function.Supplier;
+
+/**
+ * The application's JdbcTemplate. Every statement gets a timeout from its {@link QueryClass}
+ * (queryForObject/update are point queries, everything else a list, anything on a job
+ * thread a job scan), shortened to what is left of the request's {@link QueryBudget}.
+ * Timeouts and cancellations are counted in db.query.timeouts / db.query.cancellations.
+ */
+@Component
+public class GovernedJdbcTemplate extends JdbcTemplate {
+
+    private static final String QUERY_CANCELED = "57014";
+    private static final ThreadLocal<QueryClass> QUERY_CLASS = new ThreadLocal<>();
+
+    private final long pointTimeoutMs;
+    private final long listTimeoutMs;
+    private final long jobScanTimeoutMs;
+    private final MeterRegistry meterRegistry;
+
+    public GovernedJdbcTemplate(DataSource dataSource,
+                                @Value("${query.timeout.point-ms:2000}") long pointTimeoutMs,
+                                @Value("${query.timeout.list-ms:5000}") long listTimeoutMs,
+                                @Value("${query.timeout.job-scan-ms:0}") long jobScanTimeoutMs,
+                                MeterRegistry meterRegistry) {
+        super(dataSource);
+        this.pointTimeoutMs = pointTimeoutMs;
+        this.listTimeoutMs = listTimeoutMs;
+        this.jobScanTimeoutMs = jobScanTimeoutMs;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public <T> T queryForObject(String sql, RowMapper<T> rowMapper) throws DataAccessException {
+        return as(QueryClass.POINT, () -> super.queryForObject(sql, rowMapper));
+    }
+
+    @Override
+    public <T> T queryForObject(String sql, Class<T> requiredType) throws DataAccessException {
+        return as(QueryClass.POINT, () -> super.queryForObject(sql, requiredType));
+    }
+
+    @Override
+    public <T> T queryForObject(String sql, RowMapper<T> rowMapper, Object... args) throws DataAccessException {
+        return as(QueryClass.POINT, () -> super.queryForObject(sql, rowMapper, args));
+    }
+
+    @Override
+    public <T> T queryForObject(String sql, Class<T> requiredType, Object... args) throws DataAccessException {
+        return as(QueryClass.POINT, () -> super.queryForObject(sql, requiredType, args));
+    }
+
+    @Override
+    public int update(String sql) throws DataAccessException {
+        return as(QueryClass.POINT, () -> super.update(sql));
+    }
+
+    @Override
+    public int update(String sql, Object... args) throws DataAccessException {
+        return as(QueryClass.POINT, () -> super.update(sql, args));
+    }
+
+    @Override
+    public int update(PreparedStatementCreator psc, KeyHolder generatedKeyHolder) throws DataAccessException {
+        return as(QueryClass.POINT, () -> super.update(psc, generatedKeyHolder));
+    }
+
+    /**
+     * Applies the timeout and cancellation tracking to a statement created outside the
+     * template, e.g. by {@link CursorQueries}.
+     */
+    public void govern(Statement statement) throws SQLException {
+        QueryClass queryClass = currentClass();
+        long timeoutMs = switch (queryClass) {
+            case POINT -> pointTimeoutMs;
+            case LIST -> listTimeoutMs;
+            case JOB_SCAN -> jobScanTimeoutMs;
+        };
+
+        QueryBudget budget = JobWorkload.isActive() ? null : QueryBudget.current();
+        if (budget != null) {
+            long remaining = budget.remainingMillis();
+            if (remaining <= 0 || budget.isCancelled()) {
+                countTimeout(queryClass);
+                throw new QueryTimeoutException("Request deadline exceeded before the query was sent");
+            }
+            timeoutMs = timeoutMs > 0 ? Math.min(timeoutMs, remaining) : remaining;
+            budget.track(statement);
+        }
+
+        if (timeoutMs > 0) {
+            // JDBC only takes whole seconds; a transaction timeout set by Spring may already be shorter
+            int seconds = (int) Math.max(1, (timeoutMs + 999) / 1000);
+            int existing = statement.getQueryTimeout();
+            statement.setQueryTimeout(existing > 0 ? Math.min(existing, seconds) : seconds);
+        }
+    }
+
+    @Override
+    protected void applyStatementSettings(Statement stmt) throws SQLException {
+        super.applyStatementSettings(stmt);
+        govern(stmt);
+    }
+
+    @Override
+    protected DataAccessException translateException(String task, String sql, SQLException ex) {
+        if (QUERY_CANCELED.equals(ex.getSQLState())) {
+            QueryBudget budget = QueryBudget.current();
+            if (budget == null || !budget.isCancelled()) {
+                // Cancellations by QueryDeadlineFilter are counted where they are issued
+                countTimeout(currentClass());
+            }
+            return new QueryTimeoutException(task + " was cancelled after exceeding its time limit", ex);
+        }
+        return super.translateException(task, sql, ex);
+    }
+
+    private QueryClass currentClass() {
+        if (JobWorkload.isActive()) {
+            return QueryClass.JOB_SCAN;
+        }
+        QueryClass explicit = QUERY_CLASS.get();
+        return explicit != null ? explicit : QueryClass.LIST;
+    }
+
+    private void countTimeout(QueryClass queryClass) {
+        meterRegistry.counter("db.query.timeouts", "class", queryClass.name().toLowerCase()).increment();
+    }
+
+    private static <T> T as(QueryClass queryClass, Supplier<T> call) {
+        QueryClass previous = QUERY_CLASS.get();
+        QUERY_CLASS.set(queryClass);
+        try {
+            return call.get();
+        } finally {
+            if (previous == null) {
+                QUERY_CLASS.remove();
+            } else {
+                QUERY_CLASS.set(previous);
+            }
+        }
+    }
+}
@@ -0,0 +1,135 @@
+package org.example.flowerapp.Repository;
+
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.Objects;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * DDL for the monthly partitions of growthdetails (see V4__partition_growthdetails.sql).
+ * Partitions are named growthdetails_YYYY_MM and cover [first of month, first of next month).
+ */
+@Repository
+public class GrowthPartitionRepository {
+    public static final String ARCHIVE_SCHEMA = "growth_archive";
+
+    private static final String PARENT = "growthdetails";
+    private static final String DEFAULT_PARTITION = "growthdetails_default";
+    private static final Pattern PARTITION_NAME = Pattern.compile("growthdetails_(\\d{4})_(\\d{2})");
+    private static final DateTimeFormatter NAME_SUFFIX = DateTimeFormatter.ofPattern("yyyy_MM");
+
+    private final JdbcTemplate jdbc;
+
+    public GrowthPartitionRepository(JdbcTemplate jdbc) {
+        this.jdbc = jdbc;
+    }
+
+    public List<YearMonth> findMonthlyPartitions() {
+        String sql = """
+                SELECT c.relname
+                FROM pg_inherits i
+                JOIN pg_class c ON c.oid = i.inhrelid
+                JOIN pg_class p ON p.oid = i.inhparent
+                WHERE p.relname = ? AND p.relnamespace = to_regnamespace(current_schema())
+                """;
+
+        return jdbc.queryForList(sql, String.class, PARENT).stream()
+                .map(PARTITION_NAME::matcher)
+                .filter(Matcher::matches)
+                .map(m -> YearMonth.of(Integer.parseInt(m.group(1)), Integer.parseInt(m.group(2))))
+                .sorted()
+                .toList();
+    }
+
+    /**
+     * Creates the partition for the month. Rows that were written before the partition
+     * existed sit in the default partition; they are moved across in the same transaction,
+     * otherwise Postgres refuses to attach the new range.
+     */
+    public void createMonthlyPartition(YearMonth month) {
+        String name = partitionName(month);
+        String from = "'" + month.atDay(1) + "'";
+        String to = "'" + month.plusMonths(1).atDay(1) + "'";
+
+        inTransaction(statement -> {
+            statement.execute("CREATE TABLE " + name
+                    + " (LIKE " + PARENT + " INCLUDING DEFAULTS INCLUDING CONSTRAINTS)");
+            statement.execute("WITH moved AS (DELETE FROM " + DEFAULT_PARTITION
+                    + " WHERE recorded_at >= " + from + " AND recorded_at < " + to + " RETURNING *)"
+                    + " INSERT INTO " + name + " SELECT * FROM moved");
+            statement.execute("ALTER TABLE " + PARENT + " ATTACH PARTITION " + name
+                    + " FOR VALUES FROM (" + from + ") TO (" + to + ")");
+        });
+    }
+
+    /**
+     * Number of flowers whose newest growth record lives in this partition. Detaching such a
+     * partition would make the flower look like it has no growth history at all.
+     */
+    public int countLatestRecordsIn(YearMonth month) {
+        String sql = """
+                SELECT COUNT(DISTINCT p.flower_id)
+                FROM %s p
+                WHERE NOT EXISTS (
+                    SELECT 1 FROM growthdetails g
+                    WHERE g.flower_id = p.flower_id
+                      AND g.recorded_at > p.recorded_at
+                )
+                """.formatted(partitionName(month));
+
+        Integer count = jdbc.queryForObject(sql, Integer.class);
+        return Objects.requireNonNullElse(count, 0);
+    }
+
+    /**
+     * Takes the partition out of growthdetails. With {@code drop} the rows are deleted,
+     * otherwise the table is kept as-is in the growth_archive schema for dumping or restore.
+     */
+    public void detachMonthlyPartition(YearMonth month, boolean drop) {
+        String name = partitionName(month);
+
+        inTransaction(statement -> {
+            statement.execute("ALTER TABLE " + PARENT + " DETACH PARTITION " + name);
+            if (drop) {
+                statement.execute("DROP TABLE " + name);
+            } else {
+                statement.execute("CREATE SCHEMA IF NOT EXISTS " + ARCHIVE_SCHEMA);
+                statement.execute("ALTER TABLE " + name + " SET SCHEMA " + ARCHIVE_SCHEMA);
+            }
+        });
+    }
+
+    private static String partitionName(YearMonth month) {
+        return PARENT + "_" + month.format(NAME_SUFFIX);
+    }
+
+    private void inTransaction(StatementWork work) {
+        jdbc.execute((ConnectionCallback<Void>) connection -> {
+            boolean autoCommit = connection.getAutoCommit();
+            connection.setAutoCommit(false);
+            try (Statement statement = connection.createStatement()) {
+                work.run(statement);
+                connection.commit();
+            } catch (SQLException | RuntimeException e) {
+                connection.rollback();
+                throw e;
+            } finally {
+                connection.setAutoCommit(autoCommit);
+            }
+            return null;
+        });
+    }
+
+    @FunctionalInterface
+    private interface StatementWork {
+        void run(Statement statement) throws SQLException;
+    }
+}
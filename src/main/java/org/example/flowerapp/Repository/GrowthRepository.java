@@ -1,15 +1,20 @@
 // GrowthRepository.java
 package org.example.flowerapp.Repository;
 
+import org.example.flowerapp.Exceptions.BusinessLogicExceptions.VersionConflictException;
 import org.example.flowerapp.Exceptions.EntityNotFoundExceptions.FlowerNotFoundException;
 import org.example.flowerapp.Exceptions.EntityNotFoundExceptions.GrowthNotFoundException;
 import org.example.flowerapp.Exceptions.EntityNotFoundExceptions.MaintenanceNotFoundException;
+import org.example.flowerapp.Exceptions.ValidationExceptions.InvalidCursorException;
 import org.example.flowerapp.Models.Enums.FlowerColor;
 import org.example.flowerapp.Models.Enums.GrowthStage;
 import org.example.flowerapp.Models.Enums.MaintenanceType;
 import org.example.flowerapp.Models.Flower;
 import org.example.flowerapp.Models.Growth;
+import org.example.flowerapp.Models.GrowthWeeklyRollup;
 import org.example.flowerapp.Models.Maintenance;
+import org.example.flowerapp.Models.PageCursor;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.dao.EmptyResultDataAccessException;
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.jdbc.core.RowMapper;
@@ -22,15 +27,24 @@ import java.sql.Statement;
 import java.sql.Timestamp;
 import java.time.LocalDateTime;
 import java.util.*;
+import java.util.function.Consumer;
 
 @Repository
 public class GrowthRepository {
     private final JdbcTemplate jdbc;
     private final FlowerRepository flowerRepository;
+    private final CursorQueries cursorQueries;
+    private final BatchStatements batchStatements;
+    private final int hotWindowDays;
 
-    public GrowthRepository(JdbcTemplate jdbc, FlowerRepository flowerRepository) {
+    public GrowthRepository(JdbcTemplate jdbc, FlowerRepository flowerRepository,
+                            CursorQueries cursorQueries, BatchStatements batchStatements,
+                            @Value("${growth.partitions.hot-window-days:90}") int hotWindowDays) {
         this.jdbc = jdbc;
         this.flowerRepository = flowerRepository;
+        this.cursorQueries = cursorQueries;
+        this.batchStatements = batchStatements;
+        this.hotWindowDays = hotWindowDays;
     }
 
     public Growth save(Growth growth) {
@@ -42,6 +56,44 @@ public class GrowthRepository {
         }
     }
 
+    // Inserts new records and updates existing ones in chunks; generated ids are set on the inputs
+    public List<Growth> saveAll(Collection<Growth> growths) {
+        List<Growth> toInsert = new ArrayList<>();
+        List<Growth> toUpdate = new ArrayList<>();
+        for (Growth growth : growths) {
+            (growth.getGrowth_id() == 0 ? toInsert : toUpdate).add(growth);
+        }
+
+        if (!toInsert.isEmpty()) {
+            List<Long> ids = batchStatements.insertReturningIds(
+                    "INSERT INTO growthdetails (flower_id, stage, height, color_changes, notes, recorded_at, growth_since_last, user_id)",
+                    "(?, ?, ?, ?, ?, ?, ?, ?)",
+                    "growth_id",
+                    toInsert.stream().map(this::insertArgs).toList());
+            for (int i = 0; i < toInsert.size(); i++) {
+                toInsert.get(i).setGrowth_id(ids.get(i));
+            }
+        }
+
+        if (!toUpdate.isEmpty()) {
+            int[] counts = batchStatements.update(UPDATE_SQL, toUpdate.stream().map(this::updateArgs).toList());
+            List<Long> stale = new ArrayList<>();
+            for (int i = 0; i < counts.length; i++) {
+                Growth growth = toUpdate.get(i);
+                if (counts[i] == 0) {
+                    stale.add(growth.getGrowth_id());
+                } else {
+                    growth.setVersion(growth.getVersion() + 1);
+                }
+            }
+            // The rest of the batch is written; callers re-read and retry the stale rows
+            if (!stale.isEmpty()) {
+                throw new VersionConflictException("Growth record", stale);
+            }
+        }
+        return new ArrayList<>(growths);
+    }
+
     public Growth findByGrowthIdAndUserId(long id, String userId) {
         String sql = "SELECT * FROM growthdetails WHERE growth_id = ? AND user_id = ?";
         try {
@@ -56,6 +108,10 @@ public class GrowthRepository {
         return jdbc.query(sql, growthRowMapper(), UUID.fromString(userId));
     }
 
+    public List<Growth> findAllGrowthByUserId(String userId, PageCursor after, int limit) {
+        return findPage("user_id = ?", List.of(UUID.fromString(userId)), after, limit);
+    }
+
     // Alias for JPA-style naming (used in integration tests)
     public List<Growth> findAllByUserId(String userId) {
         return findAllGrowthByUserId(userId);
@@ -66,6 +122,10 @@ public class GrowthRepository {
         return jdbc.query(sql, growthRowMapper(), flowerId, UUID.fromString(userId));
     }
 
+    public List<Growth> findByFlowerIdAndUserId(long flowerId, String userId, PageCursor after, int limit) {
+        return findPage("flower_id = ? AND user_id = ?", List.of(flowerId, UUID.fromString(userId)), after, limit);
+    }
+
     // Find all growth records for a specific flower, ordered by recorded date (newest first)
     // Used in integration tests
     public List<Growth> findByFlowerAndUserIdOrderByRecordedAtDesc(Flower flower, String userId) {
@@ -89,14 +149,41 @@ public class GrowthRepository {
         }
     }
 
+    // Streams every growth record through a server-side cursor (used by the cleanup job)
+    public void forEach(Consumer<? super Growth> action) {
+        String sql = "SELECT * FROM growthdetails ORDER BY growth_id";
+        cursorQueries.forEach(sql, growthRowMapper(), action);
+    }
+
+    public int countByFlowerIdAndUserId(long flowerId, String userId) {
+        String sql = "SELECT COUNT(*) FROM growthdetails WHERE flower_id = ? AND user_id = ?";
+        Integer count = jdbc.queryForObject(sql, Integer.class, flowerId, UUID.fromString(userId));
+        return count != null ? count : 0;
+    }
+
+    // Streams a flower's height series oldest first, without building a Growth per row (growth charts)
+    public void forEachSeriesPoint(long flowerId, String userId, SeriesPointConsumer action) {
+        String sql = """
+        SELECT recorded_at, height, stage
+        FROM growthdetails
+        WHERE flower_id = ? AND user_id = ?
+        ORDER BY recorded_at
+        """;
+        cursorQueries.forEachRow(sql, rs -> action.accept(
+                rs.getTimestamp("recorded_at").getTime(),
+                rs.getDouble("height"),
+                GrowthStage.fromString(rs.getString("stage"))
+        ), flowerId, UUID.fromString(userId));
+    }
+
+    @FunctionalInterface
+    public interface SeriesPointConsumer {
+        void accept(long recordedAtMillis, double height, GrowthStage stage);
+    }
+
     // Find latest growth record for a specific flower (used by GrowthAutomationService)
     public Growth findLatestByFlowerIdAndUserId(long flowerId, String userId) {
-        String sql = "SELECT * FROM growthdetails WHERE flower_id = ? AND user_id = ? ORDER BY recorded_at DESC LIMIT 1";
-        try {
-            return jdbc.queryForObject(sql, growthRowMapper(), flowerId, UUID.fromString(userId));
-        } catch (EmptyResultDataAccessException e) {
-            return null; // No growth record exists yet
-        }
+        return findLatest("flower_id = ? AND user_id = ?", flowerId, UUID.fromString(userId));
     }
 
     public List<Growth> findByStageAndUserId(GrowthStage stage, String userId) {
@@ -109,6 +196,14 @@ public class GrowthRepository {
         return jdbc.query(sql, growthRowMapper(), colorChanges, UUID.fromString(userId));
     }
 
+    public List<Growth> findByStageAndUserId(GrowthStage stage, String userId, PageCursor after, int limit) {
+        return findPage("stage = ? AND user_id = ?", List.of(stage.getGrowthStage(), UUID.fromString(userId)), after, limit);
+    }
+
+    public List<Growth> findByColorChangesAndUserId(boolean colorChanges, String userId, PageCursor after, int limit) {
+        return findPage("color_changes = ? AND user_id = ?", List.of(colorChanges, UUID.fromString(userId)), after, limit);
+    }
+
     public void deleteGrowth(long id, String userId) {
         String sql = "DELETE FROM growthdetails WHERE growth_id = ? AND user_id = ?";
         int rowsAffected = jdbc.update(sql, id, UUID.fromString(userId));
@@ -135,12 +230,54 @@ public class GrowthRepository {
     }
 
     public Growth findLatestByFlowerId(Long flowerId) {
-        String sql = "SELECT * FROM growthdetails WHERE flower_id = ? ORDER BY recorded_at DESC LIMIT 1";
-        try {
-            return jdbc.queryForObject(sql, growthRowMapper(), flowerId);
-        } catch (EmptyResultDataAccessException e) {
-            return null;
+        return findLatest("flower_id = ?", flowerId);
+    }
+
+    // growthdetails is partitioned by month. The latest record is nearly always recent, so the
+    // first query is bounded to the hot window and the planner only visits the newest
+    // partitions; the unbounded query runs only for flowers without a recent record.
+    private Growth findLatest(String predicate, Object... args) {
+        String sql = "SELECT * FROM growthdetails WHERE " + predicate
+                + " AND recorded_at >= ? ORDER BY recorded_at DESC LIMIT 1";
+        Object[] hotArgs = Arrays.copyOf(args, args.length + 1);
+        hotArgs[args.length] = Timestamp.valueOf(LocalDateTime.now().minusDays(hotWindowDays));
+
+        List<Growth> recent = jdbc.query(sql, growthRowMapper(), hotArgs);
+        if (!recent.isEmpty()) {
+            return recent.get(0);
+        }
+
+        List<Growth> older = jdbc.query("SELECT * FROM growthdetails WHERE " + predicate
+                + " ORDER BY recorded_at DESC LIMIT 1", growthRowMapper(), args);
+        return older.isEmpty() ? null : older.get(0); // No growth record exists yet
+    }
+
+    /**
+     * Latest record of each given flower, keyed by flower id, in at most two round trips:
+     * the hot window first, then the full history for flowers without a recent record.
+     * Flowers without any record are absent from the result.
+     */
+    public Map<Long, Growth> findLatestByFlowers(Map<Long, Flower> flowers) {
+        Map<Long, Growth> latest = new HashMap<>();
+        if (flowers.isEmpty()) {
+            return latest;
+        }
+
+        String sql = "SELECT DISTINCT ON (flower_id) * FROM growthdetails WHERE flower_id = ANY(?)";
+        String order = " ORDER BY flower_id, recorded_at DESC";
+        RowMapper<Growth> mapper = growthRowMapper(flowers);
+
+        jdbc.query(sql + " AND recorded_at >= ?" + order, mapper,
+                        flowers.keySet().toArray(new Long[0]),
+                        Timestamp.valueOf(LocalDateTime.now().minusDays(hotWindowDays)))
+                .forEach(growth -> latest.put(growth.getFlower().getFlower_id(), growth));
+
+        Long[] missing = flowers.keySet().stream().filter(id -> !latest.containsKey(id)).toArray(Long[]::new);
+        if (missing.length > 0) {
+            jdbc.query(sql + order, mapper, (Object) missing)
+                    .forEach(growth -> latest.put(growth.getFlower().getFlower_id(), growth));
         }
+        return latest;
     }
 
     public List<Growth> findByFlowerId(Long flowerId) {
@@ -176,14 +313,42 @@ public class GrowthRepository {
         return growth;
     }
 
-    private void update(Growth growth) {
-        String sql = """
+    private static final String UPDATE_SQL = """
         UPDATE growthdetails 
-        SET stage = ?, height = ?, color_changes = ?, notes = ?, recorded_at = ?, growth_since_last = ? 
-        WHERE growth_id = ? AND user_id = ?
+        SET stage = ?, height = ?, color_changes = ?, notes = ?, recorded_at = ?, growth_since_last = ?,
+            version = version + 1
+        WHERE growth_id = ? AND user_id = ? AND version = ?
         """;
 
-        jdbc.update(sql,
+    private void update(Growth growth) {
+        if (jdbc.update(UPDATE_SQL, updateArgs(growth)) == 0) {
+            // No row matched: either the record is gone or another writer moved its version on
+            Integer count = jdbc.queryForObject("SELECT COUNT(*) FROM growthdetails WHERE growth_id = ? AND user_id = ?",
+                    Integer.class, growth.getGrowth_id(), UUID.fromString(growth.getUserId()));
+            if (count == null || count == 0) {
+                throw new GrowthNotFoundException(growth.getGrowth_id());
+            }
+            throw new VersionConflictException("Growth record", growth.getGrowth_id());
+        }
+        growth.setVersion(growth.getVersion() + 1);
+    }
+
+    private Object[] insertArgs(Growth growth) {
+        return new Object[]{
+                growth.getFlower().getFlower_id(),
+                getGrowthStageString(growth),
+                growth.getHeight(),
+                growth.isColorChanges(),
+                growth.getNotes(),
+                growth.getRecordedAt() != null ?
+                        Timestamp.valueOf(growth.getRecordedAt()) : Timestamp.valueOf(LocalDateTime.now()),
+                growth.getGrowthSinceLast(),
+                UUID.fromString(growth.getUserId())
+        };
+    }
+
+    private Object[] updateArgs(Growth growth) {
+        return new Object[]{
                 getGrowthStageString(growth),
                 growth.getHeight(),
                 growth.isColorChanges(),
@@ -191,10 +356,76 @@ public class GrowthRepository {
                 growth.getRecordedAt() != null ? Timestamp.valueOf(growth.getRecordedAt()) : null,
                 growth.getGrowthSinceLast(),
                 growth.getGrowth_id(),
-                UUID.fromString(growth.getUserId()));
+                UUID.fromString(growth.getUserId()),
+                growth.getVersion()
+        };
+    }
+
+    public List<GrowthWeeklyRollup> findWeeklyRollupsByUserId(String userId, PageCursor after, int limit) {
+        return findRollupPage("user_id = ?", List.of(UUID.fromString(userId)), after, limit);
+    }
+
+    public List<GrowthWeeklyRollup> findWeeklyRollupsByFlowerIdAndUserId(long flowerId, String userId,
+                                                                       PageCursor after, int limit) {
+        return findRollupPage("flower_id = ? AND user_id = ?", List.of(flowerId, UUID.fromString(userId)), after, limit);
+    }
+
+    // growth_weekly_rollup is kept current by a trigger on growthdetails (V6, V11), so reads never aggregate raw rows.
+    // Keyset page ordered by week_start DESC with flower_id as tie-breaker.
+    private List<GrowthWeeklyRollup> findRollupPage(String predicate, List<Object> args, PageCursor after, int limit) {
+        StringBuilder sql = new StringBuilder("SELECT * FROM growth_weekly_rollup WHERE ").append(predicate);
+        List<Object> params = new ArrayList<>(args);
+
+        if (after != null) {
+            if (after.sortKey() == null) {
+                throw new InvalidCursorException("Page cursor does not belong to a growth listing");
+            }
+            sql.append(" AND (week_start, flower_id) < (?, ?)");
+            params.add(java.sql.Date.valueOf(after.sortKey().toLocalDate()));
+            params.add(after.id());
+        }
+        sql.append(" ORDER BY week_start DESC, flower_id DESC LIMIT ?");
+        params.add(limit);
+
+        return jdbc.query(sql.toString(), (rs, rowNum) -> new GrowthWeeklyRollup(
+                rs.getLong("flower_id"),
+                rs.getDate("week_start").toLocalDate(),
+                rs.getDouble("min_height"),
+                rs.getDouble("max_height"),
+                rs.getDouble("last_height"),
+                GrowthStage.fromString(rs.getString("last_stage")),
+                rs.getTimestamp("last_recorded_at").toLocalDateTime(),
+                rs.getBoolean("color_changed"),
+                rs.getInt("sample_count")
+        ), params.toArray());
+    }
+
+    // Keyset page ordered by (recorded_at DESC, growth_id DESC); growth_id breaks ties
+    // between rows recorded at the same instant
+    private List<Growth> findPage(String predicate, List<Object> args, PageCursor after, int limit) {
+        StringBuilder sql = new StringBuilder("SELECT * FROM growthdetails WHERE ").append(predicate);
+        List<Object> params = new ArrayList<>(args);
+
+        if (after != null) {
+            if (after.sortKey() == null) {
+                throw new InvalidCursorException("Page cursor does not belong to a growth listing");
+            }
+            sql.append(" AND (recorded_at, growth_id) < (?, ?)");
+            params.add(Timestamp.valueOf(after.sortKey()));
+            params.add(after.id());
+        }
+        sql.append(" ORDER BY recorded_at DESC, growth_id DESC LIMIT ?");
+        params.add(limit);
+
+        return jdbc.query(sql.toString(), growthRowMapper(), params.toArray());
     }
 
     private RowMapper<Growth> growthRowMapper() {
+        return growthRowMapper(Map.of());
+    }
+
+    // Flowers already in the map are attached as they are instead of being re-read per row
+    private RowMapper<Growth> growthRowMapper(Map<Long, Flower> loaded) {
         return (rs, i) -> {
             Growth growth = new Growth();
             growth.setGrowth_id(rs.getLong("growth_id"));
@@ -213,8 +444,11 @@ public class GrowthRepository {
             }
             growth.setUserId(userId);
 
-            // Only fetch flower if userId is available
-            if (userId != null) {
+            Flower known = loaded.get(rs.getLong("flower_id"));
+            if (known != null) {
+                growth.setFlower(known);
+            } else if (userId != null) {
+                // Only fetch flower if userId is available
                 Flower flower = flowerRepository.findByFlowerIdAndUserId(rs.getLong("flower_id"), userId);
                 growth.setFlower(flower);
             }
@@ -232,6 +466,7 @@ public class GrowthRepository {
 
             Double growthSinceLast = (Double) rs.getObject("growth_since_last");
             growth.setGrowthSinceLast(growthSinceLast);
+            growth.setVersion(rs.getLong("version"));
 
             return growth;
         };
@@ -0,0 +1,116 @@
+package org.example.flowerapp.Repository;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Leases on the job_lock table (see V9__job_lock.sql). All times are the database's
+ * clock_timestamp(), so the lease is judged by one clock however far the nodes' clocks drift.
+ */
+@Repository
+public class JobLockRepository {
+
+    /** A lease that was granted, and when the job last started before it (null on its first run). */
+    public record Grant(long fencingToken, LocalDateTime previousRunAt) {
+    }
+
+    private final JdbcTemplate jdbc;
+
+    public JobLockRepository(JdbcTemplate jdbc) {
+        this.jdbc = jdbc;
+    }
+
+    /**
+     * Takes the job's lease for the owner if nobody holds it or the holder's lease ran out.
+     * Empty while another node holds it.
+     */
+    public Optional<Grant> tryAcquire(String jobName, String owner, Duration lease) {
+        // A row locked by a holder's write transaction (see isHeld) is a live lease; skip it
+        // instead of queueing behind that transaction until it commits
+        String busy = """
+                SELECT EXISTS (SELECT 1 FROM job_lock WHERE job_name = ?)
+                   AND NOT EXISTS (SELECT 1 FROM job_lock WHERE job_name = ? FOR NO KEY UPDATE SKIP LOCKED)
+                """;
+        if (Boolean.TRUE.equals(jdbc.queryForObject(busy, Boolean.class, jobName, jobName))) {
+            return Optional.empty();
+        }
+
+        String sql = """
+                INSERT INTO job_lock (job_name, owner, locked_at, locked_until)
+                VALUES (?, ?, clock_timestamp(), clock_timestamp() + make_interval(secs => ?))
+                ON CONFLICT (job_name) DO UPDATE
+                SET owner = EXCLUDED.owner,
+                    previous_locked_at = job_lock.locked_at,
+                    locked_at = EXCLUDED.locked_at,
+                    locked_until = EXCLUDED.locked_until,
+                    fencing_token = job_lock.fencing_token + 1
+                WHERE job_lock.locked_until <= clock_timestamp()
+                RETURNING fencing_token, previous_locked_at
+                """;
+
+        List<Grant> granted = jdbc.query(sql, (rs, rowNum) -> {
+            Timestamp previous = rs.getTimestamp("previous_locked_at");
+            return new Grant(rs.getLong("fencing_token"), previous != null ? previous.toLocalDateTime() : null);
+        }, jobName, owner, seconds(lease));
+        return granted.stream().findFirst();
+    }
+
+    /**
+     * Pushes the lease out by another lease length; false once the lease was taken over.
+     * Fails with CannotAcquireLockException rather than waiting while the job's own write
+     * transaction share-locks the row, since nobody can take the lease over until it ends.
+     */
+    public boolean extend(String jobName, String owner, long fencingToken, Duration lease) {
+        String sql = """
+                UPDATE job_lock
+                SET locked_until = clock_timestamp() + make_interval(secs => ?)
+                WHERE job_name = (SELECT job_name FROM job_lock WHERE job_name = ? FOR NO KEY UPDATE NOWAIT)
+                  AND owner = ? AND fencing_token = ?
+                  AND locked_until > clock_timestamp()
+                """;
+
+        return jdbc.update(sql, seconds(lease), jobName, owner, fencingToken) == 1;
+    }
+
+    /**
+     * Gives the lease up, but keeps it until at least minHold after it was taken so that a
+     * node whose clock fires the same cron a little later does not run the job a second time.
+     */
+    public void release(String jobName, String owner, long fencingToken, Duration minHold) {
+        String sql = """
+                UPDATE job_lock
+                SET locked_until = GREATEST(clock_timestamp(), locked_at + make_interval(secs => ?))
+                WHERE job_name = ? AND owner = ? AND fencing_token = ?
+                """;
+
+        jdbc.update(sql, seconds(minHold), jobName, owner, fencingToken);
+    }
+
+    /**
+     * True while the token is the live lease. Runs in the caller's transaction and share-locks
+     * the row until it commits, so no other node can take the lease over between this check
+     * and the caller's writes.
+     */
+    public boolean isHeld(String jobName, long fencingToken) {
+        String sql = """
+                SELECT COUNT(*) FROM (
+                    SELECT 1 FROM job_lock
+                    WHERE job_name = ? AND fencing_token = ? AND locked_until > clock_timestamp()
+                    FOR SHARE
+                ) held
+                """;
+
+        Integer count = jdbc.queryForObject(sql, Integer.class, jobName, fencingToken);
+        return count != null && count > 0;
+    }
+
+    private static double seconds(Duration duration) {
+        return duration.toMillis() / 1000.0;
+    }
+}
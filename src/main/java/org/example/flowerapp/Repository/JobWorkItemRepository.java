@@ -0,0 +1,147 @@
+package org.example.flowerapp.Repository;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * The job_work_item queue (see V10__job_work_item.sql). Claims take the oldest open chunk
+ * with FOR UPDATE SKIP LOCKED, so any number of workers on any number of nodes each get a
+ * different chunk without waiting on one another.
+ */
+@Repository
+public class JobWorkItemRepository {
+
+    /** A claimed chunk; attempt is this claim's number and fences its ack against later claims. */
+    public record Item(long itemId, String jobName, long firstFlowerId, long lastFlowerId,
+                       LocalDateTime runAt, int attempt) {
+    }
+
+    /** Which flowers a job run covers. */
+    public enum FlowerScope {
+        DUE_FOR_HEALTH_CHECK("next_health_check_at <= ?", true),
+        AUTO_SCHEDULING("auto_scheduling = true", false);
+
+        private final String condition;
+        private final boolean bindsRunAt;
+
+        FlowerScope(String condition, boolean bindsRunAt) {
+            this.condition = condition;
+            this.bindsRunAt = bindsRunAt;
+        }
+    }
+
+    private final JdbcTemplate jdbc;
+
+    public JobWorkItemRepository(JdbcTemplate jdbc) {
+        this.jdbc = jdbc;
+    }
+
+    /**
+     * Queues the run as chunks of up to chunkSize consecutive flowers in scope. Nothing is
+     * queued while the job still has open chunks from an earlier run. Returns the chunk count.
+     */
+    public int enqueueFlowerChunks(String jobName, FlowerScope scope, LocalDateTime runAt, int chunkSize) {
+        String sql = """
+                INSERT INTO job_work_item (job_name, first_id, last_id, run_at)
+                SELECT ?, MIN(flower_id), MAX(flower_id), ?
+                FROM (
+                    SELECT flower_id, (row_number() OVER (ORDER BY flower_id) - 1) / ? AS chunk
+                    FROM flowerdetails
+                    WHERE %s
+                      AND NOT EXISTS (SELECT 1 FROM job_work_item
+                                      WHERE job_name = ? AND status IN ('PENDING', 'CLAIMED'))
+                ) numbered
+                GROUP BY chunk
+                ORDER BY chunk
+                """.formatted(scope.condition);
+
+        List<Object> args = new ArrayList<>(List.of(jobName, Timestamp.valueOf(runAt), chunkSize));
+        if (scope.bindsRunAt) {
+            args.add(Timestamp.valueOf(runAt));
+        }
+        args.add(jobName);
+        return jdbc.update(sql, args.toArray());
+    }
+
+    /**
+     * Claims the oldest pending chunk of the given jobs, or one whose claim ran out, for
+     * claimTimeout. Chunks that used up maxAttempts are not handed out again.
+     */
+    public Optional<Item> claim(Collection<String> jobNames, String owner, Duration claimTimeout, int maxAttempts) {
+        String sql = """
+                UPDATE job_work_item
+                SET status = 'CLAIMED', claimed_by = ?, attempts = attempts + 1,
+                    claimed_until = clock_timestamp() + make_interval(secs => ?)
+                WHERE item_id = (
+                    SELECT item_id FROM job_work_item
+                    WHERE status IN ('PENDING', 'CLAIMED')
+                      AND (status = 'PENDING' OR claimed_until < clock_timestamp())
+                      AND job_name = ANY(?) AND attempts < ?
+                    ORDER BY item_id
+                    LIMIT 1
+                    FOR UPDATE SKIP LOCKED
+                )
+                RETURNING item_id, job_name, first_id, last_id, run_at, attempts
+                """;
+
+        List<Item> claimed = jdbc.query(sql, itemRowMapper(), owner, claimTimeout.toMillis() / 1000.0,
+                jobNames.toArray(new String[0]), maxAttempts);
+        return claimed.stream().findFirst();
+    }
+
+    /** Acknowledges a processed chunk; false if the claim ran out and the chunk was claimed again. */
+    public boolean acknowledge(Item item, String owner) {
+        String sql = "DELETE FROM job_work_item WHERE item_id = ? AND claimed_by = ? AND attempts = ?";
+        return jdbc.update(sql, item.itemId(), owner, item.attempt()) == 1;
+    }
+
+    /** Hands a chunk whose processing failed back to the queue, or keeps it as FAILED after maxAttempts. */
+    public void fail(Item item, String owner, String error, int maxAttempts) {
+        String sql = """
+                UPDATE job_work_item
+                SET status = CASE WHEN attempts >= ? THEN 'FAILED' ELSE 'PENDING' END,
+                    claimed_by = NULL, claimed_until = NULL, last_error = ?
+                WHERE item_id = ? AND claimed_by = ? AND attempts = ?
+                """;
+        jdbc.update(sql, maxAttempts, error, item.itemId(), owner, item.attempt());
+    }
+
+    /**
+     * Marks chunks whose last allowed claim ran out as FAILED, so they no longer hold up the
+     * next run, and drops failed chunks older than keepFailed.
+     */
+    public int retireAbandoned(int maxAttempts, Duration keepFailed) {
+        String sql = """
+                UPDATE job_work_item
+                SET status = 'FAILED', last_error = COALESCE(last_error, 'claim expired')
+                WHERE status = 'CLAIMED' AND claimed_until < clock_timestamp() AND attempts >= ?
+                """;
+        int retired = jdbc.update(sql, maxAttempts);
+
+        String purge = """
+                DELETE FROM job_work_item
+                WHERE status = 'FAILED' AND created_at < clock_timestamp() - make_interval(secs => ?)
+                """;
+        jdbc.update(purge, keepFailed.toMillis() / 1000.0);
+        return retired;
+    }
+
+    private static RowMapper<Item> itemRowMapper() {
+        return (rs, rowNum) -> new Item(
+                rs.getLong("item_id"),
+                rs.getString("job_name"),
+                rs.getLong("first_id"),
+                rs.getLong("last_id"),
+                rs.getTimestamp("run_at").toLocalDateTime(),
+                rs.getInt("attempts"));
+    }
+}
@@ -1,11 +1,13 @@
 package org.example.flowerapp.Repository;
 
 import com.sun.tools.javac.Main;
+import org.example.flowerapp.Exceptions.BusinessLogicExceptions.VersionConflictException;
 import org.example.flowerapp.Exceptions.EntityNotFoundExceptions.MaintenanceNotFoundException;
 import org.example.flowerapp.Models.Enums.MaintenanceType;
 import org.example.flowerapp.Models.Flower;
 import org.example.flowerapp.Models.Growth;
 import org.example.flowerapp.Models.Maintenance;
+import org.example.flowerapp.Models.PageCursor;
 import org.springframework.dao.EmptyResultDataAccessException;
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.jdbc.core.RowMapper;
@@ -16,20 +18,32 @@ import org.springframework.stereotype.Repository;
 import java.sql.PreparedStatement;
 import java.sql.Statement;
 import java.sql.Timestamp;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
+import java.util.OptionalLong;
 import java.util.UUID;
+import java.util.function.Consumer;
 
 @Repository
 public class MaintenanceRepository {
     private final JdbcTemplate jdbc;
     private final FlowerRepository flowerRepository;
+    private final CursorQueries cursorQueries;
+    private final BatchStatements batchStatements;
 
-    public MaintenanceRepository(JdbcTemplate jdbc, FlowerRepository flowerRepository) {
+    public MaintenanceRepository(JdbcTemplate jdbc, FlowerRepository flowerRepository,
+                                 CursorQueries cursorQueries, BatchStatements batchStatements) {
         this.jdbc = jdbc;
         this.flowerRepository = flowerRepository;
+        this.cursorQueries = cursorQueries;
+        this.batchStatements = batchStatements;
     }
 
     public Maintenance save(Maintenance maintenance) {
@@ -41,10 +55,69 @@ public class MaintenanceRepository {
         }
     }
 
+    /**
+     * Inserts new tasks and updates existing ones in chunks; generated ids are set on the inputs.
+     * An auto-generated task whose flower already has one of that type on that day (another
+     * node got there first, see V12__auto_task_per_day.sql) is skipped and keeps task_id 0.
+     */
+    public List<Maintenance> saveAll(Collection<Maintenance> maintenances) {
+        List<Maintenance> toInsert = new ArrayList<>();
+        List<Maintenance> autoToInsert = new ArrayList<>();
+        List<Maintenance> toUpdate = new ArrayList<>();
+        for (Maintenance maintenance : maintenances) {
+            if (maintenance.getTask_id() != 0) {
+                toUpdate.add(maintenance);
+            } else {
+                (maintenance.isAutoGenerated() ? autoToInsert : toInsert).add(maintenance);
+            }
+        }
+
+        if (!toInsert.isEmpty()) {
+            List<Long> ids = batchStatements.insertReturningIds(INSERT_PREFIX, INSERT_ROW, "task_id",
+                    toInsert.stream().map(this::insertArgs).toList());
+            for (int i = 0; i < toInsert.size(); i++) {
+                toInsert.get(i).setTask_id(ids.get(i));
+            }
+        }
+
+        if (!autoToInsert.isEmpty()) {
+            insertAutoGenerated(autoToInsert);
+        }
+
+        if (!toUpdate.isEmpty()) {
+            int[] counts = batchStatements.update(UPDATE_SQL, toUpdate.stream().map(this::updateArgs).toList());
+            List<Long> stale = new ArrayList<>();
+            for (int i = 0; i < counts.length; i++) {
+                Maintenance maintenance = toUpdate.get(i);
+                if (counts[i] == 0) {
+                    stale.add(maintenance.getTask_id());
+                } else {
+                    maintenance.setVersion(maintenance.getVersion() + 1);
+                }
+            }
+            // The rest of the batch is written; callers re-read and retry the stale rows
+            if (!stale.isEmpty()) {
+                throw new VersionConflictException("Maintenance task", stale);
+            }
+        }
+        return new ArrayList<>(maintenances);
+    }
+
     public Maintenance findByTaskIdAndUserId(long taskId, String userId) {
+        return findByTaskIdAndUserId(taskId, userId, false);
+    }
+
+    public Maintenance findByTaskIdAndUserId(long taskId, String userId, boolean includeHistory) {
         String sql = "SELECT * FROM maintenance WHERE task_id = ? AND user_id = ?::uuid";
+        Object[] args = {taskId, userId};
+        if (includeHistory) {
+            sql = "SELECT " + COLUMNS + " FROM maintenance WHERE task_id = ? AND user_id = ?::uuid"
+                    + " UNION ALL SELECT " + COLUMNS + " FROM maintenance_history WHERE task_id = ? AND user_id = ?::uuid";
+            args = new Object[]{taskId, userId, taskId, userId};
+        }
+
         try {
-            return jdbc.queryForObject(sql, maintenanceRowMapper(), taskId, userId);
+            return jdbc.queryForObject(sql, maintenanceRowMapper(), args);
         } catch (EmptyResultDataAccessException e) {
             throw new MaintenanceNotFoundException(taskId);
         }
@@ -60,6 +133,12 @@ public class MaintenanceRepository {
         }
     }
 
+    // Streams every maintenance task through a server-side cursor (used by the cleanup job)
+    public void forEach(Consumer<? super Maintenance> action) {
+        String sql = "SELECT * FROM maintenance ORDER BY task_id";
+        cursorQueries.forEach(sql, maintenanceRowMapper(), action);
+    }
+
     public List<Maintenance> findAllMaintenanceByUserId(String userId) {
         String sql = "SELECT * FROM maintenance WHERE user_id = ?::uuid";
         try {
@@ -73,6 +152,11 @@ public class MaintenanceRepository {
         }
     }
 
+    public List<Maintenance> findAllMaintenanceByUserId(String userId, PageCursor after, int limit,
+                                                        boolean includeHistory) {
+        return findPage("user_id = ?::uuid", List.of(userId), after, limit, includeHistory);
+    }
+
     public List<Maintenance> findByFlowerId(Long flowerId) {
         String sql = "SELECT * FROM maintenance WHERE flower_id = ?";
 
@@ -98,6 +182,90 @@ public class MaintenanceRepository {
         return jdbc.query(sql, maintenanceRowMapper(), Timestamp.valueOf(dateTime), userId);
     }
 
+    public List<Maintenance> findByFlowerIdAndUserId(long flowerId, String userId, PageCursor after, int limit,
+                                                     boolean includeHistory) {
+        return findPage("flower_id = ? AND user_id = ?::uuid", List.of(flowerId, userId), after, limit,
+                includeHistory);
+    }
+
+    public List<Maintenance> findByMaintenanceTypeAndUserId(MaintenanceType maintenanceType, String userId,
+                                                            PageCursor after, int limit, boolean includeHistory) {
+        return findPage("maintenance_type = ? AND user_id = ?::uuid", List.of(maintenanceType.name(), userId), after, limit,
+                includeHistory);
+    }
+
+    public List<Maintenance> findByMaintenanceDateAndUserId(LocalDateTime dateTime, String userId,
+                                                            PageCursor after, int limit, boolean includeHistory) {
+        return findPage("maintenance_date = ? AND user_id = ?::uuid", List.of(Timestamp.valueOf(dateTime), userId), after, limit,
+                includeHistory);
+    }
+
+    /**
+     * Marks the user's open tasks among {@code taskIds} completed and, in the same statement,
+     * moves the matching last_watered / last_fertilized / last_pruned_date of their flowers
+     * forward to the completion time. Returns the tasks that changed; ids that are unknown,
+     * belong to someone else or were already completed are left out.
+     */
+    public List<Maintenance> completeTasks(Collection<Long> taskIds, String userId, LocalDateTime completedAt) {
+        String sql = """
+        WITH done AS (
+            UPDATE maintenance
+            SET completed = TRUE, completed_at = ?, version = version + 1
+            WHERE task_id = ANY(?) AND user_id = ?::uuid AND completed = FALSE
+            RETURNING *
+        ), care AS (
+            SELECT flower_id,
+                   MAX(completed_at) FILTER (WHERE maintenance_type = 'WATERING')    AS watered,
+                   MAX(completed_at) FILTER (WHERE maintenance_type = 'FERTILIZING') AS fertilized,
+                   MAX(completed_at) FILTER (WHERE maintenance_type = 'PRUNING')     AS pruned
+            FROM done
+            GROUP BY flower_id
+        ), advanced AS (
+            UPDATE flowerdetails f
+            SET last_watered     = GREATEST(f.last_watered, c.watered),
+                last_fertilized  = GREATEST(f.last_fertilized, c.fertilized),
+                last_pruned_date = GREATEST(f.last_pruned_date, c.pruned),
+                version          = f.version + 1
+            FROM care c
+            WHERE f.flower_id = c.flower_id
+              AND f.user_id = ?::uuid
+              AND (c.watered IS NOT NULL OR c.fertilized IS NOT NULL OR c.pruned IS NOT NULL)
+        )
+        SELECT * FROM done ORDER BY task_id
+        """;
+
+        return jdbc.query(sql, maintenanceRowMapper(),
+                Timestamp.valueOf(completedAt), taskIds.toArray(new Long[0]), userId, userId);
+    }
+
+    /**
+     * Moves up to {@code limit} completed tasks finished before the cutoff into
+     * maintenance_history in a single statement and returns how many were moved.
+     * Tasks without completed_at fall back to created_at. SKIP LOCKED lets a concurrent
+     * update of a task simply defer it to the next batch.
+     */
+    public int archiveCompletedBefore(LocalDateTime cutoff, int limit) {
+        String sql = """
+        WITH moved AS (
+            DELETE FROM maintenance
+            WHERE task_id IN (
+                SELECT task_id
+                FROM maintenance
+                WHERE completed = TRUE
+                  AND COALESCE(completed_at, created_at) < ?
+                ORDER BY task_id
+                LIMIT ?
+                FOR UPDATE SKIP LOCKED
+            )
+            RETURNING %1$s
+        )
+        INSERT INTO maintenance_history (%1$s)
+        SELECT %1$s FROM moved
+        """.formatted(COLUMNS);
+
+        return jdbc.update(sql, Timestamp.valueOf(cutoff), limit);
+    }
+
     public List<Maintenance> findByFlowerAndCompletedFalseAndDueDateBefore(Flower flower, LocalDateTime dateTime) {
         String sql = """
         SELECT * FROM maintenance 
@@ -124,9 +292,11 @@ public class MaintenanceRepository {
         return jdbc.query(sql, maintenanceRowMapper(), flowerId, userId, Timestamp.valueOf(dateTime));
     }
 
-    public boolean deleteMaintenance(long id, String userId) {
-        String sql = "DELETE FROM maintenance WHERE task_id = ? AND user_id = ?::uuid";
-        return jdbc.update(sql, id, userId) != 0;
+    // Returns the flower_id of the deleted task, empty when nothing matched
+    public OptionalLong deleteMaintenance(long id, String userId) {
+        String sql = "DELETE FROM maintenance WHERE task_id = ? AND user_id = ?::uuid RETURNING flower_id";
+        List<Long> flowerIds = jdbc.queryForList(sql, Long.class, id, userId);
+        return flowerIds.isEmpty() ? OptionalLong.empty() : OptionalLong.of(flowerIds.get(0));
     }
 
     public void delete(Maintenance maintenance) {
@@ -155,6 +325,21 @@ public class MaintenanceRepository {
         return count != null && count > 0;
     }
 
+    // Open tasks of the given flowers plus any task scheduled between start and end, in one round trip per job chunk
+    public List<Maintenance> findIncompleteOrScheduledBetweenByFlowers(Map<Long, Flower> flowers,
+                                                                       LocalDateTime start, LocalDateTime end) {
+        if (flowers.isEmpty()) {
+            return new ArrayList<>();
+        }
+        String sql = """
+        SELECT * FROM maintenance
+        WHERE flower_id = ANY(?)
+        AND (completed = false OR maintenance_date BETWEEN ? AND ?)
+        """;
+        return jdbc.query(sql, maintenanceRowMapper(flowers), flowers.keySet().toArray(new Long[0]),
+                Timestamp.valueOf(start), Timestamp.valueOf(end));
+    }
+
     public List<Maintenance> findIncompleteByFlowerIdAndUserId(long flowerId, String userId) {
         String sql = "SELECT * FROM maintenance WHERE flower_id = ? AND user_id = ?::uuid AND completed = false";
         return jdbc.query(sql, maintenanceRowMapper(), flowerId, userId);
@@ -226,6 +411,8 @@ public class MaintenanceRepository {
         return count != null && count > 0;
     }
 
+    // The dead-flower checks read only each flower's newest growth record: ORDER BY ... LIMIT 1
+    // walks ix_growthdetails_flower_recorded from the newest partition and stops at one row
     public List<Maintenance> findByCompletedStatusExcludingDead(boolean completed) {
         String sql = """
         SELECT m.*
@@ -233,14 +420,14 @@ public class MaintenanceRepository {
         WHERE m.completed = ?
         AND NOT EXISTS (
             SELECT 1
-            FROM growthdetails g
-            WHERE g.flower_id = m.flower_id
-              AND g.recorded_at = (
-                  SELECT MAX(g2.recorded_at)
-                  FROM growthdetails g2
-                  WHERE g2.flower_id = g.flower_id
-              )
-              AND g.stage = 'DEAD'
+            FROM (
+                SELECT g.stage
+                FROM growthdetails g
+                WHERE g.flower_id = m.flower_id
+                ORDER BY g.recorded_at DESC
+                LIMIT 1
+            ) latest
+            WHERE latest.stage = 'DEAD'
         )
         """;
 
@@ -261,14 +448,14 @@ public class MaintenanceRepository {
           AND m.user_id = ?::uuid
           AND NOT EXISTS (
               SELECT 1
-              FROM growthdetails g
-              WHERE g.flower_id = m.flower_id
-                AND g.recorded_at = (
-                    SELECT MAX(g2.recorded_at)
-                    FROM growthdetails g2
-                    WHERE g2.flower_id = g.flower_id
-                )
-                AND g.stage = 'DEAD'
+              FROM (
+                  SELECT g.stage
+                  FROM growthdetails g
+                  WHERE g.flower_id = m.flower_id
+                  ORDER BY g.recorded_at DESC
+                  LIMIT 1
+              ) latest
+              WHERE latest.stage = 'DEAD'
           )
         """;
 
@@ -291,14 +478,14 @@ public class MaintenanceRepository {
           AND m.completed = false
           AND NOT EXISTS (
               SELECT 1
-              FROM growthdetails g
-              WHERE g.flower_id = m.flower_id
-                AND g.recorded_at = (
-                    SELECT MAX(g2.recorded_at)
-                    FROM growthdetails g2
-                    WHERE g2.flower_id = g.flower_id
-                )
-                AND g.stage = 'DEAD'
+              FROM (
+                  SELECT g.stage
+                  FROM growthdetails g
+                  WHERE g.flower_id = m.flower_id
+                  ORDER BY g.recorded_at DESC
+                  LIMIT 1
+              ) latest
+              WHERE latest.stage = 'DEAD'
           )
         """;
 
@@ -306,6 +493,35 @@ public class MaintenanceRepository {
     }
 
 
+    // Keyset page ordered by task_id DESC (newest tasks first); maintenance_date and
+    // created_at are nullable, so the identity column is the only stable sort key
+    private List<Maintenance> findPage(String predicate, List<Object> args, PageCursor after, int limit,
+                                       boolean includeHistory) {
+        StringBuilder page = new StringBuilder(" WHERE ").append(predicate);
+        List<Object> params = new ArrayList<>(args);
+
+        if (after != null) {
+            page.append(" AND task_id < ?");
+            params.add(after.id());
+        }
+        page.append(" ORDER BY task_id DESC LIMIT ?");
+        params.add(limit);
+
+        if (!includeHistory) {
+            return jdbc.query("SELECT * FROM maintenance" + page, maintenanceRowMapper(), params.toArray());
+        }
+
+        // Each branch is limited on its own index before the two are merged
+        String sql = "(SELECT " + COLUMNS + " FROM maintenance" + page + ")"
+                + " UNION ALL (SELECT " + COLUMNS + " FROM maintenance_history" + page + ")"
+                + " ORDER BY task_id DESC LIMIT ?";
+        List<Object> unionParams = new ArrayList<>(params);
+        unionParams.addAll(params);
+        unionParams.add(limit);
+
+        return jdbc.query(sql, maintenanceRowMapper(), unionParams.toArray());
+    }
+
     private Maintenance insert(Maintenance maintenance) {
         String sql = """
         INSERT INTO maintenance 
@@ -335,14 +551,137 @@ public class MaintenanceRepository {
         return maintenance;
     }
 
-    private void update(Maintenance maintenance) {
-        String sql = """
+    // Columns shared by maintenance and maintenance_history
+    private static final String COLUMNS = """
+        task_id, flower_id, maintenance_type, maintenance_date, due_date, notes, performed_by,
+        created_at, completed, completed_at, auto_generated, user_id, version""";
+
+    private static final String INSERT_PREFIX = """
+        INSERT INTO maintenance
+        (flower_id, maintenance_type, maintenance_date, notes, performed_by,
+         created_at, completed, completed_at, auto_generated, user_id)""";
+
+    private static final String INSERT_ROW = "(?, ?, ?, ?, ?, ?, ?, ?, ?, ?::uuid)";
+
+    private record AutoTaskDay(long flowerId, String type, LocalDate day) {
+    }
+
+    // Rows the unique index turns away are not returned, so ids are matched back by flower, type and day
+    private void insertAutoGenerated(List<Maintenance> tasks) {
+        Map<AutoTaskDay, Maintenance> byDay = new HashMap<>();
+        for (Maintenance task : tasks) {
+            byDay.putIfAbsent(new AutoTaskDay(task.getFlower().getFlower_id(),
+                    task.getTaskType() != null ? task.getTaskType().name() : null,
+                    task.getScheduledDate() != null ? task.getScheduledDate().toLocalDate() : null), task);
+        }
+
+        List<Map.Entry<AutoTaskDay, Long>> inserted = batchStatements.insertReturning(INSERT_PREFIX, INSERT_ROW, """
+                ON CONFLICT (flower_id, maintenance_type, (maintenance_date::date)) WHERE auto_generated DO NOTHING
+                RETURNING task_id, flower_id, maintenance_type, maintenance_date""",
+                (rs, rowNum) -> {
+                    Timestamp date = rs.getTimestamp("maintenance_date");
+                    return Map.entry(new AutoTaskDay(rs.getLong("flower_id"), rs.getString("maintenance_type"),
+                            date != null ? date.toLocalDateTime().toLocalDate() : null), rs.getLong("task_id"));
+                },
+                tasks.stream().map(this::insertArgs).toList());
+        for (Map.Entry<AutoTaskDay, Long> row : inserted) {
+            Maintenance task = byDay.remove(row.getKey());
+            if (task != null) {
+                task.setTask_id(row.getValue());
+            }
+        }
+    }
+
+    private static final String UPDATE_SQL = """
         UPDATE maintenance 
         SET maintenance_type = ?, maintenance_date = ?, notes = ?, 
-            performed_by = ?, created_at = ?, completed = ?, completed_at = ?, auto_generated = ?
-        WHERE task_id = ? AND user_id = ?::uuid
+            performed_by = ?, created_at = ?, completed = ?, completed_at = ?, auto_generated = ?,
+            version = version + 1
+        WHERE task_id = ? AND user_id = ?::uuid AND version = ?
         """;
-        jdbc.update(sql,
+
+    private void update(Maintenance maintenance) {
+        if (jdbc.update(UPDATE_SQL, updateArgs(maintenance)) == 0) {
+            throw staleOrMissing(maintenance.getTask_id(), maintenance.getUserId());
+        }
+        maintenance.setVersion(maintenance.getVersion() + 1);
+    }
+
+    /**
+     * Columns a PATCH may set. Values are domain types (LocalDateTime, MaintenanceType, ...); a
+     * column mapped to null is cleared. MaintenanceService only does that for completed_at when a
+     * task is reopened, since a null field in the request body means "leave as is".
+     */
+    public enum PatchColumn {
+        MAINTENANCE_TYPE("maintenance_type"),
+        MAINTENANCE_DATE("maintenance_date"),
+        DUE_DATE("due_date"),
+        NOTES("notes"),
+        PERFORMED_BY("performed_by"),
+        COMPLETED("completed"),
+        COMPLETED_AT("completed_at");
+
+        private final String column;
+
+        PatchColumn(String column) {
+            this.column = column;
+        }
+    }
+
+    private static final PatchStatements<PatchColumn> PATCH = new PatchStatements<>(
+            "maintenance", c -> c.column, "task_id = ? AND user_id = ?::uuid");
+
+    /**
+     * Writes only the given columns in one UPDATE ... RETURNING and returns the stored task.
+     * A null expectedVersion skips the version check.
+     */
+    public Maintenance patchMaintenance(long taskId, String userId, EnumMap<PatchColumn, Object> changes,
+                                        Long expectedVersion) {
+        if (changes.isEmpty()) {
+            Maintenance current = findByTaskIdAndUserId(taskId, userId);
+            if (expectedVersion != null && current.getVersion() != expectedVersion) {
+                throw new VersionConflictException("Maintenance task", taskId);
+            }
+            return current;
+        }
+
+        EnumMap<PatchColumn, Object> values = new EnumMap<>(changes);
+        values.computeIfPresent(PatchColumn.MAINTENANCE_TYPE, (column, type) -> ((MaintenanceType) type).name());
+
+        List<Maintenance> updated = jdbc.query(PATCH.sql(values), maintenanceRowMapper(),
+                PATCH.args(values, expectedVersion, taskId, userId));
+        if (updated.isEmpty()) {
+            throw staleOrMissing(taskId, userId);
+        }
+        return updated.get(0);
+    }
+
+    // No row matched: either the task is gone (or archived) or another writer moved its version on
+    private RuntimeException staleOrMissing(long taskId, String userId) {
+        Integer count = jdbc.queryForObject("SELECT COUNT(*) FROM maintenance WHERE task_id = ? AND user_id = ?::uuid",
+                Integer.class, taskId, userId);
+        return count == null || count == 0
+                ? new MaintenanceNotFoundException(taskId)
+                : new VersionConflictException("Maintenance task", taskId);
+    }
+
+    private Object[] insertArgs(Maintenance maintenance) {
+        return new Object[]{
+                maintenance.getFlower().getFlower_id(),
+                maintenance.getTaskType() != null ? maintenance.getTaskType().name() : null,
+                maintenance.getScheduledDate() != null ? Timestamp.valueOf(maintenance.getScheduledDate()) : null,
+                maintenance.getNotes(),
+                maintenance.getPerformedBy(),
+                maintenance.getCreatedAt() != null ? Timestamp.valueOf(maintenance.getCreatedAt()) : null,
+                maintenance.isCompleted(),
+                maintenance.getCompletedAt() != null ? Timestamp.valueOf(maintenance.getCompletedAt()) : null,
+                maintenance.isAutoGenerated(),
+                maintenance.getUserId()
+        };
+    }
+
+    private Object[] updateArgs(Maintenance maintenance) {
+        return new Object[]{
                 maintenance.getTaskType() != null ? maintenance.getTaskType().name() : null,
                 maintenance.getScheduledDate() != null ? Timestamp.valueOf(maintenance.getScheduledDate()) : null,
                 maintenance.getNotes(),
@@ -352,10 +691,17 @@ public class MaintenanceRepository {
                 maintenance.getCompletedAt() != null ? Timestamp.valueOf(maintenance.getCompletedAt()) : null,
                 maintenance.isAutoGenerated(),
                 maintenance.getTask_id(),
-                maintenance.getUserId());
+                maintenance.getUserId(),
+                maintenance.getVersion()
+        };
     }
 
     private RowMapper<Maintenance> maintenanceRowMapper() {
+        return maintenanceRowMapper(Map.of());
+    }
+
+    // Flowers already in the map are attached as they are instead of being re-read per row
+    private RowMapper<Maintenance> maintenanceRowMapper(Map<Long, Flower> loaded) {
         return (rs, i) -> {
             try {
                 Maintenance maintenance = new Maintenance();
@@ -376,7 +722,9 @@ public class MaintenanceRepository {
                 // Fetch flower - handle potential null
                 long flowerId = rs.getLong("flower_id");
                 try {
-                    Flower flower = flowerRepository.findByFlowerIdAndUserId(flowerId, userId);
+                    Flower flower = loaded.containsKey(flowerId)
+                            ? loaded.get(flowerId)
+                            : flowerRepository.findByFlowerIdAndUserId(flowerId, userId);
                     if (flower == null) {
                         System.err.println("WARNING: Could not find flower " + flowerId + " for user " + userId);
                         // Create a minimal flower object to prevent null pointer
@@ -414,6 +762,7 @@ public class MaintenanceRepository {
                 maintenance.setCompletedAt(completedTs != null ? completedTs.toLocalDateTime() : null);
 
                 maintenance.setAutoGenerated(rs.getBoolean("auto_generated"));
+                maintenance.setVersion(rs.getLong("version"));
 
                 return maintenance;
             } catch (Exception e) {
@@ -0,0 +1,67 @@
+package org.example.flowerapp.Repository;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * UPDATE statements for PATCH requests that set only the columns the caller supplied. The
+ * SQL is cached per column set, keyed by a bitmask of the column enum's ordinals, so each
+ * shape is built once and the driver keeps seeing the same few statements to prepare.
+ * Every patch also bumps the row version and checks it when the caller sent one.
+ */
+final class PatchStatements<C extends Enum<C>> {
+
+    private final String table;
+    private final Function<C, String> columnName;
+    private final String where;
+    private final Map<Long, String> cache = new ConcurrentHashMap<>();
+
+    /**
+     * @param where key predicate, e.g. {@code flower_id = ? AND user_id = ?}; the version
+     *              check and RETURNING * are appended
+     */
+    PatchStatements(String table, Function<C, String> columnName, String where) {
+        this.table = table;
+        this.columnName = columnName;
+        this.where = where;
+    }
+
+    String sql(EnumMap<C, ?> changes) {
+        long mask = 0;
+        for (C column : changes.keySet()) {
+            mask |= 1L << column.ordinal();
+        }
+        return cache.computeIfAbsent(mask, m -> build(changes));
+    }
+
+    /**
+     * Values in column order (EnumMap iterates by ordinal, matching the SET list), then the
+     * key arguments and the expected version.
+     */
+    Object[] args(EnumMap<C, ?> changes, Long expectedVersion, Object... keyArgs) {
+        List<Object> args = new ArrayList<>(changes.size() + keyArgs.length + 1);
+        for (Object value : changes.values()) {
+            args.add(value instanceof LocalDateTime dateTime ? Timestamp.valueOf(dateTime) : value);
+        }
+        Collections.addAll(args, keyArgs);
+        args.add(expectedVersion);
+        return args.toArray();
+    }
+
+    private String build(EnumMap<C, ?> changes) {
+        StringBuilder sql = new StringBuilder("UPDATE ").append(table).append(" SET ");
+        for (C column : changes.keySet()) {
+            sql.append(columnName.apply(column)).append(" = ?, ");
+        }
+        return sql.append("version = version + 1 WHERE ").append(where)
+                .append(" AND version = COALESCE(?, version) RETURNING *")
+                .toString();
+    }
+}
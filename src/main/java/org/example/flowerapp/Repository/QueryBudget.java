@@ -0,0 +1,84 @@
+package org.example.flowerapp.Repository;
+
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Time left for the database work of the current request, plus the statements it has
+ * opened so they can be cancelled once the deadline has passed. Bound to the request
+ * thread by QueryDeadlineFilter; absent on job threads.
+ */
+public final class QueryBudget {
+
+    private static final ThreadLocal<QueryBudget> CURRENT = new ThreadLocal<>();
+
+    private final long deadlineNanos;
+    private final Set<Statement> statements = ConcurrentHashMap.newKeySet();
+    private volatile boolean cancelled;
+
+    private QueryBudget(long budgetMillis) {
+        this.deadlineNanos = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(budgetMillis);
+    }
+
+    public static QueryBudget open(long budgetMillis) {
+        QueryBudget budget = new QueryBudget(budgetMillis);
+        CURRENT.set(budget);
+        return budget;
+    }
+
+    public static QueryBudget current() {
+        return CURRENT.get();
+    }
+
+    public void close() {
+        if (CURRENT.get() == this) {
+            CURRENT.remove();
+        }
+        statements.clear();
+    }
+
+    public long remainingMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(deadlineNanos - System.nanoTime());
+    }
+
+    public boolean isCancelled() {
+        return cancelled;
+    }
+
+    void track(Statement statement) {
+        statements.removeIf(QueryBudget::isClosed);
+        statements.add(statement);
+    }
+
+    /**
+     * Cancels every statement of this request that is still open and returns how many were.
+     */
+    public int cancel() {
+        cancelled = true;
+        int cancelledStatements = 0;
+        for (Statement statement : statements) {
+            if (isClosed(statement)) {
+                continue;
+            }
+            try {
+                statement.cancel();
+                cancelledStatements++;
+            } catch (SQLException ignored) {
+                // The statement finished or its connection went away in the meantime
+            }
+        }
+        statements.clear();
+        return cancelledStatements;
+    }
+
+    private static boolean isClosed(Statement statement) {
+        try {
+            return statement.isClosed();
+        } catch (SQLException e) {
+            return true;
+        }
+    }
+}
@@ -0,0 +1,13 @@
+package org.example.flowerapp.Repository;
+
+/**
+ * Statement timeout classes applied by {@link GovernedJdbcTemplate}.
+ */
+public enum QueryClass {
+    /** Single-row lookups and writes: queryForObject and update. */
+    POINT,
+    /** Lists and pages returned to API callers. */
+    LIST,
+    /** Anything run by a scheduled job, including cursor scans. */
+    JOB_SCAN
+}
@@ -0,0 +1,188 @@
+package org.example.flowerapp.Services;
+
+import lombok.extern.slf4j.Slf4j;
+import org.example.flowerapp.Models.Flower;
+import org.example.flowerapp.Repository.FlowerRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.List;
+
+/**
+ * Creates care tasks when a flower's watering, fertilizing or pruning actually falls due
+ * (last care plus its frequency, or the planting date fallback of FlowerMaintenanceScheduler)
+ * instead of in the daily 6 AM scan. Each auto-scheduling flower sits in a
+ * {@link HashedTimingWheel} under its next due time; the wheel is rebuilt from the table at
+ * startup and kept current by the flower writes, and each tick loads only the flowers that
+ * fell due. Firing re-reads the flower, so a deadline left by a rolled back write only costs
+ * one extra lookup. While jobs.due-wheel.enabled is set the daily task generation stands down.
+ */
+@Service
+@Slf4j
+public class DueTaskWheel {
+
+    private static final long NONE = Long.MAX_VALUE;
+
+    private final FlowerRepository flowerRepository;
+    private final FlowerMaintenanceScheduler maintenanceScheduler;
+
+    @Value("${jobs.due-wheel.enabled:false}")
+    private boolean enabled;
+
+    @Value("${jobs.due-wheel.tick-ms:60000}")
+    private long tickMillis;
+
+    @Value("${jobs.due-wheel.slots:2048}")
+    private int slots;
+
+    // Guarded by this; null until the startup rebuild
+    private HashedTimingWheel wheel;
+
+    public DueTaskWheel(FlowerRepository flowerRepository, FlowerMaintenanceScheduler maintenanceScheduler) {
+        this.flowerRepository = flowerRepository;
+        this.maintenanceScheduler = maintenanceScheduler;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        if (!enabled) {
+            return;
+        }
+        synchronized (this) {
+            wheel = new HashedTimingWheel(tickMillis, slots, System.currentTimeMillis());
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        flowerRepository.forEachAutoSchedulingFlower(flower -> {
+            long deadline = nextDeadline(flower, now);
+            synchronized (this) {
+                // A write that landed while the table was streamed is newer than the streamed row
+                if (deadline != NONE && !wheel.contains(flower.getFlower_id())) {
+                    wheel.schedule(flower.getFlower_id(), deadline);
+                }
+            }
+        });
+        log.info("Due-task wheel tracking {} flowers", size());
+    }
+
+    // Called after a flower row is written, with the row as stored
+    public void track(Flower flower) {
+        if (!enabled) {
+            return;
+        }
+        long deadline = nextDeadline(flower, LocalDateTime.now());
+        synchronized (this) {
+            if (wheel == null) {
+                return;
+            }
+            if (deadline == NONE) {
+                wheel.cancel(flower.getFlower_id());
+            } else {
+                wheel.schedule(flower.getFlower_id(), deadline);
+            }
+        }
+    }
+
+    // For writes that change a flower's care dates without returning the row, e.g. task completion
+    public void recheck(long flowerId) {
+        if (!enabled) {
+            return;
+        }
+        synchronized (this) {
+            if (wheel != null) {
+                wheel.schedule(flowerId, System.currentTimeMillis());
+            }
+        }
+    }
+
+    public void forget(long flowerId) {
+        if (!enabled) {
+            return;
+        }
+        synchronized (this) {
+            if (wheel != null) {
+                wheel.cancel(flowerId);
+            }
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${jobs.due-wheel.tick-ms:60000}")
+    public void advance() {
+        if (!enabled) {
+            return;
+        }
+        List<Long> due;
+        synchronized (this) {
+            if (wheel == null) {
+                return;
+            }
+            due = wheel.advance(System.currentTimeMillis());
+        }
+        if (due.isEmpty()) {
+            return;
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        int created = 0;
+        List<Flower> flowers = flowerRepository.findAllByIds(due);
+        for (Flower flower : flowers) {
+            try {
+                created += maintenanceScheduler.scheduleDueTasks(flower, now);
+            } catch (Exception e) {
+                log.error("Due-task wheel failed to create tasks for flower ID {}: {}",
+                        flower.getFlower_id(), e.getMessage());
+            }
+            track(flower);
+        }
+        log.info("Due-task wheel created {} tasks for {} due flowers", created, flowers.size());
+    }
+
+    synchronized int size() {
+        return wheel != null ? wheel.size() : 0;
+    }
+
+    /**
+     * Epoch millis of the flower's next due care action after {@code now}, or NONE. A care
+     * action already due comes round again at the next midnight, since the scheduler creates
+     * at most one task per care type and day for as long as it stays due.
+     */
+    static long nextDeadline(Flower flower, LocalDateTime now) {
+        if (!flower.isAutoScheduling()) {
+            return NONE;
+        }
+        LocalDateTime next = earliest(null, due(flower.getLastWateredDate(), flower.getWaterFrequencyDays(),
+                flower.getPlantingDate(), true), now);
+        next = earliest(next, due(flower.getLastFertilizedDate(), flower.getFertilizeFrequencyDays(),
+                flower.getPlantingDate(), false), now);
+        next = earliest(next, due(flower.getLastPrunedDate(), flower.getPruneFrequencyDays(),
+                flower.getPlantingDate(), false), now);
+        return next != null ? next.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli() : NONE;
+    }
+
+    private static LocalDateTime due(LocalDateTime last, Integer frequencyDays, LocalDateTime planted,
+                                     boolean dueAtPlanting) {
+        if (frequencyDays == null) {
+            return null;
+        }
+        if (last != null) {
+            return last.plusDays(frequencyDays);
+        }
+        if (planted == null) {
+            return null;
+        }
+        return dueAtPlanting ? planted : planted.plusDays(frequencyDays);
+    }
+
+    private static LocalDateTime earliest(LocalDateTime current, LocalDateTime due, LocalDateTime now) {
+        if (due == null) {
+            return current;
+        }
+        LocalDateTime fire = due.isAfter(now) ? due : now.toLocalDate().plusDays(1).atStartOfDay();
+        return current == null || fire.isBefore(current) ? fire : current;
+    }
+}
@@ -0,0 +1,8 @@
+package org.example.flowerapp.Services;
+
+/**
+ * Published by the maintenance write paths when a flower's open tasks changed, so its health
+ * is worth re-checking. Carries only the id; the re-check reads everything fresh.
+ */
+record FlowerDirtyEvent(long flowerId) {
+}
@@ -1,6 +1,12 @@
 package org.example.flowerapp.Services;
 
+import io.micrometer.core.instrument.MeterRegistry;
 import lombok.extern.slf4j.Slf4j;
+import org.example.flowerapp.Configurations.ExclusiveJob;
+import org.example.flowerapp.Configurations.JobLease;
+import org.example.flowerapp.Configurations.JobLocks;
+import org.example.flowerapp.Configurations.JobWorkload;
+import org.example.flowerapp.Exceptions.DatabaseOperationExceptions.JobLockLostException;
 import org.example.flowerapp.Models.Enums.GrowthStage;
 import org.example.flowerapp.Models.Enums.MaintenanceType;
 import org.example.flowerapp.Models.Flower;
@@ -8,20 +14,39 @@ import org.example.flowerapp.Models.Growth;
 import org.example.flowerapp.Models.Maintenance;
 import org.example.flowerapp.Repository.FlowerRepository;
 import org.example.flowerapp.Repository.GrowthRepository;
+import org.example.flowerapp.Repository.JobWorkItemRepository.FlowerScope;
 import org.example.flowerapp.Repository.MaintenanceRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.annotation.Order;
 import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
 import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.time.Duration;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.function.IntSupplier;
 
 @Service
 @Slf4j
-public class FlowerHealthMonitorService {
+@Order(3)
+public class FlowerHealthMonitorService implements GardenStage, JobWorkHandler {
 
     private final FlowerRepository flowerRepository;
     private final MaintenanceRepository maintenanceRepository;
@@ -31,52 +56,247 @@ public class FlowerHealthMonitorService {
     private static final int WILTING_THRESHOLD_DAYS = 3;
     private static final int DEAD_THRESHOLD_DAYS = 7;
 
+    @Value("${repository.batch-size:50}")
+    private int batchSize;
+
+    // Shards for the parallel mode; 1 keeps the sequential, cursor-streamed run
+    @Value("${health.monitor.parallelism:1}")
+    private int parallelism;
+
+    @Value("${jobs.datasource.hikari.maximum-pool-size:10}")
+    private int jobPoolSize;
+
+    @Value("${jobs.health-monitor.cron:0 0 * * * *}")
+    private String cron;
+
+    @Value("${garden.tick.enabled:false}")
+    private boolean gardenTickEnabled;
+
+    private final TransactionTemplate ownTransaction;
+    private final MeterRegistry meterRegistry;
+    private final JobWorkQueue workQueue;
+
     public FlowerHealthMonitorService(FlowerRepository flowerRepository,
                                       MaintenanceRepository maintenanceRepository,
-                                      GrowthRepository growthRepository) {
+                                      GrowthRepository growthRepository,
+                                      PlatformTransactionManager transactionManager,
+                                      MeterRegistry meterRegistry,
+                                      JobWorkQueue workQueue) {
         this.flowerRepository = flowerRepository;
         this.maintenanceRepository = maintenanceRepository;
         this.growthRepository = growthRepository;
+        this.meterRegistry = meterRegistry;
+        this.workQueue = workQueue;
+        this.ownTransaction = new TransactionTemplate(transactionManager);
+        this.ownTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
     }
 
-    @Scheduled(cron = "0 0 * * * *") // Run every hour
+    @Scheduled(cron = "${jobs.health-monitor.cron:0 0 * * * *}") // Run every hour
+    @ExclusiveJob("health-monitor")
     public void monitorFlowerHealth() {
-        log.info("=== Starting flower health monitoring at {} ===",
-                LocalDateTime.now().format(DATE_FORMATTER));
+        if (gardenTickEnabled) {
+            log.debug("Flower health monitoring runs as part of the garden tick");
+            return;
+        }
 
-        try {
-            List<Flower> flowers = flowerRepository.findAllFlower();
-            log.info("Found {} flowers to monitor", flowers.size());
+        LocalDateTime now = LocalDateTime.now();
+        log.info("=== Starting flower health monitoring at {} ===", now.format(DATE_FORMATTER));
 
-            if (flowers.isEmpty()) {
-                log.warn("No flowers found in database!");
-                return;
-            }
+        // The workers of every node check the due flowers chunk by chunk
+        if (workQueue.isEnabled()) {
+            workQueue.enqueue(name(), FlowerScope.DUE_FOR_HEALTH_CHECK, now);
+            return;
+        }
 
-            int flowersUpdated = 0;
-            int flowersErrored = 0;
+        // Each shard holds one jobs-pool connection at a time; leave one for the other jobs
+        int shards = Math.max(1, Math.min(parallelism, jobPoolSize - 1));
+        if (shards > 1) {
+            monitorInShards(shards, now);
+            return;
+        }
 
-            for (Flower flower : flowers) {
+        try {
+            AtomicInteger flowersUpdated = new AtomicInteger();
+            AtomicInteger flowersErrored = new AtomicInteger();
+            // A flower's check only moves on together with its stage change, in a short
+            // transaction per batch so row locks and lost work stay bounded by the batch
+            PendingWrites<CheckedFlower> checkedFlowers = new PendingWrites<>(
+                    batch -> writeCheckedBatch(batch, now), batchSize);
+
+            // Fail fast instead of streaming the table when another node already took the job over
+            JobLocks.current().ifPresent(JobLease::ensureHeld);
+
+            // Only flowers whose next_health_check_at has passed can change stage; they are
+            // streamed from a cursor so memory use does not grow with the table
+            flowerRepository.forEachFlowerDueForHealthCheck(now, flower -> {
                 try {
-                    // Process each flower in its own transaction
-                    processFlowerHealth(flower);
-                    flowersUpdated++;
+                    // Stage changes are batched; the parallel mode gives each flower its own transaction
+                    List<Growth> transitions = new ArrayList<>(1);
+                    processFlowerHealth(flower, transitions::add);
+                    checkedFlowers.add(new CheckedFlower(flower.getFlower_id(), transitions));
+                    flowersUpdated.incrementAndGet();
+                } catch (JobLockLostException e) {
+                    throw e;
                 } catch (Exception e) {
-                    flowersErrored++;
+                    flowersErrored.incrementAndGet();
                     log.error("Error processing flower ID: {} - {}",
                             flower.getFlower_id(), e.getMessage());
                     // Continue with next flower
                 }
+            });
+            checkedFlowers.flush();
+
+            if (flowersUpdated.get() + flowersErrored.get() == 0) {
+                log.debug("No flowers due for a health check");
+                return;
             }
 
             log.info("=== Completed flower health monitoring. Updated {} flowers, {} errors ===",
-                    flowersUpdated, flowersErrored);
+                    flowersUpdated.get(), flowersErrored.get());
         } catch (Exception e) {
             log.error("Error during flower health monitoring", e);
             throw e;
         }
     }
 
+    /**
+     * Parallel mode: the flowers due for a check are split by flower_id modulo the shard count
+     * and each shard runs on its own thread. A shard pages through its flowers by keyset and
+     * checks each one in a real REQUIRES_NEW transaction, so a failure only rolls back that flower.
+     */
+    private void monitorInShards(int shards, LocalDateTime now) {
+        // The shard threads do not see this thread's lease, so it is handed to them
+        Optional<JobLease> lease = JobLocks.current();
+        ShardResult[] results = new ShardResult[shards];
+        ExecutorService executor = Executors.newFixedThreadPool(shards, new CustomizableThreadFactory("health-shard-"));
+        try {
+            CompletableFuture<?>[] runs = new CompletableFuture<?>[shards];
+            for (int shard = 0; shard < shards; shard++) {
+                int current = shard;
+                runs[shard] = CompletableFuture.runAsync(
+                        JobWorkload.wrap(() -> results[current] = runShard(current, shards, now, lease)), executor);
+            }
+            CompletableFuture.allOf(runs).join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof JobLockLostException lost) {
+                throw lost;
+            }
+            throw e;
+        } finally {
+            executor.shutdown();
+        }
+
+        int processed = 0;
+        int errors = 0;
+        for (ShardResult result : results) {
+            processed += result.processed();
+            errors += result.errors();
+        }
+        log.info("=== Completed flower health monitoring in {} shards. Checked {} flowers, {} errors ===",
+                shards, processed, errors);
+    }
+
+    private ShardResult runShard(int shard, int shards, LocalDateTime now, Optional<JobLease> lease) {
+        long started = System.nanoTime();
+        int processed = 0;
+        int errors = 0;
+        long afterId = 0;
+
+        List<Flower> page;
+        do {
+            page = flowerRepository.findShardPageDueForHealthCheck(shard, shards, now, afterId, batchSize);
+            for (Flower flower : page) {
+                try {
+                    checkInOwnTransaction(flower, now, lease);
+                    processed++;
+                } catch (JobLockLostException e) {
+                    throw e;
+                } catch (Exception e) {
+                    errors++;
+                    log.error("Error processing flower ID: {} - {}", flower.getFlower_id(), e.getMessage());
+                }
+                afterId = flower.getFlower_id();
+            }
+        } while (page.size() == batchSize);
+
+        Duration elapsed = Duration.ofNanos(System.nanoTime() - started);
+        meterRegistry.timer("jobs.health_monitor.shard.duration", "shard", String.valueOf(shard)).record(elapsed);
+        log.info("Health shard {}/{}: {} flowers, {} errors in {} ms",
+                shard + 1, shards, processed, errors, elapsed.toMillis());
+        return new ShardResult(processed, errors);
+    }
+
+    private record ShardResult(int processed, int errors) {
+    }
+
+    private record CheckedFlower(long flowerId, List<Growth> transitions) {
+    }
+
+    // A failed batch keeps its flowers' check times, so they come up again in the next run
+    private void writeCheckedBatch(List<CheckedFlower> batch, LocalDateTime now) {
+        try {
+            ownTransaction.executeWithoutResult(status -> {
+                JobLocks.current().ifPresent(JobLease::ensureHeld);
+                List<Growth> transitions = batch.stream().flatMap(checked -> checked.transitions().stream()).toList();
+                if (!transitions.isEmpty()) {
+                    growthRepository.saveAll(transitions);
+                }
+                flowerRepository.advanceHealthChecks(batch.stream().map(CheckedFlower::flowerId).toList(), now);
+            });
+        } catch (JobLockLostException e) {
+            throw e;
+        } catch (Exception e) {
+            log.error("Error writing health checks for {} flowers - {}", batch.size(), e.getMessage());
+        }
+    }
+
+    /** One work queue chunk of a run: checks its due flowers, each in its own transaction. */
+    @Override
+    public int processChunk(long firstFlowerId, long lastFlowerId, LocalDateTime runAt) {
+        int checked = 0;
+        for (Flower flower : flowerRepository.findDueForHealthCheckBetween(runAt, firstFlowerId, lastFlowerId)) {
+            try {
+                checkInOwnTransaction(flower, runAt, Optional.empty());
+                checked++;
+            } catch (Exception e) {
+                // Keeps its check time and comes up again in the next run
+                log.error("Error processing flower ID: {} - {}", flower.getFlower_id(), e.getMessage());
+            }
+        }
+        return checked;
+    }
+
+    /**
+     * Re-checks the given flowers now, each in its own transaction, for flowers whose tasks just
+     * changed. Unknown ids are skipped. Returns how many flowers were checked.
+     */
+    public int reevaluate(Collection<Long> flowerIds) {
+        LocalDateTime now = LocalDateTime.now();
+        int checked = 0;
+        for (Flower flower : flowerRepository.findAllByIds(flowerIds)) {
+            try {
+                checkInOwnTransaction(flower, now, Optional.empty());
+                checked++;
+            } catch (Exception e) {
+                log.error("Error re-checking flower ID: {} - {}", flower.getFlower_id(), e.getMessage());
+            }
+        }
+        return checked;
+    }
+
+    // The row lock makes a second node re-checking the same flower (its re-evaluation queue, a
+    // work queue chunk) wait, then read the stage this one wrote instead of writing it again
+    private void checkInOwnTransaction(Flower flower, LocalDateTime now, Optional<JobLease> lease) {
+        ownTransaction.executeWithoutResult(status -> {
+            lease.ifPresent(JobLease::ensureHeld);
+            if (!flowerRepository.lockForHealthCheck(flower.getFlower_id())) {
+                return;
+            }
+            processFlowerHealth(flower, growthRepository::save);
+            flowerRepository.advanceHealthChecks(List.of(flower.getFlower_id()), now);
+        });
+    }
+
     /**
      * Process health check for a single flower in its own transaction.
      * Using REQUIRES_NEW ensures each flower gets its own transaction,
@@ -84,12 +304,44 @@ public class FlowerHealthMonitorService {
      */
     @Transactional(propagation = Propagation.REQUIRES_NEW)
     public void processFlowerHealth(Flower flower) {
-        LocalDateTime now = LocalDateTime.now();
+        processFlowerHealth(flower, growthRepository::save);
+    }
 
+    private void processFlowerHealth(Flower flower, Consumer<Growth> writer) {
         log.debug("Monitoring flower: {} (ID: {})", flower.getFlowerName(), flower.getFlower_id());
 
+        LocalDateTime now = LocalDateTime.now();
+
         // Query growth repository directly
         Growth currentGrowth = growthRepository.findLatestByFlowerId(flower.getFlower_id());
+        processFlowerHealth(flower, currentGrowth, () -> getMaxOverdueDays(maintenanceRepository
+                .findIncompleteByFlowerIdAndUserId(flower.getFlower_id(), flower.getUserId()), now), now, writer);
+    }
+
+    @Override
+    public String name() {
+        return "health-monitor";
+    }
+
+    @Override
+    public String cron() {
+        return cron;
+    }
+
+    // Flowers without a living growth record are skipped on the snapshot's stage column
+    @Override
+    public void apply(GardenState state, GardenEffects effects, LocalDateTime now) {
+        GrowthStage stage = state.snapshot().stage(state.row());
+        if (stage == null || stage == GrowthStage.DEAD) {
+            return;
+        }
+        processFlowerHealth(state.flower(), state.latestGrowth(), () -> state.snapshot().maxOverdueDays(state.row()),
+                now, growth -> effects.saveGrowth(state, growth));
+    }
+
+    // Overdue days are only worked out once the flower is known to have a living growth record
+    private void processFlowerHealth(Flower flower, Growth currentGrowth, IntSupplier overdueDays,
+                                     LocalDateTime now, Consumer<Growth> writer) {
         if (currentGrowth == null) {
             log.debug("  No growth record found, skipping health check");
             return;
@@ -105,13 +357,13 @@ public class FlowerHealthMonitorService {
         }
 
         // Check for overdue tasks
-        int maxOverdueDays = getMaxOverdueDays(flower, now);
+        int maxOverdueDays = overdueDays.getAsInt();
         log.debug("  Max overdue days: {}", maxOverdueDays);
 
         GrowthStage newStage = determineNewStage(currentStage, maxOverdueDays);
 
         if (newStage != currentStage) {
-            updateFlowerStage(flower, newStage, maxOverdueDays, now, currentGrowth);
+            updateFlowerStage(flower, newStage, maxOverdueDays, now, currentGrowth, writer);
         }
     }
 
@@ -124,54 +376,50 @@ public class FlowerHealthMonitorService {
                 LocalDateTime.now().format(DATE_FORMATTER));
 
         try {
-            int maintenanceDeleted = 0;
-            int maintenanceSkipped = 0;
-            int growthDeleted = 0;
-            int growthSkipped = 0;
-
-            // Get all maintenance records
-            List<Maintenance> allMaintenance = maintenanceRepository.findAll();
-            log.info("Checking {} maintenance records for orphans", allMaintenance.size());
-
-            for (Maintenance maintenance : allMaintenance) {
+            AtomicInteger maintenanceDeleted = new AtomicInteger();
+            AtomicInteger maintenanceSkipped = new AtomicInteger();
+            AtomicInteger growthDeleted = new AtomicInteger();
+            AtomicInteger growthSkipped = new AtomicInteger();
+
+            // Stream all maintenance records
+            log.info("Checking maintenance records for orphans");
+            maintenanceRepository.forEach(maintenance -> {
                 try {
                     // Process each cleanup in its own transaction
                     boolean deleted = cleanupMaintenanceRecord(maintenance);
                     if (deleted) {
-                        maintenanceDeleted++;
+                        maintenanceDeleted.incrementAndGet();
                     } else {
-                        maintenanceSkipped++;
+                        maintenanceSkipped.incrementAndGet();
                     }
                 } catch (Exception e) {
                     log.error("  ✗ Error checking maintenance record {}: {}",
                             maintenance.getTask_id(), e.getMessage());
-                    maintenanceSkipped++;
+                    maintenanceSkipped.incrementAndGet();
                 }
-            }
-
-            // Get all growth records
-            List<Growth> allGrowth = growthRepository.findAll();
-            log.info("Checking {} growth records for orphans", allGrowth.size());
+            });
 
-            for (Growth growth : allGrowth) {
+            // Stream all growth records
+            log.info("Checking growth records for orphans");
+            growthRepository.forEach(growth -> {
                 try {
                     // Process each cleanup in its own transaction
                     boolean deleted = cleanupGrowthRecord(growth);
                     if (deleted) {
-                        growthDeleted++;
+                        growthDeleted.incrementAndGet();
                     } else {
-                        growthSkipped++;
+                        growthSkipped.incrementAndGet();
                     }
                 } catch (Exception e) {
                     log.error("  ✗ Error checking growth record {}: {}",
                             growth.getGrowth_id(), e.getMessage());
-                    growthSkipped++;
+                    growthSkipped.incrementAndGet();
                 }
-            }
+            });
 
             log.info("=== Completed orphaned records cleanup ===");
-            log.info("Maintenance: {} deleted, {} skipped/kept", maintenanceDeleted, maintenanceSkipped);
-            log.info("Growth: {} deleted, {} skipped/kept", growthDeleted, growthSkipped);
+            log.info("Maintenance: {} deleted, {} skipped/kept", maintenanceDeleted.get(), maintenanceSkipped.get());
+            log.info("Growth: {} deleted, {} skipped/kept", growthDeleted.get(), growthSkipped.get());
 
         } catch (Exception e) {
             log.error("Error during orphaned records cleanup", e);
@@ -293,15 +541,13 @@ public class FlowerHealthMonitorService {
      * Scheduled cleanup job that runs daily at 2 AM to remove orphaned records
      */
     @Scheduled(cron = "0 0 2 * * *") // Run daily at 2 AM
+    @ExclusiveJob("orphan-cleanup")
     public void scheduledOrphanedRecordsCleanup() {
         log.info("Running scheduled orphaned records cleanup");
         cleanupOrphanedRecords();
     }
 
-    private int getMaxOverdueDays(Flower flower, LocalDateTime now) {
-        List<Maintenance> incompleteTasks = maintenanceRepository
-                .findIncompleteByFlowerIdAndUserId(flower.getFlower_id(), flower.getUserId());
-
+    private int getMaxOverdueDays(List<Maintenance> incompleteTasks, LocalDateTime now) {
         int maxOverdue = 0;
 
         for (Maintenance task : incompleteTasks) {
@@ -348,7 +594,7 @@ public class FlowerHealthMonitorService {
     }
 
     private void updateFlowerStage(Flower flower, GrowthStage newStage, int overdueDays,
-                                   LocalDateTime now, Growth latestGrowth) {
+                                   LocalDateTime now, Growth latestGrowth, Consumer<Growth> writer) {
         try {
             Growth newGrowth = new Growth();
             newGrowth.setFlower(flower);
@@ -374,7 +620,7 @@ public class FlowerHealthMonitorService {
                     overdueDays
             ));
 
-            growthRepository.save(newGrowth);
+            writer.accept(newGrowth);
 
             // Safe access to old stage name
             String oldStageName = "UNKNOWN";
@@ -424,11 +670,12 @@ public class FlowerHealthMonitorService {
             return;
         }
 
-        int maxOverdueDays = getMaxOverdueDays(flower, now);
+        int maxOverdueDays = getMaxOverdueDays(
+                maintenanceRepository.findIncompleteByFlowerIdAndUserId(flowerId, flower.getUserId()), now);
         GrowthStage newStage = determineNewStage(currentStage, maxOverdueDays);
 
         if (newStage != currentStage) {
-            updateFlowerStage(flower, newStage, maxOverdueDays, now, currentGrowth);
+            updateFlowerStage(flower, newStage, maxOverdueDays, now, currentGrowth, growthRepository::save);
 
             String stageName = (newStage != null && newStage.getGrowthStage() != null)
                     ? newStage.getGrowthStage()
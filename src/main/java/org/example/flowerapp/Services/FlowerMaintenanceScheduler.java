@@ -1,26 +1,47 @@
 package org.example.flowerapp.Services;
 
 import lombok.extern.slf4j.Slf4j;
+import org.example.flowerapp.Configurations.ExclusiveJob;
+import org.example.flowerapp.Configurations.JobLease;
+import org.example.flowerapp.Configurations.JobLocks;
 import org.example.flowerapp.Models.Enums.MaintenanceType;
 import org.example.flowerapp.Models.Flower;
 import org.example.flowerapp.Models.Maintenance;
 import org.example.flowerapp.Repository.FlowerRepository;
 import org.example.flowerapp.Repository.MaintenanceRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.annotation.Order;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
-import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
 
 @Service
 @Slf4j
-public class FlowerMaintenanceScheduler {
+@Order(1)
+public class FlowerMaintenanceScheduler implements GardenStage {
 
     private final FlowerRepository flowerRepository;
     private final MaintenanceRepository maintenanceRepository;
     private static final DateTimeFormatter DATE_FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+    private static final MaintenanceType[] CARE_TASKS = {
+            MaintenanceType.WATERING, MaintenanceType.FERTILIZING, MaintenanceType.PRUNING};
+
+    @Value("${repository.batch-size:50}")
+    private int batchSize;
+
+    @Value("${jobs.task-generation.cron:0 0 6 * * *}")
+    private String cron;
+
+    @Value("${garden.tick.enabled:false}")
+    private boolean gardenTickEnabled;
+
+    @Value("${jobs.due-wheel.enabled:false}")
+    private boolean dueWheelEnabled;
 
     public FlowerMaintenanceScheduler(FlowerRepository flowerRepository,
                                       MaintenanceRepository maintenanceRepository) {
@@ -28,41 +49,93 @@ public class FlowerMaintenanceScheduler {
         this.maintenanceRepository = maintenanceRepository;
     }
 
-    @Scheduled(cron = "0 0 6 * * *") // 6 AM daily
+    @Scheduled(cron = "${jobs.task-generation.cron:0 0 6 * * *}") // 6 AM daily
+    @ExclusiveJob("task-generation")
     @Transactional
     public void scheduleMaintenanceTasks() {
+        if (gardenTickEnabled) {
+            log.debug("Maintenance task generation runs as part of the garden tick");
+            return;
+        }
+        if (dueWheelEnabled) {
+            log.debug("Maintenance tasks are created by the due-task wheel");
+            return;
+        }
+
         log.info("=== Starting scheduled maintenance task generation at {} ===",
                 LocalDateTime.now().format(DATE_FORMATTER));
 
         try {
-            List<Flower> flowers = flowerRepository.findAllFlower();
-            log.info("Found {} flowers to process", flowers.size());
-
-            if (flowers.isEmpty()) {
-                log.warn("No flowers found in database!");
-                return;
-            }
-
             LocalDateTime now = LocalDateTime.now();
-            int tasksCreated = 0;
-
-            for (Flower flower : flowers) {
+            AtomicInteger flowersProcessed = new AtomicInteger();
+            AtomicInteger tasksCreated = new AtomicInteger();
+            // Each batch is fenced against a node that took the job over; the run stops there
+            PendingWrites<Maintenance> pendingTasks = new PendingWrites<>(tasks -> {
+                JobLocks.current().ifPresent(JobLease::ensureHeld);
+                maintenanceRepository.saveAll(tasks);
+            }, batchSize);
+
+            // Flowers are streamed from a cursor so memory use does not grow with the table
+            flowerRepository.forEachFlower(flower -> {
                 log.debug("Processing flower: {} (ID: {})", flower.getFlowerName(), flower.getFlower_id());
                 log.debug("  Auto-scheduling enabled: {}", flower.isAutoScheduling());
 
-                tasksCreated += checkAndScheduleWatering(flower, now);
-                tasksCreated += checkAndScheduleFertilizing(flower, now);
-                tasksCreated += checkAndSchedulePruning(flower, now);
+                flowersProcessed.incrementAndGet();
+                tasksCreated.addAndGet(checkAndScheduleWatering(flower, now, pendingTasks));
+                tasksCreated.addAndGet(checkAndScheduleFertilizing(flower, now, pendingTasks));
+                tasksCreated.addAndGet(checkAndSchedulePruning(flower, now, pendingTasks));
+            });
+            pendingTasks.flush();
+
+            if (flowersProcessed.get() == 0) {
+                log.warn("No flowers found in database!");
+                return;
             }
 
-            log.info("=== Completed maintenance task generation. Created {} new tasks ===", tasksCreated);
+            log.info("=== Completed maintenance task generation. Processed {} flowers, created {} new tasks ===",
+                    flowersProcessed.get(), tasksCreated.get());
         } catch (Exception e) {
             log.error("Error during scheduled maintenance task generation", e);
             throw e;
         }
     }
 
-    private int checkAndScheduleWatering(Flower flower, LocalDateTime now) {
+    @Override
+    public String name() {
+        return "task-generation";
+    }
+
+    @Override
+    public String cron() {
+        return dueWheelEnabled ? Scheduled.CRON_DISABLED : cron;
+    }
+
+    // Same rules as the checkAndSchedule methods, read from the snapshot's precomputed due columns
+    @Override
+    public void apply(GardenState state, GardenEffects effects, LocalDateTime now) {
+        for (MaintenanceType type : CARE_TASKS) {
+            if (state.snapshot().isDueForTask(state.row(), GardenSnapshot.careOf(type))
+                    && !state.hasTaskScheduledToday(type)) {
+                createMaintenanceTask(state.flower(), type, now, task -> effects.addTask(state, task));
+            }
+        }
+    }
+
+    /**
+     * Runs the task generation rules for one flower, for DueTaskWheel when one of its care
+     * actions falls due. Returns how many tasks were created.
+     */
+    @Transactional
+    public int scheduleDueTasks(Flower flower, LocalDateTime now) {
+        PendingWrites<Maintenance> pendingTasks = new PendingWrites<>(maintenanceRepository::saveAll, batchSize);
+        int created = checkAndScheduleWatering(flower, now, pendingTasks)
+                + checkAndScheduleFertilizing(flower, now, pendingTasks)
+                + checkAndSchedulePruning(flower, now, pendingTasks);
+        pendingTasks.flush();
+        return created;
+    }
+
+    private int checkAndScheduleWatering(Flower flower, LocalDateTime now, PendingWrites<Maintenance> pendingTasks) {
         log.debug("  Checking watering for flower: {}", flower.getFlowerName());
 
         if (flower.getWaterFrequencyDays() == null) {
@@ -87,7 +160,7 @@ public class FlowerMaintenanceScheduler {
 
         // Fixed: Use !now.isBefore() instead of now.isAfter() to include same-day scheduling
         if (!now.isBefore(nextWaterDate) && !taskExistsForToday(flower, MaintenanceType.WATERING)) {
-            createMaintenanceTask(flower, MaintenanceType.WATERING, now);
+            createMaintenanceTask(flower, MaintenanceType.WATERING, now, pendingTasks::add);
             return 1;
         } else {
             if (taskExistsForToday(flower, MaintenanceType.WATERING)) {
@@ -97,7 +170,7 @@ public class FlowerMaintenanceScheduler {
         return 0;
     }
 
-    private int checkAndScheduleFertilizing(Flower flower, LocalDateTime now) {
+    private int checkAndScheduleFertilizing(Flower flower, LocalDateTime now, PendingWrites<Maintenance> pendingTasks) {
         log.debug("  Checking fertilizing for flower: {}", flower.getFlowerName());
 
         if (flower.getFertilizeFrequencyDays() == null) {
@@ -120,7 +193,7 @@ public class FlowerMaintenanceScheduler {
         log.debug("    Should fertilize: {}", !now.isBefore(nextFertilizeDate));
 
         if (!now.isBefore(nextFertilizeDate) && !taskExistsForToday(flower, MaintenanceType.FERTILIZING)) {
-            createMaintenanceTask(flower, MaintenanceType.FERTILIZING, now);
+            createMaintenanceTask(flower, MaintenanceType.FERTILIZING, now, pendingTasks::add);
             return 1;
         } else {
             if (taskExistsForToday(flower, MaintenanceType.FERTILIZING)) {
@@ -130,7 +203,7 @@ public class FlowerMaintenanceScheduler {
         return 0;
     }
 
-    private int checkAndSchedulePruning(Flower flower, LocalDateTime now) {
+    private int checkAndSchedulePruning(Flower flower, LocalDateTime now, PendingWrites<Maintenance> pendingTasks) {
         log.debug("  Checking pruning for flower: {}", flower.getFlowerName());
 
         if (flower.getPruneFrequencyDays() == null) {
@@ -153,7 +226,7 @@ public class FlowerMaintenanceScheduler {
         log.debug("    Should prune: {}", !now.isBefore(nextPruneDate));
 
         if (!now.isBefore(nextPruneDate) && !taskExistsForToday(flower, MaintenanceType.PRUNING)) {
-            createMaintenanceTask(flower, MaintenanceType.PRUNING, now);
+            createMaintenanceTask(flower, MaintenanceType.PRUNING, now, pendingTasks::add);
             return 1;
         } else {
             if (taskExistsForToday(flower, MaintenanceType.PRUNING)) {
@@ -180,7 +253,8 @@ public class FlowerMaintenanceScheduler {
         return exists;
     }
 
-    private void createMaintenanceTask(Flower flower, MaintenanceType type, LocalDateTime scheduledDate) {
+    private void createMaintenanceTask(Flower flower, MaintenanceType type, LocalDateTime scheduledDate,
+                                       Consumer<Maintenance> pendingTasks) {
         try {
             Maintenance task = new Maintenance();
             task.setFlower(flower);
@@ -191,8 +265,8 @@ public class FlowerMaintenanceScheduler {
             task.setCreatedAt(LocalDateTime.now());
             task.setNotes("Auto-generated " + type.getMaintenanceType() + " task for " + flower.getFlowerName());
 
-            maintenanceRepository.save(task);
-            log.info("    ✓ Created {} task for flower: {} (scheduled: {})",
+            pendingTasks.accept(task);
+            log.info("    ✓ Queued {} task for flower: {} (scheduled: {})",
                     type.getMaintenanceType(),
                     flower.getFlowerName(),
                     scheduledDate.format(DATE_FORMATTER));
@@ -1,14 +1,18 @@
 package org.example.flowerapp.Services;
 
 import lombok.RequiredArgsConstructor;
+import org.example.flowerapp.DTO.FlowerPatchDTO;
 import org.example.flowerapp.DTO.FlowerRequestDTO;
 import org.example.flowerapp.DTO.FlowerResponseDTO;
-import org.example.flowerapp.Exceptions.BusinessLogicExceptions.DuplicateFlowerException;
 import org.example.flowerapp.Models.Flower;
+import org.example.flowerapp.Models.KeysetPage;
+import org.example.flowerapp.Models.PageCursor;
 import org.example.flowerapp.Repository.FlowerRepository;
+import org.example.flowerapp.Repository.FlowerRepository.PatchColumn;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.EnumMap;
 import java.util.List;
 
 @Service
@@ -16,119 +20,130 @@ import java.util.List;
 public class FlowerService {
 
     private final FlowerRepository flowerRepository;
+    private final DueTaskWheel dueTaskWheel;
 
     @Transactional
     public FlowerResponseDTO addNewFlower(FlowerRequestDTO dto, String userId) {
-        checkDuplicateFlowerName(dto.flowerName(), userId);
-
-        Flower flower = new Flower();
-        flower.setUserId(userId);  // Set userId
-        flower.setFlowerName(dto.flowerName());
-        flower.setSpecies(dto.species());
-        flower.setColor(dto.color());
-        flower.setPlantingDate(dto.plantingDate());
-        flower.setGridPosition(dto.gridPosition());
-
-        // Set maintenance scheduling fields
-        flower.setWaterFrequencyDays(dto.waterFrequencyDays());
-        flower.setFertilizeFrequencyDays(dto.fertilizeFrequencyDays());
-        flower.setPruneFrequencyDays(dto.pruneFrequencyDays());
-        flower.setLastWateredDate(dto.lastWateredDate());
-        flower.setLastFertilizedDate(dto.lastFertilizedDate());
-        flower.setLastPrunedDate(dto.lastPrunedDate());
+        Flower flower = toFlower(dto, userId);
         flower.setAutoScheduling(dto.autoScheduling() != null ? dto.autoScheduling() : true);
 
-        // Set growth fields
-        flower.setMaxHeight(dto.maxHeight());
-        flower.setGrowthRate(dto.growthRate());
-
+        // Duplicate names are rejected by the unique index, no pre-check needed
         Flower saved = flowerRepository.save(flower);
+        dueTaskWheel.track(saved);
 
         return mapToResponseDTO(saved);
     }
 
     @Transactional
     public FlowerResponseDTO updateFlower(FlowerRequestDTO dto, long id, String userId) {
-        Flower flower = findFlowerByIdOrThrow(id, userId);
-
-        // Check for duplicate name only if the name is being changed
-        if (!flower.getFlowerName().equals(dto.flowerName())) {
-            checkDuplicateFlowerName(dto.flowerName(), userId);
-        }
-
-        flower.setFlowerName(dto.flowerName());
-        flower.setSpecies(dto.species());
-        flower.setColor(dto.color());
-        flower.setPlantingDate(dto.plantingDate());
-        flower.setGridPosition(dto.gridPosition());
-
-        // Update maintenance scheduling fields
-        flower.setWaterFrequencyDays(dto.waterFrequencyDays());
-        flower.setFertilizeFrequencyDays(dto.fertilizeFrequencyDays());
-        flower.setPruneFrequencyDays(dto.pruneFrequencyDays());
-        flower.setLastWateredDate(dto.lastWateredDate());
-        flower.setLastFertilizedDate(dto.lastFertilizedDate());
-        flower.setLastPrunedDate(dto.lastPrunedDate());
-        if (dto.autoScheduling() != null) {
-            flower.setAutoScheduling(dto.autoScheduling());
-        }
+        Flower flower = toFlower(dto, userId);
+        flower.setFlower_id(id);
 
-        // Update growth fields
-        flower.setMaxHeight(dto.maxHeight());
-        flower.setGrowthRate(dto.growthRate());
-
-        Flower updated = flowerRepository.save(flower);
+        // Single UPDATE ... RETURNING: no row means not found or a stale version, unique index catches duplicate names
+        Flower updated = flowerRepository.updateFlower(flower, dto.autoScheduling(), dto.version());
+        dueTaskWheel.track(updated);
 
         return mapToResponseDTO(updated);
     }
 
+    /**
+     * Writes only the supplied fields, e.g. just last_watered for a "watered now" action,
+     * in a single UPDATE ... RETURNING. A field sent as null is treated as absent, so a PATCH
+     * cannot clear a column.
+     */
+    @Transactional
+    public FlowerResponseDTO patchFlower(FlowerPatchDTO dto, long id, String userId) {
+        EnumMap<PatchColumn, Object> changes = new EnumMap<>(PatchColumn.class);
+        putIfPresent(changes, PatchColumn.FLOWER_NAME, dto.flowerName());
+        putIfPresent(changes, PatchColumn.SPECIES, dto.species());
+        putIfPresent(changes, PatchColumn.COLOR, dto.color());
+        putIfPresent(changes, PatchColumn.PLANTING_DATE, dto.plantingDate());
+        putIfPresent(changes, PatchColumn.GRID_POSITION, dto.gridPosition());
+        putIfPresent(changes, PatchColumn.WATER_FREQUENCY_DAYS, dto.waterFrequencyDays());
+        putIfPresent(changes, PatchColumn.FERTILIZE_FREQUENCY_DAYS, dto.fertilizeFrequencyDays());
+        putIfPresent(changes, PatchColumn.PRUNE_FREQUENCY_DAYS, dto.pruneFrequencyDays());
+        putIfPresent(changes, PatchColumn.LAST_WATERED, dto.lastWateredDate());
+        putIfPresent(changes, PatchColumn.LAST_FERTILIZED, dto.lastFertilizedDate());
+        putIfPresent(changes, PatchColumn.LAST_PRUNED_DATE, dto.lastPrunedDate());
+        putIfPresent(changes, PatchColumn.MAX_HEIGHT, dto.maxHeight());
+        putIfPresent(changes, PatchColumn.GROWTH_RATE, dto.growthRate());
+        putIfPresent(changes, PatchColumn.AUTO_SCHEDULING, dto.autoScheduling());
+
+        Flower patched = flowerRepository.patchFlower(id, userId, changes, dto.version());
+        dueTaskWheel.track(patched);
+        return mapToResponseDTO(patched);
+    }
+
     public FlowerResponseDTO getFlowerById(long id, String userId) {
         Flower flower = findFlowerByIdOrThrow(id, userId);
         return mapToResponseDTO(flower);
     }
 
-    public List<FlowerResponseDTO> getAllFlowers(String userId) {
-        return flowerRepository.findAllFlowerByUserId(userId)
-                .stream()
-                .map(this::mapToResponseDTO)
-                .toList();
+    public KeysetPage<FlowerResponseDTO> getAllFlowers(String userId, PageCursor after, int limit) {
+        return toPage(flowerRepository.findAllFlowerByUserId(userId, after, limit + 1), limit);
     }
 
     public long getFlowerCount(String userId) {
         return flowerRepository.countByUserId(userId);
     }
 
-    public List<FlowerResponseDTO> getAllFlowersBySpecies(String species, String userId) {
-        return flowerRepository.findBySpeciesAndUserId(species, userId)
-                .stream()
-                .map(this::mapToResponseDTO)
-                .toList();
+    public KeysetPage<FlowerResponseDTO> getAllFlowersBySpecies(String species, String userId,
+                                                               PageCursor after, int limit) {
+        return toPage(flowerRepository.findBySpeciesAndUserId(species, userId, after, limit + 1), limit);
     }
 
-    public List<FlowerResponseDTO> getAllFlowerByColor(String color, String userId) {
-        return flowerRepository.findByColorAndUserId(color, userId)
-                .stream()
-                .map(this::mapToResponseDTO)
-                .toList();
+    public KeysetPage<FlowerResponseDTO> getAllFlowerByColor(String color, String userId,
+                                                            PageCursor after, int limit) {
+        return toPage(flowerRepository.findByColorAndUserId(color, userId, after, limit + 1), limit);
     }
 
     @Transactional
     public void deleteFlower(long id, String userId) {
-        findFlowerByIdOrThrow(id, userId);
+        // Throws FlowerNotFoundException when nothing was deleted
         flowerRepository.deleteFlower(id, userId);
-    }
-
-    private void checkDuplicateFlowerName(String flowerName, String userId) {
-        if (flowerRepository.existsByNameAndUserId(flowerName, userId)) {
-            throw new DuplicateFlowerException("Flower name already exists!");
-        }
+        dueTaskWheel.forget(id);
     }
 
     private Flower findFlowerByIdOrThrow(long id, String userId) {
-        flowerRepository.validateExists(id, userId);
         return flowerRepository.findByFlowerIdAndUserId(id, userId);
     }
 
+    private Flower toFlower(FlowerRequestDTO dto, String userId) {
+        Flower flower = new Flower();
+        flower.setUserId(userId);
+        flower.setFlowerName(dto.flowerName());
+        flower.setSpecies(dto.species());
+        flower.setColor(dto.color());
+        flower.setPlantingDate(dto.plantingDate());
+        flower.setGridPosition(dto.gridPosition());
+
+        // Maintenance scheduling fields
+        flower.setWaterFrequencyDays(dto.waterFrequencyDays());
+        flower.setFertilizeFrequencyDays(dto.fertilizeFrequencyDays());
+        flower.setPruneFrequencyDays(dto.pruneFrequencyDays());
+        flower.setLastWateredDate(dto.lastWateredDate());
+        flower.setLastFertilizedDate(dto.lastFertilizedDate());
+        flower.setLastPrunedDate(dto.lastPrunedDate());
+
+        // Growth fields
+        flower.setMaxHeight(dto.maxHeight());
+        flower.setGrowthRate(dto.growthRate());
+        return flower;
+    }
+
+    // Repositories are asked for limit + 1 rows so the extra row tells us whether a next page exists
+    private KeysetPage<FlowerResponseDTO> toPage(List<Flower> rows, int limit) {
+        return KeysetPage.of(rows, limit, flower -> PageCursor.ofId(flower.getFlower_id()))
+                .map(this::mapToResponseDTO);
+    }
+
+    // A null field was either left out of the body or sent as null; both leave the column as it is
+    private static void putIfPresent(EnumMap<PatchColumn, Object> changes, PatchColumn column, Object value) {
+        if (value != null) {
+            changes.put(column, value);
+        }
+    }
+
     private FlowerResponseDTO mapToResponseDTO(Flower flower) {
         return new FlowerResponseDTO(
                 flower.getFlower_id(),
@@ -145,7 +160,8 @@ public class FlowerService {
                 flower.getLastPrunedDate(),
                 flower.isAutoScheduling(),
                 flower.getMaxHeight(),
-                flower.getGrowthRate()
+                flower.getGrowthRate(),
+                flower.getVersion()
         );
     }
 }
\ No newline at end of file
@@ -0,0 +1,54 @@
+package org.example.flowerapp.Services;
+
+import org.example.flowerapp.Models.Growth;
+import org.example.flowerapp.Models.Maintenance;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Writes the garden tick's stages want for one chunk of flowers. The tick saves them in one
+ * batch per table; actions such as emails run only once that chunk has committed. A growth
+ * record changed by two stages is written once.
+ */
+final class GardenEffects {
+
+    private final LocalDateTime startOfDay;
+    private final List<Maintenance> tasks = new ArrayList<>();
+    private final Set<Growth> growth = Collections.newSetFromMap(new IdentityHashMap<>());
+    private final List<Runnable> afterCommit = new ArrayList<>();
+
+    GardenEffects(LocalDateTime startOfDay) {
+        this.startOfDay = startOfDay;
+    }
+
+    void addTask(GardenState state, Maintenance task) {
+        tasks.add(task);
+        state.addTask(task, startOfDay);
+    }
+
+    void saveGrowth(GardenState state, Growth record) {
+        growth.add(record);
+        state.setLatestGrowth(record);
+    }
+
+    void afterCommit(Runnable action) {
+        afterCommit.add(action);
+    }
+
+    List<Maintenance> tasks() {
+        return tasks;
+    }
+
+    List<Growth> growth() {
+        return new ArrayList<>(growth);
+    }
+
+    List<Runnable> afterCommitActions() {
+        return afterCommit;
+    }
+}
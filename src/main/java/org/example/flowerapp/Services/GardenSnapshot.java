@@ -0,0 +1,199 @@
+package org.example.flowerapp.Services;
+
+import org.example.flowerapp.Models.Enums.GrowthStage;
+import org.example.flowerapp.Models.Enums.MaintenanceType;
+import org.example.flowerapp.Models.Flower;
+import org.example.flowerapp.Models.Growth;
+import org.example.flowerapp.Models.Maintenance;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Column-per-field copy of one garden tick chunk, built once and evaluated in one loop per
+ * rule. Dates are local date-times as epoch seconds, so the care checks compare the same
+ * instants as the Flower-based rules (to the second) without a LocalDateTime per check.
+ * Rows follow the chunk's flower_id order.
+ */
+final class GardenSnapshot {
+
+    static final int WATER = 0;
+    static final int FERTILIZE = 1;
+    static final int PRUNE = 2;
+    private static final int CARE_TYPES = 3;
+
+    private static final long DAY_SECONDS = 86_400;
+    private static final int NO_FREQUENCY = -1;
+    private static final long NEVER = Long.MIN_VALUE;
+    private static final long NONE = Long.MAX_VALUE;
+    private static final byte NO_STAGE = -1;
+    private static final GrowthStage[] STAGES = GrowthStage.values();
+
+    private final int size;
+    private final long now;
+    private final long[] flowerIds;
+    private final boolean[] autoScheduling;
+    private final long[] planted;
+    // CARE_TYPES entries per row, indexed row * CARE_TYPES + care
+    private final int[] frequencyDays;
+    private final long[] lastCare;
+    private final byte[] stage;
+    private final long[] oldestOpenScheduled;
+    private final long[] earliestOpenDue;
+
+    // Results, one bit per care type
+    private final byte[] dueForTask;
+    private final byte[] tracked;
+    private final byte[] overdue;
+    private final int[] maxOverdueDays;
+
+    GardenSnapshot(List<Flower> flowers, Map<Long, Growth> latestGrowth, List<Maintenance> tasks, LocalDateTime now) {
+        size = flowers.size();
+        this.now = seconds(now);
+        flowerIds = new long[size];
+        autoScheduling = new boolean[size];
+        planted = new long[size];
+        frequencyDays = new int[size * CARE_TYPES];
+        lastCare = new long[size * CARE_TYPES];
+        stage = new byte[size];
+        oldestOpenScheduled = new long[size];
+        earliestOpenDue = new long[size];
+        dueForTask = new byte[size];
+        tracked = new byte[size];
+        overdue = new byte[size];
+        maxOverdueDays = new int[size];
+
+        for (int row = 0; row < size; row++) {
+            Flower flower = flowers.get(row);
+            flowerIds[row] = flower.getFlower_id();
+            autoScheduling[row] = flower.isAutoScheduling();
+            planted[row] = flower.getPlantingDate() != null ? seconds(flower.getPlantingDate()) : NEVER;
+            setCare(row, WATER, flower.getWaterFrequencyDays(), flower.getLastWateredDate());
+            setCare(row, FERTILIZE, flower.getFertilizeFrequencyDays(), flower.getLastFertilizedDate());
+            setCare(row, PRUNE, flower.getPruneFrequencyDays(), flower.getLastPrunedDate());
+            Growth growth = latestGrowth.get(flower.getFlower_id());
+            setStage(row, growth != null ? growth.getStage() : null);
+        }
+
+        Arrays.fill(oldestOpenScheduled, NONE);
+        Arrays.fill(earliestOpenDue, NONE);
+        for (Maintenance task : tasks) {
+            int row = rowOf(task.getFlower().getFlower_id());
+            if (row < 0 || task.isCompleted()) {
+                continue;
+            }
+            if (task.getScheduledDate() != null) {
+                oldestOpenScheduled[row] = Math.min(oldestOpenScheduled[row], seconds(task.getScheduledDate()));
+            }
+            if (task.getDueDate() != null) {
+                earliestOpenDue[row] = Math.min(earliestOpenDue[row], seconds(task.getDueDate()));
+            }
+        }
+
+        evaluate();
+    }
+
+    private void evaluate() {
+        // Task generation: due once now reaches the last care plus its frequency; without a
+        // recorded care, watering falls due at planting and the others a frequency later
+        for (int row = 0; row < size; row++) {
+            int due = 0;
+            if (autoScheduling[row]) {
+                for (int care = 0; care < CARE_TYPES; care++) {
+                    int i = row * CARE_TYPES + care;
+                    if (frequencyDays[i] == NO_FREQUENCY) {
+                        continue;
+                    }
+                    long next;
+                    if (lastCare[i] != NEVER) {
+                        next = lastCare[i] + frequencyDays[i] * DAY_SECONDS;
+                    } else if (planted[row] != NEVER) {
+                        next = care == WATER ? planted[row] : planted[row] + frequencyDays[i] * DAY_SECONDS;
+                    } else {
+                        continue;
+                    }
+                    if (now >= next) {
+                        due |= 1 << care;
+                    }
+                }
+            }
+            dueForTask[row] = (byte) due;
+        }
+
+        // Growth: only care types with both a frequency and a recorded care are tracked, and
+        // one is overdue once now is past the last care plus its frequency
+        for (int row = 0; row < size; row++) {
+            int trackedCare = 0;
+            int overdueCare = 0;
+            for (int care = 0; care < CARE_TYPES; care++) {
+                int i = row * CARE_TYPES + care;
+                if (frequencyDays[i] == NO_FREQUENCY || lastCare[i] == NEVER) {
+                    continue;
+                }
+                trackedCare |= 1 << care;
+                if (now > lastCare[i] + frequencyDays[i] * DAY_SECONDS) {
+                    overdueCare |= 1 << care;
+                }
+            }
+            tracked[row] = (byte) trackedCare;
+            overdue[row] = (byte) overdueCare;
+        }
+
+        // Health: whole days the oldest open task is past its scheduled date
+        for (int row = 0; row < size; row++) {
+            long past = oldestOpenScheduled[row] == NONE ? 0 : now - oldestOpenScheduled[row];
+            maxOverdueDays[row] = past > 0 ? (int) (past / DAY_SECONDS) : 0;
+        }
+    }
+
+    int rowOf(long flowerId) {
+        int row = Arrays.binarySearch(flowerIds, flowerId);
+        return row >= 0 ? row : -1;
+    }
+
+    boolean isDueForTask(int row, int care) {
+        return (dueForTask[row] & (1 << care)) != 0;
+    }
+
+    // Some tracked care type is overdue, or an open task is past its due date
+    boolean hasMissedCare(int row) {
+        return overdue[row] != 0 || earliestOpenDue[row] < now;
+    }
+
+    boolean isAllCareOverdue(int row) {
+        return tracked[row] != 0 && overdue[row] == tracked[row];
+    }
+
+    int maxOverdueDays(int row) {
+        return maxOverdueDays[row];
+    }
+
+    GrowthStage stage(int row) {
+        return stage[row] == NO_STAGE ? null : STAGES[stage[row]];
+    }
+
+    void setStage(int row, GrowthStage growthStage) {
+        stage[row] = growthStage != null ? (byte) growthStage.ordinal() : NO_STAGE;
+    }
+
+    static int careOf(MaintenanceType type) {
+        return switch (type) {
+            case WATERING -> WATER;
+            case FERTILIZING -> FERTILIZE;
+            case PRUNING -> PRUNE;
+            default -> -1;
+        };
+    }
+
+    private void setCare(int row, int care, Integer frequency, LocalDateTime last) {
+        frequencyDays[row * CARE_TYPES + care] = frequency != null ? frequency : NO_FREQUENCY;
+        lastCare[row * CARE_TYPES + care] = last != null ? seconds(last) : NEVER;
+    }
+
+    private static long seconds(LocalDateTime time) {
+        return time.toEpochSecond(ZoneOffset.UTC);
+    }
+}
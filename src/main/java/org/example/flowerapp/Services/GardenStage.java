@@ -0,0 +1,20 @@
+package org.example.flowerapp.Services;
+
+import java.time.LocalDateTime;
+
+/**
+ * One per-flower rule of the {@link GardenTick}. Stages run in {@code @Order} over state the
+ * tick has already loaded, must not query per flower, and hand their writes to the effects.
+ */
+interface GardenStage {
+
+    String name();
+
+    /**
+     * Cadence of the rule; the tick runs the stage when this cron has fired since its last
+     * run. "-" leaves the stage out.
+     */
+    String cron();
+
+    void apply(GardenState state, GardenEffects effects, LocalDateTime now);
+}
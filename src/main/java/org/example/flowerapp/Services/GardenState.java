@@ -0,0 +1,75 @@
+package org.example.flowerapp.Services;
+
+import org.example.flowerapp.Models.Enums.MaintenanceType;
+import org.example.flowerapp.Models.Flower;
+import org.example.flowerapp.Models.Growth;
+import org.example.flowerapp.Models.Maintenance;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * What the garden tick knows about one flower: the flower, its latest growth record, its
+ * open tasks and its row of the chunk's {@link GardenSnapshot}, loaded once per chunk.
+ * Stages see each other's effects through it, so a task queued by one stage counts as open
+ * for the next. Tasks queued during the tick are never overdue, so the snapshot's task
+ * columns stay valid.
+ */
+final class GardenState {
+
+    private final Flower flower;
+    private final GardenSnapshot snapshot;
+    private final int row;
+    private final List<Maintenance> openTasks = new ArrayList<>();
+    private final Set<MaintenanceType> scheduledToday = EnumSet.noneOf(MaintenanceType.class);
+    private Growth latestGrowth;
+
+    GardenState(Flower flower, Growth latestGrowth, GardenSnapshot snapshot, int row) {
+        this.flower = flower;
+        this.latestGrowth = latestGrowth;
+        this.snapshot = snapshot;
+        this.row = row;
+    }
+
+    Flower flower() {
+        return flower;
+    }
+
+    Growth latestGrowth() {
+        return latestGrowth;
+    }
+
+    GardenSnapshot snapshot() {
+        return snapshot;
+    }
+
+    int row() {
+        return row;
+    }
+
+    boolean hasOpenTask(MaintenanceType type) {
+        return openTasks.stream().anyMatch(task -> task.getTaskType() == type);
+    }
+
+    boolean hasTaskScheduledToday(MaintenanceType type) {
+        return scheduledToday.contains(type);
+    }
+
+    void addTask(Maintenance task, LocalDateTime startOfDay) {
+        if (!task.isCompleted()) {
+            openTasks.add(task);
+        }
+        LocalDateTime scheduled = task.getScheduledDate();
+        if (scheduled != null && !scheduled.isBefore(startOfDay) && !scheduled.isAfter(startOfDay.plusDays(1))) {
+            scheduledToday.add(task.getTaskType());
+        }
+    }
+
+    void setLatestGrowth(Growth latestGrowth) {
+        this.latestGrowth = latestGrowth;
+        snapshot.setStage(row, latestGrowth.getStage());
+    }
+}
@@ -0,0 +1,187 @@
+package org.example.flowerapp.Services;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.example.flowerapp.Configurations.ExclusiveJob;
+import org.example.flowerapp.Configurations.JobLease;
+import org.example.flowerapp.Configurations.JobLocks;
+import org.example.flowerapp.Exceptions.BusinessLogicExceptions.VersionConflictException;
+import org.example.flowerapp.Exceptions.DatabaseOperationExceptions.JobLockLostException;
+import org.example.flowerapp.Models.Flower;
+import org.example.flowerapp.Models.Growth;
+import org.example.flowerapp.Models.Maintenance;
+import org.example.flowerapp.Repository.FlowerRepository;
+import org.example.flowerapp.Repository.GrowthRepository;
+import org.example.flowerapp.Repository.MaintenanceRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.support.CronExpression;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Fused replacement for the task generation, pest, health and weekly growth jobs. One keyset
+ * pass over the flowers loads each chunk's flowers, latest growth records and open tasks in
+ * three queries into a {@link GardenSnapshot}, runs every stage whose cron fired since the last tick over each flower, and
+ * saves what they produced in one batch per table, one transaction per chunk.
+ * While garden.tick.enabled is set the four standalone jobs stand down.
+ */
+@Service
+@Slf4j
+public class GardenTick {
+
+    private final FlowerRepository flowerRepository;
+    private final GrowthRepository growthRepository;
+    private final MaintenanceRepository maintenanceRepository;
+    private final List<GardenStage> stages;
+    private final TransactionTemplate chunkTransaction;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${garden.tick.enabled:false}")
+    private boolean enabled;
+
+    @Value("${repository.batch-size:50}")
+    private int batchSize;
+
+    private LocalDateTime lastTick;
+
+    public GardenTick(FlowerRepository flowerRepository,
+                      GrowthRepository growthRepository,
+                      MaintenanceRepository maintenanceRepository,
+                      List<GardenStage> stages,
+                      PlatformTransactionManager transactionManager,
+                      MeterRegistry meterRegistry) {
+        this.flowerRepository = flowerRepository;
+        this.growthRepository = growthRepository;
+        this.maintenanceRepository = maintenanceRepository;
+        this.stages = stages;
+        this.chunkTransaction = new TransactionTemplate(transactionManager);
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Scheduled(cron = "${garden.tick.cron:0 0 * * * *}")
+    @ExclusiveJob("garden-tick")
+    public void tick() {
+        if (!enabled) {
+            return;
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        // Under the cluster lock the previous tick may have run on another node
+        Optional<JobLease> lease = JobLocks.current();
+        LocalDateTime previous = lease.map(JobLease::getPreviousRunAt).orElse(lastTick);
+        // The first tick only picks up stages due at this very minute
+        LocalDateTime since = previous != null ? previous : now.truncatedTo(ChronoUnit.MINUTES).minusSeconds(1);
+        lastTick = now;
+
+        List<GardenStage> due = stages.stream().filter(stage -> isDue(stage, since, now)).toList();
+        if (due.isEmpty()) {
+            return;
+        }
+        log.info("=== Starting garden tick with stages {} ===", due.stream().map(GardenStage::name).toList());
+
+        long started = System.nanoTime();
+        int flowers = 0;
+        int failedChunks = 0;
+        long afterId = 0;
+
+        List<Flower> page;
+        do {
+            page = flowerRepository.findPage(afterId, batchSize);
+            if (page.isEmpty()) {
+                break;
+            }
+            List<Flower> chunk = page;
+            try {
+                GardenEffects effects = chunkTransaction.execute(status -> {
+                    // Fences the chunk's writes against a node that took the tick over
+                    lease.ifPresent(JobLease::ensureHeld);
+                    return runChunk(chunk, due, now);
+                });
+                runAfterCommit(effects);
+            } catch (JobLockLostException e) {
+                log.error("Garden tick stopped at flower {}: {}", chunk.get(0).getFlower_id(), e.getMessage());
+                break;
+            } catch (Exception e) {
+                failedChunks++;
+                log.error("Garden tick failed for flowers {}..{}: {}", chunk.get(0).getFlower_id(),
+                        chunk.get(chunk.size() - 1).getFlower_id(), e.getMessage());
+            }
+            flowers += chunk.size();
+            afterId = chunk.get(chunk.size() - 1).getFlower_id();
+        } while (page.size() == batchSize);
+
+        Duration elapsed = Duration.ofNanos(System.nanoTime() - started);
+        meterRegistry.timer("jobs.garden_tick.duration").record(elapsed);
+        log.info("=== Completed garden tick. {} flowers, {} failed chunks in {} ms ===",
+                flowers, failedChunks, elapsed.toMillis());
+    }
+
+    private GardenEffects runChunk(List<Flower> chunk, List<GardenStage> due, LocalDateTime now) {
+        Map<Long, Flower> flowers = new LinkedHashMap<>();
+        chunk.forEach(flower -> flowers.put(flower.getFlower_id(), flower));
+
+        LocalDateTime startOfDay = now.toLocalDate().atStartOfDay();
+        Map<Long, Growth> latestGrowth = growthRepository.findLatestByFlowers(flowers);
+        List<Maintenance> tasks = maintenanceRepository.findIncompleteOrScheduledBetweenByFlowers(
+                flowers, startOfDay, startOfDay.plusDays(1));
+
+        GardenSnapshot snapshot = new GardenSnapshot(chunk, latestGrowth, tasks, now);
+        Map<Long, GardenState> states = new LinkedHashMap<>();
+        flowers.forEach((id, flower) ->
+                states.put(id, new GardenState(flower, latestGrowth.get(id), snapshot, snapshot.rowOf(id))));
+        for (Maintenance task : tasks) {
+            states.get(task.getFlower().getFlower_id()).addTask(task, startOfDay);
+        }
+
+        GardenEffects effects = new GardenEffects(startOfDay);
+        for (GardenState state : states.values()) {
+            for (GardenStage stage : due) {
+                try {
+                    stage.apply(state, effects, now);
+                } catch (Exception e) {
+                    log.error("Garden stage {} failed for flower ID {}: {}",
+                            stage.name(), state.flower().getFlower_id(), e.getMessage());
+                }
+            }
+        }
+
+        if (!effects.tasks().isEmpty()) {
+            maintenanceRepository.saveAll(effects.tasks());
+        }
+        try {
+            growthRepository.saveAll(effects.growth());
+        } catch (VersionConflictException e) {
+            // The rest of the chunk is written; the next tick works from the fresh rows
+            log.warn("Garden tick skipped growth records {} changed by another writer", e.getIds());
+        }
+        return effects;
+    }
+
+    private void runAfterCommit(GardenEffects effects) {
+        for (Runnable action : effects.afterCommitActions()) {
+            try {
+                action.run();
+            } catch (Exception e) {
+                log.error("Garden tick follow-up failed: {}", e.getMessage());
+            }
+        }
+    }
+
+    private static boolean isDue(GardenStage stage, LocalDateTime since, LocalDateTime now) {
+        if (Scheduled.CRON_DISABLED.equals(stage.cron())) {
+            return false;
+        }
+        LocalDateTime next = CronExpression.parse(stage.cron()).next(since);
+        return next != null && !next.isAfter(now);
+    }
+}
@@ -2,13 +2,21 @@ package org.example.flowerapp.Services;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.example.flowerapp.Configurations.ExclusiveJob;
+import org.example.flowerapp.Configurations.JobLease;
+import org.example.flowerapp.Configurations.JobLocks;
+import org.example.flowerapp.Exceptions.BusinessLogicExceptions.VersionConflictException;
+import org.example.flowerapp.Exceptions.DatabaseOperationExceptions.JobLockLostException;
 import org.example.flowerapp.Models.Flower;
 import org.example.flowerapp.Models.Growth;
 import org.example.flowerapp.Models.Maintenance;
 import org.example.flowerapp.Models.Enums.GrowthStage;
 import org.example.flowerapp.Repository.FlowerRepository;
 import org.example.flowerapp.Repository.GrowthRepository;
+import org.example.flowerapp.Repository.JobWorkItemRepository.FlowerScope;
 import org.example.flowerapp.Repository.MaintenanceRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.annotation.Order;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -17,39 +25,121 @@ import java.time.LocalDateTime;
 import java.time.temporal.ChronoUnit;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.function.BooleanSupplier;
 
 @Service
 @RequiredArgsConstructor
 @Slf4j
-public class GrowthAutomationService {
+@Order(4)
+public class GrowthAutomationService implements GardenStage, JobWorkHandler {
 
     private final FlowerRepository flowerRepository;
     private final GrowthRepository growthRepository;
     private final MaintenanceRepository maintenanceRepository;
+    private final JobWorkQueue workQueue;
+
+    @Value("${repository.batch-size:50}")
+    private int batchSize;
+
+    @Value("${jobs.optimistic-retries:3}")
+    private int optimisticRetries;
+
+    @Value("${jobs.weekly-growth.cron:0 0 2 * * SUN}")
+    private String cron;
+
+    @Value("${garden.tick.enabled:false}")
+    private boolean gardenTickEnabled;
 
     // Run weekly: every Sunday at 2 AM
-    @Scheduled(cron = "0 0 2 * * SUN")
+    @Scheduled(cron = "${jobs.weekly-growth.cron:0 0 2 * * SUN}")
+    @ExclusiveJob("weekly-growth")
     @Transactional
     public void performWeeklyGrowthUpdate() {
+        if (gardenTickEnabled) {
+            log.debug("Weekly growth update runs as part of the garden tick");
+            return;
+        }
+
+        // The workers of every node update the flowers chunk by chunk
+        if (workQueue.isEnabled()) {
+            workQueue.enqueue(name(), FlowerScope.AUTO_SCHEDULING, LocalDateTime.now());
+            return;
+        }
+
         log.info("Starting weekly growth update...");
 
         // Note: This scheduled task updates ALL users' flowers
         // We need to get all flowers with auto-scheduling enabled across all users
-        List<Flower> flowersToUpdate = flowerRepository.findByAutoSchedulingTrue();
-        int updatedCount = 0;
+        AtomicInteger flowerCount = new AtomicInteger();
+        AtomicInteger updatedCount = new AtomicInteger();
+        PendingWrites<Growth> pendingGrowth = new PendingWrites<>(this::saveGrowthBatch, batchSize);
+
+        flowerRepository.forEachAutoSchedulingFlower(flower -> {
+            flowerCount.incrementAndGet();
+            if (updateGrowthQuietly(flower, pendingGrowth)) {
+                updatedCount.incrementAndGet();
+            }
+        });
+        pendingGrowth.flush();
 
-        for (Flower flower : flowersToUpdate) {
-            try {
-                GrowthUpdateResult result = updateFlowerGrowth(flower);
-                if (result.isUpdated()) {
-                    updatedCount++;
-                }
-            } catch (Exception e) {
-                log.error("Error updating growth for flower ID {}: {}", flower.getFlower_id(), e.getMessage());
+        log.info("Weekly growth update completed. Updated {} out of {} flowers.", updatedCount.get(), flowerCount.get());
+    }
+
+    /**
+     * One work queue chunk of the weekly update, in one transaction. Repeating a chunk is
+     * harmless: flowers updated less than 5 days ago are left alone.
+     */
+    @Override
+    @Transactional
+    public int processChunk(long firstFlowerId, long lastFlowerId, LocalDateTime runAt) {
+        int updated = 0;
+        PendingWrites<Growth> pendingGrowth = new PendingWrites<>(this::saveGrowthBatch, batchSize);
+        for (Flower flower : flowerRepository.findAutoSchedulingBetween(firstFlowerId, lastFlowerId)) {
+            if (updateGrowthQuietly(flower, pendingGrowth)) {
+                updated++;
             }
         }
+        pendingGrowth.flush();
+        return updated;
+    }
 
-        log.info("Weekly growth update completed. Updated {} out of {} flowers.", updatedCount, flowersToUpdate.size());
+    // A failure is logged and skips only this flower; a lost lease stops the run
+    private boolean updateGrowthQuietly(Flower flower, PendingWrites<Growth> pendingGrowth) {
+        try {
+            return updateFlowerGrowth(flower, pendingGrowth::add).isUpdated();
+        } catch (JobLockLostException e) {
+            throw e;
+        } catch (Exception e) {
+            log.error("Error updating growth for flower ID {}: {}", flower.getFlower_id(), e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * Writes a batch of growth updates; records a user changed since this run read them are
+     * recomputed from the fresh rows, with bounded retries, instead of being overwritten
+     */
+    private void saveGrowthBatch(List<Growth> batch) {
+        // Fenced against a node that took the weekly run over; work queue chunks run without a lease
+        JobLocks.current().ifPresent(JobLease::ensureHeld);
+        try {
+            growthRepository.saveAll(batch);
+        } catch (VersionConflictException e) {
+            for (Growth growth : batch) {
+                if (!e.getIds().contains(growth.getGrowth_id())) {
+                    continue;
+                }
+                Flower stale = growth.getFlower();
+                try {
+                    OptimisticRetry.run(optimisticRetries, "flower " + stale.getFlower_id(),
+                            () -> updateFlowerGrowth(stale));
+                } catch (Exception retryError) {
+                    log.error("Error updating growth for flower ID {}: {}", stale.getFlower_id(), retryError.getMessage());
+                }
+            }
+        }
     }
 
     /**
@@ -57,6 +147,14 @@ public class GrowthAutomationService {
      * Growth rate is calculated as percentage of max height per week
      */
     public GrowthUpdateResult updateFlowerGrowth(Flower flower) {
+        return updateFlowerGrowth(flower, growthRepository::save);
+    }
+
+    /**
+     * Same as {@link #updateFlowerGrowth(Flower)} but hands the changed record to the given writer,
+     * which lets the weekly job batch its writes
+     */
+    private GrowthUpdateResult updateFlowerGrowth(Flower flower, Consumer<Growth> writer) {
         String userId = flower.getUserId();
 
         // Get the latest growth record
@@ -64,9 +162,36 @@ public class GrowthAutomationService {
                 .findTopByFlowerAndUserIdOrderByRecordedAtDesc(flower, userId)
                 .orElse(null);
 
+        return updateFlowerGrowth(flower, existingGrowth,
+                () -> hasMissedMaintenanceTasks(flower), () -> areAllMaintenanceTasksOverdue(flower), writer);
+    }
+
+    @Override
+    public String name() {
+        return "weekly-growth";
+    }
+
+    @Override
+    public String cron() {
+        return cron;
+    }
+
+    @Override
+    public void apply(GardenState state, GardenEffects effects, LocalDateTime now) {
+        if (state.flower().isAutoScheduling()) {
+            GardenSnapshot snapshot = state.snapshot();
+            updateFlowerGrowth(state.flower(), state.latestGrowth(),
+                    () -> snapshot.hasMissedCare(state.row()), () -> snapshot.isAllCareOverdue(state.row()),
+                    growth -> effects.saveGrowth(state, growth));
+        }
+    }
+
+    // The maintenance checks run only for flowers that already have a growth record
+    private GrowthUpdateResult updateFlowerGrowth(Flower flower, Growth existingGrowth, BooleanSupplier missedTasks,
+                                                  BooleanSupplier allOverdue, Consumer<Growth> writer) {
         if (existingGrowth == null) {
             log.warn("No growth record found for flower ID {}. Creating initial record.", flower.getFlower_id());
-            createInitialGrowthRecord(flower);
+            createInitialGrowthRecord(flower, writer);
             return new GrowthUpdateResult(
                     flower.getFlower_id(),
                     flower.getFlowerName(),
@@ -83,8 +208,8 @@ public class GrowthAutomationService {
         GrowthStage oldStage = existingGrowth.getStage();
 
         // Check for missed maintenance tasks
-        boolean hasMissedTasks = hasMissedMaintenanceTasks(flower);
-        boolean allTasksOverdue = areAllMaintenanceTasksOverdue(flower);
+        boolean hasMissedTasks = missedTasks.getAsBoolean();
+        boolean allTasksOverdue = allOverdue.getAsBoolean();
 
         // If SOME (but not all) tasks are overdue, skip growth update
         if (hasMissedTasks && !allTasksOverdue) {
@@ -111,7 +236,7 @@ public class GrowthAutomationService {
             existingGrowth.setRecordedAt(LocalDateTime.now());
             existingGrowth.setGrowthSinceLast(0.0);
 
-            growthRepository.save(existingGrowth);
+            writer.accept(existingGrowth);
 
             return new GrowthUpdateResult(
                     flower.getFlower_id(),
@@ -187,7 +312,7 @@ public class GrowthAutomationService {
                     existingGrowth.getGrowthSinceLast(), weeksSinceLastUpdate, actualGrowthRate));
         }
 
-        growthRepository.save(existingGrowth);  // This UPDATES the existing record
+        writer.accept(existingGrowth);  // This UPDATES the existing record
 
         log.info("Growth updated for flower ID {}. Height: {} cm (+{} cm over {:.1f} weeks), Stage: {}",
                 flower.getFlower_id(), newHeight, existingGrowth.getGrowthSinceLast(), weeksSinceLastUpdate, newStage);
@@ -221,7 +346,8 @@ public class GrowthAutomationService {
 
         for (Flower flower : flowersToUpdate) {
             try {
-                GrowthUpdateResult result = updateFlowerGrowth(flower);
+                GrowthUpdateResult result = OptimisticRetry.run(optimisticRetries, "flower " + flower.getFlower_id(),
+                        () -> updateFlowerGrowth(flower));
                 results.add(result);
             } catch (Exception e) {
                 log.error("Error updating growth for flower ID {}: {}", flower.getFlower_id(), e.getMessage());
@@ -361,28 +487,13 @@ public class GrowthAutomationService {
      * WILTING: When flower is dying (not based on height progression)
      */
     private GrowthStage determineGrowthStage(double currentHeight, double maxHeight, GrowthStage currentStage) {
-        double heightPercentage = (currentHeight / maxHeight) * 100;
-
-        // If already wilting, keep it wilting (dying state)
-        if (currentStage == GrowthStage.WILTING) {
-            return GrowthStage.WILTING;
-        }
-
-        if (heightPercentage < 20) {
-            return GrowthStage.SEED;
-        } else if (heightPercentage < 40) {
-            return GrowthStage.SEEDLING;
-        } else if (heightPercentage < 80) {
-            return GrowthStage.BUDDING;
-        } else {
-            return GrowthStage.BLOOMING;
-        }
+        return GrowthForecastKernel.stageFor(currentHeight, maxHeight, currentStage);
     }
 
     /**
      * Creates an initial growth record for a flower that doesn't have one
      */
-    private void createInitialGrowthRecord(Flower flower) {
+    private void createInitialGrowthRecord(Flower flower, Consumer<Growth> writer) {
         Growth initialGrowth = new Growth();
         initialGrowth.setFlower(flower);
         initialGrowth.setUserId(flower.getUserId());  // Set userId
@@ -394,7 +505,7 @@ public class GrowthAutomationService {
         initialGrowth.setColorChanges(false);
         initialGrowth.setNotes("Initial growth record");
 
-        growthRepository.save(initialGrowth);
+        writer.accept(initialGrowth);
         log.info("Created initial growth record for flower ID {}", flower.getFlower_id());
     }
 
@@ -0,0 +1,71 @@
+package org.example.flowerapp.Services;
+
+import org.example.flowerapp.Models.Enums.GrowthStage;
+
+/**
+ * The weekly growth model of {@link GrowthAutomationService} over primitive columns: each
+ * weekly update adds growthRate percent of maxHeight, capped at maxHeight, and the stage
+ * follows the 20/40/80% height thresholds. WILTING keeps its stage and DEAD stops growing.
+ * Stages are GrowthStage ordinals. {@link #project} writes into caller-owned arrays and
+ * allocates nothing, so one call covers a whole garden.
+ */
+final class GrowthForecastKernel {
+
+    private static final byte SEED = (byte) GrowthStage.SEED.ordinal();
+    private static final byte SEEDLING = (byte) GrowthStage.SEEDLING.ordinal();
+    private static final byte BUDDING = (byte) GrowthStage.BUDDING.ordinal();
+    private static final byte BLOOMING = (byte) GrowthStage.BLOOMING.ordinal();
+    private static final byte WILTING = (byte) GrowthStage.WILTING.ordinal();
+    private static final byte DEAD = (byte) GrowthStage.DEAD.ordinal();
+    private static final GrowthStage[] STAGES = GrowthStage.values();
+
+    private GrowthForecastKernel() {
+    }
+
+    /**
+     * Projects {@code weeks} weekly updates for {@code flowers} rows. Row i starts at
+     * height[i] and stage[i]; week k of row i (k = 0 is one week out) lands at
+     * i * weeks + k of projectedHeight and projectedStage.
+     */
+    static void project(int flowers, int weeks,
+                        double[] height, double[] maxHeight, double[] growthRate, byte[] stage,
+                        double[] projectedHeight, byte[] projectedStage) {
+        for (int i = 0; i < flowers; i++) {
+            double max = maxHeight[i];
+            double current = height[i];
+            byte currentStage = stage[i];
+            double increment = currentStage == DEAD || max <= 0 ? 0 : growthRate[i] / 100.0 * max;
+            int out = i * weeks;
+            for (int k = 0; k < weeks; k++) {
+                if (increment > 0 && current < max) {
+                    current = Math.min(current + increment, max);
+                    currentStage = stageFor(current, max, currentStage);
+                }
+                projectedHeight[out + k] = current;
+                projectedStage[out + k] = currentStage;
+            }
+        }
+    }
+
+    static GrowthStage stageFor(double height, double maxHeight, GrowthStage current) {
+        return STAGES[stageFor(height, maxHeight, current != null ? (byte) current.ordinal() : SEED)];
+    }
+
+    static byte stageFor(double height, double maxHeight, byte current) {
+        // If already wilting, keep it wilting (dying state)
+        if (current == WILTING) {
+            return current;
+        }
+
+        double heightPercentage = height / maxHeight * 100;
+        if (heightPercentage < 20) {
+            return SEED;
+        } else if (heightPercentage < 40) {
+            return SEEDLING;
+        } else if (heightPercentage < 80) {
+            return BUDDING;
+        } else {
+            return BLOOMING;
+        }
+    }
+}
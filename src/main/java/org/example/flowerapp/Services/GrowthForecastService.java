@@ -0,0 +1,168 @@
+package org.example.flowerapp.Services;
+
+import lombok.RequiredArgsConstructor;
+import org.example.flowerapp.DTO.GrowthForecastDTO;
+import org.example.flowerapp.DTO.GrowthForecastPointDTO;
+import org.example.flowerapp.DTO.GrowthStageChangeDTO;
+import org.example.flowerapp.Exceptions.ValidationExceptions.InvalidGrowthDataException;
+import org.example.flowerapp.Models.Enums.GrowthStage;
+import org.example.flowerapp.Models.Flower;
+import org.example.flowerapp.Models.Growth;
+import org.example.flowerapp.Repository.FlowerRepository;
+import org.example.flowerapp.Repository.GrowthRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Projects the next weekly growth updates of a flower, or of a whole garden, assuming its care
+ * is kept up. Points are anchored at the latest growth record, so a forecast only changes when
+ * the flower (care dates, max height, growth rate) or that record does; both bump a version,
+ * and cached forecasts are reused until their flower's versions move on. Cache misses of one
+ * request go through {@link GrowthForecastKernel} together.
+ */
+@Service
+@RequiredArgsConstructor
+public class GrowthForecastService {
+
+    private static final GrowthStage[] STAGES = GrowthStage.values();
+
+    private final FlowerRepository flowerRepository;
+    private final GrowthRepository growthRepository;
+    private final Map<Long, CachedForecast> cache = new ConcurrentHashMap<>();
+
+    @Value("${growth.forecast.max-weeks:104}")
+    private int maxWeeks;
+
+    @Value("${growth.forecast.cache-size:10000}")
+    private int cacheSize;
+
+    @Transactional(readOnly = true)
+    public GrowthForecastDTO getForecast(long flowerId, String userId, int weeks) {
+        validateWeeks(weeks);
+        Flower flower = flowerRepository.findByFlowerIdAndUserId(flowerId, userId);
+        return forecast(List.of(flower), weeks).get(0);
+    }
+
+    @Transactional(readOnly = true)
+    public List<GrowthForecastDTO> getGardenForecast(String userId, int weeks) {
+        validateWeeks(weeks);
+        return forecast(flowerRepository.findAllFlowerByUserId(userId), weeks);
+    }
+
+    private List<GrowthForecastDTO> forecast(List<Flower> flowers, int weeks) {
+        if (flowers.isEmpty()) {
+            return List.of();
+        }
+        Map<Long, Flower> byId = new LinkedHashMap<>();
+        flowers.forEach(flower -> byId.put(flower.getFlower_id(), flower));
+        Map<Long, Growth> latestGrowth = growthRepository.findLatestByFlowers(byId);
+
+        GrowthForecastDTO[] result = new GrowthForecastDTO[flowers.size()];
+        Fingerprint[] fingerprints = new Fingerprint[flowers.size()];
+        int[] misses = new int[flowers.size()];
+        int missCount = 0;
+        for (int i = 0; i < flowers.size(); i++) {
+            Flower flower = flowers.get(i);
+            fingerprints[i] = Fingerprint.of(flower, latestGrowth.get(flower.getFlower_id()), weeks);
+            CachedForecast cached = cache.get(flower.getFlower_id());
+            if (cached != null && cached.fingerprint().equals(fingerprints[i])) {
+                result[i] = cached.forecast();
+            } else {
+                misses[missCount++] = i;
+            }
+        }
+
+        if (missCount > 0) {
+            project(flowers, latestGrowth, weeks, Arrays.copyOf(misses, missCount), result);
+            if (cache.size() + missCount > cacheSize) {
+                cache.clear();
+            }
+            for (int m = 0; m < missCount; m++) {
+                int i = misses[m];
+                if (fingerprints[i].cacheable()) {
+                    cache.put(flowers.get(i).getFlower_id(), new CachedForecast(fingerprints[i], result[i]));
+                }
+            }
+        }
+        return Arrays.asList(result);
+    }
+
+    private void project(List<Flower> flowers, Map<Long, Growth> latestGrowth, int weeks,
+                         int[] rows, GrowthForecastDTO[] result) {
+        int n = rows.length;
+        LocalDateTime[] from = new LocalDateTime[n];
+        double[] height = new double[n];
+        double[] maxHeight = new double[n];
+        double[] growthRate = new double[n];
+        byte[] stage = new byte[n];
+        for (int r = 0; r < n; r++) {
+            Flower flower = flowers.get(rows[r]);
+            Growth growth = latestGrowth.get(flower.getFlower_id());
+            // Without a growth record the flower starts as a seed at its planting date
+            from[r] = growth != null && growth.getRecordedAt() != null ? growth.getRecordedAt() : startOf(flower);
+            height[r] = growth != null ? growth.getHeight() : 0.0;
+            stage[r] = (byte) (growth != null && growth.getStage() != null ? growth.getStage() : GrowthStage.SEED).ordinal();
+            maxHeight[r] = flower.getMaxHeight() != null ? flower.getMaxHeight() : 0.0;
+            growthRate[r] = flower.getGrowthRate() != null ? flower.getGrowthRate() : 0.0;
+        }
+
+        double[] projectedHeight = new double[n * weeks];
+        byte[] projectedStage = new byte[n * weeks];
+        GrowthForecastKernel.project(n, weeks, height, maxHeight, growthRate, stage, projectedHeight, projectedStage);
+
+        for (int r = 0; r < n; r++) {
+            List<GrowthForecastPointDTO> points = new ArrayList<>(weeks);
+            List<GrowthStageChangeDTO> stageChanges = new ArrayList<>();
+            byte previous = stage[r];
+            for (int k = 0; k < weeks; k++) {
+                int i = r * weeks + k;
+                LocalDateTime at = from[r].plusWeeks(k + 1);
+                points.add(new GrowthForecastPointDTO(at, projectedHeight[i], STAGES[projectedStage[i]]));
+                if (projectedStage[i] != previous) {
+                    stageChanges.add(new GrowthStageChangeDTO(STAGES[projectedStage[i]], at));
+                    previous = projectedStage[i];
+                }
+            }
+            result[rows[r]] = new GrowthForecastDTO(flowers.get(rows[r]).getFlower_id(), from[r], height[r],
+                    STAGES[stage[r]], points, stageChanges);
+        }
+    }
+
+    private void validateWeeks(int weeks) {
+        if (weeks < 1 || weeks > maxWeeks) {
+            throw new InvalidGrowthDataException("weeks must be between 1 and " + maxWeeks);
+        }
+    }
+
+    private static LocalDateTime startOf(Flower flower) {
+        return flower.getPlantingDate() != null ? flower.getPlantingDate() : LocalDate.now().atStartOfDay();
+    }
+
+    // Everything a forecast depends on; care dates move the flower version
+    private record Fingerprint(long flowerVersion, long growthId, long growthVersion, boolean anchored, int weeks) {
+
+        static Fingerprint of(Flower flower, Growth growth, int weeks) {
+            boolean anchored = growth != null || flower.getPlantingDate() != null;
+            return growth != null
+                    ? new Fingerprint(flower.getVersion(), growth.getGrowth_id(), growth.getVersion(), anchored, weeks)
+                    : new Fingerprint(flower.getVersion(), 0L, 0L, anchored, weeks);
+        }
+
+        // A flower without a growth record or planting date is projected from today
+        boolean cacheable() {
+            return anchored;
+        }
+    }
+
+    private record CachedForecast(Fingerprint fingerprint, GrowthForecastDTO forecast) {}
+}
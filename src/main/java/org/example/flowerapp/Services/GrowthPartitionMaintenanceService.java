@@ -0,0 +1,111 @@
+package org.example.flowerapp.Services;
+
+import lombok.extern.slf4j.Slf4j;
+import org.example.flowerapp.Configurations.ExclusiveJob;
+import org.example.flowerapp.Configurations.JobWorkload;
+import org.example.flowerapp.Repository.GrowthPartitionRepository;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.YearMonth;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Keeps the monthly growthdetails partitions rolling: creates the next few months ahead of
+ * time so new rows never land in the default partition, and takes months older than the
+ * retention horizon out of the table (archived to the growth_archive schema, or dropped).
+ */
+@Service
+@Slf4j
+public class GrowthPartitionMaintenanceService {
+
+    private final GrowthPartitionRepository partitionRepository;
+    // This bean's proxy, so the startup run takes the growth-partitions lease like the daily one
+    private final ObjectProvider<GrowthPartitionMaintenanceService> self;
+
+    @Value("${growth.partitions.enabled:true}")
+    private boolean enabled;
+
+    @Value("${growth.partitions.months-ahead:3}")
+    private int monthsAhead;
+
+    @Value("${growth.partitions.retention-months:24}")
+    private int retentionMonths;
+
+    @Value("${growth.partitions.drop-expired:false}")
+    private boolean dropExpired;
+
+    public GrowthPartitionMaintenanceService(GrowthPartitionRepository partitionRepository,
+                                             ObjectProvider<GrowthPartitionMaintenanceService> self) {
+        this.partitionRepository = partitionRepository;
+        this.self = self;
+    }
+
+    // Runs as job work so the partition DDL uses the jobs pool and job-scan timeouts
+    @EventListener(ApplicationReadyEvent.class)
+    public void onStartup() {
+        GrowthPartitionMaintenanceService proxy = self.getObject();
+        JobWorkload.wrap(proxy::maintainPartitions).run();
+    }
+
+    @Scheduled(cron = "0 30 3 * * *") // Run daily at 3:30 AM
+    @ExclusiveJob("growth-partitions")
+    public void maintainPartitions() {
+        if (!enabled) {
+            return;
+        }
+
+        try {
+            List<YearMonth> existing = partitionRepository.findMonthlyPartitions();
+            YearMonth current = YearMonth.now();
+
+            int created = createUpcoming(new HashSet<>(existing), current);
+            int expired = expireOld(existing, current.minusMonths(retentionMonths));
+
+            log.info("Growth partitions: {} created, {} {}", created, expired, dropExpired ? "dropped" : "archived");
+        } catch (Exception e) {
+            log.error("Error maintaining growth partitions", e);
+        }
+    }
+
+    private int createUpcoming(Set<YearMonth> existing, YearMonth current) {
+        int created = 0;
+        for (int i = 0; i <= monthsAhead; i++) {
+            YearMonth month = current.plusMonths(i);
+            if (!existing.contains(month)) {
+                partitionRepository.createMonthlyPartition(month);
+                log.info("Created growth partition for {}", month);
+                created++;
+            }
+        }
+        return created;
+    }
+
+    private int expireOld(List<YearMonth> existing, YearMonth horizon) {
+        int expired = 0;
+        for (YearMonth month : existing) {
+            if (!month.isBefore(horizon)) {
+                break;
+            }
+
+            // A flower whose newest record is this old would otherwise lose its current stage
+            int latestRecords = partitionRepository.countLatestRecordsIn(month);
+            if (latestRecords > 0) {
+                log.warn("Keeping growth partition {}: it holds the latest record of {} flower(s)",
+                        month, latestRecords);
+                continue;
+            }
+
+            partitionRepository.detachMonthlyPartition(month, dropExpired);
+            log.info("{} growth partition for {}", dropExpired ? "Dropped" : "Archived", month);
+            expired++;
+        }
+        return expired;
+    }
+}
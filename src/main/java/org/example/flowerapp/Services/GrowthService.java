@@ -3,16 +3,26 @@ package org.example.flowerapp.Services;
 import lombok.RequiredArgsConstructor;
 import org.example.flowerapp.DTO.GrowthRequestDTO;
 import org.example.flowerapp.DTO.GrowthResponseDTO;
+import org.example.flowerapp.DTO.GrowthRollupResponseDTO;
+import org.example.flowerapp.DTO.GrowthSeriesPointDTO;
 import org.example.flowerapp.Exceptions.EntityNotFoundExceptions.FlowerNotFoundException;
 import org.example.flowerapp.Exceptions.EntityNotFoundExceptions.GrowthNotFoundException;
+import org.example.flowerapp.Exceptions.ValidationExceptions.InvalidGrowthDataException;
 import org.example.flowerapp.Models.Enums.GrowthStage;
 import org.example.flowerapp.Models.Flower;
 import org.example.flowerapp.Models.Growth;
+import org.example.flowerapp.Models.GrowthWeeklyRollup;
+import org.example.flowerapp.Models.KeysetPage;
+import org.example.flowerapp.Models.PageCursor;
 import org.example.flowerapp.Repository.FlowerRepository;
 import org.example.flowerapp.Repository.GrowthRepository;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Isolation;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.sql.Timestamp;
+import java.util.ArrayList;
 import java.util.List;
 
 @Service
@@ -22,6 +32,9 @@ public class GrowthService {
     private final GrowthRepository growthRepository;
     private final FlowerRepository flowerRepository;
 
+    @Value("${growth.series.max-points:2000}")
+    private int maxSeriesPoints;
+
     @Transactional
     public GrowthResponseDTO addNewGrowth(GrowthRequestDTO dto, String userId) {
         Flower flower = findFlowerByIdOrThrow(dto.flower_id(), userId);
@@ -40,17 +53,54 @@ public class GrowthService {
         Flower flower = findFlowerByIdOrThrow(dto.flower_id(), userId);
 
         updateGrowthFromDTO(growth, dto, flower);
+        if (dto.version() != null) {
+            growth.setVersion(dto.version());
+        }
 
+        // Matches only the version read above (or sent by the client), otherwise 409
         Growth saved = growthRepository.save(growth);
         return mapToResponseDTO(saved);
     }
 
-    public List<GrowthResponseDTO> getGrowthByFlowerId(long flowerId, String userId) {
+    public KeysetPage<GrowthResponseDTO> getGrowthByFlowerId(long flowerId, String userId,
+                                                            PageCursor after, int limit) {
+        findFlowerByIdOrThrow(flowerId, userId);
+        return toPage(growthRepository.findByFlowerIdAndUserId(flowerId, userId, after, limit + 1), limit);
+    }
+
+    public KeysetPage<GrowthRollupResponseDTO> getWeeklyGrowthByFlowerId(long flowerId, String userId,
+                                                                        PageCursor after, int limit) {
         findFlowerByIdOrThrow(flowerId, userId);
-        return growthRepository.findByFlowerIdAndUserId(flowerId, userId)
-                .stream()
-                .map(this::mapToResponseDTO)
-                .toList();
+        return toRollupPage(growthRepository.findWeeklyRollupsByFlowerIdAndUserId(flowerId, userId, after, limit + 1), limit);
+    }
+
+    /**
+     * Height-over-time series for charts, downsampled with LTTB to at most {@code points}
+     * points. Count and scan share a repeatable-read snapshot so the bucket layout matches
+     * the rows actually streamed.
+     */
+    @Transactional(readOnly = true, isolation = Isolation.REPEATABLE_READ)
+    public List<GrowthSeriesPointDTO> getGrowthSeries(long flowerId, String userId, int points) {
+        if (points < 3) {
+            throw new InvalidGrowthDataException("points must be at least 3");
+        }
+        findFlowerByIdOrThrow(flowerId, userId);
+
+        int total = growthRepository.countByFlowerIdAndUserId(flowerId, userId);
+        LttbDownsampler downsampler = new LttbDownsampler(total, Math.min(points, maxSeriesPoints));
+        growthRepository.forEachSeriesPoint(flowerId, userId,
+                (recordedAt, height, stage) -> downsampler.add(recordedAt, height, stage.ordinal()));
+
+        LttbDownsampler.Series series = downsampler.finish();
+        GrowthStage[] stages = GrowthStage.values();
+        List<GrowthSeriesPointDTO> result = new ArrayList<>(series.size());
+        for (int i = 0; i < series.size(); i++) {
+            result.add(new GrowthSeriesPointDTO(
+                    new Timestamp(series.x()[i]).toLocalDateTime(),
+                    series.y()[i],
+                    stages[series.tags()[i]]));
+        }
+        return result;
     }
 
     public GrowthResponseDTO getGrowthById(long id, String userId) {
@@ -58,30 +108,27 @@ public class GrowthService {
         return mapToResponseDTO(growth);
     }
 
-    public List<GrowthResponseDTO> getAllGrowthDetails(String userId) {
-        return growthRepository.findAllGrowthByUserId(userId)
-                .stream()
-                .map(this::mapToResponseDTO)
-                .toList();
+    public KeysetPage<GrowthResponseDTO> getAllGrowthDetails(String userId, PageCursor after, int limit) {
+        return toPage(growthRepository.findAllGrowthByUserId(userId, after, limit + 1), limit);
+    }
+
+    public KeysetPage<GrowthRollupResponseDTO> getAllWeeklyGrowth(String userId, PageCursor after, int limit) {
+        return toRollupPage(growthRepository.findWeeklyRollupsByUserId(userId, after, limit + 1), limit);
     }
 
-    public List<GrowthResponseDTO> getGrowthByStage(GrowthStage stage, String userId) {
-        return growthRepository.findByStageAndUserId(stage, userId)
-                .stream()
-                .map(this::mapToResponseDTO)
-                .toList();
+    public KeysetPage<GrowthResponseDTO> getGrowthByStage(GrowthStage stage, String userId,
+                                                         PageCursor after, int limit) {
+        return toPage(growthRepository.findByStageAndUserId(stage, userId, after, limit + 1), limit);
     }
 
-    public List<GrowthResponseDTO> getGrowthByColorChanges(boolean colorChanges, String userId) {
-        return growthRepository.findByColorChangesAndUserId(colorChanges, userId)
-                .stream()
-                .map(this::mapToResponseDTO)
-                .toList();
+    public KeysetPage<GrowthResponseDTO> getGrowthByColorChanges(boolean colorChanges, String userId,
+                                                                PageCursor after, int limit) {
+        return toPage(growthRepository.findByColorChangesAndUserId(colorChanges, userId, after, limit + 1), limit);
     }
 
     @Transactional
     public void deleteGrowth(long id, String userId) {
-        findGrowthByIdOrThrow(id, userId);
+        // Throws GrowthNotFoundException when nothing was deleted
         growthRepository.deleteGrowth(id, userId);
     }
 
@@ -108,6 +155,31 @@ public class GrowthService {
         return growth;
     }
 
+    // Repositories are asked for limit + 1 rows so the extra row tells us whether a next page exists
+    private KeysetPage<GrowthResponseDTO> toPage(List<Growth> rows, int limit) {
+        return KeysetPage.of(rows, limit, growth -> new PageCursor(growth.getRecordedAt(), growth.getGrowth_id()))
+                .map(this::mapToResponseDTO);
+    }
+
+    private KeysetPage<GrowthRollupResponseDTO> toRollupPage(List<GrowthWeeklyRollup> rows, int limit) {
+        return KeysetPage.of(rows, limit, rollup -> new PageCursor(rollup.weekStart().atStartOfDay(), rollup.flowerId()))
+                .map(this::mapToRollupResponseDTO);
+    }
+
+    private GrowthRollupResponseDTO mapToRollupResponseDTO(GrowthWeeklyRollup rollup) {
+        return new GrowthRollupResponseDTO(
+                rollup.flowerId(),
+                rollup.weekStart(),
+                rollup.minHeight(),
+                rollup.maxHeight(),
+                rollup.lastHeight(),
+                rollup.lastStage(),
+                rollup.lastRecordedAt(),
+                rollup.colorChanged(),
+                rollup.sampleCount()
+        );
+    }
+
     private GrowthResponseDTO mapToResponseDTO(Growth growth) {
         return new GrowthResponseDTO(
                 growth.getGrowth_id(),
@@ -117,7 +189,8 @@ public class GrowthService {
                 growth.isColorChanges(),
                 growth.getNotes(),
                 growth.getRecordedAt(),
-                growth.getGrowthSinceLast()
+                growth.getGrowthSinceLast(),
+                growth.getVersion()
         );
     }
 }
\ No newline at end of file
@@ -0,0 +1,116 @@
+package org.example.flowerapp.Services;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Hashed timing wheel of long keys, one deadline per key. A deadline lands in slot
+ * (deadline / tick) mod slots and keeps its absolute tick, so deadlines more than one
+ * revolution out simply stay in their slot until the wheel reaches their tick. Scheduling
+ * and cancelling are O(1); {@link #advance} visits only the slots passed since the last call.
+ * Not thread safe on its own; {@link DueTaskWheel} guards it.
+ */
+final class HashedTimingWheel {
+
+    private final long tickMillis;
+    private final int mask;
+    private final Entry[] slots;
+    private final Map<Long, Entry> entries = new HashMap<>();
+    // First tick not yet expired
+    private long nextTick;
+
+    HashedTimingWheel(long tickMillis, int slots, long startMillis) {
+        if (tickMillis <= 0 || Integer.bitCount(slots) != 1) {
+            throw new IllegalArgumentException("tick must be positive and slots a power of two");
+        }
+        this.tickMillis = tickMillis;
+        this.mask = slots - 1;
+        this.slots = new Entry[slots];
+        this.nextTick = startMillis / tickMillis;
+    }
+
+    // Replaces any earlier deadline of the key; deadlines already passed expire on the next advance
+    void schedule(long key, long deadlineMillis) {
+        cancel(key);
+        long tick = Math.max(deadlineMillis / tickMillis, nextTick);
+        Entry entry = new Entry(key, tick);
+        int slot = (int) (tick & mask);
+        entry.next = slots[slot];
+        if (entry.next != null) {
+            entry.next.prev = entry;
+        }
+        slots[slot] = entry;
+        entries.put(key, entry);
+    }
+
+    boolean cancel(long key) {
+        Entry entry = entries.remove(key);
+        if (entry == null) {
+            return false;
+        }
+        unlink(entry);
+        return true;
+    }
+
+    boolean contains(long key) {
+        return entries.containsKey(key);
+    }
+
+    int size() {
+        return entries.size();
+    }
+
+    /**
+     * Removes and returns the keys whose deadline tick is at or before the tick of
+     * {@code nowMillis}. A gap longer than one revolution visits every slot once.
+     */
+    List<Long> advance(long nowMillis) {
+        long nowTick = nowMillis / tickMillis;
+        List<Long> expired = new ArrayList<>();
+        if (nowTick < nextTick) {
+            return expired;
+        }
+        long visits = Math.min(nowTick - nextTick + 1, slots.length);
+        for (long t = nextTick; t < nextTick + visits; t++) {
+            Entry entry = slots[(int) (t & mask)];
+            while (entry != null) {
+                Entry next = entry.next;
+                if (entry.tick <= nowTick) {
+                    unlink(entry);
+                    entries.remove(entry.key);
+                    expired.add(entry.key);
+                }
+                entry = next;
+            }
+        }
+        nextTick = nowTick + 1;
+        return expired;
+    }
+
+    private void unlink(Entry entry) {
+        if (entry.prev != null) {
+            entry.prev.next = entry.next;
+        } else {
+            slots[(int) (entry.tick & mask)] = entry.next;
+        }
+        if (entry.next != null) {
+            entry.next.prev = entry.prev;
+        }
+        entry.prev = null;
+        entry.next = null;
+    }
+
+    private static final class Entry {
+        final long key;
+        final long tick;
+        Entry prev;
+        Entry next;
+
+        Entry(long key, long tick) {
+            this.key = key;
+            this.tick = tick;
+        }
+    }
+}
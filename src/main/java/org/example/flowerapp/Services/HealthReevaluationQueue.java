@@ -0,0 +1,75 @@
+package org.example.flowerapp.Services;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Coalescing queue of flowers whose tasks changed. Events arrive after their transaction
+ * commits (rolled back writes never get here) and repeated events for a flower collapse into
+ * one entry that keeps the time of the first. Once that entry is a window old the worker
+ * re-checks the flower's health through {@link FlowerHealthMonitorService#reevaluate}, so a
+ * stage change shows up within seconds instead of at the next hourly sweep.
+ */
+@Service
+@Slf4j
+public class HealthReevaluationQueue {
+
+    private final FlowerHealthMonitorService healthMonitorService;
+    private final Map<Long, Long> dirtySince = new ConcurrentHashMap<>();
+
+    @Value("${health.reevaluation.enabled:true}")
+    private boolean enabled;
+
+    @Value("${health.reevaluation.window-ms:2000}")
+    private long windowMillis;
+
+    @Value("${repository.batch-size:50}")
+    private int batchSize;
+
+    public HealthReevaluationQueue(FlowerHealthMonitorService healthMonitorService) {
+        this.healthMonitorService = healthMonitorService;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onFlowerDirty(FlowerDirtyEvent event) {
+        if (enabled) {
+            dirtySince.putIfAbsent(event.flowerId(), System.currentTimeMillis());
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${health.reevaluation.poll-ms:1000}")
+    public void drain() {
+        if (dirtySince.isEmpty()) {
+            return;
+        }
+
+        long cutoff = System.currentTimeMillis() - windowMillis;
+        List<Long> ready = new ArrayList<>();
+        dirtySince.forEach((flowerId, since) -> {
+            // Removed before the re-check reads, so an event that lands meanwhile queues it again
+            if (since <= cutoff && dirtySince.remove(flowerId, since)) {
+                ready.add(flowerId);
+            }
+        });
+
+        int checked = 0;
+        for (int from = 0; from < ready.size(); from += batchSize) {
+            checked += healthMonitorService.reevaluate(ready.subList(from, Math.min(from + batchSize, ready.size())));
+        }
+        if (!ready.isEmpty()) {
+            log.debug("Re-checked health of {} of {} dirty flowers", checked, ready.size());
+        }
+    }
+
+    int size() {
+        return dirtySince.size();
+    }
+}
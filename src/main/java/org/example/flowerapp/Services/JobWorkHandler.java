@@ -0,0 +1,17 @@
+package org.example.flowerapp.Services;
+
+import java.time.LocalDateTime;
+
+/**
+ * A job whose run the {@link JobWorkQueue} can split into chunks of consecutive flower ids and
+ * spread over the workers of every node. A chunk may be processed twice (its claim ran out while
+ * a slow worker was still on it), so processing must be safe to repeat.
+ */
+interface JobWorkHandler {
+
+    /** Job name the chunks are queued under. */
+    String name();
+
+    /** Processes the run's flowers with ids in [firstFlowerId, lastFlowerId]; returns how many it handled. */
+    int processChunk(long firstFlowerId, long lastFlowerId, LocalDateTime runAt);
+}
@@ -0,0 +1,159 @@
+package org.example.flowerapp.Services;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.example.flowerapp.Configurations.JobLocks;
+import org.example.flowerapp.Configurations.JobWorkload;
+import org.example.flowerapp.Repository.JobWorkItemRepository;
+import org.example.flowerapp.Repository.JobWorkItemRepository.FlowerScope;
+import org.example.flowerapp.Repository.JobWorkItemRepository.Item;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Spreads the heavy jobs over every instance. While jobs.work-queue.enabled is set the node
+ * that wins a job's lease only queues the run as chunks of jobs.work-queue.chunk-size flowers;
+ * jobs.work-queue.threads workers on each node claim chunks with SKIP LOCKED, hand them to the
+ * job's {@link JobWorkHandler} and acknowledge them, so a run finishes faster with every node
+ * added. Chunks whose claim runs out (the worker died or hung) are handed out again, at most
+ * jobs.work-queue.max-attempts times.
+ */
+@Service
+@Slf4j
+public class JobWorkQueue {
+
+    private static final Duration KEEP_FAILED = Duration.ofDays(7);
+
+    private final JobWorkItemRepository workItemRepository;
+    // Resolved on first use: the handlers are the jobs that queue their runs here
+    private final ObjectProvider<JobWorkHandler> handlerProvider;
+    private final JobLocks jobLocks;
+    private final MeterRegistry meterRegistry;
+    private final int threads;
+    private final ExecutorService workers;
+    private volatile Map<String, JobWorkHandler> handlers;
+
+    @Value("${jobs.work-queue.enabled:false}")
+    private boolean enabled;
+
+    @Value("${jobs.work-queue.chunk-size:500}")
+    private int chunkSize;
+
+    @Value("${jobs.work-queue.claim-timeout-ms:600000}")
+    private long claimTimeoutMillis;
+
+    @Value("${jobs.work-queue.max-attempts:3}")
+    private int maxAttempts;
+
+    public JobWorkQueue(JobWorkItemRepository workItemRepository,
+                        ObjectProvider<JobWorkHandler> handlerProvider,
+                        JobLocks jobLocks,
+                        MeterRegistry meterRegistry,
+                        @Value("${jobs.work-queue.threads:2}") int threads) {
+        this.workItemRepository = workItemRepository;
+        this.handlerProvider = handlerProvider;
+        this.jobLocks = jobLocks;
+        this.meterRegistry = meterRegistry;
+        this.threads = Math.max(1, threads);
+        this.workers = Executors.newFixedThreadPool(this.threads, new CustomizableThreadFactory("job-worker-"));
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Coordinator side: queues a run of the job over the flowers in scope. Returns the number
+     * of chunks queued, 0 while chunks of the job's previous run are still open.
+     */
+    public int enqueue(String jobName, FlowerScope scope, LocalDateTime runAt) {
+        int retired = workItemRepository.retireAbandoned(maxAttempts, KEEP_FAILED);
+        if (retired > 0) {
+            log.warn("{} work queue chunks gave up after {} attempts", retired, maxAttempts);
+        }
+
+        int chunks = workItemRepository.enqueueFlowerChunks(jobName, scope, runAt, chunkSize);
+        log.info("Queued {} chunks of up to {} flowers for job {}", chunks, chunkSize, jobName);
+        return chunks;
+    }
+
+    @Scheduled(fixedDelayString = "${jobs.work-queue.poll-ms:5000}")
+    public void work() {
+        if (!enabled) {
+            return;
+        }
+
+        CompletableFuture<?>[] runs = new CompletableFuture<?>[threads];
+        for (int i = 0; i < threads; i++) {
+            runs[i] = CompletableFuture.runAsync(JobWorkload.wrap(this::drain), workers);
+        }
+        CompletableFuture.allOf(runs).join();
+    }
+
+    /** Claims and processes chunks on this thread until none is left; returns how many it took. */
+    int drain() {
+        Map<String, JobWorkHandler> byJob = handlers();
+        String owner = jobLocks.getOwner() + "/" + Thread.currentThread().getName();
+        Duration claimTimeout = Duration.ofMillis(claimTimeoutMillis);
+
+        int claimed = 0;
+        Optional<Item> item;
+        while ((item = workItemRepository.claim(byJob.keySet(), owner, claimTimeout, maxAttempts)).isPresent()) {
+            claimed++;
+            process(item.get(), byJob.get(item.get().jobName()), owner);
+        }
+        return claimed;
+    }
+
+    private void process(Item item, JobWorkHandler handler, String owner) {
+        long started = System.nanoTime();
+        try {
+            int flowers = handler.processChunk(item.firstFlowerId(), item.lastFlowerId(), item.runAt());
+            if (!workItemRepository.acknowledge(item, owner)) {
+                log.warn("Chunk {} of job {} was claimed again before it finished", item.itemId(), item.jobName());
+            }
+            count(item, "done");
+            log.debug("Job {} chunk {} ({}..{}): {} flowers", item.jobName(), item.itemId(),
+                    item.firstFlowerId(), item.lastFlowerId(), flowers);
+        } catch (Exception e) {
+            workItemRepository.fail(item, owner, e.getMessage(), maxAttempts);
+            count(item, item.attempt() >= maxAttempts ? "failed" : "retried");
+            log.error("Job {} chunk {} ({}..{}) failed on attempt {}: {}", item.jobName(), item.itemId(),
+                    item.firstFlowerId(), item.lastFlowerId(), item.attempt(), e.getMessage());
+        } finally {
+            meterRegistry.timer("jobs.work_queue.chunk.duration", "job", item.jobName())
+                    .record(Duration.ofNanos(System.nanoTime() - started));
+        }
+    }
+
+    private void count(Item item, String outcome) {
+        meterRegistry.counter("jobs.work_queue.chunks", "job", item.jobName(), "outcome", outcome).increment();
+    }
+
+    private Map<String, JobWorkHandler> handlers() {
+        if (handlers == null) {
+            Map<String, JobWorkHandler> byJob = new LinkedHashMap<>();
+            handlerProvider.orderedStream().forEach(handler -> byJob.put(handler.name(), handler));
+            handlers = byJob;
+        }
+        return handlers;
+    }
+
+    @PreDestroy
+    void shutdown() {
+        workers.shutdownNow();
+    }
+}
@@ -0,0 +1,160 @@
+package org.example.flowerapp.Services;
+
+import java.util.Arrays;
+
+/**
+ * Largest-Triangle-Three-Buckets downsampling over a stream of (x, y, tag) points in
+ * ascending x order. The total number of points must be known up front so the bucket
+ * boundaries can be fixed; after that each point is seen exactly once and only two
+ * buckets are buffered, in primitive arrays, whatever the length of the series.
+ *
+ * <p>The first and last points are always kept. The tag travels with the point that is
+ * selected and is not used by the algorithm itself.
+ */
+final class LttbDownsampler {
+
+    record Series(long[] x, double[] y, int[] tags) {
+        int size() {
+            return x.length;
+        }
+    }
+
+    private final int total;
+    private final boolean passThrough;
+    private final double bucketWidth;
+
+    private final long[] outX;
+    private final double[] outY;
+    private final int[] outTags;
+    private int outSize;
+
+    // Bucket being decided and the one after it, whose average is the third triangle vertex
+    private long[] curX;
+    private double[] curY;
+    private int[] curTags;
+    private int curSize;
+    private long[] nextX;
+    private double[] nextY;
+    private int[] nextTags;
+    private int nextSize;
+
+    private int index;
+    private int currentBucket;
+    private int streamBucket;
+    private int streamBucketEnd;
+
+    LttbDownsampler(int total, int threshold) {
+        this.total = Math.max(0, total);
+        this.passThrough = threshold < 3 || threshold >= this.total;
+
+        int capacity = passThrough ? this.total : threshold;
+        outX = new long[capacity];
+        outY = new double[capacity];
+        outTags = new int[capacity];
+
+        // Buckets 0 .. threshold-3 are downsampled; bucket threshold-2 is just the last point
+        bucketWidth = passThrough ? 0 : (double) (this.total - 2) / (threshold - 2);
+        int bucketCapacity = passThrough ? 0 : (int) Math.ceil(bucketWidth) + 1;
+        curX = new long[bucketCapacity];
+        curY = new double[bucketCapacity];
+        curTags = new int[bucketCapacity];
+        nextX = new long[bucketCapacity];
+        nextY = new double[bucketCapacity];
+        nextTags = new int[bucketCapacity];
+
+        streamBucketEnd = bucketStart(1);
+    }
+
+    void add(long x, double y, int tag) {
+        // Rows beyond the announced total (written after it was counted) are ignored
+        if (index >= total) {
+            return;
+        }
+
+        if (passThrough || index == 0) {
+            emit(x, y, tag);
+            index++;
+            return;
+        }
+
+        while (index >= streamBucketEnd) {
+            streamBucket++;
+            streamBucketEnd = bucketStart(streamBucket + 1);
+        }
+
+        if (streamBucket == currentBucket + 2) {
+            closeCurrentBucket();
+        }
+        if (streamBucket == currentBucket) {
+            curX[curSize] = x;
+            curY[curSize] = y;
+            curTags[curSize++] = tag;
+        } else {
+            nextX[nextSize] = x;
+            nextY[nextSize] = y;
+            nextTags[nextSize++] = tag;
+        }
+        index++;
+    }
+
+    Series finish() {
+        while (curSize > 0) {
+            if (nextSize == 0) {
+                // Fewer points arrived than announced: end the series on the last one seen
+                emit(curX[curSize - 1], curY[curSize - 1], curTags[curSize - 1]);
+                break;
+            }
+            closeCurrentBucket();
+        }
+        return new Series(Arrays.copyOf(outX, outSize), Arrays.copyOf(outY, outSize), Arrays.copyOf(outTags, outSize));
+    }
+
+    private int bucketStart(int bucket) {
+        return (int) Math.floor(bucket * bucketWidth) + 1;
+    }
+
+    private void closeCurrentBucket() {
+        double avgX = 0;
+        double avgY = 0;
+        for (int i = 0; i < nextSize; i++) {
+            avgX += nextX[i] - outX[0];
+            avgY += nextY[i];
+        }
+        avgX /= nextSize;
+        avgY /= nextSize;
+
+        // x values are shifted by the first point so epoch-sized longs stay exact as doubles
+        double ax = outX[outSize - 1] - outX[0];
+        double ay = outY[outSize - 1];
+
+        int selected = 0;
+        double maxArea = -1;
+        for (int i = 0; i < curSize; i++) {
+            double area = Math.abs((ax - avgX) * (curY[i] - ay) - (ax - (curX[i] - outX[0])) * (avgY - ay));
+            if (area > maxArea) {
+                maxArea = area;
+                selected = i;
+            }
+        }
+        emit(curX[selected], curY[selected], curTags[selected]);
+
+        long[] swapX = curX;
+        double[] swapY = curY;
+        int[] swapTags = curTags;
+        curX = nextX;
+        curY = nextY;
+        curTags = nextTags;
+        curSize = nextSize;
+        nextX = swapX;
+        nextY = swapY;
+        nextTags = swapTags;
+        nextSize = 0;
+        currentBucket++;
+    }
+
+    private void emit(long x, double y, int tag) {
+        outX[outSize] = x;
+        outY[outSize] = y;
+        outTags[outSize++] = tag;
+    }
+}
@@ -0,0 +1,70 @@
+package org.example.flowerapp.Services;
+
+import lombok.extern.slf4j.Slf4j;
+import org.example.flowerapp.Configurations.ExclusiveJob;
+import org.example.flowerapp.Repository.MaintenanceRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+
+/**
+ * Moves completed maintenance tasks older than maintenance.archive.after-days into
+ * maintenance_history, one bounded batch per statement, so the live table only carries
+ * the rows the scheduler, reminders and health monitor actually query.
+ */
+@Service
+@Slf4j
+public class MaintenanceArchiveService {
+
+    private final MaintenanceRepository maintenanceRepository;
+
+    @Value("${maintenance.archive.enabled:true}")
+    private boolean enabled;
+
+    @Value("${maintenance.archive.after-days:30}")
+    private int afterDays;
+
+    @Value("${maintenance.archive.batch-size:1000}")
+    private int batchSize;
+
+    public MaintenanceArchiveService(MaintenanceRepository maintenanceRepository) {
+        this.maintenanceRepository = maintenanceRepository;
+    }
+
+    @Scheduled(cron = "0 0 4 * * *") // Run daily at 4 AM
+    @ExclusiveJob("maintenance-archive")
+    public void scheduledArchive() {
+        if (!enabled) {
+            return;
+        }
+
+        try {
+            archiveCompletedTasks();
+        } catch (Exception e) {
+            log.error("Error archiving completed maintenance tasks", e);
+        }
+    }
+
+    /**
+     * @return number of tasks moved to maintenance_history in this run
+     */
+    public int archiveCompletedTasks() {
+        LocalDateTime cutoff = LocalDateTime.now().minusDays(afterDays);
+        int limit = Math.max(1, batchSize);
+        int moved = 0;
+        int batches = 0;
+
+        int batch;
+        do {
+            batch = maintenanceRepository.archiveCompletedBefore(cutoff, limit);
+            moved += batch;
+            batches++;
+        } while (batch == limit);
+
+        log.info("Archived {} completed maintenance task(s) finished before {} in {} batch(es)",
+                moved, cutoff.toLocalDate(), batches);
+        return moved;
+    }
+}
@@ -1,5 +1,9 @@
 package org.example.flowerapp.Services;
 
+import org.example.flowerapp.Configurations.ExclusiveJob;
+import org.example.flowerapp.Configurations.JobLease;
+import org.example.flowerapp.Configurations.JobLocks;
+import org.example.flowerapp.Exceptions.DatabaseOperationExceptions.JobLockLostException;
 import org.example.flowerapp.Models.Maintenance;
 import org.example.flowerapp.Repository.MaintenanceRepository;
 import org.springframework.scheduling.annotation.Scheduled;
@@ -34,11 +38,14 @@ public class MaintenanceReminderService {
      * Checks for tasks due today and sends email reminders
      */
     @Scheduled(cron = "0 0 6 * * *", zone = "UTC")
+    @ExclusiveJob("maintenance-reminders")
     public void sendDailyMaintenanceReminders() {
         logger.info("=== Starting daily maintenance reminder job ===");
 
         try {
             processReminders();
+        } catch (JobLockLostException e) {
+            logger.error("=== Daily maintenance reminder job stopped: {} ===", e.getMessage());
         } catch (Exception e) {
             logger.error("=== Critical error in daily maintenance reminder job ===", e);
         }
@@ -115,12 +122,15 @@ public class MaintenanceReminderService {
                                 task.getDueDate());
                     }
 
-                    // Send email
+                    // Send email, unless another node took the job over and sends them now
+                    JobLocks.current().ifPresent(JobLease::ensureHeld);
                     emailService.sendMaintenanceReminder(userId, tasksDueToday);
                     logger.info("✓ Successfully sent reminder to user {} for {} tasks",
                             userId, tasksDueToday.size());
                     emailsSent++;
                 }
+            } catch (JobLockLostException e) {
+                throw e;
             } catch (Exception e) {
                 // Log error but continue processing other users
                 logger.error("✗ Failed to send reminder to user {}: {}",
@@ -1,19 +1,25 @@
 package org.example.flowerapp.Services;
 
 import lombok.RequiredArgsConstructor;
+import org.example.flowerapp.DTO.MaintenancePatchDTO;
 import org.example.flowerapp.DTO.MaintenanceRequestDTO;
 import org.example.flowerapp.DTO.MaintenanceResponseDTO;
 import org.example.flowerapp.Exceptions.EntityNotFoundExceptions.FlowerNotFoundException;
 import org.example.flowerapp.Exceptions.EntityNotFoundExceptions.MaintenanceNotFoundException;
 import org.example.flowerapp.Models.Enums.MaintenanceType;
 import org.example.flowerapp.Models.Flower;
+import org.example.flowerapp.Models.KeysetPage;
 import org.example.flowerapp.Models.Maintenance;
+import org.example.flowerapp.Models.PageCursor;
 import org.example.flowerapp.Repository.FlowerRepository;
 import org.example.flowerapp.Repository.MaintenanceRepository;
+import org.example.flowerapp.Repository.MaintenanceRepository.PatchColumn;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
+import java.util.EnumMap;
 import java.util.List;
 
 @Service
@@ -22,6 +28,8 @@ public class MaintenanceService {
 
     private final MaintenanceRepository maintenanceRepository;
     private final FlowerRepository flowerRepository;
+    private final DueTaskWheel dueTaskWheel;
+    private final ApplicationEventPublisher events;
 
     @Transactional
     public MaintenanceResponseDTO addNewMaintenance(MaintenanceRequestDTO dto, String userId) {
@@ -45,6 +53,7 @@ public class MaintenanceService {
         System.out.println("Saving maintenance...");
         Maintenance saved = maintenanceRepository.save(maintenance);
         System.out.println("Saved maintenance with ID: " + saved.getTask_id());
+        events.publishEvent(new FlowerDirtyEvent(flower.getFlower_id()));
 
         return mapToResponseDTO(saved);
     }
@@ -53,65 +62,139 @@ public class MaintenanceService {
     public MaintenanceResponseDTO updateMaintenance(MaintenanceRequestDTO dto, long taskId, String userId) {
         Maintenance maintenance = findMaintenanceByIdOrThrow(taskId, userId);
         Flower flower = findFlowerByIdOrThrow(dto.flower_id(), userId);
+        Flower previousFlower = maintenance.getFlower();
 
         maintenance.setFlower(flower);
         maintenance.setTaskType(dto.maintenanceType());
         maintenance.setScheduledDate(dto.maintenanceDate());
         maintenance.setNotes(dto.notes());
         maintenance.setPerformedBy(dto.performedBy());
+        if (dto.version() != null) {
+            maintenance.setVersion(dto.version());
+        }
 
+        // Matches only the version read above (or sent by the client), otherwise 409
         Maintenance saved = maintenanceRepository.save(maintenance);
+        if (previousFlower != null && previousFlower.getFlower_id() != flower.getFlower_id()) {
+            events.publishEvent(new FlowerDirtyEvent(previousFlower.getFlower_id()));
+        }
+        events.publishEvent(new FlowerDirtyEvent(flower.getFlower_id()));
 
         return mapToResponseDTO(saved);
     }
 
-    public MaintenanceResponseDTO getMaintenanceById(long taskId, String userId) {
-        Maintenance maintenance = findMaintenanceByIdOrThrow(taskId, userId);
+    /**
+     * Writes only the supplied fields in a single UPDATE. A field sent as null is treated as
+     * absent, so a PATCH cannot clear a column. Marking a task completed without a completedAt
+     * stamps it with the current time; reopening it clears completedAt.
+     */
+    @Transactional
+    public MaintenanceResponseDTO patchMaintenance(MaintenancePatchDTO dto, long taskId, String userId) {
+        EnumMap<PatchColumn, Object> changes = new EnumMap<>(PatchColumn.class);
+        putIfPresent(changes, PatchColumn.MAINTENANCE_TYPE, dto.maintenanceType());
+        putIfPresent(changes, PatchColumn.MAINTENANCE_DATE, dto.maintenanceDate());
+        putIfPresent(changes, PatchColumn.DUE_DATE, dto.dueDate());
+        putIfPresent(changes, PatchColumn.NOTES, dto.notes());
+        putIfPresent(changes, PatchColumn.PERFORMED_BY, dto.performedBy());
+        putIfPresent(changes, PatchColumn.COMPLETED_AT, dto.completedAt());
+        if (dto.completed() != null) {
+            changes.put(PatchColumn.COMPLETED, dto.completed());
+            if (!dto.completed()) {
+                changes.put(PatchColumn.COMPLETED_AT, null);
+            } else if (dto.completedAt() == null) {
+                changes.put(PatchColumn.COMPLETED_AT, LocalDateTime.now());
+            }
+        }
+
+        Maintenance patched = maintenanceRepository.patchMaintenance(taskId, userId, changes, dto.version());
+        if (patched.getFlower() != null) {
+            events.publishEvent(new FlowerDirtyEvent(patched.getFlower().getFlower_id()));
+        }
+        return mapToResponseDTO(patched);
+    }
+
+    /**
+     * Completes a task and advances its flower's matching care date in one statement.
+     * Completing an already completed task changes nothing and returns it as stored.
+     */
+    @Transactional
+    public MaintenanceResponseDTO completeMaintenance(long taskId, String userId) {
+        List<Maintenance> completed = maintenanceRepository.completeTasks(List.of(taskId), userId, LocalDateTime.now());
+        recheckCareDates(completed);
+        if (completed.isEmpty()) {
+            return mapToResponseDTO(findMaintenanceByIdOrThrow(taskId, userId));
+        }
+        return mapToResponseDTO(completed.get(0));
+    }
+
+    // Returns only the tasks that were open; unknown or already completed ids are skipped
+    @Transactional
+    public List<MaintenanceResponseDTO> completeMaintenance(List<Long> taskIds, String userId) {
+        List<Maintenance> completed = maintenanceRepository.completeTasks(taskIds, userId, LocalDateTime.now());
+        recheckCareDates(completed);
+        return completed.stream()
+                .map(this::mapToResponseDTO)
+                .toList();
+    }
+
+    // Completion moved the flowers' care dates and closed tasks, so due times and health changed
+    private void recheckCareDates(List<Maintenance> completed) {
+        completed.stream()
+                .filter(task -> task.getFlower() != null)
+                .map(task -> task.getFlower().getFlower_id())
+                .distinct()
+                .forEach(flowerId -> {
+                    dueTaskWheel.recheck(flowerId);
+                    events.publishEvent(new FlowerDirtyEvent(flowerId));
+                });
+    }
+
+    // includeHistory also searches maintenance_history, where completed tasks are archived
+    public MaintenanceResponseDTO getMaintenanceById(long taskId, String userId, boolean includeHistory) {
+        Maintenance maintenance = maintenanceRepository.findByTaskIdAndUserId(taskId, userId, includeHistory);
         return mapToResponseDTO(maintenance);
     }
 
-    public List<MaintenanceResponseDTO> getAllMaintenance(String userId) {
+    public KeysetPage<MaintenanceResponseDTO> getAllMaintenance(String userId, PageCursor after, int limit,
+                                                               boolean includeHistory) {
         System.out.println("Getting all maintenance for userId: " + userId);
-        List<Maintenance> maintenances = maintenanceRepository.findAllMaintenanceByUserId(userId);
+        List<Maintenance> maintenances = maintenanceRepository.findAllMaintenanceByUserId(
+                userId, after, limit + 1, includeHistory);
         System.out.println("Found " + maintenances.size() + " maintenance records");
 
-        return maintenances.stream()
-                .map(this::mapToResponseDTO)
-                .toList();
+        return toPage(maintenances, limit);
     }
 
-    public List<MaintenanceResponseDTO> getMaintenanceByFlowerId(long flowerId, String userId) {
+    public KeysetPage<MaintenanceResponseDTO> getMaintenanceByFlowerId(long flowerId, String userId,
+                                                                      PageCursor after, int limit,
+                                                                      boolean includeHistory) {
         System.out.println("Getting maintenance for flowerId: " + flowerId + ", userId: " + userId);
-        List<Maintenance> maintenances = maintenanceRepository.findByFlowerIdAndUserId(flowerId, userId);
+        List<Maintenance> maintenances = maintenanceRepository.findByFlowerIdAndUserId(
+                flowerId, userId, after, limit + 1, includeHistory);
         System.out.println("Found " + maintenances.size() + " maintenance records");
 
-        return maintenances.stream()
-                .map(this::mapToResponseDTO)
-                .toList();
+        return toPage(maintenances, limit);
     }
 
-    public List<MaintenanceResponseDTO> getMaintenanceByType(MaintenanceType maintenanceType, String userId) {
-        return maintenanceRepository.findByMaintenanceTypeAndUserId(maintenanceType, userId)
-                .stream()
-                .map(this::mapToResponseDTO)
-                .toList();
+    public KeysetPage<MaintenanceResponseDTO> getMaintenanceByType(MaintenanceType maintenanceType, String userId,
+                                                                  PageCursor after, int limit,
+                                                                  boolean includeHistory) {
+        return toPage(maintenanceRepository.findByMaintenanceTypeAndUserId(
+                maintenanceType, userId, after, limit + 1, includeHistory), limit);
     }
 
-    public List<MaintenanceResponseDTO> getMaintenanceByDate(LocalDateTime dateTime, String userId) {
-        return maintenanceRepository.findByMaintenanceDateAndUserId(dateTime, userId)
-                .stream()
-                .map(this::mapToResponseDTO)
-                .toList();
+    public KeysetPage<MaintenanceResponseDTO> getMaintenanceByDate(LocalDateTime dateTime, String userId,
+                                                                  PageCursor after, int limit,
+                                                                  boolean includeHistory) {
+        return toPage(maintenanceRepository.findByMaintenanceDateAndUserId(
+                dateTime, userId, after, limit + 1, includeHistory), limit);
     }
 
     @Transactional
     public void deleteMaintenance(long taskId, String userId) {
-        findMaintenanceByIdOrThrow(taskId, userId);
-        boolean deleted = maintenanceRepository.deleteMaintenance(taskId, userId);
-
-        if (!deleted) {
-            throw new MaintenanceNotFoundException(taskId);
-        }
+        long flowerId = maintenanceRepository.deleteMaintenance(taskId, userId)
+                .orElseThrow(() -> new MaintenanceNotFoundException(taskId));
+        events.publishEvent(new FlowerDirtyEvent(flowerId));
     }
 
     private Flower findFlowerByIdOrThrow(long flowerId, String userId) {
@@ -139,6 +222,19 @@ public class MaintenanceService {
         }
     }
 
+    // Repositories are asked for limit + 1 rows so the extra row tells us whether a next page exists
+    private KeysetPage<MaintenanceResponseDTO> toPage(List<Maintenance> rows, int limit) {
+        return KeysetPage.of(rows, limit, maintenance -> PageCursor.ofId(maintenance.getTask_id()))
+                .map(this::mapToResponseDTO);
+    }
+
+    // A null field was either left out of the body or sent as null; both leave the column as it is
+    private static void putIfPresent(EnumMap<PatchColumn, Object> changes, PatchColumn column, Object value) {
+        if (value != null) {
+            changes.put(column, value);
+        }
+    }
+
     private MaintenanceResponseDTO mapToResponseDTO(Maintenance maintenance) {
         if (maintenance == null) {
             return null;
@@ -155,7 +251,10 @@ public class MaintenanceService {
                 maintenance.getScheduledDate(),
                 maintenance.getNotes(),
                 maintenance.getPerformedBy(),
-                maintenance.getCreatedAt()
+                maintenance.getCreatedAt(),
+                maintenance.isCompleted(),
+                maintenance.getCompletedAt(),
+                maintenance.getVersion()
         );
     }
 }
\ No newline at end of file
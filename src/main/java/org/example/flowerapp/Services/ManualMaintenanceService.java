@@ -9,6 +9,7 @@ import org.example.flowerapp.Models.Maintenance;
 import org.example.flowerapp.Repository.FlowerRepository;
 import org.example.flowerapp.Repository.MaintenanceRepository;
 import org.hibernate.sql.Delete;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.scheduling.config.Task;
 import org.springframework.stereotype.Service;
@@ -20,10 +21,15 @@ import java.time.LocalDateTime;
 public class ManualMaintenanceService {
     private final MaintenanceRepository maintenanceRepository;
     private final FlowerRepository flowerRepository;
+    private final DueTaskWheel dueTaskWheel;
+    private final ApplicationEventPublisher events;
 
-    public ManualMaintenanceService(FlowerRepository flowerRepository, MaintenanceRepository maintenanceRepository) {
+    public ManualMaintenanceService(FlowerRepository flowerRepository, MaintenanceRepository maintenanceRepository,
+                                    DueTaskWheel dueTaskWheel, ApplicationEventPublisher events) {
         this.flowerRepository = flowerRepository;
         this.maintenanceRepository = maintenanceRepository;
+        this.dueTaskWheel = dueTaskWheel;
+        this.events = events;
     }
 
     // User creates a custom task manually
@@ -41,14 +47,16 @@ public class ManualMaintenanceService {
         task.setCreatedAt(LocalDateTime.now());
         task.setNotes(notes != null ? notes : "Manual task");
 
-        return maintenanceRepository.save(task);
+        Maintenance saved = maintenanceRepository.save(task);
+        events.publishEvent(new FlowerDirtyEvent(flowerId));
+        return saved;
     }
 
     // User toggles auto-scheduling on/off
     public void toggleAutoScheduling(long flowerId, String userId, boolean enabled) {
         Flower flower = flowerRepository.findByFlowerIdAndUserId(flowerId, userId);
         flower.setAutoScheduling(enabled);
-        flowerRepository.save(flower);
+        dueTaskWheel.track(flowerRepository.save(flower));
     }
 
     // User edits an existing task
@@ -56,10 +64,12 @@ public class ManualMaintenanceService {
         Maintenance task = maintenanceRepository.findByTaskIdAndUserId(taskId, userId);
         task.setScheduledDate(newDate);
         maintenanceRepository.save(task);
+        events.publishEvent(new FlowerDirtyEvent(task.getFlower().getFlower_id()));
     }
 
     // User deletes a task they don't want
     public void deleteTask(long taskId, String userId) {
-        maintenanceRepository.deleteMaintenance(taskId, userId);
+        maintenanceRepository.deleteMaintenance(taskId, userId)
+                .ifPresent(flowerId -> events.publishEvent(new FlowerDirtyEvent(flowerId)));
     }
 }
\ No newline at end of file
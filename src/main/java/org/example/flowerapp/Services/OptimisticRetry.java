@@ -0,0 +1,31 @@
+package org.example.flowerapp.Services;
+
+import lombok.extern.slf4j.Slf4j;
+import org.example.flowerapp.Exceptions.BusinessLogicExceptions.VersionConflictException;
+
+import java.util.function.Supplier;
+
+/**
+ * Re-runs a scheduled job's read-modify-write step when its UPDATE lost a version race to
+ * another writer. The step must re-read what it writes on every attempt; after maxAttempts
+ * the conflict is rethrown and the job moves on to the next row.
+ */
+@Slf4j
+final class OptimisticRetry {
+
+    private OptimisticRetry() {
+    }
+
+    static <T> T run(int maxAttempts, String what, Supplier<T> step) {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return step.get();
+            } catch (VersionConflictException e) {
+                if (attempt >= maxAttempts) {
+                    throw e;
+                }
+                log.debug("Version conflict on {} (attempt {} of {}), retrying", what, attempt, maxAttempts);
+            }
+        }
+    }
+}
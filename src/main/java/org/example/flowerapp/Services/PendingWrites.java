@@ -0,0 +1,38 @@
+package org.example.flowerapp.Services;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Buffers rows produced by a scheduled job and hands them to a repository's saveAll
+ * once a batch is full, so jobs write in chunks while holding at most one batch in memory.
+ * Callers must flush() at the end of the run.
+ */
+final class PendingWrites<T> {
+
+    private final Consumer<List<T>> writer;
+    private final int batchSize;
+    private final List<T> pending = new ArrayList<>();
+
+    PendingWrites(Consumer<List<T>> writer, int batchSize) {
+        this.writer = writer;
+        this.batchSize = Math.max(1, batchSize);
+    }
+
+    void add(T row) {
+        pending.add(row);
+        if (pending.size() >= batchSize) {
+            flush();
+        }
+    }
+
+    void flush() {
+        if (pending.isEmpty()) {
+            return;
+        }
+        List<T> batch = new ArrayList<>(pending);
+        pending.clear();
+        writer.accept(batch);
+    }
+}
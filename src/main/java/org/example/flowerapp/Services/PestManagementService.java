@@ -2,23 +2,31 @@ package org.example.flowerapp.Services;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.example.flowerapp.Configurations.ExclusiveJob;
+import org.example.flowerapp.Configurations.JobLease;
+import org.example.flowerapp.Configurations.JobLocks;
+import org.example.flowerapp.Exceptions.DatabaseOperationExceptions.JobLockLostException;
 import org.example.flowerapp.Models.Flower;
 import org.example.flowerapp.Models.Maintenance;
 import org.example.flowerapp.Models.Enums.MaintenanceType;
 import org.example.flowerapp.Repository.FlowerRepository;
 import org.example.flowerapp.Repository.MaintenanceRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.annotation.Order;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.Random;
 
 @Service
 @Slf4j
-public class PestManagementService {
+@Order(2)
+public class PestManagementService implements GardenStage {
 
     private final FlowerRepository flowerRepository;
     private final MaintenanceRepository maintenanceRepository;
@@ -28,6 +36,15 @@ public class PestManagementService {
     // 30% chance for pest infestation
     private static final double PEST_PROBABILITY = 0.30;
 
+    @Value("${repository.batch-size:50}")
+    private int batchSize;
+
+    @Value("${jobs.pest-check.cron:0 0 6 * * *}")
+    private String cron;
+
+    @Value("${garden.tick.enabled:false}")
+    private boolean gardenTickEnabled;
+
     // Constructor for production use
     @Autowired
     public PestManagementService(FlowerRepository flowerRepository,
@@ -48,15 +65,32 @@ public class PestManagementService {
     }
 
     // Run daily at 6 AM to check for pest infestations
-    @Scheduled(cron = "0 0 6 * * *")
+    @Scheduled(cron = "${jobs.pest-check.cron:0 0 6 * * *}")
+    @ExclusiveJob("pest-check")
     @Transactional
     public void checkForPestInfestations() {
-        log.info("Starting daily pest infestation check...");
+        if (gardenTickEnabled) {
+            log.debug("Pest infestation check runs as part of the garden tick");
+            return;
+        }
+        runPestCheck();
+    }
 
-        List<Flower> allFlowers = flowerRepository.findAllFlower();
-        int infestationCount = 0;
+    private void runPestCheck() {
+        log.info("Starting daily pest infestation check...");
 
-        for (Flower flower : allFlowers) {
+        AtomicInteger flowerCount = new AtomicInteger();
+        AtomicInteger infestationCount = new AtomicInteger();
+        // Alerts go out only after their batch of tasks has been written, and only while this
+        // node still holds the job
+        PendingWrites<Maintenance> pendingTasks = new PendingWrites<>(tasks -> {
+            JobLocks.current().ifPresent(JobLease::ensureHeld);
+            maintenanceRepository.saveAll(tasks);
+            tasks.forEach(task -> sendPestAlert(task.getFlower()));
+        }, batchSize);
+
+        flowerRepository.forEachFlower(flower -> {
+            flowerCount.incrementAndGet();
             try {
                 // Check if flower already has an active pest control task
                 boolean hasActivePestTask = maintenanceRepository
@@ -68,25 +102,49 @@ public class PestManagementService {
                 if (hasActivePestTask) {
                     log.debug("Flower ID {} already has active pest control task. Skipping.",
                             flower.getFlower_id());
-                    continue;
+                    return;
                 }
 
                 // Roll the dice - 30% chance of pest infestation
                 if (shouldGetPestInfestation()) {
-                    createPestControlTask(flower);
-                    infestationCount++;
+                    pendingTasks.add(buildPestControlTask(flower));
+                    infestationCount.incrementAndGet();
                     log.info("Pest infestation detected for flower ID {} ({})",
                             flower.getFlower_id(), flower.getFlowerName());
                 }
 
+            } catch (JobLockLostException e) {
+                throw e;
             } catch (Exception e) {
                 log.error("Error checking pest infestation for flower ID {}: {}",
                         flower.getFlower_id(), e.getMessage());
             }
-        }
+        });
+        pendingTasks.flush();
 
         log.info("Pest infestation check completed. {} new infestations detected out of {} flowers.",
-                infestationCount, allFlowers.size());
+                infestationCount.get(), flowerCount.get());
+    }
+
+    @Override
+    public String name() {
+        return "pest-check";
+    }
+
+    @Override
+    public String cron() {
+        return cron;
+    }
+
+    @Override
+    public void apply(GardenState state, GardenEffects effects, LocalDateTime now) {
+        Flower flower = state.flower();
+        if (state.hasOpenTask(MaintenanceType.PEST_CONTROL) || !shouldGetPestInfestation()) {
+            return;
+        }
+        effects.addTask(state, buildPestControlTask(flower));
+        effects.afterCommit(() -> sendPestAlert(flower));
+        log.info("Pest infestation detected for flower ID {} ({})", flower.getFlower_id(), flower.getFlowerName());
     }
 
     /**
@@ -97,10 +155,9 @@ public class PestManagementService {
     }
 
     /**
-     * Creates a pest control maintenance task for the given flower
-     * and sends an email alert to the user
+     * Builds a pest control maintenance task for the given flower
      */
-    private void createPestControlTask(Flower flower) {
+    private Maintenance buildPestControlTask(Flower flower) {
         Maintenance pestTask = new Maintenance();
 
         pestTask.setFlower(flower);
@@ -111,13 +168,16 @@ public class PestManagementService {
         pestTask.setCompleted(false);
         pestTask.setNotes("Treat " + flower.getFlowerName() + " with pesticide");
         pestTask.setPerformedBy("System");
+        return pestTask;
+    }
 
-        maintenanceRepository.save(pestTask);
-
+    /**
+     * Sends an email alert to the user once the pest control task has been saved
+     */
+    private void sendPestAlert(Flower flower) {
         log.info("Created pest control task for flower ID {} ({})",
                 flower.getFlower_id(), flower.getFlowerName());
 
-        // Send email alert to user
         try {
             emailService.sendPestInfestationAlert(flower.getUserId(), flower);
             log.info("Sent pest infestation email to user {} for flower {}",
@@ -135,7 +195,7 @@ public class PestManagementService {
     @Transactional
     public String triggerPestCheckManually() {
         log.info("Manual pest check triggered");
-        checkForPestInfestations();
+        runPestCheck();
         return "Pest infestation check completed. Check logs for details.";
     }
 
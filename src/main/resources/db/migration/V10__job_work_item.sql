@@ -0,0 +1,23 @@
+-- Work queue that spreads a job run across every instance. The coordinating node (the one
+-- holding the job's lease in job_lock) splits the run into chunks of consecutive flower ids;
+-- worker threads on any node claim chunks with FOR UPDATE SKIP LOCKED, process them and
+-- delete them as their acknowledgement. A claim that is not acknowledged by claimed_until is
+-- handed out again, up to the retry limit, after which the chunk is kept as FAILED.
+CREATE TABLE IF NOT EXISTS job_work_item (
+    item_id       BIGSERIAL    PRIMARY KEY,
+    job_name      VARCHAR(100) NOT NULL,
+    first_id      BIGINT       NOT NULL,
+    last_id       BIGINT       NOT NULL,
+    run_at        TIMESTAMP    NOT NULL,
+    status        VARCHAR(10)  NOT NULL DEFAULT 'PENDING',
+    claimed_by    VARCHAR(255),
+    claimed_until TIMESTAMPTZ,
+    attempts      INT          NOT NULL DEFAULT 0,
+    last_error    TEXT,
+    created_at    TIMESTAMPTZ  NOT NULL DEFAULT clock_timestamp()
+);
+
+-- Claims scan the open chunks oldest first; acknowledged chunks are gone and failed ones are few
+CREATE INDEX IF NOT EXISTS ix_job_work_item_open
+    ON job_work_item (item_id)
+    WHERE status IN ('PENDING', 'CLAIMED');
@@ -0,0 +1,142 @@
+-- Two transactions writing into the same flower-week each rebuilt it from the rows their own
+-- snapshot could see, and the later commit overwrote the rollup without the other one's row.
+-- The refresh now locks the flower-week's rollup row first (inserting a placeholder when the
+-- week has none yet): a second writer waits until the first commits and then aggregates with
+-- that row included. A row lock rather than an advisory lock, since advisory locks stay in the
+-- shared lock table until commit and a bulk write touching every flower would overflow it.
+CREATE OR REPLACE FUNCTION refresh_growth_weekly_rollup(p_flower_id BIGINT, p_week_start DATE)
+RETURNS void AS $$
+BEGIN
+    -- Repeats if a concurrent refresh deleted the row while this one waited for it
+    LOOP
+        PERFORM 1 FROM growth_weekly_rollup
+        WHERE flower_id = p_flower_id AND week_start = p_week_start
+        FOR UPDATE;
+        EXIT WHEN FOUND;
+
+        -- Replaced or deleted below, so it is never committed
+        INSERT INTO growth_weekly_rollup (flower_id, week_start, min_height, max_height, last_height,
+                                          last_stage, last_recorded_at, color_changed, sample_count)
+        VALUES (p_flower_id, p_week_start, 0, 0, 0, '', p_week_start, FALSE, 0)
+        ON CONFLICT (flower_id, week_start) DO NOTHING;
+    END LOOP;
+
+    INSERT INTO growth_weekly_rollup AS r (flower_id, week_start, user_id, min_height, max_height,
+                                           last_height, last_stage, last_recorded_at, color_changed, sample_count)
+    SELECT flower_id,
+           p_week_start,
+           (array_agg(user_id ORDER BY recorded_at DESC, growth_id DESC))[1],
+           MIN(height),
+           MAX(height),
+           (array_agg(height ORDER BY recorded_at DESC, growth_id DESC))[1],
+           (array_agg(stage ORDER BY recorded_at DESC, growth_id DESC))[1],
+           MAX(recorded_at),
+           bool_or(color_changes),
+           COUNT(*)
+    FROM growthdetails
+    WHERE flower_id = p_flower_id
+      AND recorded_at >= p_week_start
+      AND recorded_at < p_week_start + 7
+    GROUP BY flower_id
+    ON CONFLICT (flower_id, week_start) DO UPDATE
+        SET user_id          = EXCLUDED.user_id,
+            min_height       = EXCLUDED.min_height,
+            max_height       = EXCLUDED.max_height,
+            last_height      = EXCLUDED.last_height,
+            last_stage       = EXCLUDED.last_stage,
+            last_recorded_at = EXCLUDED.last_recorded_at,
+            color_changed    = EXCLUDED.color_changed,
+            sample_count     = EXCLUDED.sample_count;
+
+    IF NOT FOUND THEN
+        DELETE FROM growth_weekly_rollup WHERE flower_id = p_flower_id AND week_start = p_week_start;
+    END IF;
+END;
+$$ LANGUAGE plpgsql;
+
+-- Statement-level: a batch insert recomputes each flower-week it touched once instead of once
+-- per row. Flower-weeks are refreshed, and so locked, in key order, so two batches cannot
+-- deadlock on each other's weeks.
+CREATE OR REPLACE FUNCTION growthdetails_rollup_statement_trigger()
+RETURNS trigger AS $$
+DECLARE
+    touched RECORD;
+BEGIN
+    IF TG_OP = 'INSERT' THEN
+        FOR touched IN
+            SELECT DISTINCT flower_id, date_trunc('week', recorded_at)::date AS week_start
+            FROM new_rows
+            ORDER BY 1, 2
+        LOOP
+            PERFORM refresh_growth_weekly_rollup(touched.flower_id, touched.week_start);
+        END LOOP;
+    ELSIF TG_OP = 'UPDATE' THEN
+        FOR touched IN
+            SELECT flower_id, date_trunc('week', recorded_at)::date AS week_start FROM old_rows
+            UNION
+            SELECT flower_id, date_trunc('week', recorded_at)::date FROM new_rows
+            ORDER BY 1, 2
+        LOOP
+            PERFORM refresh_growth_weekly_rollup(touched.flower_id, touched.week_start);
+        END LOOP;
+    ELSE
+        FOR touched IN
+            SELECT DISTINCT flower_id, date_trunc('week', recorded_at)::date AS week_start
+            FROM old_rows
+            ORDER BY 1, 2
+        LOOP
+            PERFORM refresh_growth_weekly_rollup(touched.flower_id, touched.week_start);
+        END LOOP;
+    END IF;
+
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+-- Transition tables allow one event per trigger
+DROP TRIGGER IF EXISTS growthdetails_rollup ON growthdetails;
+DROP FUNCTION IF EXISTS growthdetails_rollup_trigger();
+
+DROP TRIGGER IF EXISTS growthdetails_rollup_insert ON growthdetails;
+CREATE TRIGGER growthdetails_rollup_insert
+    AFTER INSERT ON growthdetails
+    REFERENCING NEW TABLE AS new_rows
+    FOR EACH STATEMENT EXECUTE FUNCTION growthdetails_rollup_statement_trigger();
+
+DROP TRIGGER IF EXISTS growthdetails_rollup_update ON growthdetails;
+CREATE TRIGGER growthdetails_rollup_update
+    AFTER UPDATE ON growthdetails
+    REFERENCING OLD TABLE AS old_rows NEW TABLE AS new_rows
+    FOR EACH STATEMENT EXECUTE FUNCTION growthdetails_rollup_statement_trigger();
+
+DROP TRIGGER IF EXISTS growthdetails_rollup_delete ON growthdetails;
+CREATE TRIGGER growthdetails_rollup_delete
+    AFTER DELETE ON growthdetails
+    REFERENCING OLD TABLE AS old_rows
+    FOR EACH STATEMENT EXECUTE FUNCTION growthdetails_rollup_statement_trigger();
+
+-- Repairs weeks the race may already have left short, for every week whose raw rows are
+-- still here; weeks whose partitions were archived keep their rollup as it is
+INSERT INTO growth_weekly_rollup (flower_id, week_start, user_id, min_height, max_height,
+                                  last_height, last_stage, last_recorded_at, color_changed, sample_count)
+SELECT flower_id,
+       date_trunc('week', recorded_at)::date,
+       (array_agg(user_id ORDER BY recorded_at DESC, growth_id DESC))[1],
+       MIN(height),
+       MAX(height),
+       (array_agg(height ORDER BY recorded_at DESC, growth_id DESC))[1],
+       (array_agg(stage ORDER BY recorded_at DESC, growth_id DESC))[1],
+       MAX(recorded_at),
+       bool_or(color_changes),
+       COUNT(*)
+FROM growthdetails
+GROUP BY flower_id, date_trunc('week', recorded_at)
+ON CONFLICT (flower_id, week_start) DO UPDATE
+    SET user_id          = EXCLUDED.user_id,
+        min_height       = EXCLUDED.min_height,
+        max_height       = EXCLUDED.max_height,
+        last_height      = EXCLUDED.last_height,
+        last_stage       = EXCLUDED.last_stage,
+        last_recorded_at = EXCLUDED.last_recorded_at,
+        color_changed    = EXCLUDED.color_changed,
+        sample_count     = EXCLUDED.sample_count;
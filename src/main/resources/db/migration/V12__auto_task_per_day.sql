@@ -0,0 +1,33 @@
+-- At most one auto-generated care task per flower, type and day. Task generation checks for
+-- today's task before inserting, but with several nodes (the due-task wheel runs on each of
+-- them) two can pass that check together; the generators insert with ON CONFLICT DO NOTHING
+-- against this index, so the second insert is skipped instead of doubling the task.
+
+-- Duplicates left by the race: one row per day survives, a completed one if there is one.
+-- Open extras go; completed extras stay as history but drop out of the index.
+WITH ranked AS (
+    SELECT task_id, completed,
+           row_number() OVER (PARTITION BY flower_id, maintenance_type, maintenance_date::date
+                              ORDER BY completed DESC, task_id) AS copy
+    FROM maintenance
+    WHERE auto_generated
+)
+DELETE FROM maintenance m
+USING ranked r
+WHERE m.task_id = r.task_id AND r.copy > 1 AND NOT r.completed;
+
+WITH ranked AS (
+    SELECT task_id,
+           row_number() OVER (PARTITION BY flower_id, maintenance_type, maintenance_date::date
+                              ORDER BY completed DESC, task_id) AS copy
+    FROM maintenance
+    WHERE auto_generated
+)
+UPDATE maintenance m
+SET auto_generated = FALSE
+FROM ranked r
+WHERE m.task_id = r.task_id AND r.copy > 1;
+
+CREATE UNIQUE INDEX IF NOT EXISTS ux_maintenance_auto_task_day
+    ON maintenance (flower_id, maintenance_type, (maintenance_date::date))
+    WHERE auto_generated;
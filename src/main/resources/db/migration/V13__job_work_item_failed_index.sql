@@ -0,0 +1,5 @@
+-- The retry sweep drops FAILED chunks once they are older than the keep period; without this
+-- index that delete read the whole queue, ix_job_work_item_open covering only open chunks
+CREATE INDEX IF NOT EXISTS ix_job_work_item_failed
+    ON job_work_item (created_at)
+    WHERE status = 'FAILED';
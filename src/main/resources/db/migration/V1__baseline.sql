@@ -0,0 +1,47 @@
+-- Baseline for the three application tables. IF NOT EXISTS makes this a no-op on databases
+-- that were created before migrations were tracked.
+CREATE TABLE IF NOT EXISTS flowerdetails (
+    flower_id                BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    flower_name              VARCHAR(255) NOT NULL,
+    species                  VARCHAR(255),
+    color                    VARCHAR(255),
+    planting_date            TIMESTAMP,
+    grid_position            INTEGER,
+    water_frequency_days     INTEGER,
+    fertilize_frequency_days INTEGER,
+    prune_frequency_days     INTEGER,
+    last_watered             TIMESTAMP,
+    last_fertilized          TIMESTAMP,
+    last_pruned_date         TIMESTAMP,
+    max_height               DOUBLE PRECISION,
+    growth_rate              DOUBLE PRECISION,
+    auto_scheduling          BOOLEAN NOT NULL DEFAULT TRUE,
+    user_id                  UUID
+);
+
+CREATE TABLE IF NOT EXISTS growthdetails (
+    growth_id         BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    flower_id         BIGINT NOT NULL,
+    stage             VARCHAR(255) NOT NULL,
+    height            DOUBLE PRECISION NOT NULL,
+    color_changes     BOOLEAN NOT NULL DEFAULT FALSE,
+    notes             TEXT,
+    recorded_at       TIMESTAMP NOT NULL,
+    growth_since_last DOUBLE PRECISION,
+    user_id           UUID
+);
+
+CREATE TABLE IF NOT EXISTS maintenance (
+    task_id          BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    flower_id        BIGINT NOT NULL,
+    maintenance_type VARCHAR(255),
+    maintenance_date TIMESTAMP,
+    due_date         TIMESTAMP,
+    notes            TEXT,
+    performed_by     VARCHAR(255),
+    created_at       TIMESTAMP,
+    completed        BOOLEAN NOT NULL DEFAULT FALSE,
+    completed_at     TIMESTAMP,
+    auto_generated   BOOLEAN NOT NULL DEFAULT FALSE,
+    user_id          UUID
+);
@@ -0,0 +1,5 @@
+-- Flower names are unique per user. FlowerRepository relies on this index instead of a
+-- separate existence check and maps the unique violation to DuplicateFlowerException.
+-- Creation fails if duplicate names already exist; rename them first.
+CREATE UNIQUE INDEX IF NOT EXISTS ux_flowerdetails_user_flower_name
+    ON flowerdetails (user_id, flower_name);
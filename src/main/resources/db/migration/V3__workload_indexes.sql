@@ -0,0 +1,35 @@
+-- Indexes for the predicates the repositories and scheduled jobs actually run.
+
+-- Per-user flower listings (keyset on flower_id) and point lookups by (flower_id, user_id)
+CREATE INDEX IF NOT EXISTS ix_flowerdetails_user_flower
+    ON flowerdetails (user_id, flower_id);
+
+-- Weekly growth job only walks flowers with auto scheduling on
+CREATE INDEX IF NOT EXISTS ix_flowerdetails_auto_scheduling
+    ON flowerdetails (flower_id)
+    WHERE auto_scheduling = TRUE;
+
+-- Latest growth record per flower (health monitor, growth automation, dead-flower checks)
+CREATE INDEX IF NOT EXISTS ix_growthdetails_flower_recorded
+    ON growthdetails (flower_id, recorded_at DESC);
+
+-- Per-user growth listings (keyset on recorded_at, growth_id)
+CREATE INDEX IF NOT EXISTS ix_growthdetails_user_recorded
+    ON growthdetails (user_id, recorded_at DESC, growth_id DESC);
+
+-- Reminders and overdue counts filter on (user_id, completed)
+CREATE INDEX IF NOT EXISTS ix_maintenance_user_completed
+    ON maintenance (user_id, completed);
+
+-- Scheduler duplicate check: one task per flower, type and day
+CREATE INDEX IF NOT EXISTS ix_maintenance_flower_type_date
+    ON maintenance (flower_id, maintenance_type, maintenance_date);
+
+-- Health monitor reads only the incomplete tasks of a flower
+CREATE INDEX IF NOT EXISTS ix_maintenance_incomplete_flower
+    ON maintenance (flower_id)
+    WHERE completed = FALSE;
+
+-- Per-user maintenance listings (keyset on task_id)
+CREATE INDEX IF NOT EXISTS ix_maintenance_user_task
+    ON maintenance (user_id, task_id DESC);
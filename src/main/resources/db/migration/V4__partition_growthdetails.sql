@@ -0,0 +1,70 @@
+-- Range-partition growthdetails by recorded_at, one partition per calendar month.
+-- Postgres cannot partition a table in place, so the existing table is renamed, a
+-- partitioned table takes its name and the rows are copied across. The primary key has
+-- to include the partition column; growth_id stays unique through its sequence.
+ALTER TABLE growthdetails RENAME TO growthdetails_unpartitioned;
+
+-- V1 made growth_id an identity column whose sequence (growthdetails_growth_id_seq) belongs
+-- to the old table: it cannot be handed to the new one and would go with the DROP below.
+-- The new table gets a sequence of its own that carries on after the highest id.
+ALTER TABLE growthdetails_unpartitioned ALTER COLUMN growth_id DROP IDENTITY IF EXISTS;
+
+CREATE SEQUENCE growthdetails_partitioned_growth_id_seq AS BIGINT;
+SELECT setval('growthdetails_partitioned_growth_id_seq',
+              COALESCE((SELECT MAX(growth_id) FROM growthdetails_unpartitioned), 0) + 1,
+              false);
+
+CREATE TABLE growthdetails (
+    growth_id         BIGINT NOT NULL DEFAULT nextval('growthdetails_partitioned_growth_id_seq'),
+    flower_id         BIGINT NOT NULL,
+    stage             VARCHAR(255) NOT NULL,
+    height            DOUBLE PRECISION NOT NULL,
+    color_changes     BOOLEAN NOT NULL DEFAULT FALSE,
+    notes             TEXT,
+    recorded_at       TIMESTAMP NOT NULL,
+    growth_since_last DOUBLE PRECISION,
+    user_id           UUID,
+    PRIMARY KEY (growth_id, recorded_at)
+) PARTITION BY RANGE (recorded_at);
+
+ALTER SEQUENCE growthdetails_partitioned_growth_id_seq OWNED BY growthdetails.growth_id;
+
+-- Catches rows outside the months created so far; GrowthPartitionMaintenanceService moves
+-- them into a proper partition when it creates that month
+CREATE TABLE growthdetails_default PARTITION OF growthdetails DEFAULT;
+
+-- One partition per month from the oldest existing row up to three months ahead
+DO $$
+DECLARE
+    month_start DATE;
+    last_month  DATE := (date_trunc('month', now()) + INTERVAL '3 months')::date;
+BEGIN
+    SELECT date_trunc('month', COALESCE(MIN(recorded_at), now()))::date
+    INTO month_start
+    FROM growthdetails_unpartitioned;
+
+    WHILE month_start <= last_month LOOP
+        EXECUTE format('CREATE TABLE %I PARTITION OF growthdetails FOR VALUES FROM (%L) TO (%L)',
+                       'growthdetails_' || to_char(month_start, 'YYYY_MM'),
+                       month_start,
+                       (month_start + INTERVAL '1 month')::date);
+        month_start := (month_start + INTERVAL '1 month')::date;
+    END LOOP;
+END $$;
+
+INSERT INTO growthdetails (growth_id, flower_id, stage, height, color_changes, notes,
+                           recorded_at, growth_since_last, user_id)
+SELECT growth_id, flower_id, stage, height, color_changes, notes,
+       recorded_at, growth_since_last, user_id
+FROM growthdetails_unpartitioned;
+
+DROP TABLE growthdetails_unpartitioned;
+
+-- Partitioned indexes are created on every current and future partition
+CREATE INDEX ix_growthdetails_flower_recorded
+    ON growthdetails (flower_id, recorded_at DESC);
+
+CREATE INDEX ix_growthdetails_user_recorded
+    ON growthdetails (user_id, recorded_at DESC, growth_id DESC);
+
+ANALYZE growthdetails;
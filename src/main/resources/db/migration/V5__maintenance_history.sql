@@ -0,0 +1,29 @@
+-- Completed maintenance tasks are moved here by MaintenanceArchiveService so the live
+-- maintenance table only holds open and recently completed work. task_id keeps the value
+-- it had in maintenance, so ids stay unique across both tables.
+CREATE TABLE IF NOT EXISTS maintenance_history (
+    task_id          BIGINT PRIMARY KEY,
+    flower_id        BIGINT NOT NULL,
+    maintenance_type VARCHAR(255),
+    maintenance_date TIMESTAMP,
+    due_date         TIMESTAMP,
+    notes            TEXT,
+    performed_by     VARCHAR(255),
+    created_at       TIMESTAMP,
+    completed        BOOLEAN NOT NULL DEFAULT TRUE,
+    completed_at     TIMESTAMP,
+    auto_generated   BOOLEAN NOT NULL DEFAULT FALSE,
+    user_id          UUID,
+    archived_at      TIMESTAMP NOT NULL DEFAULT now()
+);
+
+-- History reads mirror the live keyset queries
+CREATE INDEX IF NOT EXISTS ix_maintenance_history_user_task
+    ON maintenance_history (user_id, task_id DESC);
+
+CREATE INDEX IF NOT EXISTS ix_maintenance_history_flower
+    ON maintenance_history (flower_id, task_id DESC);
+
+-- Lets the archiver find its candidates without walking open tasks
+CREATE INDEX IF NOT EXISTS ix_maintenance_completed_task
+    ON maintenance (task_id) WHERE completed = TRUE;
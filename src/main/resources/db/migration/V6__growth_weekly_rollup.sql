@@ -0,0 +1,98 @@
+-- Per-flower weekly aggregates of growthdetails (weeks start on Monday). Charts over long
+-- histories read these instead of every raw row, and they outlive the raw partitions that
+-- GrowthPartitionMaintenanceService archives.
+CREATE TABLE IF NOT EXISTS growth_weekly_rollup (
+    flower_id        BIGINT NOT NULL,
+    week_start       DATE NOT NULL,
+    user_id          UUID,
+    min_height       DOUBLE PRECISION NOT NULL,
+    max_height       DOUBLE PRECISION NOT NULL,
+    last_height      DOUBLE PRECISION NOT NULL,
+    last_stage       VARCHAR(255) NOT NULL,
+    last_recorded_at TIMESTAMP NOT NULL,
+    color_changed    BOOLEAN NOT NULL,
+    sample_count     INTEGER NOT NULL,
+    PRIMARY KEY (flower_id, week_start)
+);
+
+CREATE INDEX IF NOT EXISTS ix_growth_weekly_rollup_user_week
+    ON growth_weekly_rollup (user_id, week_start DESC, flower_id DESC);
+
+-- Rebuilds one flower-week from the raw rows still in growthdetails. A row back-dated into
+-- a week whose partition was already archived therefore replaces that week's aggregate.
+CREATE OR REPLACE FUNCTION refresh_growth_weekly_rollup(p_flower_id BIGINT, p_week_start DATE)
+RETURNS void AS $$
+BEGIN
+    INSERT INTO growth_weekly_rollup AS r (flower_id, week_start, user_id, min_height, max_height,
+                                           last_height, last_stage, last_recorded_at, color_changed, sample_count)
+    SELECT flower_id,
+           p_week_start,
+           (array_agg(user_id ORDER BY recorded_at DESC, growth_id DESC))[1],
+           MIN(height),
+           MAX(height),
+           (array_agg(height ORDER BY recorded_at DESC, growth_id DESC))[1],
+           (array_agg(stage ORDER BY recorded_at DESC, growth_id DESC))[1],
+           MAX(recorded_at),
+           bool_or(color_changes),
+           COUNT(*)
+    FROM growthdetails
+    WHERE flower_id = p_flower_id
+      AND recorded_at >= p_week_start
+      AND recorded_at < p_week_start + 7
+    GROUP BY flower_id
+    ON CONFLICT (flower_id, week_start) DO UPDATE
+        SET user_id          = EXCLUDED.user_id,
+            min_height       = EXCLUDED.min_height,
+            max_height       = EXCLUDED.max_height,
+            last_height      = EXCLUDED.last_height,
+            last_stage       = EXCLUDED.last_stage,
+            last_recorded_at = EXCLUDED.last_recorded_at,
+            color_changed    = EXCLUDED.color_changed,
+            sample_count     = EXCLUDED.sample_count;
+
+    IF NOT FOUND THEN
+        DELETE FROM growth_weekly_rollup WHERE flower_id = p_flower_id AND week_start = p_week_start;
+    END IF;
+END;
+$$ LANGUAGE plpgsql;
+
+-- Keeps the rollup current on every write path (single saves, saveAll batches, deletes,
+-- orphan cleanup). Only the affected flower-weeks are recomputed.
+CREATE OR REPLACE FUNCTION growthdetails_rollup_trigger()
+RETURNS trigger AS $$
+BEGIN
+    IF TG_OP IN ('UPDATE', 'DELETE') THEN
+        PERFORM refresh_growth_weekly_rollup(OLD.flower_id, date_trunc('week', OLD.recorded_at)::date);
+    END IF;
+
+    IF TG_OP = 'INSERT'
+        OR (TG_OP = 'UPDATE' AND (NEW.flower_id, date_trunc('week', NEW.recorded_at))
+            IS DISTINCT FROM (OLD.flower_id, date_trunc('week', OLD.recorded_at))) THEN
+        PERFORM refresh_growth_weekly_rollup(NEW.flower_id, date_trunc('week', NEW.recorded_at)::date);
+    END IF;
+
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+DROP TRIGGER IF EXISTS growthdetails_rollup ON growthdetails;
+CREATE TRIGGER growthdetails_rollup
+    AFTER INSERT OR UPDATE OR DELETE ON growthdetails
+    FOR EACH ROW EXECUTE FUNCTION growthdetails_rollup_trigger();
+
+-- Backfill from the existing history
+INSERT INTO growth_weekly_rollup (flower_id, week_start, user_id, min_height, max_height,
+                                  last_height, last_stage, last_recorded_at, color_changed, sample_count)
+SELECT flower_id,
+       date_trunc('week', recorded_at)::date,
+       (array_agg(user_id ORDER BY recorded_at DESC, growth_id DESC))[1],
+       MIN(height),
+       MAX(height),
+       (array_agg(height ORDER BY recorded_at DESC, growth_id DESC))[1],
+       (array_agg(stage ORDER BY recorded_at DESC, growth_id DESC))[1],
+       MAX(recorded_at),
+       bool_or(color_changes),
+       COUNT(*)
+FROM growthdetails
+GROUP BY flower_id, date_trunc('week', recorded_at)
+ON CONFLICT (flower_id, week_start) DO NOTHING;
@@ -0,0 +1,9 @@
+-- Row versions for optimistic concurrency: every repository UPDATE bumps version and only
+-- matches the version its writer last read, so a concurrent change is detected instead of
+-- silently overwritten. ADD COLUMN on the partitioned growthdetails reaches every partition.
+ALTER TABLE flowerdetails ADD COLUMN IF NOT EXISTS version BIGINT NOT NULL DEFAULT 0;
+ALTER TABLE growthdetails ADD COLUMN IF NOT EXISTS version BIGINT NOT NULL DEFAULT 0;
+ALTER TABLE maintenance ADD COLUMN IF NOT EXISTS version BIGINT NOT NULL DEFAULT 0;
+
+-- Archived tasks keep the version they had when they were moved
+ALTER TABLE maintenance_history ADD COLUMN IF NOT EXISTS version BIGINT NOT NULL DEFAULT 0;
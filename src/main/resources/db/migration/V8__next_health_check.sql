@@ -0,0 +1,60 @@
+-- When the hourly health monitor next needs to look at a flower. A flower only changes stage
+-- once its oldest open task is 3 (WILTING) or 7 (DEAD) days past its scheduled date, so the
+-- monitor range-scans the flowers whose check time has passed instead of walking the table.
+ALTER TABLE flowerdetails ADD COLUMN IF NOT EXISTS next_health_check_at TIMESTAMP;
+
+CREATE INDEX IF NOT EXISTS ix_flowerdetails_next_health_check
+    ON flowerdetails (next_health_check_at)
+    WHERE next_health_check_at IS NOT NULL;
+
+-- The first threshold of the flower's oldest open task after p_after, or NULL once both have
+-- passed or no task is open. The thresholds match WILTING_THRESHOLD_DAYS and
+-- DEAD_THRESHOLD_DAYS in FlowerHealthMonitorService.
+CREATE OR REPLACE FUNCTION health_check_due_at(p_flower_id BIGINT, p_after TIMESTAMP)
+RETURNS TIMESTAMP AS $$
+    SELECT CASE
+        WHEN MIN(maintenance_date) + INTERVAL '3 days' > p_after THEN MIN(maintenance_date) + INTERVAL '3 days'
+        WHEN MIN(maintenance_date) + INTERVAL '7 days' > p_after THEN MIN(maintenance_date) + INTERVAL '7 days'
+    END
+    FROM maintenance
+    WHERE flower_id = p_flower_id
+      AND completed = FALSE
+$$ LANGUAGE sql STABLE;
+
+-- Any change to a flower's open tasks (created, completed, rescheduled, deleted, on every write
+-- path) points its check back at the first threshold, which may already have passed. The
+-- monitor moves it on after each check. Archiving completed tasks leaves it alone.
+CREATE OR REPLACE FUNCTION maintenance_health_check_trigger()
+RETURNS trigger AS $$
+BEGIN
+    IF TG_OP = 'UPDATE'
+        AND (NEW.flower_id, NEW.completed, NEW.maintenance_date)
+            IS NOT DISTINCT FROM (OLD.flower_id, OLD.completed, OLD.maintenance_date) THEN
+        RETURN NULL;
+    END IF;
+
+    IF TG_OP IN ('UPDATE', 'DELETE') AND NOT OLD.completed THEN
+        UPDATE flowerdetails
+        SET next_health_check_at = health_check_due_at(OLD.flower_id, '-infinity')
+        WHERE flower_id = OLD.flower_id;
+    END IF;
+
+    IF TG_OP IN ('INSERT', 'UPDATE') AND NOT NEW.completed
+        AND (TG_OP = 'INSERT' OR OLD.completed OR NEW.flower_id <> OLD.flower_id) THEN
+        UPDATE flowerdetails
+        SET next_health_check_at = health_check_due_at(NEW.flower_id, '-infinity')
+        WHERE flower_id = NEW.flower_id;
+    END IF;
+
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+DROP TRIGGER IF EXISTS maintenance_health_check ON maintenance;
+CREATE TRIGGER maintenance_health_check
+    AFTER INSERT OR UPDATE OR DELETE ON maintenance
+    FOR EACH ROW EXECUTE FUNCTION maintenance_health_check_trigger();
+
+UPDATE flowerdetails f
+SET next_health_check_at = health_check_due_at(f.flower_id, '-infinity')
+WHERE EXISTS (SELECT 1 FROM maintenance m WHERE m.flower_id = f.flower_id AND m.completed = FALSE);
@@ -0,0 +1,12 @@
+-- One row per cluster-wide scheduled job. A node runs the job only while it holds the row's
+-- lease: it takes the row once locked_until has passed, and every takeover bumps
+-- fencing_token so a node that lost its lease can tell before it writes. Times come from the
+-- database clock so the nodes' own clocks never have to agree.
+CREATE TABLE IF NOT EXISTS job_lock (
+    job_name           VARCHAR(100) PRIMARY KEY,
+    owner              VARCHAR(255) NOT NULL,
+    locked_at          TIMESTAMPTZ  NOT NULL,
+    locked_until       TIMESTAMPTZ  NOT NULL,
+    previous_locked_at TIMESTAMPTZ,
+    fencing_token      BIGINT       NOT NULL DEFAULT 1
+);
@@ -0,0 +1,99 @@
+package org.example.flowerapp.Configurations;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.time.Instant;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Routes among three in-memory H2 databases standing in for the api, jobs and replica pools.
+ */
+class DataSourceConfigTest {
+
+    private JdbcTemplate apiJdbc;
+    private JdbcTemplate jobsJdbc;
+    private JdbcTemplate replicaJdbc;
+    private JdbcTemplate jdbc;
+    private TransactionTemplate readOnlyTx;
+    private TransactionTemplate readWriteTx;
+    private ThreadPoolTaskScheduler scheduler;
+
+    @BeforeEach
+    void setUp() {
+        DataSource api = h2("api");
+        DataSource jobs = h2("jobs");
+        DataSource replica = h2("replica");
+        apiJdbc = new JdbcTemplate(api);
+        jobsJdbc = new JdbcTemplate(jobs);
+        replicaJdbc = new JdbcTemplate(replica);
+        replicaJdbc.execute("CREATE TABLE replica_lag (seconds DOUBLE)");
+        replicaJdbc.update("INSERT INTO replica_lag VALUES (0)");
+
+        ReplicaHealth replicaHealth = new ReplicaHealth(replica, "SELECT seconds FROM replica_lag", 10);
+        replicaHealth.refresh();
+
+        DataSource routing = DataSourceConfig.route(api, jobs, replica, replicaHealth);
+        jdbc = new JdbcTemplate(routing);
+        DataSourceTransactionManager transactionManager = new DataSourceTransactionManager(routing);
+        readOnlyTx = new TransactionTemplate(transactionManager);
+        readOnlyTx.setReadOnly(true);
+        readWriteTx = new TransactionTemplate(transactionManager);
+
+        scheduler = new SchedulingConfig().taskScheduler(1);
+        scheduler.initialize();
+    }
+
+    @AfterEach
+    void tearDown() {
+        scheduler.shutdown();
+        apiJdbc.execute("SHUTDOWN");
+        jobsJdbc.execute("SHUTDOWN");
+        replicaJdbc.execute("SHUTDOWN");
+    }
+
+    @Test
+    void readOnlyTransactionOnJobThreadUsesReplica() throws Exception {
+        assertEquals("replica", onJobThread(readOnlyTx));
+    }
+
+    @Test
+    void readWriteTransactionOnJobThreadUsesJobsPool() throws Exception {
+        assertEquals("jobs", onJobThread(readWriteTx));
+    }
+
+    @Test
+    void requestThreadStillSplitsBetweenApiPoolAndReplica() {
+        assertEquals("replica", readOnlyTx.execute(status -> whoAmI()));
+        assertEquals("api", readWriteTx.execute(status -> whoAmI()));
+    }
+
+    private String onJobThread(TransactionTemplate tx) throws Exception {
+        CompletableFuture<String> pool = new CompletableFuture<>();
+        scheduler.schedule(() -> pool.complete(tx.execute(status -> whoAmI())), Instant.now());
+        return pool.get(5, TimeUnit.SECONDS);
+    }
+
+    private String whoAmI() {
+        return jdbc.queryForObject("SELECT name FROM whoami", String.class);
+    }
+
+    private static DataSource h2(String name) {
+        DriverManagerDataSource dataSource = new DriverManagerDataSource(
+                "jdbc:h2:mem:config_" + name + ";DB_CLOSE_DELAY=-1", "sa", "");
+        JdbcTemplate jdbc = new JdbcTemplate(dataSource);
+        jdbc.execute("CREATE TABLE whoami (name VARCHAR(16))");
+        jdbc.update("INSERT INTO whoami VALUES (?)", name);
+        return dataSource;
+    }
+}
@@ -0,0 +1,153 @@
+package org.example.flowerapp.Configurations;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.example.flowerapp.Exceptions.DatabaseOperationExceptions.JobLockLostException;
+import org.example.flowerapp.Repository.JobLockRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.aop.framework.ProxyFactory;
+import org.springframework.aop.support.DefaultPointcutAdvisor;
+import org.springframework.aop.support.annotation.AnnotationMatchingPointcut;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionSynchronizationUtils;
+
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class JobLocksTest {
+
+    @Mock
+    private JobLockRepository jobLockRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private JobLocks jobLocks;
+    private final NightlyJob target = new NightlyJob();
+    private NightlyJob job;
+
+    @BeforeEach
+    void setUp() {
+        jobLocks = new JobLocks(jobLockRepository, transactionManager, meterRegistry);
+        ReflectionTestUtils.setField(jobLocks, "enabled", true);
+        ReflectionTestUtils.setField(jobLocks, "leaseMillis", 300_000L);
+        ReflectionTestUtils.setField(jobLocks, "minHoldMillis", 60_000L);
+
+        ProxyFactory proxyFactory = new ProxyFactory(target);
+        proxyFactory.setProxyTargetClass(true);
+        proxyFactory.addAdvisor(new DefaultPointcutAdvisor(
+                AnnotationMatchingPointcut.forMethodAnnotation(ExclusiveJob.class),
+                JobLockConfig.exclusiveJobInterceptor(() -> jobLocks)));
+        job = (NightlyJob) proxyFactory.getProxy();
+    }
+
+    @AfterEach
+    void tearDown() {
+        jobLocks.shutdown();
+    }
+
+    @Test
+    void jobRunsUnderItsLeaseAndGivesItBack() {
+        when(jobLockRepository.tryAcquire(eq("nightly"), anyString(), any()))
+                .thenReturn(Optional.of(new JobLockRepository.Grant(7L, null)));
+
+        job.run();
+
+        assertEquals(1, target.runs);
+        assertEquals(7L, target.tokenSeen);
+        verify(jobLockRepository).release(eq("nightly"), anyString(), eq(7L), any());
+        assertTrue(JobLocks.current().isEmpty());
+        assertEquals(0.0, meterRegistry.get("jobs.lock.held").tag("job", "nightly").gauge().value());
+        assertEquals(1, meterRegistry.get("jobs.lock.held.duration").tag("job", "nightly").timer().count());
+    }
+
+    @Test
+    void jobIsSkippedWhileAnotherNodeHoldsTheLease() {
+        when(jobLockRepository.tryAcquire(eq("nightly"), anyString(), any())).thenReturn(Optional.empty());
+
+        job.run();
+
+        assertEquals(0, target.runs);
+        verify(jobLockRepository, never()).release(any(), any(), anyLong(), any());
+        assertEquals(1.0, meterRegistry.get("jobs.lock.skipped").tag("job", "nightly").counter().count());
+    }
+
+    @Test
+    void leaseIsGivenBackWhenTheJobFails() {
+        when(jobLockRepository.tryAcquire(eq("nightly"), anyString(), any()))
+                .thenReturn(Optional.of(new JobLockRepository.Grant(3L, null)));
+        target.failing = true;
+
+        assertThrows(IllegalStateException.class, job::run);
+
+        verify(jobLockRepository).release(eq("nightly"), anyString(), eq(3L), any());
+        assertTrue(JobLocks.current().isEmpty());
+    }
+
+    @Test
+    void jobRunsWithoutTheLockTableWhileDisabled() {
+        ReflectionTestUtils.setField(jobLocks, "enabled", false);
+
+        job.run();
+
+        assertEquals(1, target.runs);
+        verifyNoInteractions(jobLockRepository);
+    }
+
+    @Test
+    void writesAreRefusedOnceTheLeaseWasTakenOver() {
+        JobLease lease = new JobLease("nightly", new JobLockRepository.Grant(4L, null), jobLockRepository);
+        when(jobLockRepository.isHeld("nightly", 4L)).thenReturn(false);
+
+        assertThrows(JobLockLostException.class, lease::ensureHeld);
+        assertTrue(lease.isLost());
+    }
+
+    @Test
+    void aWriteTransactionChecksTheLeaseOnceAndStaysFencedUntilItEnds() {
+        JobLease lease = new JobLease("nightly", new JobLockRepository.Grant(5L, null), jobLockRepository);
+        when(jobLockRepository.isHeld("nightly", 5L)).thenReturn(true);
+
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            lease.ensureHeld();
+            lease.ensureHeld();
+            verify(jobLockRepository, times(1)).isHeld("nightly", 5L);
+            TransactionSynchronizationUtils.invokeAfterCompletion(
+                    TransactionSynchronizationManager.getSynchronizations(), TransactionSynchronization.STATUS_COMMITTED);
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        // The next transaction checks again
+        lease.ensureHeld();
+        verify(jobLockRepository, times(2)).isHeld("nightly", 5L);
+    }
+
+    static class NightlyJob {
+        int runs;
+        long tokenSeen;
+        boolean failing;
+
+        @ExclusiveJob("nightly")
+        public void run() {
+            runs++;
+            tokenSeen = JobLocks.current().map(JobLease::getFencingToken).orElse(-1L);
+            if (failing) {
+                throw new IllegalStateException("boom");
+            }
+        }
+    }
+}
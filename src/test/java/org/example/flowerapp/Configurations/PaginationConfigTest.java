@@ -0,0 +1,37 @@
+package org.example.flowerapp.Configurations;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PaginationConfigTest {
+
+    private PaginationConfig paginationConfig;
+
+    @BeforeEach
+    void setUp() {
+        paginationConfig = new PaginationConfig();
+        ReflectionTestUtils.setField(paginationConfig, "defaultPageSize", 50);
+        ReflectionTestUtils.setField(paginationConfig, "maxPageSize", 200);
+    }
+
+    @Test
+    void requestWithoutCursorOrLimitGetsTheWholeListing() {
+        assertEquals(PaginationConfig.UNPAGED, paginationConfig.resolveLimit(null, null));
+        assertEquals(PaginationConfig.UNPAGED, paginationConfig.resolveLimit("", null));
+    }
+
+    @Test
+    void cursorWithoutLimitPagesByTheDefaultSize() {
+        assertEquals(50, paginationConfig.resolveLimit("OjQy", null));
+    }
+
+    @Test
+    void limitIsCappedAndFallsBackToTheDefaultWhenNotPositive() {
+        assertEquals(20, paginationConfig.resolveLimit(null, 20));
+        assertEquals(200, paginationConfig.resolveLimit(null, 5000));
+        assertEquals(50, paginationConfig.resolveLimit(null, 0));
+    }
+}
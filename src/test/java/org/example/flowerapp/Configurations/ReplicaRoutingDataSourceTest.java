@@ -0,0 +1,133 @@
+package org.example.flowerapp.Configurations;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import javax.sql.DataSource;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Routes between two in-memory H2 databases that each hold a marker row naming themselves.
+ */
+class ReplicaRoutingDataSourceTest {
+
+    private static final String LAG_QUERY = "SELECT seconds FROM replica_lag";
+
+    private JdbcTemplate primaryJdbc;
+    private JdbcTemplate replicaJdbc;
+    private ReplicaHealth replicaHealth;
+    private JdbcTemplate jdbc;
+    private TransactionTemplate readOnlyTx;
+    private TransactionTemplate readWriteTx;
+
+    @BeforeEach
+    void setUp() {
+        DataSource primary = h2("primary");
+        DataSource replica = h2("replica");
+        primaryJdbc = new JdbcTemplate(primary);
+        replicaJdbc = new JdbcTemplate(replica);
+        replicaJdbc.execute("CREATE TABLE replica_lag (seconds DOUBLE)");
+        replicaJdbc.update("INSERT INTO replica_lag VALUES (0)");
+
+        replicaHealth = new ReplicaHealth(replica, LAG_QUERY, 10);
+        replicaHealth.refresh();
+
+        DataSource routing = new LazyConnectionDataSourceProxy(
+                new ReplicaRoutingDataSource(primary, replica, replicaHealth));
+        jdbc = new JdbcTemplate(routing);
+
+        DataSourceTransactionManager transactionManager = new DataSourceTransactionManager(routing);
+        readOnlyTx = new TransactionTemplate(transactionManager);
+        readOnlyTx.setReadOnly(true);
+        readWriteTx = new TransactionTemplate(transactionManager);
+    }
+
+    @AfterEach
+    void tearDown() {
+        RequestContextHolder.resetRequestAttributes();
+        primaryJdbc.execute("SHUTDOWN");
+        replicaJdbc.execute("SHUTDOWN");
+    }
+
+    @Test
+    void readOnlyTransactionUsesReplica() {
+        assertEquals("replica", readOnlyTx.execute(status -> whoAmI()));
+    }
+
+    @Test
+    void readWriteTransactionUsesPrimary() {
+        assertEquals("primary", readWriteTx.execute(status -> whoAmI()));
+    }
+
+    @Test
+    void statementOutsideTransactionUsesPrimary() {
+        assertEquals("primary", whoAmI());
+    }
+
+    @Test
+    void statementOutsideTransactionDuringGetRequestUsesReplica() {
+        inRequest("GET");
+        assertEquals("replica", whoAmI());
+    }
+
+    @Test
+    void statementOutsideTransactionDuringPostRequestUsesPrimary() {
+        inRequest("POST");
+        assertEquals("primary", whoAmI());
+    }
+
+    @Test
+    void laggingReplicaFallsBackToPrimary() {
+        replicaJdbc.update("UPDATE replica_lag SET seconds = 60");
+        replicaHealth.refresh();
+
+        assertFalse(replicaHealth.isUsable());
+        assertEquals("primary", readOnlyTx.execute(status -> whoAmI()));
+
+        replicaJdbc.update("UPDATE replica_lag SET seconds = 1");
+        replicaHealth.refresh();
+
+        assertEquals("replica", readOnlyTx.execute(status -> whoAmI()));
+    }
+
+    @Test
+    void unreachableReplicaFallsBackToPrimary() {
+        DataSource unreachable = new DriverManagerDataSource("jdbc:h2:mem:missing;IFEXISTS=TRUE", "sa", "");
+        ReplicaHealth health = new ReplicaHealth(unreachable, LAG_QUERY, 10);
+        health.refresh();
+        JdbcTemplate routed = new JdbcTemplate(new LazyConnectionDataSourceProxy(
+                new ReplicaRoutingDataSource(primaryJdbc.getDataSource(), unreachable, health)));
+
+        assertFalse(health.isUsable());
+        inRequest("GET");
+        assertEquals("primary", routed.queryForObject("SELECT name FROM whoami", String.class));
+    }
+
+    private String whoAmI() {
+        return jdbc.queryForObject("SELECT name FROM whoami", String.class);
+    }
+
+    private static void inRequest(String method) {
+        RequestContextHolder.setRequestAttributes(
+                new ServletRequestAttributes(new MockHttpServletRequest(method, "/flowers")));
+    }
+
+    private static DataSource h2(String name) {
+        DriverManagerDataSource dataSource = new DriverManagerDataSource(
+                "jdbc:h2:mem:" + name + ";DB_CLOSE_DELAY=-1", "sa", "");
+        JdbcTemplate jdbc = new JdbcTemplate(dataSource);
+        jdbc.execute("CREATE TABLE whoami (name VARCHAR(16))");
+        jdbc.update("INSERT INTO whoami VALUES (?)", name);
+        return dataSource;
+    }
+}
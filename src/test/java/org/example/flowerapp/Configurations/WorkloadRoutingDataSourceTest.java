@@ -0,0 +1,69 @@
+package org.example.flowerapp.Configurations;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
+
+import javax.sql.DataSource;
+import java.time.Instant;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class WorkloadRoutingDataSourceTest {
+
+    private JdbcTemplate apiJdbc;
+    private JdbcTemplate jobsJdbc;
+    private JdbcTemplate jdbc;
+    private ThreadPoolTaskScheduler scheduler;
+
+    @BeforeEach
+    void setUp() {
+        DataSource api = h2("api");
+        DataSource jobs = h2("jobs");
+        apiJdbc = new JdbcTemplate(api);
+        jobsJdbc = new JdbcTemplate(jobs);
+        jdbc = new JdbcTemplate(new WorkloadRoutingDataSource(api, jobs));
+
+        scheduler = new SchedulingConfig().taskScheduler(1);
+        scheduler.initialize();
+    }
+
+    @AfterEach
+    void tearDown() {
+        scheduler.shutdown();
+        apiJdbc.execute("SHUTDOWN");
+        jobsJdbc.execute("SHUTDOWN");
+    }
+
+    @Test
+    void requestThreadUsesApiPool() {
+        assertEquals("api", whoAmI());
+    }
+
+    @Test
+    void scheduledTaskUsesJobsPool() throws Exception {
+        CompletableFuture<String> pool = new CompletableFuture<>();
+        scheduler.schedule(() -> pool.complete(whoAmI()), Instant.now());
+
+        assertEquals("jobs", pool.get(5, TimeUnit.SECONDS));
+        assertFalse(JobWorkload.isActive());
+    }
+
+    private String whoAmI() {
+        return jdbc.queryForObject("SELECT name FROM whoami", String.class);
+    }
+
+    private static DataSource h2(String name) {
+        DriverManagerDataSource dataSource = new DriverManagerDataSource(
+                "jdbc:h2:mem:workload_" + name + ";DB_CLOSE_DELAY=-1", "sa", "");
+        JdbcTemplate jdbc = new JdbcTemplate(dataSource);
+        jdbc.execute("CREATE TABLE whoami (name VARCHAR(16))");
+        jdbc.update("INSERT INTO whoami VALUES (?)", name);
+        return dataSource;
+    }
+}
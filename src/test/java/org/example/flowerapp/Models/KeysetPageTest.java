@@ -0,0 +1,71 @@
+package org.example.flowerapp.Models;
+
+import org.example.flowerapp.Configurations.PaginationConfig;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class KeysetPageTest {
+
+    private static final LocalDateTime AT = LocalDateTime.of(2026, 3, 15, 10, 0);
+
+    private record Row(LocalDateTime recordedAt, long id) {
+        PageCursor cursor() {
+            return new PageCursor(recordedAt, id);
+        }
+    }
+
+    @Test
+    void extraRowIsDroppedAndPointsToTheNextPage() {
+        List<Row> rows = List.of(new Row(AT, 5), new Row(AT.minusDays(1), 4), new Row(AT.minusDays(2), 3));
+
+        KeysetPage<Row> page = KeysetPage.of(rows, 2, Row::cursor);
+
+        assertEquals(rows.subList(0, 2), page.items());
+        assertEquals(new PageCursor(AT.minusDays(1), 4), PageCursor.decode(page.nextCursor()));
+    }
+
+    @Test
+    void lastPageHasNoCursor() {
+        List<Row> exactlyFull = List.of(new Row(AT, 2), new Row(AT, 1));
+
+        assertNull(KeysetPage.of(exactlyFull, 2, Row::cursor).nextCursor());
+        assertNull(KeysetPage.of(List.of(new Row(AT, 1)), 2, Row::cursor).nextCursor());
+        assertTrue(KeysetPage.<Row>of(List.of(), 2, Row::cursor).items().isEmpty());
+    }
+
+    @Test
+    void cursorInsideARunOfEqualSortKeysCarriesTheIdAsTieBreaker() {
+        // Rows come sorted by (recorded_at DESC, id DESC); the page ends in the middle of three equal keys
+        List<Row> rows = List.of(new Row(AT, 9), new Row(AT, 8), new Row(AT, 7), new Row(AT.minusDays(1), 6));
+
+        KeysetPage<Row> page = KeysetPage.of(rows, 2, Row::cursor);
+
+        PageCursor next = PageCursor.decode(page.nextCursor());
+        assertEquals(AT, next.sortKey());
+        assertEquals(8, next.id());
+    }
+
+    @Test
+    void mappingKeepsTheCursor() {
+        KeysetPage<Row> page = KeysetPage.of(List.of(new Row(AT, 2), new Row(AT, 1)), 1, Row::cursor);
+
+        KeysetPage<Long> ids = page.map(Row::id);
+
+        assertEquals(List.of(2L), ids.items());
+        assertEquals(page.nextCursor(), ids.nextCursor());
+    }
+
+    @Test
+    void unpagedRequestGetsEveryRowWithoutACursor() {
+        List<Row> rows = List.of(new Row(AT, 3), new Row(AT, 2), new Row(AT, 1));
+
+        KeysetPage<Row> page = KeysetPage.of(rows, PaginationConfig.UNPAGED, Row::cursor);
+
+        assertEquals(rows, page.items());
+        assertNull(page.nextCursor());
+    }
+}
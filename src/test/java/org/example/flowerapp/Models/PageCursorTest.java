@@ -0,0 +1,71 @@
+package org.example.flowerapp.Models;
+
+import org.example.flowerapp.Controller.ExceptionController;
+import org.example.flowerapp.Exceptions.ValidationExceptions.InvalidCursorException;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.http.HttpStatus;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PageCursorTest {
+
+    @Test
+    void sortKeyAndIdSurviveTheRoundTrip() {
+        PageCursor cursor = new PageCursor(LocalDateTime.of(2026, 3, 15, 10, 30, 5, 123_456_000), 42L);
+
+        assertEquals(cursor, PageCursor.decode(cursor.encode()));
+    }
+
+    @Test
+    void sortKeysBeforeTheEpochSurviveTheRoundTrip() {
+        PageCursor cursor = new PageCursor(LocalDateTime.of(1969, 12, 31, 23, 59, 59, 999_999_000), 7L);
+
+        assertEquals(cursor, PageCursor.decode(cursor.encode()));
+    }
+
+    @Test
+    void idOnlyCursorSurvivesTheRoundTrip() {
+        PageCursor cursor = PageCursor.ofId(Long.MAX_VALUE);
+
+        PageCursor decoded = PageCursor.decode(cursor.encode());
+
+        assertNull(decoded.sortKey());
+        assertEquals(Long.MAX_VALUE, decoded.id());
+    }
+
+    @Test
+    void sortKeyIsKeptToTheMicrosecondLikeTheDatabase() {
+        LocalDateTime recordedAt = LocalDateTime.of(2026, 3, 15, 10, 30, 5, 123_456_789);
+
+        PageCursor decoded = PageCursor.decode(new PageCursor(recordedAt, 1L).encode());
+
+        assertEquals(LocalDateTime.of(2026, 3, 15, 10, 30, 5, 123_456_000), decoded.sortKey());
+    }
+
+    @Test
+    void missingTokenMeansTheFirstPage() {
+        assertNull(PageCursor.decode(null));
+        assertNull(PageCursor.decode("  "));
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"not base64!", "bm8tc2VwYXJhdG9y", "OmFiYw", "eHl6OjE", "MTIzOg"})
+    void malformedTokenIsRejected(String token) {
+        // bm8tc2VwYXJhdG9y = "no-separator", OmFiYw = ":abc", eHl6OjE = "xyz:1", MTIzOg = "123:"
+        assertThrows(InvalidCursorException.class, () -> PageCursor.decode(token));
+    }
+
+    @Test
+    void malformedTokenIsABadRequest() {
+        String token = Base64.getUrlEncoder().encodeToString("garbage".getBytes(StandardCharsets.UTF_8));
+        InvalidCursorException e = assertThrows(InvalidCursorException.class, () -> PageCursor.decode(token));
+
+        assertEquals(HttpStatus.BAD_REQUEST, new ExceptionController().handleValidationException(e).getStatusCode());
+    }
+}
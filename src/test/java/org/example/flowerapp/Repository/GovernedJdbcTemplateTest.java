@@ -0,0 +1,69 @@
+package org.example.flowerapp.Repository;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.example.flowerapp.Configurations.JobWorkload;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.jdbc.core.StatementCallback;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GovernedJdbcTemplateTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private GovernedJdbcTemplate jdbc;
+    private QueryBudget budget;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        jdbc = new GovernedJdbcTemplate(
+                new DriverManagerDataSource("jdbc:h2:mem:governed;DB_CLOSE_DELAY=-1", "sa", ""),
+                2_000, 5_000, 0, meterRegistry);
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (budget != null) {
+            budget.close();
+        }
+    }
+
+    @Test
+    void listStatementsGetListTimeout() {
+        assertEquals(5, statementTimeout());
+    }
+
+    @Test
+    void requestBudgetShortensTimeout() {
+        budget = QueryBudget.open(1_500);
+        assertEquals(2, statementTimeout());
+    }
+
+    @Test
+    void jobScansHaveNoTimeoutAndIgnoreRequestBudget() {
+        budget = QueryBudget.open(1_500);
+        AtomicInteger timeout = new AtomicInteger(-1);
+        JobWorkload.wrap(() -> timeout.set(statementTimeout())).run();
+
+        assertEquals(0, timeout.get());
+    }
+
+    @Test
+    void exhaustedBudgetFailsFastAndIsCounted() throws InterruptedException {
+        budget = QueryBudget.open(1);
+        Thread.sleep(5);
+
+        assertThrows(QueryTimeoutException.class, () -> jdbc.queryForObject("SELECT 1", Integer.class));
+        assertEquals(1, meterRegistry.counter("db.query.timeouts", "class", "point").count());
+    }
+
+    private int statementTimeout() {
+        return jdbc.execute((StatementCallback<Integer>) statement -> statement.getQueryTimeout());
+    }
+}
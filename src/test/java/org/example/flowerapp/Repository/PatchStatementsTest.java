@@ -0,0 +1,47 @@
+package org.example.flowerapp.Repository;
+
+import org.example.flowerapp.Repository.FlowerRepository.PatchColumn;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.EnumMap;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PatchStatementsTest {
+
+    private final PatchStatements<PatchColumn> patch = new PatchStatements<>(
+            "flowerdetails", column -> column.name().toLowerCase(), "flower_id = ? AND user_id = ?");
+
+    @Test
+    void setsOnlySuppliedColumnsInEnumOrder() {
+        EnumMap<PatchColumn, Object> changes = new EnumMap<>(PatchColumn.class);
+        changes.put(PatchColumn.LAST_WATERED, LocalDateTime.of(2025, 5, 1, 8, 0));
+        changes.put(PatchColumn.FLOWER_NAME, "Rose");
+
+        assertEquals("UPDATE flowerdetails SET flower_name = ?, last_watered = ?, version = version + 1"
+                        + " WHERE flower_id = ? AND user_id = ? AND version = COALESCE(?, version) RETURNING *",
+                patch.sql(changes));
+        assertArrayEquals(new Object[]{"Rose", Timestamp.valueOf(LocalDateTime.of(2025, 5, 1, 8, 0)), 7L, "user", 3L},
+                patch.args(changes, 3L, 7L, "user"));
+    }
+
+    @Test
+    void reusesStatementForSameColumnSet() {
+        EnumMap<PatchColumn, Object> first = new EnumMap<>(PatchColumn.class);
+        first.put(PatchColumn.LAST_WATERED, LocalDateTime.now());
+        EnumMap<PatchColumn, Object> second = new EnumMap<>(PatchColumn.class);
+        second.put(PatchColumn.LAST_WATERED, null);
+
+        assertSame(patch.sql(first), patch.sql(second));
+    }
+
+    @Test
+    void explicitNullIsWrittenAndVersionCheckIsOptional() {
+        EnumMap<PatchColumn, Object> changes = new EnumMap<>(PatchColumn.class);
+        changes.put(PatchColumn.GROWTH_RATE, null);
+
+        assertArrayEquals(new Object[]{null, 7L, "user", null}, patch.args(changes, null, 7L, "user"));
+    }
+}
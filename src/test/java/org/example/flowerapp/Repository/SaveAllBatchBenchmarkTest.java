@@ -0,0 +1,189 @@
+package org.example.flowerapp.Repository;
+
+import org.example.flowerapp.Configurations.SchemaMigrator;
+import org.example.flowerapp.Models.Enums.FlowerColor;
+import org.example.flowerapp.Models.Enums.GrowthStage;
+import org.example.flowerapp.Models.Enums.MaintenanceType;
+import org.example.flowerapp.Models.Flower;
+import org.example.flowerapp.Models.Growth;
+import org.example.flowerapp.Models.Maintenance;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.Function;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Rows per second written through the repositories' saveAll at batch sizes 1, 50 and 500.
+ * Needs a throwaway Postgres database, so like SchemaIndexVerificationTest it only runs when
+ * SCHEMA_VERIFY_DATASOURCE_URL (plus _USERNAME / _PASSWORD) is set. Rows are written under a
+ * user of their own and deleted again after each test.
+ */
+@EnabledIfEnvironmentVariable(named = "SCHEMA_VERIFY_DATASOURCE_URL", matches = ".+")
+class SaveAllBatchBenchmarkTest {
+
+    private static final int[] BATCH_SIZES = {1, 50, 500};
+    private static final int ROWS = 2_000;
+    private static final int FLOWERS = 100;
+    private static final String USER_ID = UUID.randomUUID().toString();
+
+    private static JdbcTemplate jdbc;
+
+    @BeforeAll
+    static void migrate() {
+        DriverManagerDataSource dataSource = new DriverManagerDataSource(
+                System.getenv("SCHEMA_VERIFY_DATASOURCE_URL"),
+                System.getenv().getOrDefault("SCHEMA_VERIFY_DATASOURCE_USERNAME", "postgres"),
+                System.getenv().getOrDefault("SCHEMA_VERIFY_DATASOURCE_PASSWORD", "postgres"));
+        jdbc = new JdbcTemplate(dataSource);
+
+        SchemaMigrator migrator = new SchemaMigrator(jdbc);
+        ReflectionTestUtils.setField(migrator, "enabled", true);
+        migrator.migrate();
+    }
+
+    @AfterEach
+    void deleteBenchmarkRows() {
+        jdbc.update("DELETE FROM maintenance WHERE user_id = ?::uuid", USER_ID);
+        jdbc.update("DELETE FROM growthdetails WHERE user_id = ?::uuid", USER_ID);
+        jdbc.update("DELETE FROM flowerdetails WHERE user_id = ?::uuid", USER_ID);
+    }
+
+    @Test
+    void flowerInsertsGetFasterWithBatching() {
+        Map<Integer, Double> rowsPerSecond = measure("FlowerRepository.saveAll", batchSize -> {
+            List<Flower> flowers = new ArrayList<>(ROWS);
+            for (int i = 0; i < ROWS; i++) {
+                flowers.add(flower("bench-" + batchSize + "-" + i));
+            }
+            return flowers;
+        }, (batchSize, flowers) -> flowerRepository(batchSize).saveAll(flowers).size());
+
+        assertBatchingPaysOff(rowsPerSecond);
+    }
+
+    @Test
+    void growthInsertsGetFasterWithBatching() {
+        List<Flower> flowers = seedFlowers();
+        Map<Integer, Double> rowsPerSecond = measure("GrowthRepository.saveAll", batchSize -> {
+            List<Growth> growths = new ArrayList<>(ROWS);
+            for (int i = 0; i < ROWS; i++) {
+                growths.add(growth(flowers.get(i % FLOWERS), i));
+            }
+            return growths;
+        }, (batchSize, growths) -> growthRepository(batchSize).saveAll(growths).size());
+
+        assertBatchingPaysOff(rowsPerSecond);
+    }
+
+    @Test
+    void maintenanceInsertsGetFasterWithBatching() {
+        List<Flower> flowers = seedFlowers();
+        Map<Integer, Double> rowsPerSecond = measure("MaintenanceRepository.saveAll", batchSize -> {
+            List<Maintenance> tasks = new ArrayList<>(ROWS);
+            for (int i = 0; i < ROWS; i++) {
+                tasks.add(task(flowers.get(i % FLOWERS), i));
+            }
+            return tasks;
+        }, (batchSize, tasks) -> maintenanceRepository(batchSize).saveAll(tasks).size());
+
+        assertBatchingPaysOff(rowsPerSecond);
+    }
+
+    @FunctionalInterface
+    private interface Writer<T> {
+        int write(int batchSize, List<T> rows);
+    }
+
+    private static <T> Map<Integer, Double> measure(String name, Function<Integer, List<T>> rows, Writer<T> writer) {
+        // One untimed round so statement preparation and JIT warm-up are not charged to batch size 1
+        writer.write(BATCH_SIZES[BATCH_SIZES.length - 1], rows.apply(0));
+
+        Map<Integer, Double> rowsPerSecond = new LinkedHashMap<>();
+        for (int batchSize : BATCH_SIZES) {
+            List<T> batch = rows.apply(batchSize);
+            long started = System.nanoTime();
+            int written = writer.write(batchSize, batch);
+            double seconds = (System.nanoTime() - started) / 1e9;
+
+            assertThat(written).isEqualTo(ROWS);
+            rowsPerSecond.put(batchSize, written / seconds);
+            System.out.printf("%s batch size %3d: %,9.0f rows/s%n", name, batchSize, written / seconds);
+        }
+        return rowsPerSecond;
+    }
+
+    private static void assertBatchingPaysOff(Map<Integer, Double> rowsPerSecond) {
+        assertThat(rowsPerSecond.get(50)).isGreaterThan(rowsPerSecond.get(1));
+        assertThat(rowsPerSecond.get(500)).isGreaterThan(rowsPerSecond.get(1));
+    }
+
+    private static List<Flower> seedFlowers() {
+        List<Flower> flowers = new ArrayList<>(FLOWERS);
+        for (int i = 0; i < FLOWERS; i++) {
+            flowers.add(flower("bench-seed-" + i));
+        }
+        return flowerRepository(500).saveAll(flowers);
+    }
+
+    private static FlowerRepository flowerRepository(int batchSize) {
+        return new FlowerRepository(jdbc, null, new BatchStatements(jdbc, batchSize));
+    }
+
+    private static GrowthRepository growthRepository(int batchSize) {
+        return new GrowthRepository(jdbc, flowerRepository(batchSize), null, new BatchStatements(jdbc, batchSize), 90);
+    }
+
+    private static MaintenanceRepository maintenanceRepository(int batchSize) {
+        return new MaintenanceRepository(jdbc, flowerRepository(batchSize), null, new BatchStatements(jdbc, batchSize));
+    }
+
+    private static Flower flower(String name) {
+        Flower flower = new Flower();
+        flower.setFlowerName(name);
+        flower.setSpecies("Rose");
+        flower.setColor(FlowerColor.RED);
+        flower.setPlantingDate(LocalDateTime.now().minusDays(30));
+        flower.setWaterFrequencyDays(2);
+        flower.setFertilizeFrequencyDays(14);
+        flower.setPruneFrequencyDays(30);
+        flower.setMaxHeight(50.0);
+        flower.setGrowthRate(7.0);
+        flower.setUserId(USER_ID);
+        return flower;
+    }
+
+    private static Growth growth(Flower flower, int i) {
+        Growth growth = new Growth();
+        growth.setFlower(flower);
+        growth.setStage(GrowthStage.SEEDLING);
+        growth.setHeight(i % 50);
+        growth.setNotes("bench");
+        growth.setRecordedAt(LocalDateTime.now().minusHours(i));
+        growth.setUserId(USER_ID);
+        return growth;
+    }
+
+    private static Maintenance task(Flower flower, int i) {
+        Maintenance task = new Maintenance();
+        task.setFlower(flower);
+        task.setTaskType(MaintenanceType.WATERING);
+        task.setScheduledDate(LocalDateTime.now().plusHours(i));
+        task.setNotes("bench");
+        task.setCreatedAt(LocalDateTime.now());
+        task.setUserId(USER_ID);
+        return task;
+    }
+}
@@ -0,0 +1,645 @@
+package org.example.flowerapp.Repository;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.example.flowerapp.Configurations.SchemaMigrator;
+import org.example.flowerapp.Models.Enums.FlowerColor;
+import org.example.flowerapp.Models.Enums.GrowthStage;
+import org.example.flowerapp.Models.Enums.MaintenanceType;
+import org.example.flowerapp.Models.Flower;
+import org.example.flowerapp.Models.Growth;
+import org.example.flowerapp.Models.Maintenance;
+import org.example.flowerapp.Models.PageCursor;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+import org.springframework.jdbc.datasource.SingleConnectionDataSource;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Calls every repository query against a seeded Postgres database, records the statements
+ * they send and fails when the EXPLAIN of one of them plans a sequential scan. Writes run in
+ * a transaction that is rolled back. Needs a throwaway database, so it only runs when
+ * SCHEMA_VERIFY_DATASOURCE_URL (plus _USERNAME / _PASSWORD) is set.
+ */
+@EnabledIfEnvironmentVariable(named = "SCHEMA_VERIFY_DATASOURCE_URL", matches = ".+")
+class SchemaIndexVerificationTest {
+
+    private static final int SEED_FLOWERS = 100_000;
+    private static final int SEED_USERS = 5_000;
+    private static final YearMonth OLD_MONTH = YearMonth.now().minusMonths(12);
+    private static final DateTimeFormatter PARTITION_SUFFIX = DateTimeFormatter.ofPattern("yyyy_MM");
+    private static final Pattern SEQ_SCAN = Pattern.compile("Seq Scan on (\\S+)");
+    private static final Pattern FIRST_KEYWORD = Pattern.compile("^[\\s(]*(\\w+)");
+    private static final Set<String> EXPLAINABLE = Set.of("SELECT", "WITH", "INSERT", "UPDATE", "DELETE");
+
+    // Hold a handful of rows by design; a sequential scan is the cheapest plan until they grow,
+    // so these are checked again with sequential scans disabled to prove an index can serve them
+    private static final Set<String> JOB_TABLES = Set.of("job_lock", "job_work_item");
+
+    // Calls that read a whole table or partition on purpose, with the reason
+    private static final Map<String, String> FULL_SCANS = Map.of(
+            "FlowerRepository.findAllFlower", "loads every flower",
+            "FlowerRepository.forEachFlower", "streams every flower",
+            "GrowthRepository.findAll", "loads every growth record",
+            "GrowthRepository.forEach", "streams every growth record",
+            "MaintenanceRepository.findAll", "loads every task",
+            "MaintenanceRepository.forEach", "streams every task",
+            "FlowerRepository.findShardPage", "pages through every flower of a shard; mod() keeps a quarter of the rows",
+            "MaintenanceRepository.findByMaintenanceType", "loads every task of one type, a third of the table",
+            "GrowthPartitionRepository.countLatestRecordsIn", "counts over the whole partition before it is detached");
+
+    // Public methods that send no query worth planning: partition DDL commits on its own connection
+    private static final Set<String> NOT_QUERIES = Set.of(
+            "GrowthPartitionRepository.createMonthlyPartition",
+            "GrowthPartitionRepository.detachMonthlyPartition");
+
+    private static final List<Class<?>> REPOSITORIES = List.of(FlowerRepository.class, GrowthRepository.class,
+            MaintenanceRepository.class, JobLockRepository.class, JobWorkItemRepository.class,
+            GrowthPartitionRepository.class);
+
+    private static final List<Executed> executed = new ArrayList<>();
+    // The default partition and those created ahead of time; the planner may pick a sequential scan over no rows
+    private static final Set<String> emptyPartitions = new TreeSet<>();
+
+    private static JdbcTemplate jdbc;
+    private static TransactionTemplate rawTx;
+    private static TransactionTemplate recordedTx;
+    private static FlowerRepository flowers;
+    private static GrowthRepository growths;
+    private static MaintenanceRepository maintenance;
+    private static JobLockRepository jobLocks;
+    private static JobWorkItemRepository workItems;
+    private static GrowthPartitionRepository partitions;
+    private static String userId;
+    private static long flowerId;
+    private static long growthId;
+    private static long taskId;
+
+    private record Executed(String sql, List<Object> params) {
+    }
+
+    @BeforeAll
+    static void migrateAndSeed() {
+        // One connection each for setup and EXPLAIN and for the recorded calls, instead of a new one per statement
+        DataSource dataSource = connection();
+        jdbc = new JdbcTemplate(dataSource);
+        rawTx = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+
+        SchemaMigrator migrator = new SchemaMigrator(jdbc);
+        ReflectionTestUtils.setField(migrator, "enabled", true);
+        migrator.migrate();
+
+        Integer seeded = jdbc.queryForObject(
+                "SELECT COUNT(*) FROM flowerdetails WHERE flower_name LIKE 'seed-%'", Integer.class);
+        if (seeded == null || seeded < SEED_FLOWERS) {
+            seed();
+        }
+
+        userId = jdbc.queryForObject(
+                "SELECT user_id::text FROM flowerdetails WHERE flower_name = 'seed-1'", String.class);
+        flowerId = jdbc.queryForObject(
+                "SELECT flower_id FROM flowerdetails WHERE flower_name = 'seed-1'", Long.class);
+        growthId = jdbc.queryForObject(
+                "SELECT MAX(growth_id) FROM growthdetails WHERE flower_id = ?", Long.class, flowerId);
+        taskId = jdbc.queryForObject(
+                "SELECT MAX(task_id) FROM maintenance WHERE flower_id = ?", Long.class, flowerId);
+
+        for (String partition : jdbc.queryForList("""
+                SELECT c.relname FROM pg_inherits i JOIN pg_class c ON c.oid = i.inhrelid
+                WHERE i.inhparent = 'growthdetails'::regclass
+                """, String.class)) {
+            if (!jdbc.queryForObject("SELECT EXISTS (SELECT 1 FROM " + partition + ")", Boolean.class)) {
+                emptyPartitions.add(partition);
+            }
+        }
+
+        DataSource recording = recording(connection());
+        GovernedJdbcTemplate governed = new GovernedJdbcTemplate(recording, 0, 0, 0, new SimpleMeterRegistry());
+        // Only the plans are checked, so whole-table reads can stop after the first rows
+        governed.setMaxRows(1_000);
+        CursorQueries cursorQueries = new CursorQueries(governed, 500);
+        BatchStatements batchStatements = new BatchStatements(governed, 50);
+        recordedTx = new TransactionTemplate(new DataSourceTransactionManager(recording));
+
+        flowers = new FlowerRepository(governed, cursorQueries, batchStatements);
+        growths = new GrowthRepository(governed, flowers, cursorQueries, batchStatements, 90);
+        maintenance = new MaintenanceRepository(governed, flowers, cursorQueries, batchStatements);
+        jobLocks = new JobLockRepository(governed);
+        workItems = new JobWorkItemRepository(governed);
+        partitions = new GrowthPartitionRepository(governed);
+    }
+
+    private static DataSource connection() {
+        return new SingleConnectionDataSource(
+                System.getenv("SCHEMA_VERIFY_DATASOURCE_URL"),
+                System.getenv().getOrDefault("SCHEMA_VERIFY_DATASOURCE_USERNAME", "postgres"),
+                System.getenv().getOrDefault("SCHEMA_VERIFY_DATASOURCE_PASSWORD", "postgres"),
+                true);
+    }
+
+    private static void seed() {
+        String user = "('00000000-0000-0000-0000-' || lpad((g % " + SEED_USERS + ")::text, 12, '0'))::uuid";
+
+        jdbc.update("""
+                INSERT INTO flowerdetails (flower_name, species, color, planting_date, water_frequency_days,
+                    fertilize_frequency_days, prune_frequency_days, max_height, growth_rate, auto_scheduling, user_id)
+                SELECT 'seed-' || g, 'Rose', 'RED', now() - interval '60 days', 2, 14, 30, 50, 7, mod(g, 10) = 0, %s
+                FROM generate_series(1, %d) g
+                """.formatted(user, SEED_FLOWERS));
+        jdbc.update("""
+                INSERT INTO growthdetails (flower_id, stage, height, color_changes, notes, recorded_at, user_id)
+                SELECT f.flower_id, 'Seedling', s * 2, false, 'seed', now() - (s || ' days')::interval, f.user_id
+                FROM flowerdetails f CROSS JOIN generate_series(1, 5) s
+                WHERE f.flower_name LIKE 'seed-%'
+                """);
+        // A year-old partition with history in it, so partition pruning has something to skip
+        new GrowthPartitionRepository(jdbc).createMonthlyPartition(OLD_MONTH);
+        jdbc.update("""
+                INSERT INTO growthdetails (flower_id, stage, height, color_changes, notes, recorded_at, user_id)
+                SELECT f.flower_id, 'Seedling', 1, false, 'seed', ?, f.user_id
+                FROM flowerdetails f
+                WHERE f.flower_name LIKE 'seed-%'
+                """, Timestamp.valueOf(OLD_MONTH.atDay(1).atStartOfDay()));
+        jdbc.update("""
+                INSERT INTO maintenance (flower_id, maintenance_type, maintenance_date, due_date, notes,
+                    created_at, completed, auto_generated, user_id)
+                SELECT f.flower_id, t.type, now() - (f.flower_id % 10 || ' days')::interval,
+                    now() - (f.flower_id % 10 || ' days')::interval, 'seed', now(), f.flower_id % 4 <> 0, true, f.user_id
+                FROM flowerdetails f CROSS JOIN (VALUES ('WATERING'), ('FERTILIZING'), ('PRUNING')) t(type)
+                WHERE f.flower_name LIKE 'seed-%'
+                """);
+        jdbc.execute("ANALYZE flowerdetails");
+        jdbc.execute("ANALYZE growthdetails");
+        jdbc.execute("ANALYZE maintenance");
+    }
+
+    static Stream<Arguments> repositoryQueries() {
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime startOfDay = now.toLocalDate().atStartOfDay();
+        PageCursor idCursor = PageCursor.ofId(flowerId);
+        PageCursor timeCursor = new PageCursor(now, growthId);
+        JobWorkItemRepository.Item item = new JobWorkItemRepository.Item(
+                Long.MAX_VALUE, "schema-verify", 1, 1_000, now, 1);
+
+        return Stream.of(
+                call("FlowerRepository.save (insert)", () -> flowers.save(newFlower("verify-insert"))),
+                call("FlowerRepository.save (update)", () -> flowers.save(seedFlower())),
+                call("FlowerRepository.saveAll", () -> flowers.saveAll(
+                        List.of(newFlower("verify-batch-1"), newFlower("verify-batch-2"), seedFlower()))),
+                call("FlowerRepository.findByFlowerIdAndUserId", () -> flowers.findByFlowerIdAndUserId(flowerId, userId)),
+                call("FlowerRepository.findByFlowerIdAndUserId (optional)",
+                        () -> flowers.findByFlowerIdAndUserId(Long.valueOf(flowerId), userId)),
+                call("FlowerRepository.existsById", () -> flowers.existsById(flowerId)),
+                call("FlowerRepository.existsByNameAndUserId", () -> flowers.existsByNameAndUserId("seed-1", userId)),
+                call("FlowerRepository.existsByIdAndUserId", () -> flowers.existsByIdAndUserId(flowerId, userId)),
+                call("FlowerRepository.validateExists", () -> flowers.validateExists(flowerId, userId)),
+                call("FlowerRepository.findAllFlowerByUserId", () -> flowers.findAllFlowerByUserId(userId)),
+                call("FlowerRepository.findAllFlowerByUserId (page)",
+                        () -> flowers.findAllFlowerByUserId(userId, null, 51)),
+                call("FlowerRepository.findAllFlowerByUserId (next page)",
+                        () -> flowers.findAllFlowerByUserId(userId, idCursor, 51)),
+                call("FlowerRepository.findBySpeciesAndUserId", () -> flowers.findBySpeciesAndUserId("Rose", userId)),
+                call("FlowerRepository.findBySpeciesAndUserId (page)",
+                        () -> flowers.findBySpeciesAndUserId("Rose", userId, idCursor, 51)),
+                call("FlowerRepository.findByColorAndUserId", () -> flowers.findByColorAndUserId("RED", userId)),
+                call("FlowerRepository.findByColorAndUserId (page)",
+                        () -> flowers.findByColorAndUserId("RED", userId, idCursor, 51)),
+                call("FlowerRepository.findByAutoSchedulingTrueAndUserId",
+                        () -> flowers.findByAutoSchedulingTrueAndUserId(userId)),
+                call("FlowerRepository.deleteFlower", () -> flowers.deleteFlower(flowerId, userId)),
+                call("FlowerRepository.countByUserId", () -> flowers.countByUserId(userId)),
+                call("FlowerRepository.findAllFlower", () -> flowers.findAllFlower()),
+                call("FlowerRepository.forEachFlower", () -> flowers.forEachFlower(flower -> { })),
+                call("FlowerRepository.findPage", () -> flowers.findPage(flowerId, 500)),
+                call("FlowerRepository.findAllByIds", () -> flowers.findAllByIds(List.of(flowerId, flowerId + 1))),
+                call("FlowerRepository.findShardPage", () -> flowers.findShardPage(1, 4, flowerId, 500)),
+                call("FlowerRepository.forEachFlowerDueForHealthCheck",
+                        () -> flowers.forEachFlowerDueForHealthCheck(now, flower -> { })),
+                call("FlowerRepository.findShardPageDueForHealthCheck",
+                        () -> flowers.findShardPageDueForHealthCheck(1, 4, now, flowerId, 500)),
+                call("FlowerRepository.findDueForHealthCheckBetween",
+                        () -> flowers.findDueForHealthCheckBetween(now, flowerId, flowerId + 1_000)),
+                call("FlowerRepository.lockForHealthCheck", () -> flowers.lockForHealthCheck(flowerId)),
+                call("FlowerRepository.advanceHealthChecks",
+                        () -> flowers.advanceHealthChecks(List.of(flowerId, flowerId + 1), now)),
+                call("FlowerRepository.findByAutoSchedulingTrue", () -> flowers.findByAutoSchedulingTrue()),
+                call("FlowerRepository.forEachAutoSchedulingFlower",
+                        () -> flowers.forEachAutoSchedulingFlower(flower -> { })),
+                call("FlowerRepository.findAutoSchedulingBetween",
+                        () -> flowers.findAutoSchedulingBetween(flowerId, flowerId + 1_000)),
+                call("FlowerRepository.patchFlower", () -> flowers.patchFlower(flowerId, userId,
+                        new EnumMap<>(Map.of(FlowerRepository.PatchColumn.SPECIES, "Tulip")), null)),
+                call("FlowerRepository.updateFlower", () -> flowers.updateFlower(seedFlower(), true, null)),
+
+                call("GrowthRepository.save (insert)", () -> growths.save(newGrowth())),
+                call("GrowthRepository.save (update)", () -> growths.save(seedGrowth())),
+                call("GrowthRepository.saveAll", () -> growths.saveAll(List.of(newGrowth(), newGrowth(), seedGrowth()))),
+                call("GrowthRepository.findByGrowthIdAndUserId", () -> growths.findByGrowthIdAndUserId(growthId, userId)),
+                call("GrowthRepository.findAllGrowthByUserId", () -> growths.findAllGrowthByUserId(userId)),
+                call("GrowthRepository.findAllGrowthByUserId (page)",
+                        () -> growths.findAllGrowthByUserId(userId, null, 51)),
+                call("GrowthRepository.findAllGrowthByUserId (next page)",
+                        () -> growths.findAllGrowthByUserId(userId, timeCursor, 51)),
+                call("GrowthRepository.findAllByUserId", () -> growths.findAllByUserId(userId)),
+                call("GrowthRepository.findByFlowerIdAndUserId", () -> growths.findByFlowerIdAndUserId(flowerId, userId)),
+                call("GrowthRepository.findByFlowerIdAndUserId (page)",
+                        () -> growths.findByFlowerIdAndUserId(flowerId, userId, timeCursor, 51)),
+                call("GrowthRepository.findByFlowerAndUserIdOrderByRecordedAtDesc",
+                        () -> growths.findByFlowerAndUserIdOrderByRecordedAtDesc(flowerRef(), userId)),
+                call("GrowthRepository.findTopByFlowerAndUserIdOrderByRecordedAtDesc",
+                        () -> growths.findTopByFlowerAndUserIdOrderByRecordedAtDesc(flowerRef(), userId)),
+                call("GrowthRepository.findAll", () -> growths.findAll()),
+                call("GrowthRepository.forEach", () -> growths.forEach(growth -> { })),
+                call("GrowthRepository.countByFlowerIdAndUserId", () -> growths.countByFlowerIdAndUserId(flowerId, userId)),
+                call("GrowthRepository.forEachSeriesPoint",
+                        () -> growths.forEachSeriesPoint(flowerId, userId, (recordedAt, height, stage) -> { })),
+                call("GrowthRepository.findLatestByFlowerIdAndUserId",
+                        () -> growths.findLatestByFlowerIdAndUserId(flowerId, userId)),
+                call("GrowthRepository.findByStageAndUserId",
+                        () -> growths.findByStageAndUserId(GrowthStage.SEEDLING, userId)),
+                call("GrowthRepository.findByStageAndUserId (page)",
+                        () -> growths.findByStageAndUserId(GrowthStage.SEEDLING, userId, timeCursor, 51)),
+                call("GrowthRepository.findByColorChangesAndUserId",
+                        () -> growths.findByColorChangesAndUserId(false, userId)),
+                call("GrowthRepository.findByColorChangesAndUserId (page)",
+                        () -> growths.findByColorChangesAndUserId(false, userId, timeCursor, 51)),
+                call("GrowthRepository.deleteGrowth", () -> growths.deleteGrowth(growthId, userId)),
+                call("GrowthRepository.delete", () -> growths.delete(seedGrowth())),
+                call("GrowthRepository.deleteByFlowerIdAndUserId", () -> growths.deleteByFlowerIdAndUserId(flowerId, userId)),
+                call("GrowthRepository.findTopByFlowerOrderByRecordedAtDesc",
+                        () -> growths.findTopByFlowerOrderByRecordedAtDesc(flowerRef())),
+                call("GrowthRepository.findLatestByFlowerId", () -> growths.findLatestByFlowerId(flowerId)),
+                call("GrowthRepository.findLatestByFlowerId (no recent record)", () -> {
+                    growths.deleteByFlowerIdAndUserId(flowerId, userId);
+                    growths.findLatestByFlowerId(flowerId);
+                }),
+                call("GrowthRepository.findLatestByFlowers", () -> growths.findLatestByFlowers(
+                        Map.of(flowerId, flowerRef(), flowerId + 1, flowerRef(flowerId + 1)))),
+                call("GrowthRepository.findByFlowerId", () -> growths.findByFlowerId(flowerId)),
+                call("GrowthRepository.findWeeklyRollupsByUserId", () -> growths.findWeeklyRollupsByUserId(userId, null, 51)),
+                call("GrowthRepository.findWeeklyRollupsByUserId (next page)",
+                        () -> growths.findWeeklyRollupsByUserId(userId, new PageCursor(now, flowerId), 51)),
+                call("GrowthRepository.findWeeklyRollupsByFlowerIdAndUserId",
+                        () -> growths.findWeeklyRollupsByFlowerIdAndUserId(flowerId, userId, null, 51)),
+
+                call("MaintenanceRepository.save (insert)", () -> maintenance.save(newTask())),
+                call("MaintenanceRepository.save (update)", () -> maintenance.save(seedTask())),
+                call("MaintenanceRepository.saveAll", () -> maintenance.saveAll(List.of(newTask(), newTask(), seedTask()))),
+                call("MaintenanceRepository.findByTaskIdAndUserId", () -> maintenance.findByTaskIdAndUserId(taskId, userId)),
+                call("MaintenanceRepository.findByTaskIdAndUserId (history)",
+                        () -> maintenance.findByTaskIdAndUserId(taskId, userId, true)),
+                call("MaintenanceRepository.findAll", () -> maintenance.findAll()),
+                call("MaintenanceRepository.forEach", () -> maintenance.forEach(task -> { })),
+                call("MaintenanceRepository.findAllMaintenanceByUserId",
+                        () -> maintenance.findAllMaintenanceByUserId(userId)),
+                call("MaintenanceRepository.findAllMaintenanceByUserId (page)",
+                        () -> maintenance.findAllMaintenanceByUserId(userId, null, 51, false)),
+                call("MaintenanceRepository.findAllMaintenanceByUserId (page with history)",
+                        () -> maintenance.findAllMaintenanceByUserId(userId, PageCursor.ofId(taskId), 51, true)),
+                call("MaintenanceRepository.findByFlowerId", () -> maintenance.findByFlowerId(flowerId)),
+                call("MaintenanceRepository.findByFlowerIdAndUserId",
+                        () -> maintenance.findByFlowerIdAndUserId(flowerId, userId)),
+                call("MaintenanceRepository.findByFlowerIdAndUserId (page with history)",
+                        () -> maintenance.findByFlowerIdAndUserId(flowerId, userId, PageCursor.ofId(taskId), 51, true)),
+                call("MaintenanceRepository.findByMaintenanceTypeAndUserId",
+                        () -> maintenance.findByMaintenanceTypeAndUserId(MaintenanceType.WATERING, userId)),
+                call("MaintenanceRepository.findByMaintenanceTypeAndUserId (page)",
+                        () -> maintenance.findByMaintenanceTypeAndUserId(MaintenanceType.WATERING, userId,
+                                PageCursor.ofId(taskId), 51, false)),
+                call("MaintenanceRepository.findByMaintenanceDateAndUserId",
+                        () -> maintenance.findByMaintenanceDateAndUserId(startOfDay, userId)),
+                call("MaintenanceRepository.findByMaintenanceDateAndUserId (page)",
+                        () -> maintenance.findByMaintenanceDateAndUserId(startOfDay, userId,
+                                PageCursor.ofId(taskId), 51, false)),
+                call("MaintenanceRepository.completeTasks",
+                        () -> maintenance.completeTasks(List.of(taskId), userId, now)),
+                call("MaintenanceRepository.archiveCompletedBefore",
+                        () -> maintenance.archiveCompletedBefore(now.minusDays(30), 1_000)),
+                call("MaintenanceRepository.findByFlowerAndCompletedFalseAndDueDateBefore",
+                        () -> maintenance.findByFlowerAndCompletedFalseAndDueDateBefore(flowerRef(), now)),
+                call("MaintenanceRepository.findByFlowerIdAndCompletedFalseAndDueDateBeforeAndUserId",
+                        () -> maintenance.findByFlowerIdAndCompletedFalseAndDueDateBeforeAndUserId(flowerId, now, userId)),
+                call("MaintenanceRepository.deleteMaintenance", () -> maintenance.deleteMaintenance(taskId, userId)),
+                call("MaintenanceRepository.delete", () -> maintenance.delete(seedTask())),
+                call("MaintenanceRepository.existsByFlowerAndTypeAndDateRange",
+                        () -> maintenance.existsByFlowerAndTypeAndDateRange(flowerId, MaintenanceType.WATERING,
+                                startOfDay, now, userId)),
+                call("MaintenanceRepository.findIncompleteOrScheduledBetweenByFlowers",
+                        () -> maintenance.findIncompleteOrScheduledBetweenByFlowers(
+                                Map.of(flowerId, flowerRef(), flowerId + 1, flowerRef(flowerId + 1)), startOfDay, now)),
+                call("MaintenanceRepository.findIncompleteByFlowerIdAndUserId",
+                        () -> maintenance.findIncompleteByFlowerIdAndUserId(flowerId, userId)),
+                call("MaintenanceRepository.findByCompletedStatusAndUserId",
+                        () -> maintenance.findByCompletedStatusAndUserId(false, userId)),
+                call("MaintenanceRepository.findByCompletedStatus", () -> maintenance.findByCompletedStatus(false)),
+                call("MaintenanceRepository.existsByFlowerAndTypeAndCompleted",
+                        () -> maintenance.existsByFlowerAndTypeAndCompleted(flowerId, MaintenanceType.WATERING,
+                                false, userId)),
+                call("MaintenanceRepository.countOverdueTasksByUserId", () -> maintenance.countOverdueTasksByUserId(userId)),
+                call("MaintenanceRepository.findByMaintenanceType",
+                        () -> maintenance.findByMaintenanceType(MaintenanceType.WATERING)),
+                call("MaintenanceRepository.existsByFlowerAndMaintenanceTypeAndCompletedFalse",
+                        () -> maintenance.existsByFlowerAndMaintenanceTypeAndCompletedFalse(flowerRef(),
+                                MaintenanceType.WATERING)),
+                call("MaintenanceRepository.findByCompletedStatusExcludingDead",
+                        () -> maintenance.findByCompletedStatusExcludingDead(false)),
+                call("MaintenanceRepository.findByCompletedStatusAndUserIdExcludingDead",
+                        () -> maintenance.findByCompletedStatusAndUserIdExcludingDead(false, userId)),
+                call("MaintenanceRepository.findIncompleteByFlowerIdAndUserIdExcludingDead",
+                        () -> maintenance.findIncompleteByFlowerIdAndUserIdExcludingDead(flowerId, userId)),
+                call("MaintenanceRepository.patchMaintenance", () -> maintenance.patchMaintenance(taskId, userId,
+                        new EnumMap<>(Map.of(MaintenanceRepository.PatchColumn.NOTES, "verify")), null)),
+
+                call("JobLockRepository.tryAcquire",
+                        () -> jobLocks.tryAcquire("schema-verify", "verifier", Duration.ofMinutes(5))),
+                call("JobLockRepository.extend",
+                        () -> jobLocks.extend("schema-verify", "verifier", 1L, Duration.ofMinutes(5))),
+                call("JobLockRepository.release",
+                        () -> jobLocks.release("schema-verify", "verifier", 1L, Duration.ZERO)),
+                call("JobLockRepository.isHeld", () -> jobLocks.isHeld("schema-verify", 1L)),
+
+                call("JobWorkItemRepository.enqueueFlowerChunks (due for health check)",
+                        () -> workItems.enqueueFlowerChunks("schema-verify",
+                                JobWorkItemRepository.FlowerScope.DUE_FOR_HEALTH_CHECK, now, 1_000)),
+                call("JobWorkItemRepository.enqueueFlowerChunks (auto scheduling)",
+                        () -> workItems.enqueueFlowerChunks("schema-verify",
+                                JobWorkItemRepository.FlowerScope.AUTO_SCHEDULING, now, 1_000)),
+                call("JobWorkItemRepository.claim",
+                        () -> workItems.claim(List.of("schema-verify"), "verifier", Duration.ofMinutes(5), 3)),
+                call("JobWorkItemRepository.acknowledge", () -> workItems.acknowledge(item, "verifier")),
+                call("JobWorkItemRepository.fail", () -> workItems.fail(item, "verifier", "verify", 3)),
+                call("JobWorkItemRepository.retireAbandoned", () -> workItems.retireAbandoned(3, Duration.ofDays(7))),
+
+                call("GrowthPartitionRepository.findMonthlyPartitions", () -> partitions.findMonthlyPartitions()),
+                call("GrowthPartitionRepository.countLatestRecordsIn", () -> partitions.countLatestRecordsIn(OLD_MONTH))
+        );
+    }
+
+    @ParameterizedTest(name = "{0}")
+    @MethodSource("repositoryQueries")
+    void queryDoesNotFallBackToSequentialScan(String name, Runnable call) {
+        List<Executed> statements = record(call);
+        assertThat(statements).as("statements sent by %s", name).isNotEmpty();
+
+        boolean fullScan = FULL_SCANS.containsKey(name.split(" ")[0]);
+        for (Executed statement : statements) {
+            if (!explainable(statement)) {
+                continue;
+            }
+
+            List<String> plan = explain(statement, true);
+            if (!fullScan) {
+                assertThat(sequentialScans(plan))
+                        .as("%s plans a sequential scan for%n%s%n%s", name, statement.sql(), render(plan))
+                        .allMatch(JOB_TABLES::contains);
+            }
+
+            if (JOB_TABLES.stream().anyMatch(table -> statement.sql().contains(table))) {
+                List<String> indexedPlan = explain(statement, false);
+                assertThat(sequentialScans(indexedPlan))
+                        .as("%s has no index on the job tables for%n%s%n%s", name, statement.sql(), render(indexedPlan))
+                        .noneMatch(JOB_TABLES::contains);
+            }
+        }
+    }
+
+    @Test
+    void everyRepositoryQueryIsExplained() {
+        Set<String> called = repositoryQueries()
+                .map(arguments -> ((String) arguments.get()[0]).split(" ")[0])
+                .collect(Collectors.toSet());
+
+        Set<String> missing = new TreeSet<>();
+        for (Class<?> repository : REPOSITORIES) {
+            for (Method method : repository.getDeclaredMethods()) {
+                String name = repository.getSimpleName() + "." + method.getName();
+                if (Modifier.isPublic(method.getModifiers()) && !Modifier.isStatic(method.getModifiers())
+                        && !method.isSynthetic() && !called.contains(name) && !NOT_QUERIES.contains(name)) {
+                    missing.add(name);
+                }
+            }
+        }
+
+        assertThat(missing).as("repository methods without a plan check").isEmpty();
+    }
+
+    @Test
+    void hotWindowQueryPrunesOldPartitions() {
+        Executed hotWindow = record(() -> growths.findLatestByFlowerId(flowerId)).get(0);
+        List<String> plan = explain(hotWindow, true);
+
+        assertThat(plan)
+                .as("plan:%n%s", render(plan))
+                .anyMatch(line -> line.contains("growthdetails_" + YearMonth.now().format(PARTITION_SUFFIX)))
+                .noneMatch(line -> line.contains("growthdetails_" + OLD_MONTH.format(PARTITION_SUFFIX)));
+    }
+
+    private static Arguments call(String name, Runnable call) {
+        return Arguments.of(name, call);
+    }
+
+    // Runs the call in a transaction that is rolled back and returns what it sent to the database
+    private static List<Executed> record(Runnable call) {
+        executed.clear();
+        recordedTx.executeWithoutResult(status -> {
+            status.setRollbackOnly();
+            call.run();
+        });
+        return List.copyOf(executed);
+    }
+
+    private static boolean explainable(Executed statement) {
+        Matcher keyword = FIRST_KEYWORD.matcher(statement.sql());
+        return keyword.find() && EXPLAINABLE.contains(keyword.group(1).toUpperCase());
+    }
+
+    private static List<String> explain(Executed statement, boolean seqScanAllowed) {
+        return rawTx.execute(status -> {
+            status.setRollbackOnly();
+            if (!seqScanAllowed) {
+                jdbc.execute("SET LOCAL enable_seqscan = off");
+            }
+            return jdbc.queryForList("EXPLAIN " + statement.sql(), String.class, statement.params().toArray());
+        });
+    }
+
+    // Catalog lookups and empty partitions are not ours to index
+    private static List<String> sequentialScans(List<String> plan) {
+        List<String> relations = new ArrayList<>();
+        for (String line : plan) {
+            Matcher scan = SEQ_SCAN.matcher(line);
+            if (scan.find() && !scan.group(1).startsWith("pg_") && !emptyPartitions.contains(scan.group(1))) {
+                relations.add(scan.group(1));
+            }
+        }
+        return relations;
+    }
+
+    private static String render(List<String> plan) {
+        return String.join(System.lineSeparator(), plan);
+    }
+
+    /**
+     * Hands out connections whose statements note their SQL and bound parameters in
+     * {@link #executed} when they run, so the plans checked are those of the real queries.
+     */
+    private static DataSource recording(DataSource target) {
+        return new DelegatingDataSource(target) {
+            @Override
+            public Connection getConnection() throws SQLException {
+                Connection connection = super.getConnection();
+                return proxy(Connection.class, connection, (self, method, args) -> {
+                    Object result = invoke(connection, method, args);
+                    if (method.getName().equals("prepareStatement")) {
+                        return recordingStatement((PreparedStatement) result, (String) args[0]);
+                    }
+                    if (method.getName().equals("createStatement")) {
+                        return recordingStatement((Statement) result);
+                    }
+                    return result;
+                });
+            }
+        };
+    }
+
+    private static PreparedStatement recordingStatement(PreparedStatement statement, String sql) {
+        Map<Integer, Object> params = new TreeMap<>();
+        return proxy(PreparedStatement.class, statement, (self, method, args) -> {
+            String name = method.getName();
+            if (name.equals("setNull")) {
+                params.put((Integer) args[0], null);
+            } else if (name.startsWith("set") && args != null && args.length >= 2 && args[0] instanceof Integer index) {
+                params.put(index, args[1] instanceof java.sql.Array array ? array.getArray() : args[1]);
+            } else if (name.equals("clearParameters")) {
+                params.clear();
+            } else if (name.equals("addBatch")
+                    || (name.startsWith("execute") && !name.equals("executeBatch") && args == null)) {
+                executed.add(new Executed(sql, new ArrayList<>(params.values())));
+            }
+            return invoke(statement, method, args);
+        });
+    }
+
+    private static Statement recordingStatement(Statement statement) {
+        return proxy(Statement.class, statement, (self, method, args) -> {
+            if ((method.getName().startsWith("execute") || method.getName().equals("addBatch"))
+                    && args != null && args[0] instanceof String sql) {
+                executed.add(new Executed(sql, List.of()));
+            }
+            return invoke(statement, method, args);
+        });
+    }
+
+    private static <T> T proxy(Class<T> type, T target, InvocationHandler handler) {
+        return type.cast(Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, (self, method, args) ->
+                switch (method.getName()) {
+                    case "equals" -> self == args[0];
+                    case "hashCode" -> System.identityHashCode(self);
+                    default -> handler.invoke(self, method, args);
+                }));
+    }
+
+    private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+
+    private static Flower newFlower(String name) {
+        Flower flower = new Flower();
+        flower.setFlowerName(name);
+        flower.setSpecies("Rose");
+        flower.setColor(FlowerColor.RED);
+        flower.setPlantingDate(LocalDateTime.now().minusDays(30));
+        flower.setWaterFrequencyDays(2);
+        flower.setFertilizeFrequencyDays(14);
+        flower.setPruneFrequencyDays(30);
+        flower.setMaxHeight(50.0);
+        flower.setGrowthRate(7.0);
+        flower.setUserId(userId);
+        return flower;
+    }
+
+    private static Flower seedFlower() {
+        return flowers.findByFlowerIdAndUserId(flowerId, userId);
+    }
+
+    private static Flower flowerRef() {
+        return flowerRef(flowerId);
+    }
+
+    private static Flower flowerRef(long id) {
+        Flower flower = new Flower();
+        flower.setFlower_id(id);
+        flower.setUserId(userId);
+        return flower;
+    }
+
+    private static Growth newGrowth() {
+        Growth growth = new Growth();
+        growth.setFlower(flowerRef());
+        growth.setStage(GrowthStage.SEEDLING);
+        growth.setHeight(12.0);
+        growth.setNotes("verify");
+        growth.setRecordedAt(LocalDateTime.now());
+        growth.setUserId(userId);
+        return growth;
+    }
+
+    private static Growth seedGrowth() {
+        return growths.findByGrowthIdAndUserId(growthId, userId);
+    }
+
+    private static Maintenance newTask() {
+        Maintenance task = new Maintenance();
+        task.setFlower(flowerRef());
+        task.setTaskType(MaintenanceType.WATERING);
+        task.setScheduledDate(LocalDateTime.now().plusDays(1));
+        task.setNotes("verify");
+        task.setCreatedAt(LocalDateTime.now());
+        task.setUserId(userId);
+        return task;
+    }
+
+    private static Maintenance seedTask() {
+        return maintenance.findByTaskIdAndUserId(taskId, userId);
+    }
+}
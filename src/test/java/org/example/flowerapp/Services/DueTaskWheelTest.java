@@ -0,0 +1,114 @@
+package org.example.flowerapp.Services;
+
+import org.example.flowerapp.Models.Flower;
+import org.example.flowerapp.Repository.FlowerRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.List;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class DueTaskWheelTest {
+
+    private static final LocalDateTime NOW = LocalDateTime.of(2026, 3, 15, 10, 30);
+
+    @Mock
+    private FlowerRepository flowerRepository;
+
+    @Mock
+    private FlowerMaintenanceScheduler maintenanceScheduler;
+
+    private DueTaskWheel dueTaskWheel;
+
+    @BeforeEach
+    void setUp() {
+        dueTaskWheel = new DueTaskWheel(flowerRepository, maintenanceScheduler);
+        ReflectionTestUtils.setField(dueTaskWheel, "enabled", true);
+        ReflectionTestUtils.setField(dueTaskWheel, "tickMillis", 1000L);
+        ReflectionTestUtils.setField(dueTaskWheel, "slots", 64);
+    }
+
+    @Test
+    void nextDeadlineIsTheEarliestUpcomingCareAction() {
+        Flower flower = flower(1L);
+        flower.setWaterFrequencyDays(2);
+        flower.setLastWateredDate(NOW.minusDays(1));
+        flower.setPruneFrequencyDays(30);
+        flower.setLastPrunedDate(NOW.minusDays(29).minusHours(12));
+
+        assertEquals(millis(NOW.plusHours(12)), DueTaskWheel.nextDeadline(flower, NOW));
+    }
+
+    @Test
+    void careAlreadyDueComesRoundAtTheNextMidnight() {
+        Flower flower = flower(1L);
+        flower.setWaterFrequencyDays(2);
+        flower.setLastWateredDate(NOW.minusDays(3));
+
+        assertEquals(millis(NOW.toLocalDate().plusDays(1).atStartOfDay()), DueTaskWheel.nextDeadline(flower, NOW));
+    }
+
+    @Test
+    void flowerWithoutAutoSchedulingOrCareFrequencyIsNotTracked() {
+        Flower manual = flower(1L);
+        manual.setWaterFrequencyDays(2);
+        manual.setAutoScheduling(false);
+
+        assertEquals(Long.MAX_VALUE, DueTaskWheel.nextDeadline(manual, NOW));
+        assertEquals(Long.MAX_VALUE, DueTaskWheel.nextDeadline(flower(2L), NOW));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void createsTasksOnlyForFlowersThatFellDue() {
+        Flower due = flower(1L);
+        due.setWaterFrequencyDays(1);
+        due.setLastWateredDate(LocalDateTime.now().minusDays(2));
+        Flower later = flower(2L);
+        later.setWaterFrequencyDays(7);
+        later.setLastWateredDate(LocalDateTime.now());
+        doAnswer(invocation -> {
+            Consumer<Flower> action = invocation.getArgument(0);
+            action.accept(due);
+            action.accept(later);
+            return null;
+        }).when(flowerRepository).forEachAutoSchedulingFlower(any());
+        when(flowerRepository.findAllByIds(List.of(1L))).thenReturn(List.of(due));
+        when(maintenanceScheduler.scheduleDueTasks(eq(due), any())).thenReturn(1);
+
+        dueTaskWheel.rebuild();
+        assertEquals(2, dueTaskWheel.size());
+
+        dueTaskWheel.recheck(1L);
+        dueTaskWheel.advance();
+
+        verify(maintenanceScheduler).scheduleDueTasks(eq(due), any());
+        verify(maintenanceScheduler, never()).scheduleDueTasks(eq(later), any());
+        // Still due, so it comes round again tomorrow
+        assertEquals(2, dueTaskWheel.size());
+    }
+
+    private static long millis(LocalDateTime time) {
+        return time.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+
+    private static Flower flower(long id) {
+        Flower flower = new Flower();
+        flower.setFlower_id(id);
+        flower.setFlowerName("Flower " + id);
+        flower.setAutoScheduling(true);
+        flower.setPlantingDate(NOW.minusDays(60));
+        return flower;
+    }
+}
@@ -0,0 +1,193 @@
+package org.example.flowerapp.Services;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.example.flowerapp.Configurations.JobLease;
+import org.example.flowerapp.Configurations.JobLocks;
+import org.example.flowerapp.Exceptions.DatabaseOperationExceptions.JobLockLostException;
+import org.example.flowerapp.Models.Enums.GrowthStage;
+import org.example.flowerapp.Models.Flower;
+import org.example.flowerapp.Models.Growth;
+import org.example.flowerapp.Models.Maintenance;
+import org.example.flowerapp.Repository.FlowerRepository;
+import org.example.flowerapp.Repository.GrowthRepository;
+import org.example.flowerapp.Repository.JobLockRepository;
+import org.example.flowerapp.Repository.MaintenanceRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class FlowerHealthMonitorServiceTest {
+
+    private static final String USER_ID = "123e4567-e89b-12d3-a456-426614174000";
+
+    @Mock
+    private FlowerRepository flowerRepository;
+
+    @Mock
+    private MaintenanceRepository maintenanceRepository;
+
+    @Mock
+    private GrowthRepository growthRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Mock
+    private JobWorkQueue workQueue;
+
+    private FlowerHealthMonitorService service;
+
+    @BeforeEach
+    void setUp() {
+        service = new FlowerHealthMonitorService(flowerRepository, maintenanceRepository, growthRepository,
+                transactionManager, new SimpleMeterRegistry(), workQueue);
+        ReflectionTestUtils.setField(service, "batchSize", 50);
+        ReflectionTestUtils.setField(service, "parallelism", 1);
+        ReflectionTestUtils.setField(service, "jobPoolSize", 3);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void checksOnlyDueFlowersAndMovesTheirCheckOnAfterWritingTheStageChange() {
+        Flower neglected = flower(1L);
+        Flower broken = flower(2L);
+        givenDueFlowers(neglected, broken);
+        when(growthRepository.findLatestByFlowerId(1L)).thenReturn(growth(GrowthStage.BLOOMING));
+        when(growthRepository.findLatestByFlowerId(2L)).thenThrow(new IllegalStateException("boom"));
+        when(maintenanceRepository.findIncompleteByFlowerIdAndUserId(1L, USER_ID))
+                .thenReturn(List.of(openTask(neglected, LocalDateTime.now().minusDays(4))));
+
+        service.monitorFlowerHealth();
+
+        verify(flowerRepository, never()).forEachFlower(any());
+        ArgumentCaptor<List<Growth>> transitions = ArgumentCaptor.forClass(List.class);
+        verify(growthRepository).saveAll(transitions.capture());
+        assertEquals(GrowthStage.WILTING, transitions.getValue().get(0).getStage());
+
+        // The failed flower keeps its check time and comes up again next hour
+        ArgumentCaptor<Collection<Long>> advanced = ArgumentCaptor.forClass(Collection.class);
+        var order = inOrder(growthRepository, flowerRepository);
+        order.verify(growthRepository).saveAll(any());
+        order.verify(flowerRepository).advanceHealthChecks(advanced.capture(), any());
+        assertEquals(List.of(1L), List.copyOf(advanced.getValue()));
+    }
+
+    @Test
+    void everyBatchOfCheckedFlowersIsCommittedInItsOwnShortTransaction() {
+        ReflectionTestUtils.setField(service, "batchSize", 2);
+        givenDueFlowers(flower(1L), flower(2L), flower(3L));
+        when(growthRepository.findLatestByFlowerId(anyLong())).thenReturn(growth(GrowthStage.BLOOMING));
+
+        service.monitorFlowerHealth();
+
+        // The first batch is committed, releasing its row locks, before the next flower is read
+        var order = inOrder(transactionManager, flowerRepository, growthRepository);
+        order.verify(transactionManager).getTransaction(argThat(definition ->
+                definition.getPropagationBehavior() == TransactionDefinition.PROPAGATION_REQUIRES_NEW));
+        order.verify(flowerRepository).advanceHealthChecks(eq(List.of(1L, 2L)), any());
+        order.verify(transactionManager).commit(any());
+        order.verify(growthRepository).findLatestByFlowerId(3L);
+        order.verify(flowerRepository).advanceHealthChecks(eq(List.of(3L)), any());
+        order.verify(transactionManager).commit(any());
+        verify(transactionManager, times(2)).getTransaction(any());
+    }
+
+    @Test
+    void reevaluationLocksTheFlowerBeforeReadingItsStageAndSkipsDeletedFlowers() {
+        Flower kept = flower(1L);
+        Flower deleted = flower(2L);
+        when(flowerRepository.findAllByIds(List.of(1L, 2L))).thenReturn(List.of(kept, deleted));
+        when(flowerRepository.lockForHealthCheck(1L)).thenReturn(true);
+        when(flowerRepository.lockForHealthCheck(2L)).thenReturn(false);
+        when(growthRepository.findLatestByFlowerId(1L)).thenReturn(growth(GrowthStage.BLOOMING));
+
+        service.reevaluate(List.of(1L, 2L));
+
+        var order = inOrder(flowerRepository, growthRepository);
+        order.verify(flowerRepository).lockForHealthCheck(1L);
+        order.verify(growthRepository).findLatestByFlowerId(1L);
+        verify(growthRepository, never()).findLatestByFlowerId(2L);
+        verify(flowerRepository, never()).advanceHealthChecks(eq(List.of(2L)), any());
+    }
+
+    @Test
+    void runStopsBeforeWritingOnceAnotherNodeTookTheJobOver() {
+        JobLockRepository jobLockRepository = mock(JobLockRepository.class);
+        JobLocks jobLocks = new JobLocks(jobLockRepository, transactionManager, new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(jobLocks, "leaseMillis", 300_000L);
+        when(jobLockRepository.tryAcquire(eq("health-monitor"), anyString(), any()))
+                .thenReturn(Optional.of(new JobLockRepository.Grant(2L, null)));
+        when(jobLockRepository.isHeld("health-monitor", 2L)).thenReturn(false);
+
+        JobLease lease = jobLocks.tryAcquire("health-monitor").orElseThrow();
+        try {
+            assertThrows(JobLockLostException.class, service::monitorFlowerHealth);
+        } finally {
+            jobLocks.release(lease);
+        }
+
+        verify(flowerRepository, never()).forEachFlowerDueForHealthCheck(any(), any());
+        verify(flowerRepository, never()).advanceHealthChecks(any(), any());
+        verifyNoInteractions(growthRepository);
+    }
+
+    @Test
+    void nothingIsWrittenWhenNoFlowerIsDue() {
+        givenDueFlowers();
+
+        service.monitorFlowerHealth();
+
+        verify(flowerRepository, never()).advanceHealthChecks(any(), any());
+        verifyNoInteractions(growthRepository, maintenanceRepository);
+    }
+
+    private void givenDueFlowers(Flower... flowers) {
+        doAnswer(invocation -> {
+            Consumer<Flower> action = invocation.getArgument(1);
+            for (Flower flower : flowers) {
+                action.accept(flower);
+            }
+            return null;
+        }).when(flowerRepository).forEachFlowerDueForHealthCheck(any(), any());
+    }
+
+    private static Growth growth(GrowthStage stage) {
+        Growth growth = new Growth();
+        growth.setStage(stage);
+        growth.setHeight(30.0);
+        return growth;
+    }
+
+    private static Maintenance openTask(Flower flower, LocalDateTime scheduled) {
+        Maintenance task = new Maintenance();
+        task.setTask_id(10L);
+        task.setFlower(flower);
+        task.setScheduledDate(scheduled);
+        return task;
+    }
+
+    private static Flower flower(long id) {
+        Flower flower = new Flower();
+        flower.setFlower_id(id);
+        flower.setFlowerName("Flower " + id);
+        flower.setUserId(USER_ID);
+        return flower;
+    }
+}
@@ -0,0 +1,156 @@
+package org.example.flowerapp.Services;
+
+import org.example.flowerapp.Models.Enums.GrowthStage;
+import org.example.flowerapp.Models.Enums.MaintenanceType;
+import org.example.flowerapp.Models.Flower;
+import org.example.flowerapp.Models.Growth;
+import org.example.flowerapp.Models.Maintenance;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GardenSnapshotTest {
+
+    private static final LocalDateTime NOW = LocalDateTime.of(2026, 3, 15, 6, 0, 0);
+
+    @Test
+    void matchesObjectRulesForRandomGarden() {
+        Random random = new Random(7);
+        List<Flower> flowers = new ArrayList<>();
+        List<Maintenance> tasks = new ArrayList<>();
+        for (long id = 1; id <= 2_000; id++) {
+            Flower flower = randomFlower(random, id);
+            flowers.add(flower);
+            for (int t = random.nextInt(3); t > 0; t--) {
+                tasks.add(randomTask(random, flower));
+            }
+        }
+
+        GardenSnapshot snapshot = new GardenSnapshot(flowers, Map.of(), tasks, NOW);
+
+        for (int row = 0; row < flowers.size(); row++) {
+            Flower flower = flowers.get(row);
+            List<Maintenance> open = tasks.stream()
+                    .filter(task -> task.getFlower() == flower && !task.isCompleted()).toList();
+            String where = "flower " + flower.getFlower_id();
+
+            assertEquals(isDue(flower, flower.getWaterFrequencyDays(), flower.getLastWateredDate(), true),
+                    snapshot.isDueForTask(row, GardenSnapshot.WATER), where);
+            assertEquals(isDue(flower, flower.getFertilizeFrequencyDays(), flower.getLastFertilizedDate(), false),
+                    snapshot.isDueForTask(row, GardenSnapshot.FERTILIZE), where);
+            assertEquals(isDue(flower, flower.getPruneFrequencyDays(), flower.getLastPrunedDate(), false),
+                    snapshot.isDueForTask(row, GardenSnapshot.PRUNE), where);
+            assertEquals(hasMissedCare(flower, open), snapshot.hasMissedCare(row), where);
+            assertEquals(isAllCareOverdue(flower), snapshot.isAllCareOverdue(row), where);
+            assertEquals(maxOverdueDays(open), snapshot.maxOverdueDays(row), where);
+        }
+    }
+
+    @Test
+    void tracksLatestStageAndItsUpdates() {
+        Flower rose = flower(10L);
+        Flower tulip = flower(20L);
+        Growth budding = new Growth();
+        budding.setStage(GrowthStage.BUDDING);
+        Map<Long, Growth> latest = new HashMap<>();
+        latest.put(10L, budding);
+
+        GardenSnapshot snapshot = new GardenSnapshot(List.of(rose, tulip), latest, List.of(), NOW);
+
+        assertEquals(0, snapshot.rowOf(10L));
+        assertEquals(1, snapshot.rowOf(20L));
+        assertEquals(-1, snapshot.rowOf(15L));
+        assertEquals(GrowthStage.BUDDING, snapshot.stage(0));
+        assertNull(snapshot.stage(1));
+
+        snapshot.setStage(0, GrowthStage.DEAD);
+        assertEquals(GrowthStage.DEAD, snapshot.stage(0));
+    }
+
+    // The Flower-based rules of FlowerMaintenanceScheduler, GrowthAutomationService and FlowerHealthMonitorService
+
+    private static boolean isDue(Flower flower, Integer frequency, LocalDateTime last, boolean dueAtPlanting) {
+        if (frequency == null || !flower.isAutoScheduling()) {
+            return false;
+        }
+        LocalDateTime next = last != null ? last.plusDays(frequency)
+                : dueAtPlanting ? flower.getPlantingDate() : flower.getPlantingDate().plusDays(frequency);
+        return !NOW.isBefore(next);
+    }
+
+    private static boolean hasMissedCare(Flower flower, List<Maintenance> open) {
+        return isOverdue(flower.getWaterFrequencyDays(), flower.getLastWateredDate())
+                || isOverdue(flower.getFertilizeFrequencyDays(), flower.getLastFertilizedDate())
+                || isOverdue(flower.getPruneFrequencyDays(), flower.getLastPrunedDate())
+                || open.stream().anyMatch(task -> task.getDueDate() != null && task.getDueDate().isBefore(NOW));
+    }
+
+    private static boolean isAllCareOverdue(Flower flower) {
+        boolean water = flower.getWaterFrequencyDays() != null && flower.getLastWateredDate() != null;
+        boolean fertilize = flower.getFertilizeFrequencyDays() != null && flower.getLastFertilizedDate() != null;
+        boolean prune = flower.getPruneFrequencyDays() != null && flower.getLastPrunedDate() != null;
+        if (!water && !fertilize && !prune) {
+            return false;
+        }
+        return (!water || isOverdue(flower.getWaterFrequencyDays(), flower.getLastWateredDate()))
+                && (!fertilize || isOverdue(flower.getFertilizeFrequencyDays(), flower.getLastFertilizedDate()))
+                && (!prune || isOverdue(flower.getPruneFrequencyDays(), flower.getLastPrunedDate()));
+    }
+
+    private static boolean isOverdue(Integer frequency, LocalDateTime last) {
+        return frequency != null && last != null && NOW.isAfter(last.plusDays(frequency));
+    }
+
+    private static int maxOverdueDays(List<Maintenance> open) {
+        int max = 0;
+        for (Maintenance task : open) {
+            if (task.getScheduledDate() != null) {
+                max = Math.max(max, (int) Math.max(0, ChronoUnit.DAYS.between(task.getScheduledDate(), NOW)));
+            }
+        }
+        return max;
+    }
+
+    private static Flower randomFlower(Random random, long id) {
+        Flower flower = flower(id);
+        flower.setAutoScheduling(random.nextInt(4) != 0);
+        flower.setPlantingDate(NOW.minusSeconds(random.nextInt(60 * 86_400)));
+        flower.setWaterFrequencyDays(random.nextInt(5) == 0 ? null : 1 + random.nextInt(7));
+        flower.setFertilizeFrequencyDays(random.nextInt(5) == 0 ? null : 7 + random.nextInt(21));
+        flower.setPruneFrequencyDays(random.nextInt(5) == 0 ? null : 14 + random.nextInt(30));
+        flower.setLastWateredDate(randomPast(random, 10));
+        flower.setLastFertilizedDate(randomPast(random, 30));
+        flower.setLastPrunedDate(randomPast(random, 45));
+        return flower;
+    }
+
+    private static Maintenance randomTask(Random random, Flower flower) {
+        Maintenance task = new Maintenance();
+        task.setFlower(flower);
+        task.setTaskType(MaintenanceType.WATERING);
+        task.setCompleted(random.nextInt(4) == 0);
+        task.setScheduledDate(randomPast(random, 10));
+        task.setDueDate(random.nextBoolean() ? null : NOW.plusSeconds(random.nextInt(10 * 86_400) - 5 * 86_400));
+        return task;
+    }
+
+    // Null one time in four, otherwise up to the given number of days back, to the second
+    private static LocalDateTime randomPast(Random random, int days) {
+        return random.nextInt(4) == 0 ? null : NOW.minusSeconds(random.nextInt(days * 86_400));
+    }
+
+    private static Flower flower(long id) {
+        Flower flower = new Flower();
+        flower.setFlower_id(id);
+        flower.setFlowerName("Flower " + id);
+        return flower;
+    }
+}
@@ -0,0 +1,163 @@
+package org.example.flowerapp.Services;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.example.flowerapp.Models.Enums.MaintenanceType;
+import org.example.flowerapp.Models.Flower;
+import org.example.flowerapp.Models.Maintenance;
+import org.example.flowerapp.Repository.FlowerRepository;
+import org.example.flowerapp.Repository.GrowthRepository;
+import org.example.flowerapp.Repository.MaintenanceRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BiConsumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class GardenTickTest {
+
+    private static final String EVERY_SECOND = "* * * * * *";
+
+    @Mock
+    private FlowerRepository flowerRepository;
+
+    @Mock
+    private GrowthRepository growthRepository;
+
+    @Mock
+    private MaintenanceRepository maintenanceRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private Flower rose;
+    private Flower tulip;
+    private Flower lily;
+
+    @BeforeEach
+    void setUp() {
+        rose = flower(1L, "Rose");
+        tulip = flower(2L, "Tulip");
+        lily = flower(3L, "Lily");
+    }
+
+    @Test
+    void loadsStateOncePerChunkAndRunsEveryStageOverEachFlower() {
+        givenFlowerPages();
+        List<String> visits = new ArrayList<>();
+        GardenTick tick = tick(
+                stage("first", EVERY_SECOND, (state, effects) -> visits.add("first:" + state.flower().getFlowerName())),
+                stage("second", EVERY_SECOND, (state, effects) -> visits.add("second:" + state.flower().getFlowerName())));
+
+        tick.tick();
+
+        assertEquals(List.of("first:Rose", "second:Rose", "first:Tulip", "second:Tulip",
+                "first:Lily", "second:Lily"), visits);
+        verify(growthRepository, times(2)).findLatestByFlowers(anyMap());
+        verify(maintenanceRepository, times(2)).findIncompleteOrScheduledBetweenByFlowers(anyMap(), any(), any());
+    }
+
+    @Test
+    void taskQueuedByOneStageIsOpenForTheNextAndSavedInOneBatch() {
+        givenFlowerPages();
+        List<Boolean> seenOpen = new ArrayList<>();
+        GardenTick tick = tick(
+                stage("pests", EVERY_SECOND, (state, effects) -> effects.addTask(state, pestTask(state.flower()))),
+                stage("health", EVERY_SECOND, (state, effects) -> seenOpen.add(state.hasOpenTask(MaintenanceType.PEST_CONTROL))));
+
+        tick.tick();
+
+        assertEquals(List.of(true, true, true), seenOpen);
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<Collection<Maintenance>> saved = ArgumentCaptor.forClass(Collection.class);
+        verify(maintenanceRepository, times(2)).saveAll(saved.capture());
+        assertEquals(2, saved.getAllValues().get(0).size());
+        assertEquals(1, saved.getAllValues().get(1).size());
+    }
+
+    @Test
+    void disabledStageIsSkippedAndNothingIsLoadedWhenNoStageIsDue() {
+        List<String> visits = new ArrayList<>();
+        GardenTick tick = tick(stage("off", "-", (state, effects) -> visits.add(state.flower().getFlowerName())));
+
+        tick.tick();
+
+        assertTrue(visits.isEmpty());
+        verifyNoInteractions(flowerRepository, growthRepository, maintenanceRepository);
+    }
+
+    @Test
+    void doesNothingWhileDisabled() {
+        GardenTick tick = tick(stage("any", EVERY_SECOND, (state, effects) -> fail("stage must not run")));
+        ReflectionTestUtils.setField(tick, "enabled", false);
+
+        tick.tick();
+
+        verifyNoInteractions(flowerRepository, growthRepository, maintenanceRepository);
+    }
+
+    private void givenFlowerPages() {
+        when(flowerRepository.findPage(0L, 2)).thenReturn(List.of(rose, tulip));
+        when(flowerRepository.findPage(2L, 2)).thenReturn(List.of(lily));
+        when(growthRepository.findLatestByFlowers(anyMap())).thenReturn(Map.of());
+        when(maintenanceRepository.findIncompleteOrScheduledBetweenByFlowers(anyMap(), any(), any()))
+                .thenReturn(List.of());
+    }
+
+    private GardenTick tick(GardenStage... stages) {
+        GardenTick tick = new GardenTick(flowerRepository, growthRepository, maintenanceRepository,
+                List.of(stages), transactionManager, new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(tick, "enabled", true);
+        ReflectionTestUtils.setField(tick, "batchSize", 2);
+        return tick;
+    }
+
+    private static GardenStage stage(String name, String cron, BiConsumer<GardenState, GardenEffects> rule) {
+        return new GardenStage() {
+            @Override
+            public String name() {
+                return name;
+            }
+
+            @Override
+            public String cron() {
+                return cron;
+            }
+
+            @Override
+            public void apply(GardenState state, GardenEffects effects, LocalDateTime now) {
+                rule.accept(state, effects);
+            }
+        };
+    }
+
+    private static Maintenance pestTask(Flower flower) {
+        Maintenance task = new Maintenance();
+        task.setFlower(flower);
+        task.setTaskType(MaintenanceType.PEST_CONTROL);
+        task.setScheduledDate(LocalDateTime.now());
+        return task;
+    }
+
+    private static Flower flower(long id, String name) {
+        Flower flower = new Flower();
+        flower.setFlower_id(id);
+        flower.setFlowerName(name);
+        flower.setUserId("123e4567-e89b-12d3-a456-426614174000");
+        return flower;
+    }
+}
@@ -0,0 +1,69 @@
+package org.example.flowerapp.Services;
+
+import org.example.flowerapp.Models.Enums.GrowthStage;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GrowthForecastKernelTest {
+
+    private static final byte SEED = (byte) GrowthStage.SEED.ordinal();
+    private static final byte SEEDLING = (byte) GrowthStage.SEEDLING.ordinal();
+    private static final byte BUDDING = (byte) GrowthStage.BUDDING.ordinal();
+    private static final byte BLOOMING = (byte) GrowthStage.BLOOMING.ordinal();
+    private static final byte WILTING = (byte) GrowthStage.WILTING.ordinal();
+    private static final byte DEAD = (byte) GrowthStage.DEAD.ordinal();
+
+    @Test
+    void growsByRatePercentOfMaxHeightUntilCappedAndMovesThroughStages() {
+        int weeks = 6;
+        double[] height = new double[weeks];
+        byte[] stage = new byte[weeks];
+
+        // 25% of 100 cm per week from a 0 cm seed
+        GrowthForecastKernel.project(1, weeks, new double[]{0}, new double[]{100}, new double[]{25},
+                new byte[]{SEED}, height, stage);
+
+        assertArrayEquals(new double[]{25, 50, 75, 100, 100, 100}, height, 1e-9);
+        assertArrayEquals(new byte[]{SEEDLING, BUDDING, BUDDING, BLOOMING, BLOOMING, BLOOMING}, stage);
+    }
+
+    @Test
+    void projectsEachRowIntoItsOwnSlice() {
+        int weeks = 2;
+        double[] height = new double[3 * weeks];
+        byte[] stage = new byte[3 * weeks];
+
+        GrowthForecastKernel.project(3, weeks,
+                new double[]{10, 10, 10},
+                new double[]{100, 100, 100},
+                new double[]{10, 10, 10},
+                new byte[]{SEED, WILTING, DEAD},
+                height, stage);
+
+        assertArrayEquals(new double[]{20, 30, 20, 30, 10, 10}, height, 1e-9);
+        assertArrayEquals(new byte[]{SEEDLING, SEEDLING, WILTING, WILTING, DEAD, DEAD}, stage);
+    }
+
+    @Test
+    void flowerWithoutMaxHeightOrRateKeepsItsHeightAndStage() {
+        double[] height = new double[4];
+        byte[] stage = new byte[4];
+
+        GrowthForecastKernel.project(2, 2, new double[]{5, 5}, new double[]{0, 50}, new double[]{10, 0},
+                new byte[]{BUDDING, BUDDING}, height, stage);
+
+        assertArrayEquals(new double[]{5, 5, 5, 5}, height, 1e-9);
+        assertArrayEquals(new byte[]{BUDDING, BUDDING, BUDDING, BUDDING}, stage);
+    }
+
+    @Test
+    void stageThresholdsMatchTheWeeklyGrowthJob() {
+        assertEquals(GrowthStage.SEED, GrowthForecastKernel.stageFor(19.9, 100, GrowthStage.SEED));
+        assertEquals(GrowthStage.SEEDLING, GrowthForecastKernel.stageFor(20, 100, GrowthStage.SEED));
+        assertEquals(GrowthStage.BUDDING, GrowthForecastKernel.stageFor(40, 100, GrowthStage.SEEDLING));
+        assertEquals(GrowthStage.BLOOMING, GrowthForecastKernel.stageFor(80, 100, GrowthStage.BUDDING));
+        assertEquals(GrowthStage.WILTING, GrowthForecastKernel.stageFor(90, 100, GrowthStage.WILTING));
+        assertEquals(GrowthStage.SEED, GrowthForecastKernel.stageFor(10, 100, null));
+    }
+}
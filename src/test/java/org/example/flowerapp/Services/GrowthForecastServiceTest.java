@@ -0,0 +1,106 @@
+package org.example.flowerapp.Services;
+
+import org.example.flowerapp.DTO.GrowthForecastDTO;
+import org.example.flowerapp.DTO.GrowthStageChangeDTO;
+import org.example.flowerapp.Exceptions.ValidationExceptions.InvalidGrowthDataException;
+import org.example.flowerapp.Models.Enums.GrowthStage;
+import org.example.flowerapp.Models.Flower;
+import org.example.flowerapp.Models.Growth;
+import org.example.flowerapp.Repository.FlowerRepository;
+import org.example.flowerapp.Repository.GrowthRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class GrowthForecastServiceTest {
+
+    private static final String USER_ID = "123e4567-e89b-12d3-a456-426614174000";
+    private static final LocalDateTime RECORDED = LocalDateTime.of(2026, 3, 1, 2, 0);
+
+    @Mock
+    private FlowerRepository flowerRepository;
+
+    @Mock
+    private GrowthRepository growthRepository;
+
+    @InjectMocks
+    private GrowthForecastService growthForecastService;
+
+    private Flower rose;
+    private Growth roseGrowth;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(growthForecastService, "maxWeeks", 104);
+        ReflectionTestUtils.setField(growthForecastService, "cacheSize", 100);
+
+        rose = new Flower();
+        rose.setFlower_id(1L);
+        rose.setUserId(USER_ID);
+        rose.setMaxHeight(100.0);
+        rose.setGrowthRate(25.0);
+
+        roseGrowth = new Growth();
+        roseGrowth.setGrowth_id(10L);
+        roseGrowth.setFlower(rose);
+        roseGrowth.setHeight(0.0);
+        roseGrowth.setStage(GrowthStage.SEED);
+        roseGrowth.setRecordedAt(RECORDED);
+    }
+
+    @Test
+    void projectsWeeklyPointsFromTheLatestGrowthRecord() {
+        when(flowerRepository.findByFlowerIdAndUserId(1L, USER_ID)).thenReturn(rose);
+        when(growthRepository.findLatestByFlowers(anyMap())).thenReturn(Map.of(1L, roseGrowth));
+
+        GrowthForecastDTO forecast = growthForecastService.getForecast(1L, USER_ID, 4);
+
+        assertEquals(RECORDED, forecast.from());
+        assertEquals(4, forecast.points().size());
+        assertEquals(RECORDED.plusWeeks(4), forecast.points().get(3).at());
+        assertEquals(100.0, forecast.points().get(3).height(), 1e-9);
+        assertEquals(List.of(
+                new GrowthStageChangeDTO(GrowthStage.SEEDLING, RECORDED.plusWeeks(1)),
+                new GrowthStageChangeDTO(GrowthStage.BUDDING, RECORDED.plusWeeks(2)),
+                new GrowthStageChangeDTO(GrowthStage.BLOOMING, RECORDED.plusWeeks(4))), forecast.stageChanges());
+    }
+
+    @Test
+    void reusesCachedForecastUntilTheFlowerOrItsGrowthChanges() {
+        when(flowerRepository.findAllFlowerByUserId(USER_ID)).thenReturn(List.of(rose));
+        when(growthRepository.findLatestByFlowers(anyMap())).thenReturn(Map.of(1L, roseGrowth));
+
+        GrowthForecastDTO first = growthForecastService.getGardenForecast(USER_ID, 4).get(0);
+        assertSame(first, growthForecastService.getGardenForecast(USER_ID, 4).get(0));
+
+        rose.setVersion(1L);
+        GrowthForecastDTO afterCare = growthForecastService.getGardenForecast(USER_ID, 4).get(0);
+        assertNotSame(first, afterCare);
+
+        roseGrowth.setVersion(1L);
+        roseGrowth.setHeight(50.0);
+        GrowthForecastDTO afterGrowth = growthForecastService.getGardenForecast(USER_ID, 4).get(0);
+        assertNotSame(afterCare, afterGrowth);
+        assertEquals(75.0, afterGrowth.points().get(0).height(), 1e-9);
+    }
+
+    @Test
+    void rejectsWeeksOutsideTheConfiguredRange() {
+        assertThrows(InvalidGrowthDataException.class, () -> growthForecastService.getGardenForecast(USER_ID, 0));
+        assertThrows(InvalidGrowthDataException.class, () -> growthForecastService.getGardenForecast(USER_ID, 105));
+        verifyNoInteractions(flowerRepository, growthRepository);
+    }
+}
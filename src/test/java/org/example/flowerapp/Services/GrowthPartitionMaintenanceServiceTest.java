@@ -0,0 +1,36 @@
+package org.example.flowerapp.Services;
+
+import org.example.flowerapp.Configurations.JobLockConfig;
+import org.example.flowerapp.Configurations.JobLocks;
+import org.example.flowerapp.Repository.GrowthPartitionRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.aop.config.AopConfigUtils;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+
+import java.util.Optional;
+
+import static org.mockito.Mockito.*;
+
+class GrowthPartitionMaintenanceServiceTest {
+
+    @Test
+    void startupRunGoesThroughTheLeaseAndSkipsWhileAnotherNodeHoldsIt() {
+        JobLocks jobLocks = mock(JobLocks.class);
+        when(jobLocks.isEnabled()).thenReturn(true);
+        when(jobLocks.tryAcquire("growth-partitions")).thenReturn(Optional.empty());
+        GrowthPartitionRepository partitionRepository = mock(GrowthPartitionRepository.class);
+
+        try (AnnotationConfigApplicationContext context = new AnnotationConfigApplicationContext()) {
+            AopConfigUtils.registerAutoProxyCreatorIfNecessary(context);
+            context.registerBean(JobLocks.class, () -> jobLocks);
+            context.registerBean(GrowthPartitionRepository.class, () -> partitionRepository);
+            context.register(JobLockConfig.class, GrowthPartitionMaintenanceService.class);
+            context.refresh();
+
+            context.getBean(GrowthPartitionMaintenanceService.class).onStartup();
+        }
+
+        verify(jobLocks).tryAcquire("growth-partitions");
+        verifyNoInteractions(partitionRepository);
+    }
+}
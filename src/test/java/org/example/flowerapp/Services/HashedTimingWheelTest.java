@@ -0,0 +1,70 @@
+package org.example.flowerapp.Services;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HashedTimingWheelTest {
+
+    private static final long TICK = 1000;
+
+    @Test
+    void expiresKeysOnceTheirTickIsReached() {
+        HashedTimingWheel wheel = new HashedTimingWheel(TICK, 8, 0);
+        wheel.schedule(1L, 2_500);
+        wheel.schedule(2L, 4_000);
+
+        assertEquals(List.of(), wheel.advance(1_999));
+        assertEquals(List.of(1L), wheel.advance(2_000));
+        assertEquals(List.of(2L), wheel.advance(4_999));
+        assertEquals(0, wheel.size());
+    }
+
+    @Test
+    void deadlinesBeyondOneRevolutionWaitForTheirOwnTick() {
+        HashedTimingWheel wheel = new HashedTimingWheel(TICK, 8, 0);
+        // Same slot as tick 3, two revolutions later
+        wheel.schedule(1L, 19_000);
+
+        assertEquals(List.of(), wheel.advance(3_000));
+        assertEquals(List.of(), wheel.advance(11_000));
+        assertEquals(List.of(1L), wheel.advance(19_000));
+    }
+
+    @Test
+    void longGapVisitsEverySlotOnce() {
+        HashedTimingWheel wheel = new HashedTimingWheel(TICK, 8, 0);
+        for (long key = 0; key < 8; key++) {
+            wheel.schedule(key, key * TICK + 500);
+        }
+        wheel.schedule(100L, 1_000_000);
+
+        List<Long> expired = wheel.advance(50_000);
+
+        assertEquals(8, expired.size());
+        assertTrue(wheel.contains(100L));
+    }
+
+    @Test
+    void reschedulingReplacesAndCancellingRemovesTheDeadline() {
+        HashedTimingWheel wheel = new HashedTimingWheel(TICK, 8, 0);
+        wheel.schedule(1L, 2_000);
+        wheel.schedule(1L, 6_000);
+        wheel.schedule(2L, 2_000);
+        assertTrue(wheel.cancel(2L));
+        assertFalse(wheel.cancel(2L));
+
+        assertEquals(List.of(), wheel.advance(5_000));
+        assertEquals(List.of(1L), wheel.advance(6_000));
+    }
+
+    @Test
+    void pastDeadlineExpiresOnTheNextAdvance() {
+        HashedTimingWheel wheel = new HashedTimingWheel(TICK, 8, 10_000);
+        wheel.schedule(1L, 0);
+
+        assertEquals(List.of(1L), wheel.advance(10_000));
+    }
+}
@@ -0,0 +1,78 @@
+package org.example.flowerapp.Services;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class HealthReevaluationQueueTest {
+
+    @Mock
+    private FlowerHealthMonitorService healthMonitorService;
+
+    private HealthReevaluationQueue queue;
+
+    @BeforeEach
+    void setUp() {
+        queue = new HealthReevaluationQueue(healthMonitorService);
+        ReflectionTestUtils.setField(queue, "enabled", true);
+        ReflectionTestUtils.setField(queue, "windowMillis", 0L);
+        ReflectionTestUtils.setField(queue, "batchSize", 2);
+    }
+
+    @Test
+    void repeatedEventsForAFlowerAreCheckedOnce() {
+        queue.onFlowerDirty(new FlowerDirtyEvent(1L));
+        queue.onFlowerDirty(new FlowerDirtyEvent(1L));
+        queue.onFlowerDirty(new FlowerDirtyEvent(2L));
+        queue.onFlowerDirty(new FlowerDirtyEvent(1L));
+        assertEquals(2, queue.size());
+
+        queue.drain();
+
+        verify(healthMonitorService).reevaluate(argThat(ids -> ids.size() == 2 && ids.containsAll(List.of(1L, 2L))));
+        assertEquals(0, queue.size());
+    }
+
+    @Test
+    void flowersWaitUntilTheirFirstEventIsAWindowOld() {
+        ReflectionTestUtils.setField(queue, "windowMillis", 60_000L);
+        queue.onFlowerDirty(new FlowerDirtyEvent(1L));
+
+        queue.drain();
+
+        verifyNoInteractions(healthMonitorService);
+        assertEquals(1, queue.size());
+    }
+
+    @Test
+    void dirtyFlowersAreCheckedInBatches() {
+        for (long id = 1; id <= 5; id++) {
+            queue.onFlowerDirty(new FlowerDirtyEvent(id));
+        }
+
+        queue.drain();
+
+        verify(healthMonitorService, times(3)).reevaluate(anyCollection());
+    }
+
+    @Test
+    void eventsAreIgnoredWhileDisabled() {
+        ReflectionTestUtils.setField(queue, "enabled", false);
+        queue.onFlowerDirty(new FlowerDirtyEvent(1L));
+
+        queue.drain();
+
+        assertEquals(0, queue.size());
+        verifyNoInteractions(healthMonitorService);
+    }
+}
@@ -0,0 +1,105 @@
+package org.example.flowerapp.Services;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.example.flowerapp.Configurations.JobLocks;
+import org.example.flowerapp.Repository.JobWorkItemRepository;
+import org.example.flowerapp.Repository.JobWorkItemRepository.Item;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class JobWorkQueueTest {
+
+    private static final LocalDateTime RUN_AT = LocalDateTime.of(2026, 3, 15, 10, 0);
+
+    @Mock
+    private JobWorkItemRepository workItemRepository;
+
+    @Mock
+    private ObjectProvider<JobWorkHandler> handlerProvider;
+
+    @Mock
+    private JobLocks jobLocks;
+
+    @Mock
+    private JobWorkHandler healthMonitor;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private JobWorkQueue queue;
+
+    @BeforeEach
+    void setUp() {
+        queue = new JobWorkQueue(workItemRepository, handlerProvider, jobLocks, meterRegistry, 1);
+        ReflectionTestUtils.setField(queue, "maxAttempts", 3);
+        ReflectionTestUtils.setField(queue, "claimTimeoutMillis", 60_000L);
+        when(handlerProvider.orderedStream()).thenAnswer(invocation -> Stream.of(healthMonitor));
+        when(healthMonitor.name()).thenReturn("health-monitor");
+        when(jobLocks.getOwner()).thenReturn("node-a:42");
+    }
+
+    @AfterEach
+    void tearDown() {
+        queue.shutdown();
+    }
+
+    @Test
+    void claimsChunksUntilTheQueueIsEmptyAndAcknowledgesEach() {
+        Item first = item(1L, 1, 500, 1);
+        Item second = item(2L, 501, 1000, 1);
+        when(workItemRepository.claim(eq(Set.of("health-monitor")), startsWith("node-a:42/"), any(), eq(3)))
+                .thenReturn(Optional.of(first), Optional.of(second), Optional.empty());
+        when(workItemRepository.acknowledge(any(), anyString())).thenReturn(true);
+
+        assertEquals(2, queue.drain());
+
+        verify(healthMonitor).processChunk(1, 500, RUN_AT);
+        verify(healthMonitor).processChunk(501, 1000, RUN_AT);
+        verify(workItemRepository).acknowledge(eq(first), anyString());
+        verify(workItemRepository).acknowledge(eq(second), anyString());
+        assertEquals(2.0, meterRegistry.get("jobs.work_queue.chunks").tag("outcome", "done").counter().count());
+    }
+
+    @Test
+    void failedChunkGoesBackToTheQueueUnacknowledged() {
+        Item chunk = item(1L, 1, 500, 1);
+        when(workItemRepository.claim(any(), anyString(), any(), anyInt()))
+                .thenReturn(Optional.of(chunk), Optional.empty());
+        when(healthMonitor.processChunk(anyLong(), anyLong(), any())).thenThrow(new IllegalStateException("boom"));
+
+        queue.drain();
+
+        verify(workItemRepository).fail(eq(chunk), anyString(), eq("boom"), eq(3));
+        verify(workItemRepository, never()).acknowledge(any(), anyString());
+        assertEquals(1.0, meterRegistry.get("jobs.work_queue.chunks").tag("outcome", "retried").counter().count());
+    }
+
+    @Test
+    void chunkOnItsLastAttemptIsCountedAsFailed() {
+        when(workItemRepository.claim(any(), anyString(), any(), anyInt()))
+                .thenReturn(Optional.of(item(1L, 1, 500, 3)), Optional.empty());
+        when(healthMonitor.processChunk(anyLong(), anyLong(), any())).thenThrow(new IllegalStateException("boom"));
+
+        queue.drain();
+
+        assertEquals(1.0, meterRegistry.get("jobs.work_queue.chunks").tag("outcome", "failed").counter().count());
+    }
+
+    private static Item item(long id, long first, long last, int attempt) {
+        return new Item(id, "health-monitor", first, last, RUN_AT, attempt);
+    }
+}
@@ -0,0 +1,133 @@
+package org.example.flowerapp.Services;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LttbDownsamplerTest {
+
+    @Test
+    void keepsEveryPointWhenSeriesIsShorterThanThreshold() {
+        LttbDownsampler downsampler = new LttbDownsampler(5, 200);
+        for (int i = 0; i < 5; i++) {
+            downsampler.add(i * 1000L, i * 2.0, i);
+        }
+
+        LttbDownsampler.Series series = downsampler.finish();
+
+        assertEquals(5, series.size());
+        assertArrayEquals(new long[]{0, 1000, 2000, 3000, 4000}, series.x());
+        assertArrayEquals(new int[]{0, 1, 2, 3, 4}, series.tags());
+    }
+
+    @Test
+    void reducesToThresholdKeepingFirstAndLastPoints() {
+        int total = 10_000;
+        LttbDownsampler downsampler = new LttbDownsampler(total, 200);
+        for (int i = 0; i < total; i++) {
+            downsampler.add(i, Math.sin(i / 50.0), i);
+        }
+
+        LttbDownsampler.Series series = downsampler.finish();
+
+        assertEquals(200, series.size());
+        assertEquals(0, series.x()[0]);
+        assertEquals(total - 1, series.x()[series.size() - 1]);
+        for (int i = 1; i < series.size(); i++) {
+            assertTrue(series.x()[i] > series.x()[i - 1], "points must stay in order");
+        }
+    }
+
+    @Test
+    void preservesIsolatedSpike() {
+        int total = 1_000;
+        LttbDownsampler downsampler = new LttbDownsampler(total, 20);
+        for (int i = 0; i < total; i++) {
+            downsampler.add(i, i == 537 ? 100.0 : 1.0, 0);
+        }
+
+        LttbDownsampler.Series series = downsampler.finish();
+
+        boolean spikeKept = false;
+        for (int i = 0; i < series.size(); i++) {
+            spikeKept |= series.x()[i] == 537 && series.y()[i] == 100.0;
+        }
+        assertTrue(spikeKept);
+    }
+
+    @Test
+    void matchesReferenceImplementation() {
+        Random random = new Random(42);
+        int total = 5_003;
+        int threshold = 137;
+        long[] x = new long[total];
+        double[] y = new double[total];
+        long time = 1_700_000_000_000L;
+        for (int i = 0; i < total; i++) {
+            time += 1 + random.nextInt(3_600_000);
+            x[i] = time;
+            y[i] = random.nextGaussian() * 10 + i * 0.01;
+        }
+
+        LttbDownsampler downsampler = new LttbDownsampler(total, threshold);
+        for (int i = 0; i < total; i++) {
+            downsampler.add(x[i], y[i], i);
+        }
+
+        assertArrayEquals(referenceLttb(x, y, threshold), downsampler.finish().tags());
+    }
+
+    @Test
+    void endsSeriesOnLastPointWhenFewerRowsArriveThanAnnounced() {
+        LttbDownsampler downsampler = new LttbDownsampler(1_000, 10);
+        for (int i = 0; i < 600; i++) {
+            downsampler.add(i, i, i);
+        }
+
+        LttbDownsampler.Series series = downsampler.finish();
+
+        assertEquals(599, series.x()[series.size() - 1]);
+        assertTrue(series.size() <= 10);
+    }
+
+    // Textbook array-based LTTB, returning the selected indices
+    private static int[] referenceLttb(long[] x, double[] y, int threshold) {
+        int n = x.length;
+        int[] selected = new int[threshold];
+        double every = (double) (n - 2) / (threshold - 2);
+        int a = 0;
+        selected[0] = 0;
+
+        for (int i = 0; i < threshold - 2; i++) {
+            int avgStart = (int) Math.floor((i + 1) * every) + 1;
+            int avgEnd = Math.min((int) Math.floor((i + 2) * every) + 1, n);
+            double avgX = 0;
+            double avgY = 0;
+            for (int j = avgStart; j < avgEnd; j++) {
+                avgX += x[j] - x[0];
+                avgY += y[j];
+            }
+            avgX /= avgEnd - avgStart;
+            avgY /= avgEnd - avgStart;
+
+            int rangeStart = (int) Math.floor(i * every) + 1;
+            int rangeEnd = (int) Math.floor((i + 1) * every) + 1;
+            double ax = x[a] - x[0];
+            double maxArea = -1;
+            int next = rangeStart;
+            for (int j = rangeStart; j < rangeEnd; j++) {
+                double area = Math.abs((ax - avgX) * (y[j] - y[a]) - (ax - (x[j] - x[0])) * (avgY - y[a]));
+                if (area > maxArea) {
+                    maxArea = area;
+                    next = j;
+                }
+            }
+            selected[i + 1] = next;
+            a = next;
+        }
+        selected[threshold - 1] = n - 1;
+        return selected;
+    }
+}
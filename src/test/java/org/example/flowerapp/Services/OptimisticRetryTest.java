@@ -0,0 +1,48 @@
+package org.example.flowerapp.Services;
+
+import org.example.flowerapp.Exceptions.BusinessLogicExceptions.VersionConflictException;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OptimisticRetryTest {
+
+    @Test
+    void retriesUntilTheStepStopsConflicting() {
+        AtomicInteger attempts = new AtomicInteger();
+
+        String result = OptimisticRetry.run(3, "flower 1", () -> {
+            if (attempts.incrementAndGet() < 3) {
+                throw new VersionConflictException("Growth record", 1L);
+            }
+            return "written";
+        });
+
+        assertEquals("written", result);
+        assertEquals(3, attempts.get());
+    }
+
+    @Test
+    void rethrowsConflictOnceAttemptsAreUsedUp() {
+        AtomicInteger attempts = new AtomicInteger();
+
+        assertThrows(VersionConflictException.class, () -> OptimisticRetry.run(2, "flower 1", () -> {
+            attempts.incrementAndGet();
+            throw new VersionConflictException("Growth record", 1L);
+        }));
+        assertEquals(2, attempts.get());
+    }
+
+    @Test
+    void doesNotRetryOtherFailures() {
+        AtomicInteger attempts = new AtomicInteger();
+
+        assertThrows(IllegalStateException.class, () -> OptimisticRetry.run(3, "flower 1", () -> {
+            attempts.incrementAndGet();
+            throw new IllegalStateException("boom");
+        }));
+        assertEquals(1, attempts.get());
+    }
+}
@@ -7,14 +7,18 @@ import org.example.flowerapp.Repository.MaintenanceRepository;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
 import java.time.LocalDateTime;
 import java.util.Arrays;
+import java.util.Collection;
 import java.util.List;
+import java.util.function.Consumer;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.mockito.ArgumentMatchers.*;
 import static org.mockito.Mockito.*;
 
@@ -47,7 +51,7 @@ class TaskSchedulerTest {
         testFlower.setWaterFrequencyDays(2);
         testFlower.setLastWateredDate(LocalDateTime.now().minusDays(3)); // 3 days ago
 
-        when(flowerRepository.findAllFlower()).thenReturn(List.of(testFlower));
+        givenFlowers(List.of(testFlower));
         when(maintenanceRepository.existsByFlowerAndTypeAndDateRange(anyLong(), any(), any(), any(), anyString()))
                 .thenReturn(false);
 
@@ -55,7 +59,7 @@ class TaskSchedulerTest {
         flowerMaintenanceScheduler.scheduleMaintenanceTasks();
 
         // Then
-        verify(maintenanceRepository, times(1)).save(any(Maintenance.class));
+        assertEquals(1, savedTasks().size());
     }
 
     @Test
@@ -64,13 +68,13 @@ class TaskSchedulerTest {
         testFlower.setWaterFrequencyDays(2);
         testFlower.setLastWateredDate(LocalDateTime.now().minusDays(1)); // Only 1 day ago
 
-        when(flowerRepository.findAllFlower()).thenReturn(List.of(testFlower));
+        givenFlowers(List.of(testFlower));
 
         // When
         flowerMaintenanceScheduler.scheduleMaintenanceTasks();
 
         // Then
-        verify(maintenanceRepository, never()).save(any(Maintenance.class));
+        verify(maintenanceRepository, never()).saveAll(any());
     }
 
     @Test
@@ -80,13 +84,13 @@ class TaskSchedulerTest {
         testFlower.setWaterFrequencyDays(2);
         testFlower.setLastWateredDate(LocalDateTime.now().minusDays(3));
 
-        when(flowerRepository.findAllFlower()).thenReturn(List.of(testFlower));
+        givenFlowers(List.of(testFlower));
 
         // When
         flowerMaintenanceScheduler.scheduleMaintenanceTasks();
 
         // Then
-        verify(maintenanceRepository, never()).save(any(Maintenance.class));
+        verify(maintenanceRepository, never()).saveAll(any());
     }
 
     @Test
@@ -95,7 +99,7 @@ class TaskSchedulerTest {
         testFlower.setWaterFrequencyDays(2);
         testFlower.setLastWateredDate(LocalDateTime.now().minusDays(3));
 
-        when(flowerRepository.findAllFlower()).thenReturn(List.of(testFlower));
+        givenFlowers(List.of(testFlower));
         when(maintenanceRepository.existsByFlowerAndTypeAndDateRange(anyLong(), any(), any(), any(), anyString()))
                 .thenReturn(true); // Task already exists
 
@@ -103,7 +107,7 @@ class TaskSchedulerTest {
         flowerMaintenanceScheduler.scheduleMaintenanceTasks();
 
         // Then
-        verify(maintenanceRepository, never()).save(any(Maintenance.class));
+        verify(maintenanceRepository, never()).saveAll(any());
     }
 
     @Test
@@ -111,13 +115,13 @@ class TaskSchedulerTest {
         // Given
         testFlower.setWaterFrequencyDays(null); // No frequency set
 
-        when(flowerRepository.findAllFlower()).thenReturn(List.of(testFlower));
+        givenFlowers(List.of(testFlower));
 
         // When
         flowerMaintenanceScheduler.scheduleMaintenanceTasks();
 
         // Then
-        verify(maintenanceRepository, never()).save(any(Maintenance.class));
+        verify(maintenanceRepository, never()).saveAll(any());
     }
 
     @Test
@@ -126,7 +130,7 @@ class TaskSchedulerTest {
         Flower rose = createFlowerWithWateringDue("Rose");
         Flower tulip = createFlowerWithWateringDue("Tulip");
 
-        when(flowerRepository.findAllFlower()).thenReturn(Arrays.asList(rose, tulip));
+        givenFlowers(Arrays.asList(rose, tulip));
         when(maintenanceRepository.existsByFlowerAndTypeAndDateRange(anyLong(), any(), any(), any(), anyString()))
                 .thenReturn(false);
 
@@ -134,7 +138,7 @@ class TaskSchedulerTest {
         flowerMaintenanceScheduler.scheduleMaintenanceTasks();
 
         // Then
-        verify(maintenanceRepository, times(2)).save(any(Maintenance.class));
+        assertEquals(2, savedTasks().size());
     }
 
     @Test
@@ -145,7 +149,7 @@ class TaskSchedulerTest {
         testFlower.setFertilizeFrequencyDays(14);
         testFlower.setLastFertilizedDate(LocalDateTime.now().minusDays(15));
 
-        when(flowerRepository.findAllFlower()).thenReturn(List.of(testFlower));
+        givenFlowers(List.of(testFlower));
         when(maintenanceRepository.existsByFlowerAndTypeAndDateRange(anyLong(), any(), any(), any(), anyString()))
                 .thenReturn(false);
 
@@ -153,7 +157,22 @@ class TaskSchedulerTest {
         flowerMaintenanceScheduler.scheduleMaintenanceTasks();
 
         // Then
-        verify(maintenanceRepository, times(2)).save(any(Maintenance.class));
+        assertEquals(2, savedTasks().size());
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<Maintenance> savedTasks() {
+        ArgumentCaptor<Collection<Maintenance>> captor = ArgumentCaptor.forClass(Collection.class);
+        verify(maintenanceRepository, atLeastOnce()).saveAll(captor.capture());
+        return captor.getAllValues().stream().flatMap(Collection::stream).toList();
+    }
+
+    private void givenFlowers(List<Flower> flowers) {
+        doAnswer(invocation -> {
+            Consumer<Flower> action = invocation.getArgument(0);
+            flowers.forEach(action);
+            return null;
+        }).when(flowerRepository).forEachFlower(any());
     }
 
     private Flower createFlowerWithWateringDue(String name) {